@@ -0,0 +1,63 @@
+package com.ltl.ltl.controller;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ltl.ltl.ltl.web.dto.ModelCheckRequestDto;
+import com.ltl.ltl.service.syntax.ParseException;
+
+@RestController
+@RequestMapping("/api/modelcheck")
+public class ModelCheckController {
+
+    private final ModelCheckService modelCheckService;
+
+    public ModelCheckController(ModelCheckService modelCheckService) {
+        this.modelCheckService = modelCheckService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> check(@RequestBody ModelCheckRequestDto request) {
+        try {
+            return ResponseEntity.ok(modelCheckService.check(request));
+        } catch (ParseException | IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    /** Checks the structure with a swarm of diversified searches, see {@code SwarmModelChecker}. */
+    @PostMapping("/swarm")
+    public ResponseEntity<?> swarm(@RequestBody ModelCheckRequestDto request) {
+        try {
+            return ResponseEntity.ok(modelCheckService.swarm(request));
+        } catch (ParseException | IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    /** Checks a model file in the binary format from the configured model directory. */
+    @GetMapping("/file")
+    public ResponseEntity<?> checkFile(@RequestParam("model") String model,
+            @RequestParam("formula") String formula,
+            @RequestParam(value = "maxStates", required = false) Long maxStates,
+            @RequestParam(value = "timeoutMs", required = false) Long timeoutMs,
+            @RequestParam(value = "bitstateMegabytes", required = false) Integer bitstateMegabytes,
+            @RequestParam(value = "bitstateHashes", required = false) Integer bitstateHashes) {
+        try {
+            return ResponseEntity.ok(modelCheckService.checkFile(model, formula,
+                    new ModelCheckService.Limits(maxStates, timeoutMs, bitstateMegabytes, bitstateHashes)));
+        } catch (NoSuchFileException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (ParseException | IllegalArgumentException | IOException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.ltl.ltl.controller;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ltl.ltl.ltl.web.dto.ModelCheckRequestDto;
+import com.ltl.ltl.ltl.web.dto.ModelCheckResultDto;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.AstParser;
+import com.ltl.ltl.service.modelcheck.ActionIndependence;
+import com.ltl.ltl.service.modelcheck.BitstateStore;
+import com.ltl.ltl.service.modelcheck.Counterexample;
+import com.ltl.ltl.service.modelcheck.ExplicitKripkeStructure;
+import com.ltl.ltl.service.modelcheck.KripkeFile;
+import com.ltl.ltl.service.modelcheck.KripkeStructure;
+import com.ltl.ltl.service.modelcheck.LtlModelChecker;
+import com.ltl.ltl.service.modelcheck.MappedKripkeStructure;
+import com.ltl.ltl.service.modelcheck.SwarmModelChecker;
+import com.ltl.ltl.service.syntax.Lexer;
+import com.ltl.ltl.service.syntax.ParseException;
+
+@Service
+public class ModelCheckService {
+
+    // upper limits of the work one request may cause; requests can only lower them
+    @Value("${ltl.modelcheck.max-states:5000000}")
+    private long maxStates = 5_000_000;
+    @Value("${ltl.modelcheck.timeout:30s}")
+    private Duration timeout = Duration.ofSeconds(30);
+    // bitstate mode explores more states in less memory, so it has limits of its own
+    @Value("${ltl.modelcheck.bitstate.max-states:1000000000}")
+    private long bitstateMaxStates = 1_000_000_000;
+    @Value("${ltl.modelcheck.bitstate.max-megabytes:1024}")
+    private int bitstateMaxMegabytes = 1024;
+    @Value("${ltl.modelcheck.swarm.max-workers:8}")
+    private int swarmMaxWorkers = 8;
+    // directory of the binary model files /api/modelcheck/file may open; empty for none
+    @Value("${ltl.modelcheck.model-dir:}")
+    private String modelDir = "";
+
+    /** Checks whether every path of the structure in the request satisfies its formula. */
+    public ModelCheckResultDto check(ModelCheckRequestDto request) throws ParseException {
+        if (request.formula == null) throw new IllegalArgumentException("No formula");
+        IFormula formula = new AstParser(new Lexer(request.formula)).parseFormula();
+        KripkeStructure structure = toStructure(request);
+        return check(formula, structure, new Limits(request.maxStates, request.timeoutMs,
+                request.bitstateMegabytes, request.bitstateHashes), toIndependence(request, structure));
+    }
+
+    /** Checks a binary model file of the model directory, see {@link KripkeFile}. */
+    public ModelCheckResultDto checkFile(String model, String formulaString, Limits limits)
+            throws ParseException, IOException {
+        if (modelDir == null || modelDir.isBlank()) throw new IllegalArgumentException("No model directory configured");
+        IFormula formula = new AstParser(new Lexer(formulaString)).parseFormula();
+        Path dir = Path.of(modelDir).toAbsolutePath().normalize();
+        Path file = dir.resolve(model).normalize();
+        if (!file.startsWith(dir)) throw new IllegalArgumentException("Model outside of the model directory: " + model);
+        try (MappedKripkeStructure structure = KripkeFile.open(file)) {
+            return check(formula, structure, limits, null);
+        }
+    }
+
+    /** The limits a request asks for, each {@code null} if not set. */
+    public record Limits(Long maxStates, Long timeoutMs, Integer bitstateMegabytes, Integer bitstateHashes) {}
+
+    /**
+     * Runs a swarm of searches with different orders, hash functions and depth bounds over the
+     * structure in the request; the first counterexample stops them all.
+     */
+    public ModelCheckResultDto swarm(ModelCheckRequestDto request) throws ParseException {
+        if (request.formula == null) throw new IllegalArgumentException("No formula");
+        IFormula formula = new AstParser(new Lexer(request.formula)).parseFormula();
+        KripkeStructure structure = toStructure(request);
+        Limits limits = new Limits(request.maxStates, request.timeoutMs, request.bitstateMegabytes,
+                request.bitstateHashes);
+        int workers = request.workers == null ? swarmMaxWorkers : Math.min(request.workers, swarmMaxWorkers);
+        if (workers < 1) throw new IllegalArgumentException("At least one worker is needed");
+
+        SwarmModelChecker swarm = new SwarmModelChecker(structure, formula, workers);
+        swarm.setLimits(stateLimit(limits), limit(limits.timeoutMs()));
+        if (request.maxDepth != null) swarm.setDepthBound(request.maxDepth);
+        if (limits.bitstateMegabytes() != null) swarm.setBitstate(bitstateLog2Bits(limits), bitstateHashes(limits));
+        swarm.setPartialOrderReduction(toIndependence(request, structure));
+        long started = System.nanoTime();
+        LtlModelChecker.Result result = swarm.run();
+
+        ModelCheckResultDto dto = new ModelCheckResultDto();
+        dto.formula = formula.toString();
+        dto.verdict = result.name();
+        dto.workers = new ArrayList<>();
+        for (SwarmModelChecker.WorkerReport report : swarm.getReports()) {
+            dto.states += report.states();
+            dto.transitions += report.transitions();
+            dto.workers.add(toDto(report));
+        }
+        dto.elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        if (swarm.getCounterexample() != null) dto.counterexample = toDto(swarm.getCounterexample(), structure);
+        return dto;
+    }
+
+    private ModelCheckResultDto check(IFormula formula, KripkeStructure structure, Limits limits,
+            ActionIndependence independence) {
+        LtlModelChecker checker = new LtlModelChecker(structure, formula);
+        checker.setPartialOrderReduction(independence);
+        checker.setLimits(stateLimit(limits), limit(limits.timeoutMs()));
+        if (limits.bitstateMegabytes() != null) checker.setBitstate(bitstateLog2Bits(limits), bitstateHashes(limits));
+        long started = System.nanoTime();
+        LtlModelChecker.Result result = checker.run();
+
+        ModelCheckResultDto dto = new ModelCheckResultDto();
+        dto.formula = formula.toString();
+        dto.verdict = result.name();
+        dto.states = checker.getStates();
+        dto.transitions = checker.getTransitions();
+        dto.elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        if (checker.getCounterexample() != null) dto.counterexample = toDto(checker.getCounterexample(), structure);
+        if (checker.getBitstateStatistics() != null) dto.bitstate = toDto(checker.getBitstateStatistics());
+        if (independence != null) {
+            dto.partialOrderReduction = checker.isReducing();
+            dto.reducedStates = checker.getReducedStates();
+        }
+        return dto;
+    }
+
+    private long stateLimit(Limits limits) {
+        long states = limits.bitstateMegabytes() != null ? bitstateMaxStates : maxStates;
+        return limits.maxStates() == null ? states : Math.min(limits.maxStates(), states);
+    }
+
+    private int bitstateLog2Bits(Limits limits) {
+        int megabytes = Math.min(limits.bitstateMegabytes(), bitstateMaxMegabytes);
+        if (megabytes < 1) throw new IllegalArgumentException("Bitstate mode needs at least 1 MiB");
+        // 2^23 bits are 1 MiB
+        return 23 + 31 - Integer.numberOfLeadingZeros(megabytes);
+    }
+
+    private static int bitstateHashes(Limits limits) {
+        return limits.bitstateHashes() == null ? 3 : limits.bitstateHashes();
+    }
+
+    private Duration limit(Long requestedMillis) {
+        if (requestedMillis == null) return timeout;
+        Duration requested = Duration.ofMillis(requestedMillis);
+        return timeout == null || requested.compareTo(timeout) < 0 ? requested : timeout;
+    }
+
+    private KripkeStructure toStructure(ModelCheckRequestDto request) {
+        if (request.states == null || request.states.isEmpty()) throw new IllegalArgumentException("No states");
+        if (request.initial == null || request.initial.isEmpty()) throw new IllegalArgumentException("No initial state");
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        for (List<String> label : request.states) {
+            builder.addState(label == null ? new String[0] : label.toArray(new String[0]));
+        }
+        for (int initial : request.initial) {
+            builder.addInitial(initial);
+        }
+        if (request.actions != null
+                && (request.transitions == null || request.actions.size() != request.transitions.size())) {
+            throw new IllegalArgumentException("Expected one action per transition");
+        }
+        if (request.transitions != null) {
+            for (int i = 0; i < request.transitions.size(); i++) {
+                int[] transition = request.transitions.get(i);
+                if (transition == null || transition.length != 2) {
+                    throw new IllegalArgumentException("A transition is a pair [from, to]");
+                }
+                if (request.actions == null) {
+                    builder.addTransition(transition[0], transition[1]);
+                } else {
+                    builder.addTransition(transition[0], transition[1], request.actions.get(i));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    // null unless the request declares independent actions
+    private static ActionIndependence toIndependence(ModelCheckRequestDto request, KripkeStructure structure) {
+        if (request.independent == null) return null;
+        ActionIndependence independence = new ActionIndependence(structure.getActions());
+        for (List<String> pair : request.independent) {
+            if (pair == null || pair.size() != 2) throw new IllegalArgumentException("Independent actions come in pairs");
+            independence.declareIndependent(pair.get(0), pair.get(1));
+        }
+        return independence;
+    }
+
+    private ModelCheckResultDto.CounterexampleDto toDto(Counterexample counterexample, KripkeStructure structure) {
+        ModelCheckResultDto.CounterexampleDto dto = new ModelCheckResultDto.CounterexampleDto();
+        dto.prefix = counterexample.prefix().stream().map(s -> toDto(s, structure)).toList();
+        dto.loop = counterexample.cycle().stream().map(s -> toDto(s, structure)).toList();
+        return dto;
+    }
+
+    private ModelCheckResultDto.WorkerDto toDto(SwarmModelChecker.WorkerReport report) {
+        ModelCheckResultDto.WorkerDto dto = new ModelCheckResultDto.WorkerDto();
+        dto.worker = report.worker();
+        dto.seed = report.seed();
+        dto.depthBound = report.depthBound() == Integer.MAX_VALUE ? null : report.depthBound();
+        dto.verdict = report.result().name();
+        dto.states = report.states();
+        dto.transitions = report.transitions();
+        dto.maxDepth = report.maxDepth();
+        dto.elapsedMillis = report.elapsed().toMillis();
+        if (report.bitstate() != null) dto.bitstate = toDto(report.bitstate());
+        return dto;
+    }
+
+    private ModelCheckResultDto.BitstateDto toDto(BitstateStore.Statistics statistics) {
+        ModelCheckResultDto.BitstateDto dto = new ModelCheckResultDto.BitstateDto();
+        dto.bits = statistics.bits();
+        dto.hashes = statistics.hashes();
+        dto.fill = statistics.fill();
+        dto.coverage = statistics.coverage();
+        dto.collisionProbability = statistics.collisionProbability();
+        return dto;
+    }
+
+    private ModelCheckResultDto.StateDto toDto(int state, KripkeStructure structure) {
+        List<String> labels = new ArrayList<>();
+        long bits = structure.getLabels(state);
+        for (int p = 0; p < structure.getPropositions().size(); p++) {
+            if ((bits >>> p & 1) != 0) labels.add(structure.getPropositions().get(p));
+        }
+        return new ModelCheckResultDto.StateDto(state, labels);
+    }
+}
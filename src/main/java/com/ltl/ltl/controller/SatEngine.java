@@ -0,0 +1,26 @@
+package com.ltl.ltl.controller;
+
+import java.util.Locale;
+
+/** Satisfiability backends of {@link TableauService#checkSat}. */
+public enum SatEngine {
+    /** Tableau search with path-based loop checks ({@code TableauProof}). */
+    TABLEAU,
+    /** On-the-fly generalized Büchi automaton with a Couvreur emptiness check. */
+    AUTOMATON,
+    /** The same automaton with the multi-core CNDFS emptiness check. */
+    CNDFS,
+    /** BDD-based fixpoint over the symbolic tableau (Clarke–Grumberg–Hamaguchi). */
+    SYMBOLIC,
+    /** Lasso search of growing length with the embedded CDCL solver; finds models quickly. */
+    BOUNDED;
+
+    /** Parses an engine name as used in requests, e.g. {@code automaton}. */
+    public static SatEngine parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown sat engine: " + name);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ltl.ltl.controller;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -7,6 +9,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ltl.ltl.ltl.web.dto.TableauNodeDto;
+import com.ltl.ltl.service.tableau.ExpansionPolicy;
+import com.ltl.ltl.service.tableau.TableauBudget;
 import com.ltl.ltl.service.syntax.ParseException;
 
 @RestController
@@ -20,11 +24,51 @@ public class TableauController {
     }
 
     @GetMapping("/tree")
-    public ResponseEntity<?> buildTree(@RequestParam("formula") String formula) {
+    public ResponseEntity<?> buildTree(@RequestParam("formula") String formula,
+            @RequestParam(value = "debug", defaultValue = "false") boolean debug,
+            @RequestParam(value = "strategy", defaultValue = "first") String strategy,
+            @RequestParam(value = "maxNodes", required = false) Long maxNodes,
+            @RequestParam(value = "maxDepth", required = false) Integer maxDepth,
+            @RequestParam(value = "timeoutMs", required = false) Long timeoutMs) {
         try {
-            TableauNodeDto dto = tableauService.buildTree(formula);
+            ExpansionPolicy policy = ExpansionPolicy.parse(strategy);
+            TableauBudget budget = tableauService.budget(maxNodes, maxDepth, timeoutMs);
+            if (debug) {
+                // download the rule/loop trace of the construction instead of the tree
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tableau-trace.txt\"")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .body(tableauService.traceTree(formula, policy, budget));
+            }
+            TableauNodeDto dto = tableauService.buildTree(formula, policy, budget);
             return ResponseEntity.ok(dto);
-        } catch (ParseException ex) {
+        } catch (ParseException | IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @GetMapping("/sat")
+    public ResponseEntity<?> checkSat(@RequestParam("formula") String formula,
+            @RequestParam(value = "engine", defaultValue = "tableau") String engine,
+            @RequestParam(value = "maxNodes", required = false) Long maxNodes,
+            @RequestParam(value = "timeoutMs", required = false) Long timeoutMs) {
+        try {
+            TableauBudget budget = tableauService.budget(maxNodes, null, timeoutMs);
+            return ResponseEntity.ok(tableauService.checkSat(formula, SatEngine.parse(engine), budget));
+        } catch (ParseException | IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @GetMapping("/graph")
+    public ResponseEntity<?> buildGraph(@RequestParam("formula") String formula,
+            @RequestParam(value = "maxNodes", required = false) Long maxNodes,
+            @RequestParam(value = "maxDepth", required = false) Integer maxDepth,
+            @RequestParam(value = "timeoutMs", required = false) Long timeoutMs) {
+        try {
+            TableauBudget budget = tableauService.budget(maxNodes, maxDepth, timeoutMs);
+            return ResponseEntity.ok(tableauService.buildGraph(formula, budget));
+        } catch (ParseException | IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(ex.getMessage());
         }
     }
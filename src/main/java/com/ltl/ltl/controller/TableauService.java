@@ -1,28 +1,220 @@
 package com.ltl.ltl.controller;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.ltl.ltl.ltl.web.dto.SatResultDto;
+import com.ltl.ltl.ltl.web.dto.TableauGraphDto;
 import com.ltl.ltl.ltl.web.dto.TableauNodeDto;
 import com.ltl.ltl.model.IFormula;
 import com.ltl.ltl.model.tableau.TableauEntry;
 import com.ltl.ltl.model.tableau.TableauNode;
 import com.ltl.ltl.service.AstParser;
+import com.ltl.ltl.service.automaton.CndfsEmptinessCheck;
+import com.ltl.ltl.service.automaton.CouvreurEmptinessCheck;
+import com.ltl.ltl.service.automaton.EmptinessCheck;
+import com.ltl.ltl.service.automaton.GeneralizedBuchiAutomaton;
+import com.ltl.ltl.service.bdd.SymbolicLtlSat;
+import com.ltl.ltl.service.sat.BoundedLtlSat;
+import com.ltl.ltl.service.sat.Lasso;
 import com.ltl.ltl.service.syntax.Lexer;
 import com.ltl.ltl.service.syntax.ParseException;
+import com.ltl.ltl.service.tableau.ExpansionPolicy;
+import com.ltl.ltl.service.tableau.TableauBudget;
+import com.ltl.ltl.service.tableau.TableauGraph;
+import com.ltl.ltl.service.tableau.TableauGraphConstruction;
+import com.ltl.ltl.service.tableau.TableauProof;
+import com.ltl.ltl.service.tableau.TableauStatistics;
+import com.ltl.ltl.service.tableau.TableauTrace;
 import com.ltl.ltl.service.tableau.TableauTreeConstruction;
+import com.ltl.ltl.service.tableau.TableauVerdict;
 
 @Service
 public class TableauService {
 
+    // number of events kept by the debug trace (the oldest ones are dropped)
+    @Value("${ltl.tableau.trace.capacity:4096}")
+    private int traceCapacity = 4096;
+
+    // upper limits of the work one request may cause; requests can only lower them
+    @Value("${ltl.tableau.budget.max-nodes:200000}")
+    private long maxNodes = 200_000;
+    @Value("${ltl.tableau.budget.max-depth:2000}")
+    private int maxDepth = 2000;
+    @Value("${ltl.tableau.budget.timeout:5s}")
+    private Duration timeout = Duration.ofSeconds(5);
+
+    // automata of recent formulas; their explored states are reused by later checks
+    @Value("${ltl.sat.automaton-cache:16}")
+    private int automatonCache = 16;
+    // worker threads of the CNDFS engine, 0 for one per processor
+    @Value("${ltl.sat.cndfs-workers:0}")
+    private int cndfsWorkers = 0;
+    // largest lasso the bounded engine looks for is this bound plus one states long
+    @Value("${ltl.sat.max-bound:32}")
+    private int maxBound = 32;
+    private final Map<IFormula, GeneralizedBuchiAutomaton> automata = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<IFormula, GeneralizedBuchiAutomaton> eldest) {
+            return size() > automatonCache;
+        }
+    };
+
+    /**
+     * The configured budget, lowered by the given per-request limits (each may be {@code null}).
+     */
+    public TableauBudget budget(Long requestedNodes, Integer requestedDepth, Long requestedTimeoutMillis) {
+        long nodes = requestedNodes == null ? maxNodes : Math.min(requestedNodes, maxNodes);
+        int depth = requestedDepth == null ? maxDepth : Math.min(requestedDepth, maxDepth);
+        Duration time = timeout;
+        if (requestedTimeoutMillis != null) {
+            Duration requested = Duration.ofMillis(requestedTimeoutMillis);
+            if (time == null || requested.compareTo(time) < 0) time = requested;
+        }
+        return new TableauBudget(nodes, depth, time);
+    }
+
     public TableauNodeDto buildTree(String formulaString) throws ParseException {
+        return buildTree(formulaString, ExpansionPolicy.FIRST, budget(null, null, null));
+    }
+
+    /**
+     * Builds the tree expanding formulas in the order chosen by {@code strategy}. If the budget
+     * runs out the partial tree is returned with result UNKNOWN.
+     */
+    public TableauNodeDto buildTree(String formulaString, ExpansionPolicy strategy, TableauBudget budget)
+            throws ParseException {
         IFormula formula = new AstParser(new Lexer(formulaString)).parseFormula();
         TableauNode root = nodeFromFormula(formula);
         TableauTreeConstruction builder = new TableauTreeConstruction(root);
+        builder.setStrategy(strategy);
+        builder.setBudget(budget);
         TableauNode tree = builder.build();
-        return toDto(tree);
+        TableauNodeDto dto = toDto(tree);
+        dto.result = builder.getExhaustion() == null ? "COMPLETE" : TableauVerdict.UNKNOWN.name();
+        dto.statistics = toDto(strategy, builder);
+        return dto;
+    }
+
+    /** Builds the tree like {@link #buildTree(String)} and returns the recorded trace as text. */
+    public String traceTree(String formulaString) throws ParseException {
+        return traceTree(formulaString, ExpansionPolicy.FIRST, budget(null, null, null));
+    }
+
+    public String traceTree(String formulaString, ExpansionPolicy strategy, TableauBudget budget)
+            throws ParseException {
+        IFormula formula = new AstParser(new Lexer(formulaString)).parseFormula();
+        TableauNode root = nodeFromFormula(formula);
+        TableauTreeConstruction builder = new TableauTreeConstruction(root);
+        builder.setStrategy(strategy);
+        builder.setBudget(budget);
+        TableauTrace trace = TableauTrace.ringBuffer(traceCapacity);
+        builder.setTrace(trace);
+        builder.build();
+        String header = "# formula: " + formula + "\n# strategy: " + strategy + "\n# " + builder.getStatistics() + "\n";
+        if (builder.getExhaustion() != null) {
+            header += "# budget exhausted: " + builder.getExhaustion() + "\n";
+        }
+        return header + trace.dump();
+    }
+
+    /** Decides satisfiability of the formula with the given engine within the budget. */
+    public SatResultDto checkSat(String formulaString, SatEngine engine, TableauBudget budget) throws ParseException {
+        IFormula formula = new AstParser(new Lexer(formulaString)).parseFormula();
+        SatResultDto dto = new SatResultDto();
+        dto.formula = formula.toString();
+        dto.engine = engine.name();
+        long started = System.nanoTime();
+        switch (engine) {
+            case TABLEAU -> {
+                TableauProof proof = new TableauProof(nodeFromFormula(formula));
+                proof.setBudget(budget);
+                dto.verdict = proof.decide(proof.getRoot()).name();
+                dto.explored = proof.getStatistics().getNodes();
+            }
+            case AUTOMATON, CNDFS -> {
+                EmptinessCheck check = engine == SatEngine.AUTOMATON
+                        ? new CouvreurEmptinessCheck(automaton(formula))
+                        : new CndfsEmptinessCheck(automaton(formula),
+                                cndfsWorkers > 0 ? cndfsWorkers : Runtime.getRuntime().availableProcessors());
+                check.setLimits(budget.getMaxNodes(), budget.getTimeout());
+                dto.verdict = switch (check.run()) {
+                    case NON_EMPTY -> TableauVerdict.SAT.name();
+                    case EMPTY -> TableauVerdict.UNSAT.name();
+                    case UNKNOWN -> TableauVerdict.UNKNOWN.name();
+                };
+                dto.explored = check.getStates();
+            }
+            case SYMBOLIC -> {
+                SymbolicLtlSat check = new SymbolicLtlSat(formula);
+                check.setLimits((int) Math.min(budget.getMaxNodes(), Integer.MAX_VALUE), budget.getTimeout());
+                dto.verdict = switch (check.run()) {
+                    case SAT -> TableauVerdict.SAT.name();
+                    case UNSAT -> TableauVerdict.UNSAT.name();
+                    case UNKNOWN -> TableauVerdict.UNKNOWN.name();
+                };
+                dto.explored = check.getPeakNodes();
+            }
+            case BOUNDED -> {
+                BoundedLtlSat check = new BoundedLtlSat(formula);
+                check.setLimits(Math.min(maxBound, budget.getMaxDepth()), budget.getTimeout());
+                dto.verdict = switch (check.run()) {
+                    case SAT -> TableauVerdict.SAT.name();
+                    case UNSAT -> TableauVerdict.UNSAT.name();
+                    case UNKNOWN -> TableauVerdict.UNKNOWN.name();
+                };
+                dto.explored = check.getConflicts();
+                if (check.getWitness() != null) dto.witness = toDto(check.getWitness());
+            }
+        }
+        dto.elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        return dto;
+    }
+
+    private SatResultDto.LassoDto toDto(Lasso lasso) {
+        SatResultDto.LassoDto dto = new SatResultDto.LassoDto();
+        dto.prefix = lasso.prefix().stream().map(state -> state.stream().map(Enum::name).toList()).toList();
+        dto.loop = lasso.loop().stream().map(state -> state.stream().map(Enum::name).toList()).toList();
+        return dto;
+    }
+
+    private GeneralizedBuchiAutomaton automaton(IFormula formula) {
+        synchronized (automata) {
+            return automata.computeIfAbsent(formula, GeneralizedBuchiAutomaton::of);
+        }
+    }
+
+    /** Builds the tableau as a graph with one node per distinct label. */
+    public TableauGraphDto buildGraph(String formulaString) throws ParseException {
+        return buildGraph(formulaString, budget(null, null, null));
+    }
+
+    /**
+     * Builds the graph within the budget. If the budget runs out the partial graph is returned
+     * with verdict UNKNOWN, unless what was built already proves the formula satisfiable.
+     */
+    public TableauGraphDto buildGraph(String formulaString, TableauBudget budget) throws ParseException {
+        IFormula formula = new AstParser(new Lexer(formulaString)).parseFormula();
+        TableauGraphConstruction builder = new TableauGraphConstruction(nodeFromFormula(formula));
+        builder.setBudget(budget);
+        TableauGraph graph = builder.build();
+        TableauGraphDto dto = new TableauGraphDto();
+        dto.root = graph.getRoot().id();
+        dto.satisfiable = graph.isSatisfiable();
+        dto.verdict = graph.getVerdict().name();
+        dto.components = graph.getComponents();
+        dto.edges = graph.getEdges();
+        dto.elapsedMillis = builder.getElapsed().toMillis();
+        dto.exhausted = graph.getExhaustion() == null ? null : graph.getExhaustion().name();
+        dto.nodes = graph.getNodes().stream().map(this::toDto).toList();
+        return dto;
     }
 
     private TableauNode nodeFromFormula(IFormula f) {
@@ -46,4 +238,37 @@ public class TableauService {
         dto.children = node.getChildren().stream().map(this::toDto).toList();
         return dto;
     }
+
+    private TableauNodeDto.StatisticsDto toDto(ExpansionPolicy strategy, TableauTreeConstruction builder) {
+        TableauStatistics statistics = builder.getStatistics();
+        TableauNodeDto.StatisticsDto dto = new TableauNodeDto.StatisticsDto();
+        dto.strategy = strategy.name();
+        dto.nodes = statistics.getNodes();
+        dto.alphaRules = statistics.getAlphaRules();
+        dto.branchingRules = statistics.getBranchingRules();
+        dto.nextSteps = statistics.getNextSteps();
+        dto.peakDepth = statistics.getPeakStackDepth();
+        dto.elapsedMillis = builder.getElapsed().toMillis();
+        dto.exhausted = builder.getExhaustion() == null ? null : builder.getExhaustion().name();
+        return dto;
+    }
+
+    private TableauGraphDto.NodeDto toDto(TableauGraph.Node node) {
+        TableauGraphDto.NodeDto dto = new TableauGraphDto.NodeDto();
+        dto.id = node.id();
+        dto.closed = node.node().getIsClosed();
+        dto.kind = node.kind().name();
+        dto.scc = node.scc();
+        dto.formulas = node.node().getEntries().stream()
+                .map(e -> e.getFormula() == null ? "null" : e.getFormula().toString())
+                .toList();
+        dto.entries = node.node().getEntries().stream()
+                .map(e -> new TableauNodeDto.EntryDto(
+                        e.getFormula() == null ? "null" : e.getFormula().toString(),
+                        e.isChecked()))
+                .toList();
+        dto.successors = Arrays.stream(node.successors()).boxed().toList();
+        dto.backEdges = Arrays.stream(node.backEdges()).boxed().toList();
+        return dto;
+    }
 }
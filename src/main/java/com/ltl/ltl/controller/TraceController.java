@@ -0,0 +1,36 @@
+package com.ltl.ltl.controller;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ltl.ltl.ltl.web.dto.TraceRequestDto;
+import com.ltl.ltl.service.syntax.ParseException;
+
+@RestController
+@RequestMapping("/api/trace")
+public class TraceController {
+
+    private final TraceService traceService;
+
+    public TraceController(TraceService traceService) {
+        this.traceService = traceService;
+    }
+
+    /** Checks a formula on finite traces from log files of the configured trace directory. */
+    @PostMapping
+    public ResponseEntity<?> check(@RequestBody TraceRequestDto request) {
+        try {
+            return ResponseEntity.ok(traceService.check(request));
+        } catch (NoSuchFileException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (ParseException | IllegalArgumentException | IOException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ltl.ltl.controller;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ltl.ltl.ltl.web.dto.TraceRequestDto;
+import com.ltl.ltl.ltl.web.dto.TraceResultDto;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.AstParser;
+import com.ltl.ltl.service.syntax.Lexer;
+import com.ltl.ltl.service.syntax.ParseException;
+import com.ltl.ltl.service.trace.TraceChecker;
+
+@Service
+public class TraceService {
+
+    // directory of the trace files /api/trace may open; empty for none
+    @Value("${ltl.trace.dir:}")
+    private String traceDir = "";
+    // files checked at once, 0 for one per processor
+    @Value("${ltl.trace.threads:0}")
+    private int threads = 0;
+
+    /** Checks the formula of the request on each of its trace files, see {@link TraceChecker}. */
+    public TraceResultDto check(TraceRequestDto request) throws ParseException, IOException {
+        if (request.formula == null) throw new IllegalArgumentException("No formula");
+        if (request.files == null || request.files.isEmpty()) throw new IllegalArgumentException("No trace files");
+        if (traceDir == null || traceDir.isBlank()) throw new IllegalArgumentException("No trace directory configured");
+        IFormula formula = new AstParser(new Lexer(request.formula)).parseFormula();
+        Path dir = Path.of(traceDir).toAbsolutePath().normalize();
+        List<Path> files = new ArrayList<>();
+        for (String name : request.files) {
+            Path file = dir.resolve(name).normalize();
+            if (!file.startsWith(dir)) throw new IllegalArgumentException("Trace outside of the trace directory: " + name);
+            files.add(file);
+        }
+
+        long started = System.nanoTime();
+        List<TraceChecker.TraceResult> results = new TraceChecker(formula).checkAll(files, threads(request));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        TraceResultDto dto = new TraceResultDto();
+        dto.formula = formula.toString();
+        dto.holds = true;
+        dto.files = new ArrayList<>();
+        for (TraceChecker.TraceResult result : results) {
+            TraceResultDto.FileDto file = new TraceResultDto.FileDto();
+            file.file = dir.relativize(result.file()).toString();
+            file.holds = result.holds();
+            file.steps = result.steps();
+            file.stepsPerSecond = result.stepsPerSecond();
+            dto.files.add(file);
+            dto.holds &= result.holds();
+            dto.steps += result.steps();
+        }
+        dto.elapsedMillis = elapsed.toMillis();
+        dto.stepsPerSecond = dto.steps * 1e9 / Math.max(1, elapsed.toNanos());
+        return dto;
+    }
+
+    private int threads(TraceRequestDto request) {
+        int configured = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        if (request.threads == null) return configured;
+        if (request.threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+        return Math.min(request.threads, configured);
+    }
+}
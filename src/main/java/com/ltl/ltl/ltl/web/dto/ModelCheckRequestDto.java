@@ -0,0 +1,33 @@
+package com.ltl.ltl.ltl.web.dto;
+
+import java.util.List;
+
+/** A Kripke structure and the formula to check against it. */
+public class ModelCheckRequestDto {
+    public String formula;
+    /** The propositions that hold in each state; the states are numbered in list order. */
+    public List<List<String>> states;
+    public List<Integer> initial;
+    /** Pairs {@code [from, to]}. */
+    public List<int[]> transitions;
+    /** Optional: the action of every transition, in the order of the transitions. */
+    public List<String> actions;
+    /**
+     * Pairs of independent actions; setting them turns on partial-order reduction, which
+     * applies to formulas without X.
+     */
+    public List<List<String>> independent;
+    /** Optional limits; they can only lower the configured ones. */
+    public Long maxStates;
+    public Long timeoutMs;
+    /**
+     * Set to search in bitstate mode with a bit array of this many MiB, rounded down to a power
+     * of two; the verdict HOLDS is then only as good as the reported coverage.
+     */
+    public Integer bitstateMegabytes;
+    /** Hash functions per state in bitstate mode, 3 if not set. */
+    public Integer bitstateHashes;
+    /** Swarm only: number of searches, and the deepest any of them goes. */
+    public Integer workers;
+    public Integer maxDepth;
+}
@@ -0,0 +1,76 @@
+package com.ltl.ltl.ltl.web.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public class ModelCheckResultDto {
+    public String formula;
+    /** HOLDS, VIOLATED or UNKNOWN if the limits ran out. */
+    public String verdict;
+    /** Product states and transitions explored. */
+    public long states;
+    public long transitions;
+    public long elapsedMillis;
+    /** Only set if the verdict is VIOLATED. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public CounterexampleDto counterexample;
+    /** Only set in bitstate mode. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public BitstateDto bitstate;
+    /** Only set if the request declared independent actions: whether the reduction applied. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Boolean partialOrderReduction;
+    /** States expanded through an ample set smaller than all their transitions. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Long reducedStates;
+    /** Only set for a swarm; states and transitions above are the sums over its workers. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<WorkerDto> workers;
+
+    /** A violating path: the prefix is followed by the loop repeating forever. */
+    public static class CounterexampleDto {
+        public List<StateDto> prefix;
+        public List<StateDto> loop;
+    }
+
+    /** One search of a swarm. */
+    public static class WorkerDto {
+        public int worker;
+        /** Seed of the successor order and the hash functions; 0 for the plain order. */
+        public long seed;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public Integer depthBound;
+        public String verdict;
+        public long states;
+        public long transitions;
+        public int maxDepth;
+        public long elapsedMillis;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public BitstateDto bitstate;
+    }
+
+    /** How much of the state space a bitstate search covered. */
+    public static class BitstateDto {
+        public long bits;
+        public int hashes;
+        /** Fraction of the bits set at the end. */
+        public double fill;
+        /** Estimated fraction of the reachable product states the search explored. */
+        public double coverage;
+        /** Chance that one more new state would have been taken for a visited one. */
+        public double collisionProbability;
+    }
+
+    public static class StateDto {
+        public int state;
+        public List<String> labels;
+
+        public StateDto() {}
+
+        public StateDto(int state, List<String> labels) {
+            this.state = state;
+            this.labels = labels;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.ltl.ltl.ltl.web.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public class SatResultDto {
+    public String formula;
+    public String engine;
+    /** SAT, UNSAT or UNKNOWN if the budget ran out. */
+    public String verdict;
+    /**
+     * Tableau nodes or automaton states visited, the peak number of BDD nodes, or the
+     * conflicts of the SAT solver.
+     */
+    public long explored;
+    public long elapsedMillis;
+    /** A model of the formula; only set by the bounded engine. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public LassoDto witness;
+
+    /** The states of a model as the propositions that hold; the loop repeats forever. */
+    public static class LassoDto {
+        public List<List<String>> prefix;
+        public List<List<String>> loop;
+    }
+}
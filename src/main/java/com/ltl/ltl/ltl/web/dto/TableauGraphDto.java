@@ -0,0 +1,37 @@
+package com.ltl.ltl.ltl.web.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public class TableauGraphDto {
+    /** Id of the root node. */
+    public int root;
+    public boolean satisfiable;
+    /** SAT, UNSAT or UNKNOWN if the budget cut the graph short. */
+    public String verdict;
+    public int components;
+    public long edges;
+    public long elapsedMillis;
+    /** NODES, DEPTH or TIME if that budget ran out. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String exhausted;
+    public List<NodeDto> nodes;
+
+    public static class NodeDto {
+        public int id;
+        public List<String> formulas;
+        public List<TableauNodeDto.EntryDto> entries;
+        /**
+         * Same meaning as {@link TableauNodeDto#closed}: true = accepted, false = rejected,
+         * null = undecided because the budget ran out.
+         */
+        public Boolean closed;
+        public String kind;
+        /** Strongly connected component of the node. */
+        public int scc;
+        public List<Integer> successors;
+        /** Successors that close a loop back to a node on the path. */
+        public List<Integer> backEdges;
+    }
+}
@@ -2,12 +2,20 @@ package com.ltl.ltl.ltl.web.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class TableauNodeDto {
     public List<String> formulas;
     /** New: detailed entries including whether each formula was checked during expansion. */
     public List<EntryDto> entries;
     public Boolean closed;
     public List<TableauNodeDto> children;
+    /** COMPLETE, or UNKNOWN if the budget cut the tree short; only set on the root node. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String result;
+    /** Construction counters; only set on the root node. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public StatisticsDto statistics;
 
     public static class EntryDto {
         public String formula;
@@ -20,4 +28,16 @@ public class TableauNodeDto {
             this.checked = checked;
         }
     }
+
+    public static class StatisticsDto {
+        public String strategy;
+        public long nodes;
+        public long alphaRules;
+        public long branchingRules;
+        public long nextSteps;
+        public int peakDepth;
+        public long elapsedMillis;
+        /** NODES, DEPTH or TIME if that budget ran out, else null. */
+        public String exhausted;
+    }
 }
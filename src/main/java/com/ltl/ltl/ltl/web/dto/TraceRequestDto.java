@@ -0,0 +1,15 @@
+package com.ltl.ltl.ltl.web.dto;
+
+import java.util.List;
+
+/** A formula and the trace files to check it on. */
+public class TraceRequestDto {
+    public String formula;
+    /**
+     * Paths relative to the trace directory; {@code .csv} files with a header line, or
+     * {@code .jsonl} files with one object per line.
+     */
+    public List<String> files;
+    /** Optional: files checked at once; it can only lower the configured number. */
+    public Integer threads;
+}
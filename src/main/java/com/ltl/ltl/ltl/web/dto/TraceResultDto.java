@@ -0,0 +1,22 @@
+package com.ltl.ltl.ltl.web.dto;
+
+import java.util.List;
+
+public class TraceResultDto {
+    public String formula;
+    /** Whether every trace satisfies the formula. */
+    public boolean holds;
+    /** Steps of all traces, and the steps checked per second of wall-clock time. */
+    public long steps;
+    public double stepsPerSecond;
+    public long elapsedMillis;
+    public List<FileDto> files;
+
+    /** The verdict on one trace. */
+    public static class FileDto {
+        public String file;
+        public boolean holds;
+        public long steps;
+        public double stepsPerSecond;
+    }
+}
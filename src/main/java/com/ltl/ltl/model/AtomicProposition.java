@@ -1,7 +1,7 @@
 package com.ltl.ltl.model;
 
-public class AtomicProposition implements IFormula{
-    private Symbol symbol;
+public final class AtomicProposition implements IFormula{
+    private final Symbol symbol;
 
     public AtomicProposition(Symbol symbol) {
         this.symbol = symbol;
@@ -11,8 +11,15 @@ public class AtomicProposition implements IFormula{
         return symbol;
     }
 
-    public void setSymbol(Symbol symbol) {
-        this.symbol = symbol;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof AtomicProposition other && symbol == other.symbol;
+    }
+
+    @Override
+    public int hashCode() {
+        return symbol == null ? 0 : symbol.ordinal() + 1;
     }
 
     @Override
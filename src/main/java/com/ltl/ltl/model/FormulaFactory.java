@@ -0,0 +1,148 @@
+package com.ltl.ltl.model;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Constant;
+import com.ltl.ltl.model.formulas.Equiv;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Impl;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.RImpl;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+
+/**
+ * Hash-consing factory for formula nodes.
+ * <p>
+ * Every formula built here is the single canonical instance of its structure, so two
+ * formulas obtained from the factory are equal exactly when they are the same object.
+ * Children are canonicalized as well; formulas created with {@code new} still compare
+ * structurally via {@code equals}, they are just not pointer-identical.
+ * <p>
+ * The table only holds weak references, so formulas that are no longer used anywhere
+ * can be collected.
+ */
+public final class FormulaFactory {
+
+    private static final Map<IFormula, WeakReference<IFormula>> TABLE = new WeakHashMap<>();
+
+    private FormulaFactory() {}
+
+    public static AtomicProposition atom(Symbol symbol) {
+        return canonical(new AtomicProposition(symbol));
+    }
+
+    public static Not not(IFormula f) {
+        return canonical(new Not(intern(f)));
+    }
+
+    public static And and(IFormula left, IFormula right) {
+        return canonical(new And(intern(left), intern(right)));
+    }
+
+    public static Or or(IFormula left, IFormula right) {
+        return canonical(new Or(intern(left), intern(right)));
+    }
+
+    public static Impl impl(IFormula left, IFormula right) {
+        return canonical(new Impl(intern(left), intern(right)));
+    }
+
+    public static RImpl rimpl(IFormula left, IFormula right) {
+        return canonical(new RImpl(intern(left), intern(right)));
+    }
+
+    public static Equiv equiv(IFormula left, IFormula right) {
+        return canonical(new Equiv(intern(left), intern(right)));
+    }
+
+    public static Until until(IFormula left, IFormula right) {
+        return canonical(new Until(intern(left), intern(right)));
+    }
+
+    public static Release release(IFormula left, IFormula right) {
+        return canonical(new Release(intern(left), intern(right)));
+    }
+
+    public static Next next(IFormula f) {
+        return canonical(new Next(intern(f)));
+    }
+
+    public static WeakNext weakNext(IFormula f) {
+        return canonical(new WeakNext(intern(f)));
+    }
+
+    public static Globally globally(IFormula f) {
+        return canonical(new Globally(intern(f)));
+    }
+
+    public static Finally eventually(IFormula f) {
+        return canonical(new Finally(intern(f)));
+    }
+
+    /**
+     * Returns the canonical instance structurally equal to the given formula, interning
+     * the whole tree if necessary. Already canonical formulas are returned as they are.
+     */
+    public static IFormula intern(IFormula f) {
+        if (f == null) return null;
+        IFormula existing = lookup(f);
+        if (existing != null) return existing;
+        // the constants are unique already
+        if (f instanceof Constant) return f;
+        if (f instanceof AtomicProposition ap) return atom(ap.getSymbol());
+        if (f instanceof Not n) return not(n.getFormula());
+        if (f instanceof And a) return and(a.getLeft(), a.getRight());
+        if (f instanceof Or o) return or(o.getLeft(), o.getRight());
+        if (f instanceof Impl i) return impl(i.getLeft(), i.getRight());
+        if (f instanceof RImpl ri) return rimpl(ri.getLeft(), ri.getRight());
+        if (f instanceof Equiv eq) return equiv(eq.getLeft(), eq.getRight());
+        if (f instanceof Until u) return until(u.getLeft(), u.getRight());
+        if (f instanceof Release r) return release(r.getLeft(), r.getRight());
+        if (f instanceof Next x) return next(x.getFormula());
+        if (f instanceof WeakNext w) return weakNext(w.getFormula());
+        if (f instanceof Globally g) return globally(g.getFormula());
+        if (f instanceof Finally fin) return eventually(fin.getFormula());
+        // unknown formula type: intern the node itself
+        return canonical(f);
+    }
+
+    /** Returns true if the formula is the canonical instance of its structure. */
+    public static boolean isCanonical(IFormula f) {
+        return f != null && lookup(f) == f;
+    }
+
+    /** Number of canonical formulas currently alive (for diagnostics). */
+    public static int size() {
+        synchronized (TABLE) {
+            return TABLE.size();
+        }
+    }
+
+    private static IFormula lookup(IFormula f) {
+        synchronized (TABLE) {
+            WeakReference<IFormula> ref = TABLE.get(f);
+            return ref == null ? null : ref.get();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends IFormula> T canonical(T candidate) {
+        synchronized (TABLE) {
+            WeakReference<IFormula> ref = TABLE.get(candidate);
+            IFormula existing = ref == null ? null : ref.get();
+            if (existing != null) {
+                return (T) existing;
+            }
+            TABLE.put(candidate, new WeakReference<>(candidate));
+            return candidate;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ltl.ltl.model.formulas;
+
+import com.ltl.ltl.model.IFormula;
+
+/**
+ * The formulas {@code true} and {@code false}. The parser has no syntax for them; they
+ * come up when formulas are rewritten, like in progression, where a formula that is decided
+ * collapses to one of them. There are only the two instances.
+ */
+public final class Constant implements IFormula {
+
+    public static final Constant TRUE = new Constant(true);
+    public static final Constant FALSE = new Constant(false);
+
+    private final boolean value;
+
+    private Constant(boolean value) {
+        this.value = value;
+    }
+
+    public static Constant of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    public boolean getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return value ? "true" : "false";
+    }
+}
@@ -1,19 +1,32 @@
 package com.ltl.ltl.model.formulas;
+
+import java.util.Objects;
+
 import com.ltl.ltl.model.IFormula;
 
-public class Globally implements IFormula {
-    private IFormula formula;
+public final class Globally implements IFormula {
+    private final IFormula formula;
+    private final int hash;
 
     public Globally(IFormula formula) {
         this.formula = formula;
+        this.hash = 31 * 29 + Objects.hashCode(formula);
     }
 
     public IFormula getFormula() {
         return formula;
     }
 
-    public void setFormula(IFormula formula) {
-        this.formula = formula;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Globally other) || hash != other.hash) return false;
+        return Objects.equals(formula, other.formula);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     @Override
@@ -1,14 +1,18 @@
 package com.ltl.ltl.model.formulas;
 
+import java.util.Objects;
+
 import com.ltl.ltl.model.IFormula;
 
-public class Impl implements IFormula {
+public final class Impl implements IFormula {
     private final IFormula left;
     private final IFormula right;
+    private final int hash;
 
     public Impl(IFormula left, IFormula right) {
         this.left = left;
         this.right = right;
+        this.hash = 31 * (31 * 7 + Objects.hashCode(left)) + Objects.hashCode(right);
     }
 
     public IFormula getLeft() {
@@ -19,6 +23,18 @@ public class Impl implements IFormula {
         return right;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Impl other) || hash != other.hash) return false;
+        return Objects.equals(left, other.left) && Objects.equals(right, other.right);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
     @Override
     public String toString() {
         String l = left == null ? "?" : left.toString();
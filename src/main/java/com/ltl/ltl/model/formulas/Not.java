@@ -1,18 +1,35 @@
 package com.ltl.ltl.model.formulas;
+
+import java.util.Objects;
+
 import com.ltl.ltl.model.IFormula;
 
-public class Not implements IFormula {
+public final class Not implements IFormula {
 
     private final IFormula formula;
+    private final int hash;
 
     public Not(IFormula formula) {
         this.formula = formula;
+        this.hash = 31 * 41 + Objects.hashCode(formula);
     }
 
     public IFormula getFormula() {
         return formula;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Not other) || hash != other.hash) return false;
+        return Objects.equals(formula, other.formula);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
     @Override
     public String toString() {
         return "!" + (formula == null ? "?" : wrapIfBinary(formula));
@@ -1,13 +1,18 @@
 package com.ltl.ltl.model.formulas;
+
+import java.util.Objects;
+
 import com.ltl.ltl.model.IFormula;
 
-public class Release implements IFormula {
-    private IFormula left;
-    private IFormula right;
+public final class Release implements IFormula {
+    private final IFormula left;
+    private final IFormula right;
+    private final int hash;
 
     public Release(IFormula left, IFormula right) {
         this.left = left;
         this.right = right;
+        this.hash = 31 * (31 * 19 + Objects.hashCode(left)) + Objects.hashCode(right);
     }
 
     public IFormula getLeft() {
@@ -18,12 +23,16 @@ public class Release implements IFormula {
         return right;
     }
 
-    public void setLeft(IFormula left) {
-        this.left = left;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Release other) || hash != other.hash) return false;
+        return Objects.equals(left, other.left) && Objects.equals(right, other.right);
     }
 
-    public void setRight(IFormula right) {
-        this.right = right;
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     @Override
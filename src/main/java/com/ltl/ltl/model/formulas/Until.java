@@ -1,13 +1,18 @@
 package com.ltl.ltl.model.formulas;
+
+import java.util.Objects;
+
 import com.ltl.ltl.model.IFormula;
 
-public class Until implements IFormula {
-    private IFormula left;
-    private IFormula right;
+public final class Until implements IFormula {
+    private final IFormula left;
+    private final IFormula right;
+    private final int hash;
 
     public Until(IFormula left, IFormula right) {
         this.left = left;
         this.right = right;
+        this.hash = 31 * (31 * 17 + Objects.hashCode(left)) + Objects.hashCode(right);
     }
 
     public IFormula getLeft() {
@@ -18,12 +23,16 @@ public class Until implements IFormula {
         return right;
     }
 
-    public void setLeft(IFormula left) {
-        this.left = left;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Until other) || hash != other.hash) return false;
+        return Objects.equals(left, other.left) && Objects.equals(right, other.right);
     }
 
-    public void setRight(IFormula right) {
-        this.right = right;
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     @Override
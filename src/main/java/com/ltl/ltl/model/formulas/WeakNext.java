@@ -1,19 +1,32 @@
 package com.ltl.ltl.model.formulas;
+
+import java.util.Objects;
+
 import com.ltl.ltl.model.IFormula;
 
-public class WeakNext implements IFormula {
-    private IFormula formula;
+public final class WeakNext implements IFormula {
+    private final IFormula formula;
+    private final int hash;
 
     public WeakNext(IFormula formula) {
         this.formula = formula;
+        this.hash = 31 * 37 + Objects.hashCode(formula);
     }
 
     public IFormula getFormula() {
         return formula;
     }
 
-    public void setFormula(IFormula formula) {
-        this.formula = formula;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WeakNext other) || hash != other.hash) return false;
+        return Objects.equals(formula, other.formula);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     @Override
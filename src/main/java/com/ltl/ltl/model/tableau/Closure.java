@@ -0,0 +1,314 @@
+package com.ltl.ltl.model.tableau;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.FormulaFactory;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.Symbol;
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+import com.ltl.ltl.service.syntax.Nnf;
+
+/**
+ * Fischer–Ladner closure of a set of NNF formulas: every formula a tableau rule can ever
+ * put into a node label, each with a dense int id.
+ * <p>
+ * The closure is computed once per tableau and is immutable afterwards, so nodes can store
+ * their labels as {@link BitSet}s over these ids and share the rule tables below.
+ */
+public final class Closure {
+
+    public enum Kind { ATOM, NOT, AND, OR, NEXT, WEAK_NEXT, GLOBALLY, FINALLY, UNTIL, RELEASE, OTHER }
+
+    private static final int[] NONE = new int[0];
+
+    private final List<IFormula> formulas;
+    private final Map<IFormula, Integer> ids;
+    private final Kind[] kinds;
+    // formulas added by the non-branching rule (G, &)
+    private final int[][] alpha;
+    // formulas added by the left/right branch of the branching rules (|, F, U, R)
+    private final int[][] left;
+    private final int[][] right;
+    // X φ -> id of φ, -1 otherwise
+    private final int[] nextOf;
+    // X(F φ) -> id of φ, X(α U β) -> id of β, -1 otherwise
+    private final int[] eventualityTarget;
+    private final BitSet nextMask = new BitSet();
+    private final BitSet poisedMask = new BitSet();
+    // ids with an eventuality target
+    private final BitSet eventualityMask = new BitSet();
+    // literal pairs (p, !p) that are both in the closure
+    private final int[] positiveLiterals;
+    private final int[] negativeLiterals;
+    // literal id -> id of the complementary literal, -1 if none
+    private final int[] complement;
+    // bit i set if Symbol.values()[i] occurs in the formula
+    private final long[] symbols;
+
+    private Closure(List<IFormula> formulas, Map<IFormula, Integer> ids, Kind[] kinds, int[][] alpha,
+            int[][] left, int[][] right, int[] nextOf, int[] eventualityTarget,
+            int[] positiveLiterals, int[] negativeLiterals) {
+        this.formulas = formulas;
+        this.ids = ids;
+        this.kinds = kinds;
+        this.alpha = alpha;
+        this.left = left;
+        this.right = right;
+        this.nextOf = nextOf;
+        this.eventualityTarget = eventualityTarget;
+        this.positiveLiterals = positiveLiterals;
+        this.negativeLiterals = negativeLiterals;
+        this.complement = new int[kinds.length];
+        Arrays.fill(complement, -1);
+        for (int i = 0; i < positiveLiterals.length; i++) {
+            complement[positiveLiterals[i]] = negativeLiterals[i];
+            complement[negativeLiterals[i]] = positiveLiterals[i];
+        }
+        this.symbols = new long[kinds.length];
+        for (int id = 0; id < kinds.length; id++) {
+            symbols[id] = symbolMask(formulas.get(id));
+        }
+        for (int id = 0; id < kinds.length; id++) {
+            if (kinds[id] == Kind.NEXT) nextMask.set(id);
+            if (kinds[id] == Kind.ATOM || kinds[id] == Kind.NOT || kinds[id] == Kind.NEXT) poisedMask.set(id);
+            if (eventualityTarget[id] >= 0) eventualityMask.set(id);
+        }
+    }
+
+    /**
+     * Computes the closure of the given formulas. The formulas are normalized to NNF first;
+     * ids are assigned in discovery order, so the given formulas come first.
+     */
+    public static Closure of(Collection<IFormula> roots) {
+        Nnf nnf = new Nnf();
+        List<IFormula> formulas = new ArrayList<>();
+        Map<IFormula, Integer> ids = new HashMap<>();
+        for (IFormula root : roots) {
+            register(nnf.toNnf(root), formulas, ids);
+        }
+
+        List<Kind> kinds = new ArrayList<>();
+        List<int[]> alpha = new ArrayList<>();
+        List<int[]> left = new ArrayList<>();
+        List<int[]> right = new ArrayList<>();
+        List<Integer> nextOf = new ArrayList<>();
+        // worklist: every newly registered formula is appended to 'formulas'
+        for (int id = 0; id < formulas.size(); id++) {
+            IFormula f = formulas.get(id);
+            int[] a = NONE, l = NONE, r = NONE;
+            int next = -1;
+            Kind kind;
+            if (f instanceof AtomicProposition) {
+                kind = Kind.ATOM;
+            } else if (f instanceof Not n) {
+                kind = Kind.NOT;
+                register(n.getFormula(), formulas, ids);
+            } else if (f instanceof And and) {
+                kind = Kind.AND;
+                a = ints(register(and.getLeft(), formulas, ids), register(and.getRight(), formulas, ids));
+            } else if (f instanceof Globally g) {
+                kind = Kind.GLOBALLY;
+                a = ints(register(g.getFormula(), formulas, ids), register(FormulaFactory.next(g), formulas, ids));
+            } else if (f instanceof Or or) {
+                kind = Kind.OR;
+                l = ints(register(or.getLeft(), formulas, ids));
+                r = ints(register(or.getRight(), formulas, ids));
+            } else if (f instanceof Finally fin) {
+                kind = Kind.FINALLY;
+                l = ints(register(fin.getFormula(), formulas, ids));
+                r = ints(register(FormulaFactory.next(fin), formulas, ids));
+            } else if (f instanceof Until u) {
+                kind = Kind.UNTIL;
+                l = ints(register(u.getRight(), formulas, ids));
+                r = ints(register(FormulaFactory.and(u.getLeft(), FormulaFactory.next(u)), formulas, ids));
+            } else if (f instanceof Release rel) {
+                kind = Kind.RELEASE;
+                l = ints(register(FormulaFactory.and(rel.getLeft(), rel.getRight()), formulas, ids));
+                r = ints(register(FormulaFactory.and(rel.getRight(), FormulaFactory.next(rel)), formulas, ids));
+            } else if (f instanceof Next x) {
+                kind = Kind.NEXT;
+                next = register(x.getFormula(), formulas, ids);
+            } else if (f instanceof WeakNext w) {
+                kind = Kind.WEAK_NEXT;
+                register(w.getFormula(), formulas, ids);
+            } else {
+                kind = Kind.OTHER;
+            }
+            kinds.add(kind);
+            alpha.add(a);
+            left.add(l);
+            right.add(r);
+            nextOf.add(next);
+        }
+
+        int n = formulas.size();
+        int[] eventualityTarget = new int[n];
+        for (int id = 0; id < n; id++) {
+            eventualityTarget[id] = -1;
+            if (formulas.get(id) instanceof Next x) {
+                if (x.getFormula() instanceof Finally fin) {
+                    eventualityTarget[id] = ids.get(fin.getFormula());
+                } else if (x.getFormula() instanceof Until u) {
+                    eventualityTarget[id] = ids.get(u.getRight());
+                }
+            }
+        }
+
+        // literal pairs for the contradiction check
+        Map<Symbol, Integer> positives = new EnumMap<>(Symbol.class);
+        Map<Symbol, Integer> negatives = new EnumMap<>(Symbol.class);
+        for (int id = 0; id < n; id++) {
+            IFormula f = formulas.get(id);
+            if (f instanceof AtomicProposition ap && ap.getSymbol() != null) {
+                positives.put(ap.getSymbol(), id);
+            } else if (f instanceof Not not && not.getFormula() instanceof AtomicProposition ap && ap.getSymbol() != null) {
+                negatives.put(ap.getSymbol(), id);
+            }
+        }
+        List<int[]> pairs = new ArrayList<>();
+        for (Map.Entry<Symbol, Integer> e : positives.entrySet()) {
+            Integer neg = negatives.get(e.getKey());
+            if (neg != null) pairs.add(ints(e.getValue(), neg));
+        }
+        int[] pos = new int[pairs.size()];
+        int[] neg = new int[pairs.size()];
+        for (int i = 0; i < pairs.size(); i++) {
+            pos[i] = pairs.get(i)[0];
+            neg[i] = pairs.get(i)[1];
+        }
+
+        return new Closure(Collections.unmodifiableList(formulas), ids, kinds.toArray(new Kind[0]),
+                alpha.toArray(new int[0][]), left.toArray(new int[0][]), right.toArray(new int[0][]),
+                nextOf.stream().mapToInt(Integer::intValue).toArray(), eventualityTarget, pos, neg);
+    }
+
+    private static int register(IFormula f, List<IFormula> formulas, Map<IFormula, Integer> ids) {
+        Integer id = ids.get(f);
+        if (id != null) return id;
+        int fresh = formulas.size();
+        formulas.add(f);
+        ids.put(f, fresh);
+        return fresh;
+    }
+
+    private static long symbolMask(IFormula f) {
+        if (f instanceof AtomicProposition ap) return ap.getSymbol() == null ? 0 : 1L << ap.getSymbol().ordinal();
+        if (f instanceof Not n) return symbolMask(n.getFormula());
+        if (f instanceof Next x) return symbolMask(x.getFormula());
+        if (f instanceof WeakNext w) return symbolMask(w.getFormula());
+        if (f instanceof Globally g) return symbolMask(g.getFormula());
+        if (f instanceof Finally fin) return symbolMask(fin.getFormula());
+        if (f instanceof And a) return symbolMask(a.getLeft()) | symbolMask(a.getRight());
+        if (f instanceof Or o) return symbolMask(o.getLeft()) | symbolMask(o.getRight());
+        if (f instanceof Until u) return symbolMask(u.getLeft()) | symbolMask(u.getRight());
+        if (f instanceof Release r) return symbolMask(r.getLeft()) | symbolMask(r.getRight());
+        return 0;
+    }
+
+    private static int[] ints(int... values) {
+        return values;
+    }
+
+    public int size() {
+        return formulas.size();
+    }
+
+    public IFormula formula(int id) {
+        return formulas.get(id);
+    }
+
+    /** Id of an NNF formula of this closure; throws if the formula is not part of it. */
+    public int idOf(IFormula nnfFormula) {
+        Integer id = ids.get(nnfFormula);
+        if (id == null) {
+            throw new IllegalArgumentException("Formula not in closure: " + nnfFormula);
+        }
+        return id;
+    }
+
+    public boolean contains(IFormula nnfFormula) {
+        return ids.containsKey(nnfFormula);
+    }
+
+    public Kind kind(int id) {
+        return kinds[id];
+    }
+
+    /** Formulas added by the non-branching rule for {@code id}; empty if there is none. */
+    public int[] alpha(int id) {
+        return alpha[id];
+    }
+
+    /** Formulas added by the left branch of the branching rule for {@code id}. */
+    public int[] left(int id) {
+        return left[id];
+    }
+
+    /** Formulas added by the right branch of the branching rule for {@code id}. */
+    public int[] right(int id) {
+        return right[id];
+    }
+
+    /** For {@code X φ} the id of {@code φ}, otherwise -1. */
+    public int nextOf(int id) {
+        return nextOf[id];
+    }
+
+    /** For {@code X(F φ)} the id of {@code φ}, for {@code X(α U β)} the id of {@code β}, otherwise -1. */
+    public int eventualityTarget(int id) {
+        return eventualityTarget[id];
+    }
+
+    /** Targets of all Next-eventualities in the label: the formulas a loop through it has to visit. */
+    public BitSet eventualityTargets(BitSet label) {
+        BitSet targets = new BitSet();
+        for (int id = eventualityMask.nextSetBit(0); id >= 0; id = eventualityMask.nextSetBit(id + 1)) {
+            if (label.get(id)) targets.set(eventualityTarget[id]);
+        }
+        return targets;
+    }
+
+    /** For a literal {@code p} / {@code !p} the id of its complement if that is in the closure, otherwise -1. */
+    public int complement(int id) {
+        return complement[id];
+    }
+
+    /** Propositions occurring in the formula, bit i for {@code Symbol.values()[i]}. */
+    public long symbols(int id) {
+        return symbols[id];
+    }
+
+    /** Atoms, negations and Next formulas do not need a rule before the next-step. */
+    public boolean isPoisedKind(int id) {
+        return poisedMask.get(id);
+    }
+
+    public boolean containsNext(BitSet label) {
+        return label.intersects(nextMask);
+    }
+
+    /** True if the label contains some atom together with its negation. */
+    public boolean contradicts(BitSet label) {
+        for (int i = 0; i < positiveLiterals.length; i++) {
+            if (label.get(positiveLiterals[i]) && label.get(negativeLiterals[i])) return true;
+        }
+        return false;
+    }
+}
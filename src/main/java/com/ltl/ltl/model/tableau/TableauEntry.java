@@ -19,6 +19,16 @@ public class TableauEntry {
 		this.checked = checked;
 	}
 
+	// formula is already canonical NNF (taken from a Closure), skip normalization
+	private TableauEntry(boolean checked, IFormula nnfFormula) {
+		this.formula = nnfFormula;
+		this.checked = checked;
+	}
+
+	static TableauEntry ofNnf(IFormula nnfFormula, boolean checked) {
+		return new TableauEntry(checked, nnfFormula);
+	}
+
 	public IFormula getFormula() {
 		return formula;
 	}
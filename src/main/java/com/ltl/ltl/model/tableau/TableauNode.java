@@ -1,18 +1,21 @@
 package com.ltl.ltl.model.tableau;
 
  import java.util.ArrayList;
-import java.util.EnumSet;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 import com.ltl.ltl.model.AtomicProposition;
 import com.ltl.ltl.model.IFormula;
 import com.ltl.ltl.model.Symbol;
 import com.ltl.ltl.model.formulas.And;
-import com.ltl.ltl.model.formulas.Next;
 import com.ltl.ltl.model.formulas.Not;
 import com.ltl.ltl.service.tableau.TableauProof;
 public class TableauNode {
+    // Label over the ids of a Closure shared by all nodes of the tableau; 'checked' is a subset of 'label'
+    private final Closure closure;
+    private final BitSet label;
+    private final BitSet checked;
+    // materialized entry view, rebuilt after the checked set changed
     private List<TableauEntry> entries;
     private List<TableauNode> children = new ArrayList<>();
     private TableauNode parent;
@@ -20,20 +23,45 @@ public class TableauNode {
     // Nullable closed flag: null = undecided, true = closed/accepted, false = closed/rejected
     private Boolean isClosed; 
 
+    /**
+     * Creates a node from explicit entries. Without a parent the closure of the entries is
+     * computed; with a parent the node shares the parent's closure, which must contain the
+     * entry formulas.
+     */
     public TableauNode(List<TableauEntry> entries, TableauNode parent) {
-        this.entries = entries;
         this.parent = parent;
+        if (parent != null) {
+            this.closure = parent.closure;
+        } else {
+            List<IFormula> formulas = new ArrayList<>();
+            for (TableauEntry e : entries) formulas.add(e.getFormula());
+            this.closure = Closure.of(formulas);
+        }
+        this.label = new BitSet(closure.size());
+        this.checked = new BitSet(closure.size());
+        for (TableauEntry e : entries) {
+            int id = closure.idOf(e.getFormula());
+            label.set(id);
+            if (e.isChecked()) checked.set(id);
+        }
     }
     //constructur for the first node
     public TableauNode(List<TableauEntry> entries) {
-        this.entries = entries;
+        this(entries, null);
+    }
+
+    /** Creates a node directly from a label over the closure (used by the tableau rules). */
+    public TableauNode(Closure closure, BitSet label, BitSet checked, TableauNode parent) {
+        this.closure = closure;
+        this.label = label;
+        this.checked = checked;
+        this.parent = parent;
     }
 
     public boolean isPoised() {
-        for (TableauEntry entry : entries) {
-            IFormula formula = entry.getFormula();
-            // Check if the formula is an atomic proposition, starts with Next, or is a Not
-            if (!(formula instanceof AtomicProposition || formula instanceof Next || formula instanceof Not) && !entry.isChecked())  {
+        for (int id = label.nextSetBit(0); id >= 0; id = label.nextSetBit(id + 1)) {
+            // atomic propositions, Next and Not formulas are poised; everything else must be checked
+            if (!closure.isPoisedKind(id) && !checked.get(id)) {
                 return false;
             }
         }
@@ -41,42 +69,54 @@ public class TableauNode {
     }
 
     public boolean contradiction() {
-        Set<Symbol> positives = EnumSet.noneOf(Symbol.class);
-        Set<Symbol> negatives = EnumSet.noneOf(Symbol.class);
+        // Contradiction if any atom appears both positively and negatively
+        return closure.contradicts(label);
+    }
 
-        for (TableauEntry entry : entries) {
-            IFormula f = entry.getFormula();
-            if (f == null) continue;
 
-            if (f instanceof AtomicProposition ap) {
-                positives.add(ap.getSymbol());
-                
-            } else if (f instanceof Not n && n.getFormula() instanceof AtomicProposition ap2) {
-                
-                negatives.add(ap2.getSymbol());
-                
+    public boolean containsNextOperator() {
+        return closure.containsNext(label);
+    }
 
+    /**
+     * Entries of this node in closure order. The list is a snapshot view of the label;
+     * use {@link #markChecked(int)} to change the checked state.
+     */
+    public List<TableauEntry> getEntries() {
+        List<TableauEntry> view = entries;
+        if (view == null) {
+            view = new ArrayList<>(label.cardinality());
+            for (int id = label.nextSetBit(0); id >= 0; id = label.nextSetBit(id + 1)) {
+                view.add(TableauEntry.ofNnf(closure.formula(id), checked.get(id)));
             }
+            entries = view;
         }
-        // Contradiction if any atom appears both positively and negatively
-        for (Symbol s : positives) {
-            if (negatives.contains(s)) return true;
-        }
-        return false;
+        return view;
     }
 
+    public Closure getClosure() {
+        return closure;
+    }
 
-    public boolean containsNextOperator() {
-        for (TableauEntry entry : entries) {
-            if (entry.getFormula() instanceof Next) {
-                return true;
-            }
-        }
-        return false;
+    /** Formula ids of this node. The returned set is owned by the node and must not be modified. */
+    public BitSet getLabel() {
+        return label;
     }
 
-    public List<TableauEntry> getEntries() {
-        return entries;
+    /** Ids of the formulas already expanded at this node. Must not be modified. */
+    public BitSet getChecked() {
+        return checked;
+    }
+
+    public boolean isChecked(int id) {
+        return checked.get(id);
+    }
+
+    public void markChecked(int id) {
+        if (!checked.get(id)) {
+            checked.set(id);
+            entries = null;
+        }
     }
 
     public List<TableauNode> getChildren() {
@@ -1,9 +1,8 @@
 package com.ltl.ltl.service;
 
-import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.FormulaFactory;
 import com.ltl.ltl.model.IFormula;
 import com.ltl.ltl.model.Symbol;
-import com.ltl.ltl.model.formulas.*;
 import com.ltl.ltl.service.syntax.Lexer;
 import com.ltl.ltl.service.syntax.ParseException;
 import com.ltl.ltl.service.syntax.Token;
@@ -30,7 +29,7 @@ public class AstParser {
         while (lookahead.getType() == TokenType.EQUIV) {
             consume(TokenType.EQUIV);
             IFormula right = parseImpl();
-            left = new Equiv(left, right);
+            left = FormulaFactory.equiv(left, right);
         }
         return left;
     }
@@ -42,11 +41,11 @@ public class AstParser {
             if (lookahead.getType() == TokenType.IMPL) {
                 consume(TokenType.IMPL);
                 IFormula right = parseOr();
-                left = new Impl(left, right);
+                left = FormulaFactory.impl(left, right);
             } else {
                 consume(TokenType.RIMPL);
                 IFormula right = parseOr();
-                left = new RImpl(left, right);
+                left = FormulaFactory.rimpl(left, right);
             }
         }
         return left;
@@ -58,7 +57,7 @@ public class AstParser {
         while (lookahead.getType() == TokenType.OR) {
             consume(TokenType.OR);
             IFormula right = parseAnd();
-            left = new Or(left, right);
+            left = FormulaFactory.or(left, right);
         }
         return left;
     }
@@ -69,7 +68,7 @@ public class AstParser {
         while (lookahead.getType() == TokenType.AND) {
             consume(TokenType.AND);
             IFormula right = parseUntilRelease();
-            left = new And(left, right);
+            left = FormulaFactory.and(left, right);
         }
         return left;
     }
@@ -81,11 +80,11 @@ public class AstParser {
             if (lookahead.getType() == TokenType.U) {
                 consume(TokenType.U);
                 IFormula right = parsePrefix();
-                left = new Until(left, right);
+                left = FormulaFactory.until(left, right);
             } else {
                 consume(TokenType.R);
                 IFormula right = parsePrefix();
-                left = new Release(left, right);
+                left = FormulaFactory.release(left, right);
             }
         }
         return left;
@@ -95,19 +94,19 @@ public class AstParser {
     private IFormula parsePrefix() throws ParseException {
         if (lookahead.getType() == TokenType.NOT) {
             consume(TokenType.NOT);
-            return new Not(parsePrefix());
+            return FormulaFactory.not(parsePrefix());
         } else if (lookahead.getType() == TokenType.G) {
             consume(TokenType.G);
-            return new Globally(parsePrefix());
+            return FormulaFactory.globally(parsePrefix());
         } else if (lookahead.getType() == TokenType.X) {
             consume(TokenType.X);
-            return new Next(parsePrefix());
+            return FormulaFactory.next(parsePrefix());
         } else if (lookahead.getType() == TokenType.F) {
             consume(TokenType.F);
-            return new Finally(parsePrefix());
+            return FormulaFactory.eventually(parsePrefix());
         } else if (lookahead.getType() == TokenType.W) {
             consume(TokenType.W);
-            return new WeakNext(parsePrefix());
+            return FormulaFactory.weakNext(parsePrefix());
         }
         return parsePrimary();
     }
@@ -118,7 +117,7 @@ public class AstParser {
             case PROP -> {
                 String name = lookahead.getText();
                 consume(TokenType.PROP);
-                return new AtomicProposition(Symbol.valueOf(name.toUpperCase()));
+                return FormulaFactory.atom(Symbol.valueOf(name.toUpperCase()));
             }
             case LPAREN -> {
                 consume(TokenType.LPAREN);
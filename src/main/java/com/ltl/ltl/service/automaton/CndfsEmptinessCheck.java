@@ -0,0 +1,288 @@
+package com.ltl.ltl.service.automaton;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.ltl.ltl.service.automaton.GeneralizedBuchiAutomaton.State;
+import com.ltl.ltl.service.util.ConcurrentLongSet;
+import com.ltl.ltl.service.util.LongStateTable;
+
+/**
+ * Multi-core emptiness check with the CNDFS algorithm of Evangelista, Laarman, Petrucci and
+ * van de Pol: every worker runs its own nested depth-first search over the whole automaton,
+ * visiting successors in its own random order, and the workers share the states whose red
+ * search is complete. A worker skips shared red states, so the workers spread over
+ * different parts of the state space instead of repeating each other.
+ * <p>
+ * Nested DFS needs plain Büchi acceptance, so the search runs on the degeneralized
+ * automaton: a product state is an automaton state with the index of the acceptance set it
+ * waits for next, and it is accepting if it waits for set 0 and is in it. Product states are
+ * packed into longs for the shared lock-free red set and the per-worker colour tables, so
+ * that no state is boxed.
+ */
+public final class CndfsEmptinessCheck implements EmptinessCheck {
+
+    // room the shared red set may grow to without a state limit
+    private static final int MAX_CAPACITY = 1 << 28;
+    private static final byte CYAN = 1;
+    private static final byte BLUE = 2;
+    // the clock is read once per this many states of a worker
+    private static final int CLOCK_INTERVAL = 256;
+
+    private final GeneralizedBuchiAutomaton automaton;
+    private final int workers;
+    private final long seed;
+    private final int sets;
+    private long maxStates = Long.MAX_VALUE;
+    private Duration timeout;
+
+    private final AtomicLong states = new AtomicLong();
+    private final AtomicReference<Result> outcome = new AtomicReference<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private ConcurrentLongSet red;
+    private long deadline;
+
+    public CndfsEmptinessCheck(GeneralizedBuchiAutomaton automaton, int workers) {
+        this(automaton, workers, 0);
+    }
+
+    /** {@code seed} fixes the successor orders of the workers, for reproducible runs. */
+    public CndfsEmptinessCheck(GeneralizedBuchiAutomaton automaton, int workers, long seed) {
+        if (workers < 1) throw new IllegalArgumentException("At least one worker is needed");
+        if (automaton.getAcceptanceSets() >= 1 << 16) {
+            throw new IllegalArgumentException("Too many acceptance sets: " + automaton.getAcceptanceSets());
+        }
+        this.automaton = automaton;
+        this.workers = workers;
+        this.seed = seed;
+        this.sets = automaton.getAcceptanceSets();
+    }
+
+    /**
+     * Limits the next {@link #run()}. The shared red set starts small and grows with the
+     * states, up to room for the state limit.
+     */
+    @Override
+    public void setLimits(long maxStates, Duration timeout) {
+        this.maxStates = maxStates;
+        this.timeout = timeout;
+    }
+
+    /** States visited by the blue searches of all workers in the last run. */
+    @Override
+    public long getStates() {
+        return states.get();
+    }
+
+    @Override
+    public Result run() {
+        states.set(0);
+        outcome.set(null);
+        failure.set(null);
+        red = new ConcurrentLongSet((int) Math.min(maxStates, MAX_CAPACITY));
+        deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(new Worker(i), "cndfs-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException ex) {
+            outcome.compareAndSet(null, Result.UNKNOWN);
+            Thread.currentThread().interrupt();
+        }
+        Throwable error = failure.get();
+        if (error != null) throw new IllegalStateException("CNDFS worker failed", error);
+        return outcome.get();
+    }
+
+    private static long key(State state, int level) {
+        return ((long) state.id() << 16) | level;
+    }
+
+    private boolean accepting(State state, int level) {
+        return sets == 0 || (level == 0 && state.accepts(0));
+    }
+
+    // level of the successors: a state in the awaited set moves on to the next set
+    private int nextLevel(State state, int level) {
+        if (sets == 0 || !state.accepts(level)) return level;
+        return (level + 1) % sets;
+    }
+
+    private boolean finished() {
+        return outcome.get() != null;
+    }
+
+    // A product state on a DFS stack with its successors in this worker's order
+    private static final class Frame {
+        final State state;
+        final int level;
+        final long key;
+        final State[] successors;
+        final int successorLevel;
+        int next;
+
+        Frame(State state, int level, long key, State[] successors, int successorLevel) {
+            this.state = state;
+            this.level = level;
+            this.key = key;
+            this.successors = successors;
+            this.successorLevel = successorLevel;
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final Random random;
+        // cyan: on this worker's blue stack, blue: blue search finished
+        private final LongStateTable colours = new LongStateTable(1 << 10);
+        private long visited;
+
+        Worker(int index) {
+            this.index = index;
+            this.random = new Random(seed * 31 + index);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (State initial : permuted(automaton.initialStates())) {
+                    if (finished()) return;
+                    if (blue(initial)) {
+                        outcome.compareAndSet(null, Result.NON_EMPTY);
+                        return;
+                    }
+                }
+                // one complete search decides for everybody
+                outcome.compareAndSet(null, Result.EMPTY);
+            } catch (IllegalStateException full) {
+                // the shared red set ran out of room
+                outcome.compareAndSet(null, Result.UNKNOWN);
+            } catch (Throwable ex) {
+                failure.compareAndSet(null, ex);
+                outcome.compareAndSet(null, Result.UNKNOWN);
+            }
+        }
+
+        // true if an accepting cycle was found
+        private boolean blue(State initial) {
+            long initialKey = key(initial, 0);
+            if (colours.contains(initialKey) || red.contains(initialKey)) return false;
+            Deque<Frame> stack = new ArrayDeque<>();
+            stack.push(enter(initial, 0, initialKey));
+            while (!stack.isEmpty()) {
+                if (finished()) return false;
+                Frame top = stack.peek();
+                if (top.next < top.successors.length) {
+                    State target = top.successors[top.next++];
+                    long targetKey = key(target, top.successorLevel);
+                    if (!colours.contains(targetKey) && !red.contains(targetKey)) {
+                        if (!withinLimits()) return false;
+                        stack.push(enter(target, top.successorLevel, targetKey));
+                    }
+                    continue;
+                }
+                stack.pop();
+                if (accepting(top.state, top.level) && red(top)) return true;
+                colours.clear(top.key, CYAN);
+                colours.set(top.key, BLUE);
+            }
+            return false;
+        }
+
+        private Frame enter(State state, int level, long key) {
+            colours.set(key, CYAN);
+            states.incrementAndGet();
+            visited++;
+            return new Frame(state, level, key, permuted(automaton.successors(state)).toArray(new State[0]),
+                    nextLevel(state, level));
+        }
+
+        private boolean withinLimits() {
+            if (states.get() >= maxStates
+                    || (deadline != Long.MAX_VALUE && visited % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline > 0)) {
+                outcome.compareAndSet(null, Result.UNKNOWN);
+                return false;
+            }
+            return true;
+        }
+
+        // Red search from an accepting seed: a path back to a cyan state closes an accepting cycle
+        private boolean red(Frame seed) {
+            LongStateTable reached = new LongStateTable(64);
+            // the states of reached in order, and the accepting ones among them
+            long[] reachedKeys = new long[64];
+            int reachedCount = 0;
+            long[] acceptingReached = new long[16];
+            int acceptingCount = 0;
+            Deque<Frame> stack = new ArrayDeque<>();
+            reached.set(seed.key, 0);
+            reachedKeys[reachedCount++] = seed.key;
+            // the blue search is done with the seed's successors, so the array can be walked again
+            stack.push(new Frame(seed.state, seed.level, seed.key, seed.successors, seed.successorLevel));
+            while (!stack.isEmpty()) {
+                if (finished()) return false;
+                Frame top = stack.peek();
+                if (top.next == top.successors.length) {
+                    stack.pop();
+                    continue;
+                }
+                State target = top.successors[top.next++];
+                long targetKey = key(target, top.successorLevel);
+                if (colours.get(targetKey) == CYAN) return true;
+                if (reached.contains(targetKey) || red.contains(targetKey)) continue;
+                reached.set(targetKey, 0);
+                if (reachedCount == reachedKeys.length) reachedKeys = Arrays.copyOf(reachedKeys, 2 * reachedCount);
+                reachedKeys[reachedCount++] = targetKey;
+                if (accepting(target, top.successorLevel)) {
+                    if (acceptingCount == acceptingReached.length) {
+                        acceptingReached = Arrays.copyOf(acceptingReached, 2 * acceptingCount);
+                    }
+                    acceptingReached[acceptingCount++] = targetKey;
+                }
+                stack.push(new Frame(target, top.successorLevel, targetKey,
+                        permuted(automaton.successors(target)).toArray(new State[0]),
+                        nextLevel(target, top.successorLevel)));
+            }
+            // accepting states this search ran into are seeds of other workers' red searches;
+            // marking our states red before theirs finish could hide a cycle through them
+            for (int i = 0; i < acceptingCount; i++) {
+                while (!red.contains(acceptingReached[i])) {
+                    if (finished()) return false;
+                    Thread.yield();
+                }
+            }
+            for (int i = 0; i < reachedCount; i++) {
+                red.add(reachedKeys[i]);
+            }
+            return false;
+        }
+
+        private List<State> permuted(List<State> successors) {
+            // worker 0 keeps the automaton's order, the others shuffle
+            if (index == 0 || successors.size() < 2) return successors;
+            List<State> copy = new ArrayList<>(successors);
+            for (int i = copy.size() - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                State swap = copy.get(i);
+                copy.set(i, copy.get(j));
+                copy.set(j, swap);
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.ltl.ltl.service.automaton;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ltl.ltl.service.automaton.GeneralizedBuchiAutomaton.State;
+
+/**
+ * On-the-fly emptiness check of a generalized Büchi automaton after Couvreur: a Tarjan style
+ * depth-first search that keeps a stack of SCC roots together with the acceptance sets seen
+ * in each candidate SCC. Whenever a back edge merges candidates into an SCC that meets every
+ * acceptance set, an accepting cycle exists and the search stops.
+ * <p>
+ * The search is iterative, so long paths do not need a deep Java stack. It can be limited to
+ * a number of states and a wall-clock time; running out answers {@link Result#UNKNOWN}.
+ */
+public final class CouvreurEmptinessCheck implements EmptinessCheck {
+
+    // the clock is read once per this many states
+    private static final int CLOCK_INTERVAL = 256;
+
+    private final GeneralizedBuchiAutomaton automaton;
+    private long maxStates = Long.MAX_VALUE;
+    private Duration timeout;
+    private long states;
+    private long transitions;
+
+    public CouvreurEmptinessCheck(GeneralizedBuchiAutomaton automaton) {
+        this.automaton = automaton;
+    }
+
+    @Override
+    public void setLimits(long maxStates, Duration timeout) {
+        this.maxStates = maxStates;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public long getStates() {
+        return states;
+    }
+
+    /** Edges followed by the last run. */
+    public long getTransitions() {
+        return transitions;
+    }
+
+    // A candidate SCC: the DFS number of its root and the acceptance sets of its states
+    private static final class Root {
+        final long number;
+        final BitSet acceptance;
+
+        Root(long number, BitSet acceptance) {
+            this.number = number;
+            this.acceptance = acceptance;
+        }
+    }
+
+    // A state on the DFS stack and the index of the next successor to follow
+    private static final class Frame {
+        final State state;
+        final List<State> successors;
+        int next;
+
+        Frame(State state, List<State> successors) {
+            this.state = state;
+            this.successors = successors;
+        }
+    }
+
+    @Override
+    public Result run() {
+        states = 0;
+        transitions = 0;
+        long deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+        int sets = automaton.getAcceptanceSets();
+        // DFS number of every visited state, 0 once its SCC is finished
+        Map<State, Long> numbers = new IdentityHashMap<>();
+        Deque<Frame> dfs = new ArrayDeque<>();
+        Deque<Root> roots = new ArrayDeque<>();
+        // states of the unfinished SCCs in visiting order
+        Deque<State> active = new ArrayDeque<>();
+
+        for (State initial : automaton.initialStates()) {
+            if (numbers.containsKey(initial)) continue;
+            push(initial, numbers, dfs, roots, active);
+
+            while (!dfs.isEmpty()) {
+                Frame top = dfs.peek();
+                if (top.next < top.successors.size()) {
+                    State target = top.successors.get(top.next++);
+                    transitions++;
+                    Long number = numbers.get(target);
+                    if (number == null) {
+                        if (states >= maxStates) return Result.UNKNOWN;
+                        if (deadline != Long.MAX_VALUE && states % CLOCK_INTERVAL == 0
+                                && System.nanoTime() - deadline > 0) {
+                            return Result.UNKNOWN;
+                        }
+                        push(target, numbers, dfs, roots, active);
+                    } else if (number > 0) {
+                        // edge back into an unfinished SCC: everything above its root is one SCC
+                        BitSet merged = new BitSet();
+                        while (roots.peek().number > number) {
+                            merged.or(roots.pop().acceptance);
+                        }
+                        Root root = roots.peek();
+                        root.acceptance.or(merged);
+                        if (root.acceptance.cardinality() == sets) return Result.NON_EMPTY;
+                    }
+                } else {
+                    dfs.pop();
+                    if (roots.peek().number == numbers.get(top.state)) {
+                        // top.state is the root of a maximal SCC without an accepting cycle
+                        roots.pop();
+                        State member;
+                        do {
+                            member = active.pop();
+                            numbers.put(member, 0L);
+                        } while (member != top.state);
+                    }
+                }
+            }
+        }
+        return Result.EMPTY;
+    }
+
+    private void push(State state, Map<State, Long> numbers, Deque<Frame> dfs, Deque<Root> roots,
+            Deque<State> active) {
+        long number = ++states;
+        numbers.put(state, number);
+        roots.push(new Root(number, (BitSet) state.acceptance().clone()));
+        active.push(state);
+        dfs.push(new Frame(state, automaton.successors(state)));
+    }
+}
@@ -0,0 +1,24 @@
+package com.ltl.ltl.service.automaton;
+
+import java.time.Duration;
+
+/** Decides whether a generalized Büchi automaton accepts some infinite word. */
+public interface EmptinessCheck {
+
+    enum Result {
+        /** No accepting run: the formula is unsatisfiable. */
+        EMPTY,
+        /** An accepting cycle was found: the formula is satisfiable. */
+        NON_EMPTY,
+        /** The state or time limit ran out first. */
+        UNKNOWN
+    }
+
+    /** Limits the next {@link #run()}; {@code timeout} may be {@code null} for no deadline. */
+    void setLimits(long maxStates, Duration timeout);
+
+    Result run();
+
+    /** States visited by the last run. */
+    long getStates();
+}
@@ -0,0 +1,243 @@
+package com.ltl.ltl.service.automaton;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.formulas.WeakNext;
+import com.ltl.ltl.model.tableau.Closure;
+
+/**
+ * Generalized Büchi automaton of an LTL formula, built on the fly in the style of Gerth,
+ * Peled, Vardi and Wolper.
+ * <p>
+ * A state is a fully expanded node: the formulas that hold now ({@code old}) and the
+ * formulas that must hold in the next state ({@code next}). Its successors are the nodes
+ * obtained by expanding its {@code next} set, and they are only computed when a search first
+ * asks for them. There is one acceptance set per Until/Finally formula {@code α U β} /
+ * {@code F β}: the states that either do not contain it or contain {@code β}.
+ * <p>
+ * States are interned, so two searches over the same automaton share everything explored
+ * so far. Interning and successor computation are lock-free, which lets several threads
+ * search one automaton concurrently.
+ */
+public final class GeneralizedBuchiAutomaton {
+
+    /** One automaton state. The labels only mention propositions the formula requires. */
+    public static final class State {
+        private final int id;
+        private final BitSet old;
+        private final BitSet next;
+        private final long positive;
+        private final long negative;
+        private final BitSet acceptance;
+        // computed on first use; racing threads compute the same interned states
+        private volatile List<State> successors;
+
+        private State(int id, BitSet old, BitSet next, long positive, long negative, BitSet acceptance) {
+            this.id = id;
+            this.old = old;
+            this.next = next;
+            this.positive = positive;
+            this.negative = negative;
+            this.acceptance = acceptance;
+        }
+
+        /** Unique id in creation order; ids lost in an interning race leave small gaps. */
+        public int id() {
+            return id;
+        }
+
+        /** Propositions that must be true in this state, bit i for {@code Symbol.values()[i]}. */
+        public long positive() {
+            return positive;
+        }
+
+        /** Propositions that must be false in this state. */
+        public long negative() {
+            return negative;
+        }
+
+        /** True if the state is in the given acceptance set. */
+        public boolean accepts(int set) {
+            return acceptance.get(set);
+        }
+
+        // shared, never modified
+        BitSet acceptance() {
+            return acceptance;
+        }
+
+        @Override
+        public String toString() {
+            return "q" + id;
+        }
+    }
+
+    // what identifies a state; both sets are never modified after interning
+    private record Key(BitSet old, BitSet next) {
+    }
+
+    private final IFormula formula;
+    private final Closure closure;
+    // closure ids of the Until/Finally formulas, one acceptance set each
+    private final int[] eventualities;
+    // X φ / WX φ -> id of φ
+    private final int[] nextOf;
+    private final ConcurrentHashMap<Key, State> states = new ConcurrentHashMap<>();
+    private final AtomicInteger stateIds = new AtomicInteger();
+    private volatile List<State> initial;
+
+    private GeneralizedBuchiAutomaton(IFormula formula, Closure closure) {
+        this.formula = formula;
+        this.closure = closure;
+        List<Integer> eventualityIds = new ArrayList<>();
+        this.nextOf = new int[closure.size()];
+        for (int id = 0; id < closure.size(); id++) {
+            Closure.Kind kind = closure.kind(id);
+            if (kind == Closure.Kind.UNTIL || kind == Closure.Kind.FINALLY) eventualityIds.add(id);
+            nextOf[id] = closure.nextOf(id);
+            // on infinite words the weak next is the same as the next operator
+            if (kind == Closure.Kind.WEAK_NEXT) {
+                nextOf[id] = closure.idOf(((WeakNext) closure.formula(id)).getFormula());
+            }
+        }
+        this.eventualities = eventualityIds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** The automaton of the formula; nothing is expanded until a search asks for states. */
+    public static GeneralizedBuchiAutomaton of(IFormula formula) {
+        Closure closure = Closure.of(List.of(formula));
+        return new GeneralizedBuchiAutomaton(closure.formula(0), closure);
+    }
+
+    /** The NNF formula the automaton accepts the models of. */
+    public IFormula getFormula() {
+        return formula;
+    }
+
+    /** Number of acceptance sets, one per Until/Finally subformula. */
+    public int getAcceptanceSets() {
+        return eventualities.length;
+    }
+
+    /** Number of states explored so far. */
+    public int getStateCount() {
+        return states.size();
+    }
+
+    public List<State> initialStates() {
+        List<State> result = initial;
+        if (result == null) {
+            BitSet root = new BitSet();
+            root.set(0);
+            result = expand(root);
+            initial = result;
+        }
+        return result;
+    }
+
+    public List<State> successors(State state) {
+        List<State> result = state.successors;
+        if (result == null) {
+            result = expand(state.next);
+            state.successors = result;
+        }
+        return result;
+    }
+
+    // A formula set being expanded: formulas still to process, processed ones, next obligations
+    private static final class Node {
+        final BitSet pending;
+        final BitSet old;
+        final BitSet next;
+
+        Node(BitSet pending, BitSet old, BitSet next) {
+            this.pending = pending;
+            this.old = old;
+            this.next = next;
+        }
+
+        Node copy() {
+            return new Node((BitSet) pending.clone(), (BitSet) old.clone(), (BitSet) next.clone());
+        }
+
+        void require(int[] ids) {
+            for (int id : ids) {
+                if (!old.get(id)) pending.set(id);
+            }
+        }
+    }
+
+    // The GPVW expansion: splits the obligations into all consistent fully expanded nodes
+    private List<State> expand(BitSet obligations) {
+        Set<State> result = new LinkedHashSet<>();
+        Deque<Node> work = new ArrayDeque<>();
+        work.push(new Node((BitSet) obligations.clone(), new BitSet(), new BitSet()));
+        while (!work.isEmpty()) {
+            Node node = work.pop();
+            int id = node.pending.nextSetBit(0);
+            if (id < 0) {
+                result.add(intern(node.old, node.next));
+                continue;
+            }
+            node.pending.clear(id);
+            if (node.old.get(id)) {
+                work.push(node);
+                continue;
+            }
+            node.old.set(id);
+            switch (closure.kind(id)) {
+                case ATOM, NOT -> {
+                    int complement = closure.complement(id);
+                    // contradictory nodes are dropped
+                    if (complement >= 0 && node.old.get(complement)) continue;
+                }
+                case NEXT, WEAK_NEXT -> node.next.set(nextOf[id]);
+                case AND, GLOBALLY -> node.require(closure.alpha(id));
+                case OR, UNTIL, RELEASE, FINALLY -> {
+                    Node right = node.copy();
+                    right.require(closure.right(id));
+                    work.push(right);
+                    node.require(closure.left(id));
+                }
+                default -> {
+                    // no rule: the formula does not constrain the state
+                }
+            }
+            work.push(node);
+        }
+        return Collections.unmodifiableList(new ArrayList<>(result));
+    }
+
+    private State intern(BitSet old, BitSet next) {
+        Key key = new Key(old, next);
+        State state = states.get(key);
+        if (state != null) return state;
+
+        long positive = 0;
+        long negative = 0;
+        for (int id = old.nextSetBit(0); id >= 0; id = old.nextSetBit(id + 1)) {
+            if (closure.kind(id) == Closure.Kind.ATOM) positive |= closure.symbols(id);
+            else if (closure.kind(id) == Closure.Kind.NOT) negative |= closure.symbols(id);
+        }
+        BitSet acceptance = new BitSet(eventualities.length);
+        for (int i = 0; i < eventualities.length; i++) {
+            int eventuality = eventualities[i];
+            // α U β and F β both keep β as their left branch
+            int target = closure.left(eventuality)[0];
+            if (!old.get(eventuality) || old.get(target)) acceptance.set(i);
+        }
+        State fresh = new State(stateIds.getAndIncrement(), old, next, positive, negative, acceptance);
+        State raced = states.putIfAbsent(key, fresh);
+        return raced != null ? raced : fresh;
+    }
+}
@@ -0,0 +1,538 @@
+package com.ltl.ltl.service.bdd;
+
+import java.util.Arrays;
+
+/**
+ * A small reduced ordered BDD package.
+ * <p>
+ * Nodes live in parallel int arrays and are addressed by index; 0 and 1 are the terminals.
+ * A unique table (hash chains through {@code next}) keeps every node canonical, and a
+ * direct-mapped computed table caches the results of the recursive operations. The variable
+ * order is a permutation fixed when the manager is created; nodes store levels, and variables
+ * are only translated at the API boundary. Variables added later go below all others.
+ * <p>
+ * Memory is reclaimed by mark-and-sweep. Results the caller wants to keep across operations
+ * must be protected with {@link #ref}; everything else may be collected when the next
+ * operation starts. The operands of that operation are always protected.
+ */
+public final class Bdd {
+
+    public static final int FALSE = 0;
+    public static final int TRUE = 1;
+
+    /** Thrown when an operation would need more nodes than the manager's limit. */
+    public static final class NodeLimitException extends RuntimeException {
+        public NodeLimitException(int limit) {
+            super("BDD node limit of " + limit + " reached");
+        }
+    }
+
+    private static final int OP_AND = 0;
+    private static final int OP_OR = 1;
+    private static final int OP_XOR = 2;
+    private static final int OP_BIIMP = 3;
+    private static final int OP_NOT = 4;
+    private static final int OP_EXISTS = 5;
+    private static final int OP_AND_EXISTS = 6;
+    // replace operations use OP_REPLACE + the id of their renaming
+    private static final int OP_REPLACE = 7;
+
+    private static final int INITIAL_NODES = 1 << 12;
+    private static final int CACHE_SIZE = 1 << 16;
+
+    private int variables;
+    private int[] levelOf;
+    private int[] varAt;
+    private final int maxNodes;
+
+    // node table; the terminals have level == variables
+    private int[] level;
+    private int[] low;
+    private int[] high;
+    // unique table chain, or free list link for unused nodes
+    private int[] next;
+    private int[] refs;
+    private int[] buckets;
+    private int freeList;
+    private int freeCount;
+    private boolean[] mark;
+
+    private final int[] cacheOp = new int[CACHE_SIZE];
+    private final int[] cacheA = new int[CACHE_SIZE];
+    private final int[] cacheB = new int[CACHE_SIZE];
+    private final int[] cacheC = new int[CACHE_SIZE];
+    private final int[] cacheResult = new int[CACHE_SIZE];
+
+    private int replaceIds;
+    private long collections;
+
+    /** A manager with the variables in index order and no node limit. */
+    public Bdd(int variables) {
+        this(variables, identity(variables), Integer.MAX_VALUE);
+    }
+
+    /**
+     * A manager whose level {@code i} holds variable {@code order[i]}. At most {@code maxNodes}
+     * nodes may be alive at any time.
+     */
+    public Bdd(int variables, int[] order, int maxNodes) {
+        if (order.length != variables) throw new IllegalArgumentException("Order must list every variable once");
+        this.variables = variables;
+        this.levelOf = new int[variables];
+        this.varAt = order.clone();
+        Arrays.fill(levelOf, -1);
+        for (int i = 0; i < variables; i++) {
+            if (levelOf[order[i]] >= 0) throw new IllegalArgumentException("Variable listed twice: " + order[i]);
+            levelOf[order[i]] = i;
+        }
+        this.maxNodes = Math.max(maxNodes, 2);
+        allocate(Math.min(INITIAL_NODES, Math.max(this.maxNodes, 16)));
+        Arrays.fill(cacheOp, -1);
+    }
+
+    private static int[] identity(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        return order;
+    }
+
+    public int getVariables() {
+        return variables;
+    }
+
+    /**
+     * Adds a variable at a level below all others and returns it. The nodes built so far keep
+     * their functions; renamings made before must not be used any more.
+     */
+    public int addVariable() {
+        int var = variables++;
+        levelOf = Arrays.copyOf(levelOf, variables);
+        varAt = Arrays.copyOf(varAt, variables);
+        levelOf[var] = var;
+        varAt[var] = var;
+        // the terminals stay below every variable
+        level[FALSE] = variables;
+        level[TRUE] = variables;
+        return var;
+    }
+
+    /** Number of nodes in use, terminals included. */
+    public int getNodeCount() {
+        return level.length - freeCount;
+    }
+
+    /** Number of garbage collections so far. */
+    public long getCollections() {
+        return collections;
+    }
+
+    // ---- references ---------------------------------------------------------------------
+
+    /** Protects {@code f} from garbage collection until a matching {@link #deref}. */
+    public int ref(int f) {
+        if (f > TRUE) refs[f]++;
+        return f;
+    }
+
+    public void deref(int f) {
+        if (f > TRUE && refs[f] > 0) refs[f]--;
+    }
+
+    // ---- node access ----------------------------------------------------------------------
+
+    /** The variable tested by {@code f}; {@code f} must not be a terminal. */
+    public int var(int f) {
+        return varAt[level[f]];
+    }
+
+    public int low(int f) {
+        return low[f];
+    }
+
+    public int high(int f) {
+        return high[f];
+    }
+
+    /** The function that is true exactly when the variable is. */
+    public int variable(int var) {
+        prepare();
+        return mk(levelOf[var], FALSE, TRUE);
+    }
+
+    public int nvariable(int var) {
+        prepare();
+        return mk(levelOf[var], TRUE, FALSE);
+    }
+
+    /** Conjunction of the given variables, the form {@link #exists} expects its variable set in. */
+    public int cube(int... vars) {
+        prepare();
+        int[] levels = new int[vars.length];
+        for (int i = 0; i < vars.length; i++) levels[i] = levelOf[vars[i]];
+        Arrays.sort(levels);
+        int f = TRUE;
+        for (int i = levels.length - 1; i >= 0; i--) {
+            f = mk(levels[i], FALSE, f);
+        }
+        return f;
+    }
+
+    // ---- operations ---------------------------------------------------------------------
+
+    public int and(int a, int b) {
+        prepare(a, b);
+        return apply(OP_AND, a, b);
+    }
+
+    public int or(int a, int b) {
+        prepare(a, b);
+        return apply(OP_OR, a, b);
+    }
+
+    public int xor(int a, int b) {
+        prepare(a, b);
+        return apply(OP_XOR, a, b);
+    }
+
+    /** {@code a <-> b}. */
+    public int biimp(int a, int b) {
+        prepare(a, b);
+        return apply(OP_BIIMP, a, b);
+    }
+
+    public int not(int a) {
+        prepare(a);
+        return not0(a);
+    }
+
+    /** {@code a -> b}. */
+    public int imp(int a, int b) {
+        prepare(a, b);
+        return apply(OP_OR, not0(a), b);
+    }
+
+    /** Existential quantification of the variables in {@code cube}. */
+    public int exists(int f, int cube) {
+        prepare(f, cube);
+        return exists0(f, cube);
+    }
+
+    /** {@code exists cube. a & b} without building the conjunction first. */
+    public int andExists(int a, int b, int cube) {
+        prepare(a, b, cube);
+        return andExists0(a, b, cube);
+    }
+
+    /**
+     * A renaming of variables for {@link #replace}. It must not reverse the variable order:
+     * a variable at a lower level than another is never renamed to a higher level than the
+     * other one's image. Functions passed to {@code replace} must not depend on both a renamed
+     * variable and the variable it is renamed to.
+     */
+    public Renaming renaming(int[] from, int[] to) {
+        int[] map = new int[variables + 1];
+        for (int l = 0; l <= variables; l++) map[l] = l;
+        for (int i = 0; i < from.length; i++) {
+            map[levelOf[from[i]]] = levelOf[to[i]];
+        }
+        for (int l = 1; l < variables; l++) {
+            if (map[l] < map[l - 1]) throw new IllegalArgumentException("Renaming does not preserve the order");
+        }
+        return new Renaming(replaceIds++, map);
+    }
+
+    /** Renamed variables of one {@link #replace} call. */
+    public static final class Renaming {
+        private final int id;
+        private final int[] levelMap;
+
+        private Renaming(int id, int[] levelMap) {
+            this.id = id;
+            this.levelMap = levelMap;
+        }
+    }
+
+    public int replace(int f, Renaming renaming) {
+        prepare(f);
+        return replace0(f, renaming);
+    }
+
+    /** Number of nodes reachable from {@code f}, terminals included. */
+    public int size(int f) {
+        boolean[] seen = new boolean[level.length];
+        int[] stack = new int[64];
+        int top = 0;
+        int count = 0;
+        stack[top++] = f;
+        while (top > 0) {
+            int n = stack[--top];
+            if (seen[n]) continue;
+            seen[n] = true;
+            count++;
+            if (n > TRUE) {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = low[n];
+                stack[top++] = high[n];
+            }
+        }
+        return count;
+    }
+
+    // ---- recursive cores ----------------------------------------------------------------
+
+    private int apply(int op, int a, int b) {
+        switch (op) {
+            case OP_AND -> {
+                if (a == FALSE || b == FALSE) return FALSE;
+                if (a == TRUE) return b;
+                if (b == TRUE || a == b) return a;
+            }
+            case OP_OR -> {
+                if (a == TRUE || b == TRUE) return TRUE;
+                if (a == FALSE) return b;
+                if (b == FALSE || a == b) return a;
+            }
+            case OP_XOR -> {
+                if (a == b) return FALSE;
+                if (a == FALSE) return b;
+                if (b == FALSE) return a;
+                if (a == TRUE) return not0(b);
+                if (b == TRUE) return not0(a);
+            }
+            default -> {
+                if (a == b) return TRUE;
+                if (a == TRUE) return b;
+                if (b == TRUE) return a;
+                if (a == FALSE) return not0(b);
+                if (b == FALSE) return not0(a);
+            }
+        }
+        // all four operations are commutative
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int slot = slot(op, a, b, 0);
+        if (cacheOp[slot] == op && cacheA[slot] == a && cacheB[slot] == b) return cacheResult[slot];
+
+        int la = level[a];
+        int lb = level[b];
+        int top = Math.min(la, lb);
+        int r0 = apply(op, la == top ? low[a] : a, lb == top ? low[b] : b);
+        int r1 = apply(op, la == top ? high[a] : a, lb == top ? high[b] : b);
+        int result = mk(top, r0, r1);
+        store(slot, op, a, b, 0, result);
+        return result;
+    }
+
+    private int not0(int a) {
+        if (a == FALSE) return TRUE;
+        if (a == TRUE) return FALSE;
+        int slot = slot(OP_NOT, a, 0, 0);
+        if (cacheOp[slot] == OP_NOT && cacheA[slot] == a) return cacheResult[slot];
+        int result = mk(level[a], not0(low[a]), not0(high[a]));
+        store(slot, OP_NOT, a, 0, 0, result);
+        return result;
+    }
+
+    private int exists0(int f, int cube) {
+        if (f <= TRUE || cube == TRUE) return f;
+        // variables above f's top do not occur in f
+        while (cube != TRUE && level[cube] < level[f]) cube = high[cube];
+        if (cube == TRUE) return f;
+        int slot = slot(OP_EXISTS, f, cube, 0);
+        if (cacheOp[slot] == OP_EXISTS && cacheA[slot] == f && cacheB[slot] == cube) return cacheResult[slot];
+        int result;
+        if (level[f] == level[cube]) {
+            int r0 = exists0(low[f], high[cube]);
+            result = r0 == TRUE ? TRUE : apply(OP_OR, r0, exists0(high[f], high[cube]));
+        } else {
+            result = mk(level[f], exists0(low[f], cube), exists0(high[f], cube));
+        }
+        store(slot, OP_EXISTS, f, cube, 0, result);
+        return result;
+    }
+
+    private int andExists0(int a, int b, int cube) {
+        if (a == FALSE || b == FALSE) return FALSE;
+        if (a == TRUE && b == TRUE) return TRUE;
+        if (a == TRUE) return exists0(b, cube);
+        if (b == TRUE || a == b) return exists0(a, cube);
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int top = Math.min(level[a], level[b]);
+        while (cube != TRUE && level[cube] < top) cube = high[cube];
+        if (cube == TRUE) return apply(OP_AND, a, b);
+        int slot = slot(OP_AND_EXISTS, a, b, cube);
+        if (cacheOp[slot] == OP_AND_EXISTS && cacheA[slot] == a && cacheB[slot] == b && cacheC[slot] == cube) {
+            return cacheResult[slot];
+        }
+        int a0 = level[a] == top ? low[a] : a;
+        int a1 = level[a] == top ? high[a] : a;
+        int b0 = level[b] == top ? low[b] : b;
+        int b1 = level[b] == top ? high[b] : b;
+        int result;
+        if (level[cube] == top) {
+            int r0 = andExists0(a0, b0, high[cube]);
+            result = r0 == TRUE ? TRUE : apply(OP_OR, r0, andExists0(a1, b1, high[cube]));
+        } else {
+            result = mk(top, andExists0(a0, b0, cube), andExists0(a1, b1, cube));
+        }
+        store(slot, OP_AND_EXISTS, a, b, cube, result);
+        return result;
+    }
+
+    private int replace0(int f, Renaming renaming) {
+        if (f <= TRUE) return f;
+        int op = OP_REPLACE + renaming.id;
+        int slot = slot(op, f, 0, 0);
+        if (cacheOp[slot] == op && cacheA[slot] == f) return cacheResult[slot];
+        int result = mk(renaming.levelMap[level[f]], replace0(low[f], renaming), replace0(high[f], renaming));
+        store(slot, op, f, 0, 0, result);
+        return result;
+    }
+
+    // ---- computed table -----------------------------------------------------------------
+
+    private static int slot(int op, int a, int b, int c) {
+        int h = op * 0x9E3779B1 + a * 0x85EBCA6B + b * 0xC2B2AE35 + c * 0x27D4EB2F;
+        h ^= h >>> 15;
+        return h & (CACHE_SIZE - 1);
+    }
+
+    private void store(int slot, int op, int a, int b, int c, int result) {
+        cacheOp[slot] = op;
+        cacheA[slot] = a;
+        cacheB[slot] = b;
+        cacheC[slot] = c;
+        cacheResult[slot] = result;
+    }
+
+    // ---- unique table and memory --------------------------------------------------------
+
+    private int mk(int lvl, int lo, int hi) {
+        if (lo == hi) return lo;
+        int bucket = hash(lvl, lo, hi) & (buckets.length - 1);
+        for (int n = buckets[bucket]; n != 0; n = next[n]) {
+            if (level[n] == lvl && low[n] == lo && high[n] == hi) return n;
+        }
+        if (freeList == 0) {
+            // no collection in the middle of an operation: its intermediate results are unprotected
+            grow();
+            bucket = hash(lvl, lo, hi) & (buckets.length - 1);
+        }
+        int n = freeList;
+        freeList = next[n];
+        freeCount--;
+        level[n] = lvl;
+        low[n] = lo;
+        high[n] = hi;
+        next[n] = buckets[bucket];
+        buckets[bucket] = n;
+        return n;
+    }
+
+    private static int hash(int lvl, int lo, int hi) {
+        int h = lvl * 0x9E3779B1 + lo * 0x85EBCA6B + hi * 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    // Called before every public operation: collects garbage once the table is mostly used
+    private void prepare(int... operands) {
+        if (freeCount > level.length / 8) return;
+        gc(operands);
+        if (freeCount < level.length / 4) grow();
+    }
+
+    private void gc(int... operands) {
+        collections++;
+        mark = new boolean[level.length];
+        mark[FALSE] = true;
+        mark[TRUE] = true;
+        int[] stack = new int[64];
+        int top = 0;
+        for (int n = 2; n < level.length; n++) {
+            if (refs[n] > 0 && level[n] >= 0) {
+                if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                stack[top++] = n;
+            }
+        }
+        for (int op : operands) {
+            if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+            stack[top++] = op;
+        }
+        while (top > 0) {
+            int n = stack[--top];
+            if (mark[n]) continue;
+            mark[n] = true;
+            if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+            stack[top++] = low[n];
+            stack[top++] = high[n];
+        }
+        rebuild();
+        mark = null;
+        Arrays.fill(cacheOp, -1);
+    }
+
+    // Rehashes the marked nodes and puts all others on the free list
+    private void rebuild() {
+        Arrays.fill(buckets, 0);
+        freeList = 0;
+        freeCount = 0;
+        for (int n = level.length - 1; n > TRUE; n--) {
+            if (mark[n]) {
+                int bucket = hash(level[n], low[n], high[n]) & (buckets.length - 1);
+                next[n] = buckets[bucket];
+                buckets[bucket] = n;
+            } else {
+                level[n] = -1;
+                refs[n] = 0;
+                next[n] = freeList;
+                freeList = n;
+                freeCount++;
+            }
+        }
+    }
+
+    private void grow() {
+        int old = level.length;
+        if (old >= maxNodes) throw new NodeLimitException(maxNodes);
+        int size = (int) Math.min((long) old * 2, maxNodes);
+        level = Arrays.copyOf(level, size);
+        low = Arrays.copyOf(low, size);
+        high = Arrays.copyOf(high, size);
+        next = Arrays.copyOf(next, size);
+        refs = Arrays.copyOf(refs, size);
+        buckets = new int[Integer.highestOneBit(size - 1) << 1];
+        mark = new boolean[size];
+        for (int n = 0; n < size; n++) {
+            mark[n] = n <= TRUE || (n < old && level[n] >= 0);
+        }
+        for (int n = old; n < size; n++) level[n] = -1;
+        rebuild();
+        mark = null;
+    }
+
+    private void allocate(int size) {
+        level = new int[size];
+        low = new int[size];
+        high = new int[size];
+        next = new int[size];
+        refs = new int[size];
+        buckets = new int[Integer.highestOneBit(size - 1) << 1];
+        level[FALSE] = variables;
+        level[TRUE] = variables;
+        low[TRUE] = TRUE;
+        high[TRUE] = TRUE;
+        mark = new boolean[size];
+        mark[FALSE] = true;
+        mark[TRUE] = true;
+        for (int n = 2; n < size; n++) level[n] = -1;
+        rebuild();
+        mark = null;
+    }
+}
@@ -0,0 +1,306 @@
+package com.ltl.ltl.service.bdd;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.Symbol;
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+import com.ltl.ltl.service.syntax.Nnf;
+
+/**
+ * Symbolic LTL satisfiability after Clarke, Grumberg and Hamaguchi.
+ * <p>
+ * The tableau states are valuations of the elementary formulas: the propositions and one
+ * {@code X ψ} per Next subformula and per temporal subformula {@code ψ} (U, R, G, F). Each
+ * elementary formula gets a current and a next BDD variable, interleaved in the order the
+ * formula mentions them. {@code sat(ψ)} is the set of states in which {@code ψ} holds,
+ * unrolling U/R/G/F once through their X variables, and the transition relation requires
+ * {@code X ψ} now to agree with {@code sat(ψ)} in the next state. Every Until/Finally adds the
+ * fairness constraint that it is either not pending or its right side holds.
+ * <p>
+ * The formula is satisfiable iff an initial state ({@code sat(φ)}) lies in the fair states,
+ * the Emerson–Lei fixpoint {@code νZ. ∧_k EX E[Z U (Z ∧ F_k)]}.
+ */
+public final class SymbolicLtlSat {
+
+    public enum Result { SAT, UNSAT, UNKNOWN }
+
+    private final IFormula formula;
+    private int maxNodes = Integer.MAX_VALUE;
+    private Duration timeout;
+
+    // the last run
+    private Bdd bdd;
+    private int iterations;
+    private int peakNodes;
+    private long deadline;
+
+    // elementary formulas: propositions, and the operands ψ of the X ψ variables
+    private final Map<Symbol, Integer> propositions = new EnumMap<>(Symbol.class);
+    private final Map<IFormula, Integer> nextOf = new LinkedHashMap<>();
+    private final List<IFormula> eventualities = new ArrayList<>();
+    private final Map<IFormula, Integer> satCache = new HashMap<>();
+
+    public SymbolicLtlSat(IFormula formula) {
+        this.formula = new Nnf().toNnf(formula);
+    }
+
+    /** Limits the next {@link #run()}; {@code timeout} may be {@code null} for no deadline. */
+    public void setLimits(int maxNodes, Duration timeout) {
+        this.maxNodes = maxNodes;
+        this.timeout = timeout;
+    }
+
+    /** Fixpoint iterations of the last run, inner ones included. */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /** Largest number of live BDD nodes seen in the last run. */
+    public int getPeakNodes() {
+        return peakNodes;
+    }
+
+    /** Number of elementary formulas, i.e. half the BDD variables. */
+    public int getElementaryFormulas() {
+        return propositions.size() + nextOf.size();
+    }
+
+    public Result run() {
+        propositions.clear();
+        nextOf.clear();
+        eventualities.clear();
+        satCache.clear();
+        iterations = 0;
+        peakNodes = 0;
+        deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+
+        collect(formula);
+        int elementary = getElementaryFormulas();
+        // elementary formula k has current variable 2k and next variable 2k + 1
+        int[] order = new int[2 * elementary];
+        for (int v = 0; v < order.length; v++) order[v] = v;
+        bdd = new Bdd(2 * elementary, order, maxNodes);
+        try {
+            return decide(elementary);
+        } catch (Bdd.NodeLimitException | DeadlineException ex) {
+            return Result.UNKNOWN;
+        } finally {
+            peakNodes = Math.max(peakNodes, bdd.getNodeCount());
+            bdd = null;
+        }
+    }
+
+    private static final class DeadlineException extends RuntimeException {
+        DeadlineException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private Result decide(int elementary) {
+        int[] current = new int[elementary];
+        int[] next = new int[elementary];
+        for (int k = 0; k < elementary; k++) {
+            current[k] = 2 * k;
+            next[k] = 2 * k + 1;
+        }
+        Bdd.Renaming toNext = bdd.renaming(current, next);
+        Bdd.Renaming toCurrent = bdd.renaming(next, current);
+        int nextCube = bdd.ref(bdd.cube(next));
+
+        // X ψ now <-> ψ in the next state
+        int transitions = bdd.ref(Bdd.TRUE);
+        for (Map.Entry<IFormula, Integer> e : nextOf.entrySet()) {
+            int nextSat = bdd.ref(bdd.replace(sat(e.getKey()), toNext));
+            int step = bdd.ref(bdd.biimp(bdd.variable(2 * e.getValue()), nextSat));
+            transitions = replace(transitions, bdd.and(transitions, step));
+            bdd.deref(step);
+            bdd.deref(nextSat);
+            track();
+        }
+
+        List<Integer> fairness = new ArrayList<>();
+        for (IFormula eventuality : eventualities) {
+            IFormula target = eventuality instanceof Until u ? u.getRight() : ((Finally) eventuality).getFormula();
+            int pending = bdd.ref(bdd.not(sat(eventuality)));
+            fairness.add(bdd.ref(bdd.or(pending, sat(target))));
+            bdd.deref(pending);
+        }
+
+        Image image = new Image(transitions, nextCube, toNext, toCurrent);
+        int fair = bdd.ref(Bdd.TRUE);
+        while (true) {
+            checkDeadline();
+            int z = bdd.ref(fair);
+            if (fairness.isEmpty()) {
+                z = replace(z, bdd.and(z, image.pre(fair)));
+            } else {
+                for (int constraint : fairness) {
+                    int goal = bdd.ref(bdd.and(fair, constraint));
+                    int reach = image.until(fair, goal);
+                    bdd.deref(goal);
+                    z = replace(z, bdd.and(z, image.pre(reach)));
+                    bdd.deref(reach);
+                }
+            }
+            iterations++;
+            track();
+            if (z == fair) {
+                bdd.deref(z);
+                break;
+            }
+            fair = replace(fair, z);
+            bdd.deref(z);
+        }
+        int initial = bdd.and(sat(formula), fair);
+        return initial == Bdd.FALSE ? Result.UNSAT : Result.SAT;
+    }
+
+    // The predecessor operations over one transition relation
+    private final class Image {
+        final int transitions;
+        final int nextCube;
+        final Bdd.Renaming toNext;
+        final Bdd.Renaming toCurrent;
+
+        Image(int transitions, int nextCube, Bdd.Renaming toNext, Bdd.Renaming toCurrent) {
+            this.transitions = transitions;
+            this.nextCube = nextCube;
+            this.toNext = toNext;
+            this.toCurrent = toCurrent;
+        }
+
+        // EX s: states with a successor in s
+        int pre(int states) {
+            int primed = bdd.ref(bdd.replace(states, toNext));
+            int result = bdd.andExists(transitions, primed, nextCube);
+            bdd.deref(primed);
+            return result;
+        }
+
+        // E[a U b], referenced
+        int until(int a, int b) {
+            int y = bdd.ref(b);
+            while (true) {
+                checkDeadline();
+                int step = bdd.ref(bdd.and(a, pre(y)));
+                int grown = bdd.or(b, step);
+                bdd.deref(step);
+                iterations++;
+                if (grown == y) return y;
+                y = replace(y, grown);
+                track();
+            }
+        }
+    }
+
+    // Swaps a referenced BDD for a new one and references that
+    private int replace(int old, int fresh) {
+        bdd.ref(fresh);
+        bdd.deref(old);
+        return fresh;
+    }
+
+    private void track() {
+        peakNodes = Math.max(peakNodes, bdd.getNodeCount());
+    }
+
+    private void checkDeadline() {
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) throw new DeadlineException();
+    }
+
+    // Assigns elementary formulas in the order the formula mentions them
+    private void collect(IFormula f) {
+        if (f instanceof AtomicProposition ap) {
+            propositions.computeIfAbsent(ap.getSymbol(), s -> propositions.size() + nextOf.size());
+        } else if (f instanceof Not n) {
+            collect(n.getFormula());
+        } else if (f instanceof And a) {
+            collect(a.getLeft());
+            collect(a.getRight());
+        } else if (f instanceof Or o) {
+            collect(o.getLeft());
+            collect(o.getRight());
+        } else if (f instanceof Next x) {
+            collect(x.getFormula());
+            elementary(x.getFormula());
+        } else if (f instanceof WeakNext w) {
+            // on infinite words the weak next is the same as the next operator
+            collect(w.getFormula());
+            elementary(w.getFormula());
+        } else if (f instanceof Until u) {
+            collect(u.getLeft());
+            collect(u.getRight());
+            if (!nextOf.containsKey(u)) eventualities.add(u);
+            elementary(u);
+        } else if (f instanceof Release r) {
+            collect(r.getLeft());
+            collect(r.getRight());
+            elementary(r);
+        } else if (f instanceof Globally g) {
+            collect(g.getFormula());
+            elementary(g);
+        } else if (f instanceof Finally fin) {
+            collect(fin.getFormula());
+            if (!nextOf.containsKey(fin)) eventualities.add(fin);
+            elementary(fin);
+        }
+    }
+
+    private void elementary(IFormula operand) {
+        nextOf.computeIfAbsent(operand, k -> propositions.size() + nextOf.size());
+    }
+
+    // Characteristic function of ψ over the current variables; cached and referenced
+    private int sat(IFormula f) {
+        Integer cached = satCache.get(f);
+        if (cached != null) return cached;
+        int result;
+        if (f instanceof AtomicProposition ap) {
+            result = bdd.variable(2 * propositions.get(ap.getSymbol()));
+        } else if (f instanceof Not n) {
+            result = bdd.not(sat(n.getFormula()));
+        } else if (f instanceof And a) {
+            result = bdd.and(sat(a.getLeft()), sat(a.getRight()));
+        } else if (f instanceof Or o) {
+            result = bdd.or(sat(o.getLeft()), sat(o.getRight()));
+        } else if (f instanceof Next x) {
+            result = bdd.variable(2 * nextOf.get(x.getFormula()));
+        } else if (f instanceof WeakNext w) {
+            result = bdd.variable(2 * nextOf.get(w.getFormula()));
+        } else if (f instanceof Until u) {
+            // β ∨ (α ∧ X(α U β))
+            int later = bdd.ref(bdd.and(sat(u.getLeft()), bdd.variable(2 * nextOf.get(u))));
+            result = bdd.or(sat(u.getRight()), later);
+            bdd.deref(later);
+        } else if (f instanceof Release r) {
+            // β ∧ (α ∨ X(α R β))
+            int now = bdd.ref(bdd.or(sat(r.getLeft()), bdd.variable(2 * nextOf.get(r))));
+            result = bdd.and(sat(r.getRight()), now);
+            bdd.deref(now);
+        } else if (f instanceof Globally g) {
+            result = bdd.and(sat(g.getFormula()), bdd.variable(2 * nextOf.get(g)));
+        } else if (f instanceof Finally fin) {
+            result = bdd.or(sat(fin.getFormula()), bdd.variable(2 * nextOf.get(fin)));
+        } else {
+            throw new IllegalArgumentException("Not an NNF formula: " + f);
+        }
+        satCache.put(f, bdd.ref(result));
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Which actions of a Kripke structure are independent, as declared by whoever built the model.
+ * Two actions are independent if neither can enable or disable the other and, where both are
+ * enabled, taking them in either order leads to the same state; the steps of components that
+ * share no variables are the typical case. Every pair that is not declared independent is
+ * dependent, and so is every action with itself.
+ * <p>
+ * Partial-order reduction needs the dependency classes: the connected components of the
+ * dependency graph. No action outside a class can enable, disable or be reordered with an
+ * action inside it, so the enabled transitions of one class form an ample set.
+ */
+public final class ActionIndependence {
+
+    private final List<String> actions;
+    private final BitSet[] independent;
+    // dependency class of every action, null until computed
+    private int[] classes;
+
+    public ActionIndependence(List<String> actions) {
+        this.actions = List.copyOf(actions);
+        this.independent = new BitSet[actions.size()];
+        for (int a = 0; a < independent.length; a++) {
+            independent[a] = new BitSet();
+        }
+    }
+
+    /** Declares two actions independent of each other. */
+    public synchronized ActionIndependence declareIndependent(String first, String second) {
+        int a = index(first);
+        int b = index(second);
+        if (a == b) throw new IllegalArgumentException("An action depends on itself: " + first);
+        independent[a].set(b);
+        independent[b].set(a);
+        classes = null;
+        return this;
+    }
+
+    public List<String> getActions() {
+        return actions;
+    }
+
+    public synchronized boolean isIndependent(int a, int b) {
+        return independent[a].get(b);
+    }
+
+    /**
+     * The dependency class of every action: actions of one class have the same number, the
+     * smallest action of the class.
+     */
+    synchronized int[] dependencyClasses() {
+        if (classes == null) classes = computeClasses();
+        return classes.clone();
+    }
+
+    // union-find over the dependent pairs
+    private int[] computeClasses() {
+        int n = actions.size();
+        int[] parent = new int[n];
+        Arrays.setAll(parent, a -> a);
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                if (!independent[a].get(b)) union(parent, a, b);
+            }
+        }
+        int[] result = new int[n];
+        for (int a = 0; a < n; a++) {
+            result[a] = find(parent, a);
+        }
+        return result;
+    }
+
+    private static int find(int[] parent, int a) {
+        while (parent[a] != a) {
+            parent[a] = parent[parent[a]];
+            a = parent[a];
+        }
+        return a;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if (ra != rb) parent[Math.max(ra, rb)] = Math.min(ra, rb);
+    }
+
+    private int index(String action) {
+        int index = actions.indexOf(action);
+        if (index < 0) throw new IllegalArgumentException("Unknown action: " + action);
+        return index;
+    }
+}
@@ -0,0 +1,137 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+
+// Ample sets for partial-order reduction (Peled; Clarke, Grumberg and Peled, ch. 10). The
+// ample set of a state is the set of its transitions whose actions lie in one dependency
+// class (C1) if no action of the class changes a proposition of the formula (C2); the model checker
+// adds the cycle proviso (C3), which needs the search stack. C1 holds because no action
+// outside the class can enable, disable or be reordered with one inside, so every path that
+// avoids the ample set first takes a class action that the ample set already has. C2 is
+// about actions, not transitions: an action is visible if it changes a proposition on any
+// transition of the structure, since the actions the ample set defers may lead to a state
+// where an action that is invisible here is visible. The structure is scanned for the
+// visible actions once. The reduction only preserves next-free formulas, so it is off for
+// the others.
+final class AmpleSets {
+
+    private final KripkeStructure structure;
+    private final SymbolLabels labels;
+    // dependency class of every action
+    private final int[] classOf;
+    // per dependency class: whether one of its actions is visible
+    private final boolean[] visibleClass;
+
+    private AmpleSets(KripkeStructure structure, ActionIndependence independence, SymbolLabels labels, long visible) {
+        this.structure = structure;
+        this.labels = labels;
+        this.classOf = independence.dependencyClasses();
+        this.visibleClass = new boolean[classOf.length];
+        BitSet visibleActions = visibleActions(visible);
+        for (int action = visibleActions.nextSetBit(0); action >= 0; action = visibleActions.nextSetBit(action + 1)) {
+            visibleClass[classOf[action]] = true;
+        }
+    }
+
+    /**
+     * The ample sets for checking the NNF formula on the structure, or {@code null} if the
+     * reduction does not apply: the formula has a next operator or the structure no actions.
+     */
+    static AmpleSets of(KripkeStructure structure, ActionIndependence independence, SymbolLabels labels,
+            IFormula nnf) {
+        if (structure.getActions().isEmpty() || hasNext(nnf)) return null;
+        if (!independence.getActions().equals(structure.getActions())) {
+            throw new IllegalArgumentException("The independence relation is over other actions than the structure");
+        }
+        return new AmpleSets(structure, independence, labels, symbols(nnf));
+    }
+
+    /** True if the NNF formula contains X or weak X. */
+    static boolean hasNext(IFormula f) {
+        if (f instanceof Next || f instanceof WeakNext) return true;
+        if (f instanceof Not n) return hasNext(n.getFormula());
+        if (f instanceof And a) return hasNext(a.getLeft()) || hasNext(a.getRight());
+        if (f instanceof Or o) return hasNext(o.getLeft()) || hasNext(o.getRight());
+        if (f instanceof Until u) return hasNext(u.getLeft()) || hasNext(u.getRight());
+        if (f instanceof Release r) return hasNext(r.getLeft()) || hasNext(r.getRight());
+        if (f instanceof Finally fin) return hasNext(fin.getFormula());
+        if (f instanceof Globally g) return hasNext(g.getFormula());
+        return false;
+    }
+
+    private static long symbols(IFormula f) {
+        if (f instanceof AtomicProposition ap) return ap.getSymbol() == null ? 0 : 1L << ap.getSymbol().ordinal();
+        if (f instanceof Not n) return symbols(n.getFormula());
+        if (f instanceof And a) return symbols(a.getLeft()) | symbols(a.getRight());
+        if (f instanceof Or o) return symbols(o.getLeft()) | symbols(o.getRight());
+        if (f instanceof Until u) return symbols(u.getLeft()) | symbols(u.getRight());
+        if (f instanceof Release r) return symbols(r.getLeft()) | symbols(r.getRight());
+        if (f instanceof Finally fin) return symbols(fin.getFormula());
+        if (f instanceof Globally g) return symbols(g.getFormula());
+        return 0;
+    }
+
+    /**
+     * The transition indices of an ample set of the state that is smaller than all its
+     * transitions, or {@code null} if it has none. The choice depends on the state alone, so
+     * every search that expands the state picks the same set.
+     */
+    int[] ample(int state) {
+        int successors = structure.getSuccessorCount(state);
+        if (successors < 2) return null;
+        int firstClass = classOf[action(state, 0)];
+        boolean oneClass = true;
+        for (int i = 1; i < successors && oneClass; i++) {
+            oneClass = classOf[action(state, i)] == firstClass;
+        }
+        if (oneClass) return null;
+        // the first class in transition order whose actions are all invisible
+        for (int i = 0; i < successors; i++) {
+            int c = classOf[action(state, i)];
+            if (!visibleClass[c]) return transitions(state, c);
+        }
+        return null;
+    }
+
+    private int action(int state, int index) {
+        int action = structure.getAction(state, index);
+        if (action < 0) throw new IllegalStateException("Transition " + index + " of state " + state + " has no action");
+        return action;
+    }
+
+    // the actions that change one of the visible symbols on some transition
+    private BitSet visibleActions(long visible) {
+        BitSet actions = new BitSet(classOf.length);
+        for (int state = 0; state < structure.getStateCount(); state++) {
+            long here = labels.symbols(structure.getLabels(state)) & visible;
+            for (int i = 0; i < structure.getSuccessorCount(state); i++) {
+                long there = labels.symbols(structure.getLabels(structure.getSuccessor(state, i))) & visible;
+                if (here != there) actions.set(action(state, i));
+            }
+        }
+        return actions;
+    }
+
+    private int[] transitions(int state, int dependencyClass) {
+        int successors = structure.getSuccessorCount(state);
+        int[] buffer = new int[successors];
+        int count = 0;
+        for (int i = 0; i < successors; i++) {
+            if (classOf[action(state, i)] == dependencyClass) buffer[count++] = i;
+        }
+        return Arrays.copyOf(buffer, count);
+    }
+}
@@ -0,0 +1,176 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.nio.ByteBuffer;
+
+import com.ltl.ltl.service.util.LongHash;
+import com.ltl.ltl.service.util.LongStateTable;
+
+/**
+ * Bitstate hashing after Holzmann ("supertrace"): a state is not stored, it only sets the
+ * {@code k} bits of a fixed-size bit array that {@code k} hash functions pick for it, and it
+ * counts as seen once all of them are set. A state costs a few bits instead of a few bytes,
+ * at the price that a new state whose bits other states already set is taken for an old one
+ * and its successors are never explored. A search over this store can therefore miss
+ * counterexamples, but every counterexample it does find is real.
+ * <p>
+ * The array lives outside the heap, in direct buffers of 1 GiB each, and is allocated in
+ * full up front, so it is bounded by {@code -XX:MaxDirectMemorySize} rather than {@code -Xmx}.
+ * Every colour but cyan is hashed separately into the same array. The cyan colour of the
+ * states on the search stack is kept exactly, since a false cyan state would produce a
+ * counterexample that does not exist.
+ * <p>
+ * While states are added the store sums, over every new state, the chance that a state like
+ * it was swallowed by the bits set so far. From that it estimates the coverage of the search
+ * at the end, see {@link Statistics}. The estimate cannot see the states that only a swallowed
+ * state leads to, so it tends to be on the high side.
+ */
+public final class BitstateStore implements StateStore {
+
+    /** The quality of a bitstate search that has finished. */
+    public record Statistics(long bits, int hashes, long bitsSet, long states, double coverage,
+            double collisionProbability) {
+
+        /** Fraction of the bits that are set. */
+        public double fill() {
+            return (double) bitsSet / bits;
+        }
+    }
+
+    public static final int MIN_LOG2_BITS = 10;
+    public static final int MAX_LOG2_BITS = 40;
+    public static final int MAX_HASHES = 16;
+
+    // 2^33 bits are 1 GiB, the size of one buffer
+    private static final int CHUNK_BITS = 33;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+    // salts that give the colours of a state independent bits
+    private static final long BLUE_SALT = 0x9e3779b97f4a7c15L;
+    private static final long RED_SALT = 0xc2b2ae3d27d4eb4fL;
+    private static final long FULL_SALT = 0x165667b19e3779f9L;
+
+    private final ByteBuffer[] chunks;
+    private final long mask;
+    private final int hashes;
+    private final long seed;
+    private final LongStateTable stack = new LongStateTable(1 << 10);
+    private final long[] positions;
+    private long bitsSet;
+    private long states;
+    private double expectedOmissions;
+
+    /**
+     * A store of {@code 2^log2Bits} bits where each colour of a state sets {@code hashes} bits.
+     * Different seeds give different hash functions, so searches with different seeds miss
+     * different states.
+     */
+    public BitstateStore(int log2Bits, int hashes, long seed) {
+        checkParameters(log2Bits, hashes);
+        long bits = 1L << log2Bits;
+        this.mask = bits - 1;
+        this.hashes = hashes;
+        this.seed = seed;
+        this.positions = new long[hashes];
+        this.chunks = new ByteBuffer[(int) ((bits + CHUNK_MASK) >>> CHUNK_BITS)];
+        for (int c = 0; c < chunks.length; c++) {
+            long chunkBits = Math.min(bits - ((long) c << CHUNK_BITS), 1L << CHUNK_BITS);
+            chunks[c] = ByteBuffer.allocateDirect((int) (chunkBits >>> 3));
+        }
+    }
+
+    static void checkParameters(int log2Bits, int hashes) {
+        if (log2Bits < MIN_LOG2_BITS || log2Bits > MAX_LOG2_BITS) {
+            throw new IllegalArgumentException("Bit array of 2^" + log2Bits + " bits, expected 2^"
+                    + MIN_LOG2_BITS + " to 2^" + MAX_LOG2_BITS);
+        }
+        if (hashes < 1 || hashes > MAX_HASHES) {
+            throw new IllegalArgumentException("Expected 1 to " + MAX_HASHES + " hash functions: " + hashes);
+        }
+    }
+
+    @Override
+    public int get(long key) {
+        int colours = 0;
+        if (allSet(key, BLUE_SALT)) colours |= VISITED;
+        if (allSet(key, RED_SALT)) colours |= RED;
+        if (allSet(key, FULL_SALT)) colours |= FULL;
+        if (stack.get(key) != 0) colours |= CYAN;
+        return colours;
+    }
+
+    @Override
+    public boolean set(long key, int bits) {
+        boolean added = false;
+        if ((bits & VISITED) != 0) {
+            double omission = Math.pow(fill(), hashes);
+            added = setAll(key, BLUE_SALT);
+            if (added) {
+                states++;
+                expectedOmissions += omission;
+            }
+        }
+        if ((bits & RED) != 0) setAll(key, RED_SALT);
+        if ((bits & FULL) != 0) setAll(key, FULL_SALT);
+        if ((bits & CYAN) != 0) stack.set(key, CYAN);
+        return added;
+    }
+
+    @Override
+    public void clear(long key, int bits) {
+        // bits of the array are never cleared, other states may share them
+        if ((bits & CYAN) != 0) stack.remove(key);
+    }
+
+    @Override
+    public long size() {
+        return states;
+    }
+
+    public Statistics getStatistics() {
+        double coverage = states == 0 ? 1 : states / (states + expectedOmissions);
+        return new Statistics(mask + 1, hashes, bitsSet, states, coverage, Math.pow(fill(), hashes));
+    }
+
+    private double fill() {
+        return (double) bitsSet / (mask + 1);
+    }
+
+    private boolean allSet(long key, long salt) {
+        hash(key, salt);
+        for (long position : positions) {
+            if (!isSet(position)) return false;
+        }
+        return true;
+    }
+
+    // sets the bits of the key, true if at least one of them was clear
+    private boolean setAll(long key, long salt) {
+        hash(key, salt);
+        boolean changed = false;
+        for (long position : positions) {
+            ByteBuffer chunk = chunks[(int) (position >>> CHUNK_BITS)];
+            int at = (int) ((position & CHUNK_MASK) >>> 3);
+            byte old = chunk.get(at);
+            byte updated = (byte) (old | 1 << (position & 7));
+            if (old != updated) {
+                chunk.put(at, updated);
+                bitsSet++;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private boolean isSet(long position) {
+        return (chunks[(int) (position >>> CHUNK_BITS)].get((int) ((position & CHUNK_MASK) >>> 3))
+                & 1 << (position & 7)) != 0;
+    }
+
+    // double hashing: the i-th position is h1 + i * h2, with an odd h2 so the positions differ
+    private void hash(long key, long salt) {
+        long h1 = LongHash.mix(key ^ seed ^ salt);
+        long h2 = LongHash.mix(h1 + salt) | 1;
+        for (int i = 0; i < hashes; i++) {
+            positions[i] = (h1 + i * h2) & mask;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.util.List;
+
+import com.ltl.ltl.service.sat.Lasso;
+
+/**
+ * A path of a Kripke structure that violates a formula: the states in order, after the last
+ * of which the path continues with state number {@code loopStart} of the list forever.
+ */
+public record Counterexample(List<Integer> states, int loopStart) {
+
+    public Counterexample {
+        if (loopStart < 0 || loopStart >= states.size()) {
+            throw new IllegalArgumentException("Loop start " + loopStart + " outside of " + states.size() + " states");
+        }
+        states = List.copyOf(states);
+    }
+
+    public List<Integer> prefix() {
+        return states.subList(0, loopStart);
+    }
+
+    public List<Integer> cycle() {
+        return states.subList(loopStart, states.size());
+    }
+
+    /** The word of the path, with the structure's propositions mapped to the formula symbols. */
+    public Lasso toLasso(KripkeStructure structure) {
+        SymbolLabels labels = new SymbolLabels(structure);
+        return new Lasso(states.stream().map(s -> labels.symbolSet(structure.getLabels(s))).toList(), loopStart);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ltl.ltl.service.modelcheck;
+
+import com.ltl.ltl.service.util.LongStateTable;
+
+/** The visited set that keeps every state, with its colours, in a {@link LongStateTable}. */
+final class ExactStateStore extends LongStateTable implements StateStore {
+
+    ExactStateStore(int expected) {
+        super(expected);
+    }
+}
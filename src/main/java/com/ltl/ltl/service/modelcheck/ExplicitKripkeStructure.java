@@ -0,0 +1,173 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory Kripke structure in compressed sparse row form: the successors of state
+ * {@code s} are {@code targets[offsets[s]] … targets[offsets[s + 1] - 1]}.
+ */
+public final class ExplicitKripkeStructure implements KripkeStructure {
+
+    private final int[] initial;
+    private final int[] offsets;
+    private final int[] targets;
+    private final long[] labels;
+    private final List<String> propositions;
+    // parallel to targets, null if the transitions have no actions
+    private final int[] transitionActions;
+    private final List<String> actions;
+
+    private ExplicitKripkeStructure(int[] initial, int[] offsets, int[] targets, long[] labels,
+            List<String> propositions, int[] transitionActions, List<String> actions) {
+        this.initial = initial;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.labels = labels;
+        this.propositions = List.copyOf(propositions);
+        this.transitionActions = transitionActions;
+        this.actions = List.copyOf(actions);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int getStateCount() {
+        return labels.length;
+    }
+
+    @Override
+    public int[] getInitialStates() {
+        return initial.clone();
+    }
+
+    @Override
+    public int getSuccessorCount(int state) {
+        return offsets[state + 1] - offsets[state];
+    }
+
+    @Override
+    public int getSuccessor(int state, int index) {
+        return targets[offsets[state] + index];
+    }
+
+    @Override
+    public long getLabels(int state) {
+        return labels[state];
+    }
+
+    @Override
+    public List<String> getPropositions() {
+        return propositions;
+    }
+
+    @Override
+    public List<String> getActions() {
+        return actions;
+    }
+
+    @Override
+    public int getAction(int state, int index) {
+        return transitionActions == null ? -1 : transitionActions[offsets[state] + index];
+    }
+
+    /** Collects states, labels and transitions; propositions and actions are numbered as they appear. */
+    public static final class Builder {
+        private final Map<String, Integer> propositions = new LinkedHashMap<>();
+        private final Map<String, Integer> actions = new LinkedHashMap<>();
+        // action of each edge, -1 for none
+        private int[] edgeActions = new int[16];
+        private final List<Long> labels = new ArrayList<>();
+        private final List<Integer> initial = new ArrayList<>();
+        private long[] edges = new long[16];
+        private int edgeCount;
+
+        private Builder() {
+        }
+
+        /** Adds a state labelled with the given propositions and returns its number. */
+        public int addState(String... label) {
+            long mask = 0;
+            for (String proposition : label) {
+                mask |= 1L << proposition(proposition);
+            }
+            labels.add(mask);
+            return labels.size() - 1;
+        }
+
+        public Builder addInitial(int state) {
+            checkState(state);
+            initial.add(state);
+            return this;
+        }
+
+        public Builder addTransition(int from, int to) {
+            return addTransition(from, to, -1);
+        }
+
+        /** Adds a transition caused by the named action. */
+        public Builder addTransition(int from, int to, String action) {
+            return addTransition(from, to, actions.computeIfAbsent(action, a -> actions.size()));
+        }
+
+        private Builder addTransition(int from, int to, int action) {
+            checkState(from);
+            checkState(to);
+            if (edgeCount == edges.length) {
+                edges = Arrays.copyOf(edges, 2 * edgeCount);
+                edgeActions = Arrays.copyOf(edgeActions, edges.length);
+            }
+            edgeActions[edgeCount] = action;
+            edges[edgeCount++] = ((long) from << 32) | to;
+            return this;
+        }
+
+        public ExplicitKripkeStructure build() {
+            if (initial.isEmpty()) throw new IllegalArgumentException("No initial state");
+            int states = labels.size();
+            // counting sort of the edges by source, keeping their order per source
+            int[] offsets = new int[states + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                offsets[(int) (edges[i] >>> 32) + 1]++;
+            }
+            for (int s = 0; s < states; s++) {
+                offsets[s + 1] += offsets[s];
+            }
+            boolean withActions = !actions.isEmpty();
+            int[] fill = Arrays.copyOf(offsets, states);
+            int[] targets = new int[edgeCount];
+            int[] transitionActions = withActions ? new int[edgeCount] : null;
+            for (int i = 0; i < edgeCount; i++) {
+                if (withActions && edgeActions[i] < 0) {
+                    throw new IllegalArgumentException("Either every transition or none has an action");
+                }
+                int at = fill[(int) (edges[i] >>> 32)]++;
+                targets[at] = (int) edges[i];
+                if (withActions) transitionActions[at] = edgeActions[i];
+            }
+            long[] labelArray = labels.stream().mapToLong(Long::longValue).toArray();
+            return new ExplicitKripkeStructure(initial.stream().mapToInt(Integer::intValue).toArray(), offsets,
+                    targets, labelArray, new ArrayList<>(propositions.keySet()), transitionActions,
+                    new ArrayList<>(actions.keySet()));
+        }
+
+        private int proposition(String name) {
+            Integer index = propositions.get(name);
+            if (index != null) return index;
+            if (propositions.size() == Long.SIZE) {
+                throw new IllegalArgumentException("More than " + Long.SIZE + " propositions");
+            }
+            propositions.put(name, propositions.size());
+            return propositions.size() - 1;
+        }
+
+        private void checkState(int state) {
+            if (state < 0 || state >= labels.size()) throw new IllegalArgumentException("Unknown state: " + state);
+        }
+    }
+}
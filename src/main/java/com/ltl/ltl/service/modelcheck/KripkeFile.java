@@ -0,0 +1,323 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The binary Kripke structure format and its converter from a textual edge list.
+ * <p>
+ * A file is a header followed by five sections, each starting at a multiple of 8 bytes and
+ * all little endian:
+ * <pre>
+ *   header   magic "LTLK", version, states, propositions, initial states, edges (long),
+ *            and the file offset of every section (long)
+ *   initial  int[initial states]
+ *   offsets  long[states + 1]   successors of s are targets[offsets[s] … offsets[s + 1] - 1]
+ *   targets  int[edges]
+ *   labels   long[states]       bit i: proposition i holds
+ *   strings  per proposition: int byte length, UTF-8 name
+ * </pre>
+ * The successor arrays are in compressed sparse row form, so {@link MappedKripkeStructure}
+ * reads them straight from the mapped file.
+ * <p>
+ * The edge list has one item per line; everything from a {@code #} on is a comment, and
+ * blank lines are ignored:
+ * <pre>
+ *   states 4           optional, otherwise the largest state number plus one
+ *   init 0             initial states, one or more per line
+ *   label 0 a b        propositions of a state
+ *   0 1                a transition
+ * </pre>
+ */
+public final class KripkeFile {
+
+    static final int MAGIC = 0x4B4C544C;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 80;
+
+    private KripkeFile() {
+    }
+
+    /** Maps the file; the caller closes the structure when done with it. */
+    public static MappedKripkeStructure open(Path file) throws IOException {
+        return new MappedKripkeStructure(file);
+    }
+
+    /** Writes any structure in the binary format. */
+    public static void write(KripkeStructure structure, Path file) throws IOException {
+        int states = structure.getStateCount();
+        long[] offsets = new long[states + 1];
+        for (int s = 0; s < states; s++) {
+            offsets[s + 1] = offsets[s] + structure.getSuccessorCount(s);
+        }
+        long[] labels = new long[states];
+        for (int s = 0; s < states; s++) {
+            labels[s] = structure.getLabels(s);
+        }
+        try (Layout layout = Layout.create(file, structure.getInitialStates(), offsets, labels,
+                structure.getPropositions())) {
+            for (int s = 0; s < states; s++) {
+                for (int i = 0; i < structure.getSuccessorCount(s); i++) {
+                    layout.putTarget(offsets[s] + i, structure.getSuccessor(s, i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts an edge list into the binary format. The list is read twice, once to count the
+     * successors of every state and once to put each edge in its place, so only per-state
+     * arrays are held in memory and the edges go straight to the mapped output file.
+     */
+    public static void convertEdgeList(Path edgeList, Path file) throws IOException {
+        // first pass: states, labels, initial states and out-degrees
+        Map<String, Integer> propositions = new LinkedHashMap<>();
+        List<Integer> initial = new ArrayList<>();
+        long[] labels = new long[16];
+        long[] degree = new long[16];
+        int declaredStates = -1;
+        int states = 0;
+        try (BufferedReader reader = Files.newBufferedReader(edgeList, StandardCharsets.UTF_8)) {
+            int lineNo = 0;
+            for (String line; (line = reader.readLine()) != null;) {
+                lineNo++;
+                String[] fields = fields(line);
+                if (fields.length == 0) continue;
+                switch (fields[0]) {
+                    case "states" -> {
+                        declaredStates = number(fields, 1, lineNo);
+                        states = Math.max(states, declaredStates);
+                    }
+                    case "init" -> {
+                        for (int i = 1; i < fields.length; i++) {
+                            int s = number(fields, i, lineNo);
+                            initial.add(s);
+                            states = Math.max(states, s + 1);
+                        }
+                    }
+                    case "label" -> {
+                        int s = number(fields, 1, lineNo);
+                        states = Math.max(states, s + 1);
+                        labels = ensure(labels, s);
+                        for (int i = 2; i < fields.length; i++) {
+                            Integer p = propositions.get(fields[i]);
+                            if (p == null) {
+                                if (propositions.size() == Long.SIZE) {
+                                    throw new IOException("Line " + lineNo + ": more than 64 propositions");
+                                }
+                                p = propositions.size();
+                                propositions.put(fields[i], p);
+                            }
+                            labels[s] |= 1L << p;
+                        }
+                    }
+                    default -> {
+                        int from = number(fields, 0, lineNo);
+                        int to = number(fields, 1, lineNo);
+                        if (fields.length != 2) throw new IOException("Line " + lineNo + ": expected 'from to'");
+                        states = Math.max(states, Math.max(from, to) + 1);
+                        degree = ensure(degree, from);
+                        degree[from]++;
+                    }
+                }
+            }
+        }
+        if (declaredStates >= 0 && states > declaredStates) {
+            throw new IOException("State " + (states - 1) + " outside of the declared " + declaredStates + " states");
+        }
+        if (initial.isEmpty()) throw new IOException("No initial state");
+
+        long[] offsets = new long[states + 1];
+        for (int s = 0; s < states; s++) {
+            offsets[s + 1] = offsets[s] + (s < degree.length ? degree[s] : 0);
+        }
+        // second pass: every edge goes to the next free slot of its source
+        long[] fill = Arrays.copyOf(offsets, states);
+        try (Layout layout = Layout.create(file, initial.stream().mapToInt(Integer::intValue).toArray(), offsets,
+                Arrays.copyOf(labels, states), new ArrayList<>(propositions.keySet()));
+                BufferedReader reader = Files.newBufferedReader(edgeList, StandardCharsets.UTF_8)) {
+            for (String line; (line = reader.readLine()) != null;) {
+                String[] fields = fields(line);
+                if (fields.length == 0 || fields[0].equals("states") || fields[0].equals("init")
+                        || fields[0].equals("label")) {
+                    continue;
+                }
+                int from = Integer.parseInt(fields[0]);
+                layout.putTarget(fill[from]++, Integer.parseInt(fields[1]));
+            }
+        }
+    }
+
+    private static String[] fields(String line) {
+        int comment = line.indexOf('#');
+        String trimmed = (comment < 0 ? line : line.substring(0, comment)).strip();
+        if (trimmed.isEmpty()) return new String[0];
+        return trimmed.split("\\s+");
+    }
+
+    private static int number(String[] fields, int index, int lineNo) throws IOException {
+        if (index >= fields.length) throw new IOException("Line " + lineNo + ": missing number");
+        try {
+            int value = Integer.parseInt(fields[index]);
+            if (value < 0) throw new IOException("Line " + lineNo + ": negative state " + value);
+            return value;
+        } catch (NumberFormatException ex) {
+            throw new IOException("Line " + lineNo + ": not a number: " + fields[index]);
+        }
+    }
+
+    private static long[] ensure(long[] array, int index) {
+        return index < array.length ? array : Arrays.copyOf(array, Math.max(2 * array.length, index + 1));
+    }
+
+    static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    // An output file with everything but the targets written; the targets section is mapped
+    // so edges can be put in any order
+    private static final class Layout implements AutoCloseable {
+        private final FileChannel channel;
+        private final MappedSection targets;
+
+        private Layout(FileChannel channel, MappedSection targets) {
+            this.channel = channel;
+            this.targets = targets;
+        }
+
+        static Layout create(Path file, int[] initial, long[] offsets, long[] labels, List<String> propositions)
+                throws IOException {
+            int states = labels.length;
+            long edges = offsets[states];
+            for (int s : initial) {
+                if (s >= states) throw new IllegalArgumentException("Unknown initial state: " + s);
+            }
+            List<byte[]> names = propositions.stream().map(p -> p.getBytes(StandardCharsets.UTF_8)).toList();
+
+            long initialAt = HEADER_BYTES;
+            long offsetsAt = align(initialAt + 4L * initial.length);
+            long targetsAt = align(offsetsAt + 8L * (states + 1));
+            long labelsAt = align(targetsAt + 4L * edges);
+            long stringsAt = align(labelsAt + 8L * states);
+            long end = stringsAt + names.stream().mapToLong(name -> 4 + name.length).sum();
+
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(states).putInt(names.size()).putInt(initial.length)
+                        .putInt(0).putLong(edges).putLong(initialAt).putLong(offsetsAt).putLong(targetsAt)
+                        .putLong(labelsAt).putLong(stringsAt).putLong(end);
+                writeFully(channel, header.flip(), 0);
+
+                ByteBuffer buffer = ByteBuffer.allocate(4 * initial.length).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.asIntBuffer().put(initial);
+                writeFully(channel, buffer, initialAt);
+                writeLongs(channel, offsets, offsetsAt);
+                writeLongs(channel, labels, labelsAt);
+                long position = stringsAt;
+                for (byte[] name : names) {
+                    ByteBuffer entry = ByteBuffer.allocate(4 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+                    entry.putInt(name.length).put(name);
+                    writeFully(channel, entry.flip(), position);
+                    position += 4 + name.length;
+                }
+                MappedSection targets = new MappedSection(channel, FileChannel.MapMode.READ_WRITE, targetsAt, 4 * edges);
+                return new Layout(channel, targets);
+            } catch (IOException | RuntimeException ex) {
+                channel.close();
+                throw ex;
+            }
+        }
+
+        void putTarget(long index, int target) {
+            targets.putInt(index, target);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                targets.force();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private static void writeLongs(FileChannel channel, long[] values, long position) throws IOException {
+            // in chunks, so huge arrays do not need a second copy of the same size
+            int chunk = 1 << 16;
+            ByteBuffer buffer = ByteBuffer.allocate(8 * chunk).order(ByteOrder.LITTLE_ENDIAN);
+            for (int from = 0; from < values.length; from += chunk) {
+                int count = Math.min(chunk, values.length - from);
+                buffer.clear();
+                buffer.asLongBuffer().put(values, from, count);
+                buffer.limit(8 * count);
+                writeFully(channel, buffer, position + 8L * from);
+            }
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            long at = position;
+            while (buffer.hasRemaining()) {
+                at += channel.write(buffer, at);
+            }
+        }
+    }
+
+    /**
+     * A section of a file mapped as a sequence of buffers of at most 1 GiB each, since a
+     * single {@link MappedByteBuffer} cannot exceed 2 GiB. Sections are 8-byte aligned and the
+     * chunk size is a multiple of 8, so no int or long straddles two buffers.
+     */
+    static final class MappedSection {
+        private static final int CHUNK_BITS = 30;
+        private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+        private final MappedByteBuffer[] chunks;
+
+        MappedSection(FileChannel channel, FileChannel.MapMode mode, long start, long length) throws IOException {
+            int count = (int) ((length + CHUNK_MASK) >>> CHUNK_BITS);
+            chunks = new MappedByteBuffer[count];
+            for (int c = 0; c < count; c++) {
+                long from = (long) c << CHUNK_BITS;
+                long size = Math.min(1L << CHUNK_BITS, length - from);
+                chunks[c] = channel.map(mode, start + from, size);
+                chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        int getInt(long index) {
+            long position = index << 2;
+            return chunks[(int) (position >>> CHUNK_BITS)].getInt((int) (position & CHUNK_MASK));
+        }
+
+        long getLong(long index) {
+            long position = index << 3;
+            return chunks[(int) (position >>> CHUNK_BITS)].getLong((int) (position & CHUNK_MASK));
+        }
+
+        void putInt(long index, int value) {
+            long position = index << 2;
+            chunks[(int) (position >>> CHUNK_BITS)].putInt((int) (position & CHUNK_MASK), value);
+        }
+
+        void force() {
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+        }
+    }
+}
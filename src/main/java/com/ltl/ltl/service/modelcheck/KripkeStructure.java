@@ -0,0 +1,42 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.util.List;
+
+/**
+ * A finite Kripke structure: states numbered {@code 0 … getStateCount() - 1}, initial states,
+ * a successor relation and the atomic propositions that hold in each state.
+ * <p>
+ * Successors are addressed by index so that implementations can keep them in flat arrays
+ * and a search does not allocate per state. A state without successors is a deadlock; the
+ * model checker lets it stutter forever.
+ * <p>
+ * Transitions may carry the action that causes them, e.g. the step of one component of an
+ * asynchronous system; then either every transition has an action or none has.
+ */
+public interface KripkeStructure {
+
+    int getStateCount();
+
+    int[] getInitialStates();
+
+    int getSuccessorCount(int state);
+
+    /** Successor {@code index} of the state, {@code 0 ≤ index < getSuccessorCount(state)}. */
+    int getSuccessor(int state, int index);
+
+    /** The propositions that hold in the state, bit i for {@code getPropositions().get(i)}. */
+    long getLabels(int state);
+
+    /** Names of the propositions of the labels, at most 64. */
+    List<String> getPropositions();
+
+    /** Names of the actions of the transitions, empty if the transitions have none. */
+    default List<String> getActions() {
+        return List.of();
+    }
+
+    /** The action of transition {@code index} of the state, an index into {@link #getActions()}, or -1. */
+    default int getAction(int state, int index) {
+        return -1;
+    }
+}
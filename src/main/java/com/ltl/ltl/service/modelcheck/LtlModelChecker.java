@@ -0,0 +1,416 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.ltl.ltl.model.FormulaFactory;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.automaton.GeneralizedBuchiAutomaton;
+import com.ltl.ltl.service.automaton.GeneralizedBuchiAutomaton.State;
+import com.ltl.ltl.service.util.LongHash;
+import com.ltl.ltl.service.util.LongStateTable;
+
+/**
+ * Explicit-state LTL model checking: a Kripke structure satisfies {@code φ} iff the product
+ * of the structure with the Büchi automaton of {@code ¬φ} has no accepting run.
+ * <p>
+ * The product is built on the fly while a nested depth-first search after Schwoon and
+ * Esparza looks for an accepting cycle. The automaton is degeneralized on the fly like in
+ * {@code CndfsEmptinessCheck}, so a product state is a structure state, an automaton state
+ * and the acceptance set it waits for, packed into one {@code long}. The visited states and
+ * their colours are kept in a {@link LongStateTable}; the cyan colour marks the states on the
+ * blue search stack, from which an accepting cycle yields the counterexample lasso.
+ * <p>
+ * In bitstate mode a {@link BitstateStore} takes the place of the table. The search then fits
+ * state spaces far beyond the heap but may miss states, so HOLDS only means that no
+ * counterexample was found in the part covered, see {@link #getBitstateStatistics()}.
+ * <p>
+ * A search order seed and a depth bound make runs explore different parts of the product
+ * first, which is what {@link SwarmModelChecker} builds on.
+ * <p>
+ * With partial-order reduction a state whose transitions are caused by independent actions
+ * is expanded through an ample set only, see {@link #setPartialOrderReduction}. The cycle
+ * proviso expands a state fully if its ample set leads back onto the blue stack; the state
+ * is then marked, so the red search expands it the same way.
+ * <p>
+ * A deadlock state of the structure stutters, i.e. behaves as if it had a self-loop.
+ */
+public final class LtlModelChecker {
+
+    public enum Result { HOLDS, VIOLATED, UNKNOWN }
+
+    // the clock is read once per this many states
+    private static final int CLOCK_INTERVAL = 256;
+    private static final int VISITED = StateStore.VISITED;
+    private static final int CYAN = StateStore.CYAN;
+    private static final int RED = StateStore.RED;
+    private static final int FULL = StateStore.FULL;
+    // bits of the packed product state: structure state, automaton state, awaited set
+    private static final int LEVEL_BITS = 8;
+    private static final int AUTOMATON_BITS = 24;
+
+    private final KripkeStructure structure;
+    private final GeneralizedBuchiAutomaton automaton;
+    private final SymbolLabels labels;
+    private final int sets;
+    private State[] automatonStates = new State[64];
+    private long maxStates = Long.MAX_VALUE;
+    private Duration timeout;
+    // bitstate mode: log2 of the bit array size, 0 for an exact search
+    private int bitstateLog2Bits;
+    private int bitstateHashes;
+    private long bitstateSeed;
+    // 0 for the order of the structure and the automaton
+    private long orderSeed;
+    private int depthBound = Integer.MAX_VALUE;
+    private volatile boolean cancelled;
+    // null unless partial-order reduction applies
+    private AmpleSets ampleSets;
+
+    // the last run
+    private StateStore table;
+    private long transitions;
+    private long deadline;
+    private Counterexample counterexample;
+    private int maxDepth;
+    private boolean truncated;
+    private long reducedStates;
+
+    public LtlModelChecker(KripkeStructure structure, IFormula formula) {
+        this(structure, GeneralizedBuchiAutomaton.of(FormulaFactory.not(formula)));
+    }
+
+    /** Checks against an automaton of the negated specification, e.g. a cached one. */
+    public LtlModelChecker(KripkeStructure structure, GeneralizedBuchiAutomaton negation) {
+        if (negation.getAcceptanceSets() >= 1 << LEVEL_BITS) {
+            throw new IllegalArgumentException("Too many acceptance sets: " + negation.getAcceptanceSets());
+        }
+        this.structure = structure;
+        this.automaton = negation;
+        this.labels = new SymbolLabels(structure);
+        this.sets = negation.getAcceptanceSets();
+    }
+
+    /** Limits the next {@link #run()}; running out of states or time answers UNKNOWN. */
+    public void setLimits(long maxStates, Duration timeout) {
+        this.maxStates = maxStates;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Switches the next runs to bitstate mode with {@code 2^log2Bits} bits and {@code hashes}
+     * hash functions, or back to an exact search with {@code log2Bits == 0}.
+     */
+    public void setBitstate(int log2Bits, int hashes) {
+        setBitstate(log2Bits, hashes, 0);
+    }
+
+    /** Like {@link #setBitstate(int, int)}, with a seed that picks other hash functions. */
+    public void setBitstate(int log2Bits, int hashes, long seed) {
+        if (log2Bits != 0) BitstateStore.checkParameters(log2Bits, hashes);
+        this.bitstateLog2Bits = log2Bits;
+        this.bitstateHashes = hashes;
+        this.bitstateSeed = seed;
+    }
+
+    /**
+     * Makes the next runs visit the successors of every state in an order that depends on the
+     * seed, so runs with different seeds reach different states first; 0 restores the order
+     * of the structure and the automaton.
+     */
+    public void setSearchOrder(long seed) {
+        this.orderSeed = seed;
+    }
+
+    /**
+     * Stops the next runs from going deeper than {@code depth} product states. A run that had
+     * to leave states out answers UNKNOWN unless it finds a counterexample.
+     */
+    public void setDepthBound(int depth) {
+        if (depth < 1) throw new IllegalArgumentException("Depth bound below 1: " + depth);
+        this.depthBound = depth;
+    }
+
+    /**
+     * Turns partial-order reduction on for the next runs, or off with {@code null}. It only
+     * takes effect if the structure has actions and the formula is next-free, since the
+     * reduction cuts out interleavings that X can tell apart; see {@link #isReducing()}.
+     * Turning it on scans every transition of the structure once, for the actions that change
+     * a proposition of the formula anywhere; those are never ample.
+     *
+     * @throws IllegalArgumentException if the independence relation is over other actions
+     */
+    public void setPartialOrderReduction(ActionIndependence independence) {
+        this.ampleSets = independence == null ? null
+                : AmpleSets.of(structure, independence, labels, automaton.getFormula());
+    }
+
+    /** True if the next runs use partial-order reduction. */
+    public boolean isReducing() {
+        return ampleSets != null;
+    }
+
+    /** States the last run expanded through an ample set smaller than all their transitions. */
+    public long getReducedStates() {
+        return reducedStates;
+    }
+
+    /** Makes the current run, and every later one, stop soon and answer UNKNOWN. Thread-safe. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /** How much of the state space the last run covered, or {@code null} unless it was in bitstate mode. */
+    public BitstateStore.Statistics getBitstateStatistics() {
+        return table instanceof BitstateStore bitstate ? bitstate.getStatistics() : null;
+    }
+
+    /** Product states visited by the last run. */
+    public long getStates() {
+        return table == null ? 0 : table.size();
+    }
+
+    /** Deepest blue search stack of the last run. */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /** Product transitions followed by the last run, blue and red search together. */
+    public long getTransitions() {
+        return transitions;
+    }
+
+    /** Automaton states of {@code ¬φ} built so far. */
+    public int getAutomatonStates() {
+        return automaton.getStateCount();
+    }
+
+    /** The path the last run found, or {@code null} unless it answered VIOLATED. */
+    public Counterexample getCounterexample() {
+        return counterexample;
+    }
+
+    public Result run() {
+        table = bitstateLog2Bits == 0 ? new ExactStateStore((int) Math.min(maxStates, 1 << 16))
+                : new BitstateStore(bitstateLog2Bits, bitstateHashes, bitstateSeed);
+        transitions = 0;
+        counterexample = null;
+        maxDepth = 0;
+        truncated = false;
+        reducedStates = 0;
+        deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+
+        for (int initial : structure.getInitialStates()) {
+            long symbols = labels.symbols(structure.getLabels(initial));
+            for (State q : automaton.initialStates()) {
+                if (!compatible(q, symbols)) continue;
+                long key = key(initial, q, 0);
+                if (table.get(key) != 0) continue;
+                if (!withinLimits()) return Result.UNKNOWN;
+                Result result = blue(key);
+                if (result != null) return result;
+            }
+        }
+        return truncated ? Result.UNKNOWN : Result.HOLDS;
+    }
+
+    // Blue search from a new state; null if it completed without an accepting cycle
+    private Result blue(long start) {
+        List<Frame> stack = new ArrayList<>();
+        table.set(start, VISITED | CYAN);
+        stack.add(new Frame(start, true));
+        maxDepth = Math.max(maxDepth, 1);
+        while (!stack.isEmpty()) {
+            Frame top = stack.get(stack.size() - 1);
+            long target = top.next();
+            if (target >= 0) {
+                transitions++;
+                int colour = table.get(target);
+                if ((colour & CYAN) != 0 && (top.accepting() || accepting(target))) {
+                    // early detection: the edge closes a cycle through an accepting state
+                    counterexample = lasso(stack, List.of(), target);
+                    return Result.VIOLATED;
+                }
+                if (colour == 0) {
+                    if (stack.size() >= depthBound) {
+                        truncated = true;
+                        continue;
+                    }
+                    if (!withinLimits()) return Result.UNKNOWN;
+                    table.set(target, VISITED | CYAN);
+                    stack.add(new Frame(target, true));
+                    maxDepth = Math.max(maxDepth, stack.size());
+                }
+                continue;
+            }
+            if (top.accepting()) {
+                if (red(stack, top)) return Result.VIOLATED;
+                table.set(top.key, RED);
+            }
+            table.clear(top.key, CYAN);
+            stack.remove(stack.size() - 1);
+        }
+        return null;
+    }
+
+    // Red search from an accepting seed: reaching a cyan state closes an accepting cycle
+    private boolean red(List<Frame> blueStack, Frame seed) {
+        List<Frame> stack = new ArrayList<>();
+        stack.add(new Frame(seed.key, false));
+        while (!stack.isEmpty()) {
+            Frame top = stack.get(stack.size() - 1);
+            long target = top.next();
+            if (target < 0) {
+                stack.remove(stack.size() - 1);
+                continue;
+            }
+            transitions++;
+            int colour = table.get(target);
+            if ((colour & CYAN) != 0) {
+                counterexample = lasso(blueStack, stack.subList(1, stack.size()), target);
+                return true;
+            }
+            if ((colour & VISITED) != 0 && (colour & RED) == 0) {
+                table.set(target, RED);
+                stack.add(new Frame(target, false));
+            }
+        }
+        return false;
+    }
+
+    // The blue stack, then the red path, then back to the cyan target on the blue stack
+    private Counterexample lasso(List<Frame> blueStack, List<Frame> redPath, long target) {
+        List<Integer> states = new ArrayList<>();
+        int loopStart = -1;
+        for (Frame frame : blueStack) {
+            if (frame.key == target && loopStart < 0) loopStart = states.size();
+            states.add(frame.state);
+        }
+        for (Frame frame : redPath) {
+            states.add(frame.state);
+        }
+        return new Counterexample(states, loopStart);
+    }
+
+    private boolean withinLimits() {
+        if (cancelled) return false;
+        long visited = table.size();
+        if (visited >= maxStates) return false;
+        return deadline == Long.MAX_VALUE || visited % CLOCK_INTERVAL != 0 || System.nanoTime() - deadline <= 0;
+    }
+
+    private static boolean compatible(State q, long symbols) {
+        return (symbols & q.positive()) == q.positive() && (symbols & q.negative()) == 0;
+    }
+
+    private long key(int state, State q, int level) {
+        int id = q.id();
+        if (id >= 1 << AUTOMATON_BITS) throw new IllegalStateException("Too many automaton states for a packed state");
+        if (id >= automatonStates.length) {
+            automatonStates = Arrays.copyOf(automatonStates, Math.max(2 * automatonStates.length, id + 1));
+        }
+        automatonStates[id] = q;
+        return ((long) state << (AUTOMATON_BITS + LEVEL_BITS)) | ((long) id << LEVEL_BITS) | level;
+    }
+
+    private boolean accepting(long key) {
+        State q = automatonStates[(int) (key >>> LEVEL_BITS) & ((1 << AUTOMATON_BITS) - 1)];
+        return accepting(q, (int) key & ((1 << LEVEL_BITS) - 1));
+    }
+
+    private boolean accepting(State q, int level) {
+        return sets == 0 || (level == 0 && q.accepts(0));
+    }
+
+    // A product state on a search stack and the position of the next successor to generate
+    private final class Frame {
+        final long key;
+        final int state;
+        final State q;
+        final int level;
+        final List<State> targets;
+        final int targetLevel;
+        // structure successors; a deadlock has its stutter step as its only successor
+        final boolean deadlock;
+        // the transitions of the ample set, null for all
+        final int[] ample;
+        final int edges;
+        // where the successor orders of a seeded search start
+        final int edgeOffset;
+        final int targetOffset;
+        int edge;
+        int target;
+        long successorSymbols;
+
+        Frame(long key, boolean blue) {
+            this.key = key;
+            this.state = (int) (key >>> (AUTOMATON_BITS + LEVEL_BITS));
+            this.q = automatonStates[(int) (key >>> LEVEL_BITS) & ((1 << AUTOMATON_BITS) - 1)];
+            this.level = (int) key & ((1 << LEVEL_BITS) - 1);
+            this.targets = automaton.successors(q);
+            // a state in the awaited set moves on to the next set
+            this.targetLevel = sets == 0 || !q.accepts(level) ? level : (level + 1) % sets;
+            int successors = structure.getSuccessorCount(state);
+            this.deadlock = successors == 0;
+            this.ample = ample(blue);
+            this.edges = ample != null ? ample.length : Math.max(1, successors);
+            int h = orderSeed == 0 ? 0 : (int) LongHash.mix(key ^ orderSeed);
+            this.edgeOffset = Math.floorMod(h, edges);
+            this.targetOffset = targets.isEmpty() ? 0 : Math.floorMod(h >>> 16, targets.size());
+        }
+
+        boolean accepting() {
+            return LtlModelChecker.this.accepting(q, level);
+        }
+
+        // The blue search picks the ample set, or marks the state FULL when the proviso
+        // fails; the red search repeats the choice.
+        private int[] ample(boolean blue) {
+            if (ampleSets == null || deadlock) return null;
+            if (!blue && (table.get(key) & FULL) != 0) return null;
+            int[] chosen = ampleSets.ample(state);
+            if (chosen == null || !blue) return chosen;
+            if (closesCycle(chosen)) {
+                table.set(key, FULL);
+                return null;
+            }
+            reducedStates++;
+            return chosen;
+        }
+
+        // cycle proviso: some product successor through the ample set is on the blue stack
+        private boolean closesCycle(int[] chosen) {
+            for (int index : chosen) {
+                int successor = structure.getSuccessor(state, index);
+                long symbols = labels.symbols(structure.getLabels(successor));
+                for (State t : targets) {
+                    if (compatible(t, symbols) && (table.get(key(successor, t, targetLevel)) & CYAN) != 0) return true;
+                }
+            }
+            return false;
+        }
+
+        // the next product successor, or -1 once all are generated
+        long next() {
+            while (edge < edges) {
+                int successor = successor();
+                if (target == 0) successorSymbols = labels.symbols(structure.getLabels(successor));
+                while (target < targets.size()) {
+                    State t = targets.get((target++ + targetOffset) % targets.size());
+                    if (compatible(t, successorSymbols)) return key(successor, t, targetLevel);
+                }
+                edge++;
+                target = 0;
+            }
+            return -1;
+        }
+
+        private int successor() {
+            if (deadlock) return state;
+            int index = (edge + edgeOffset) % edges;
+            return structure.getSuccessor(state, ample == null ? index : ample[index]);
+        }
+    }
+}
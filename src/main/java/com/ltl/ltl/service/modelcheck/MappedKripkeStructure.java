@@ -0,0 +1,155 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Kripke structure read from a {@link KripkeFile} through memory-mapped buffers. Only the
+ * initial states and the proposition names are copied to the heap; successors and labels are
+ * read from the mapping on every call, so the operating system pages the parts of the model
+ * a search touches in and out, and a model larger than the heap can still be checked.
+ * <p>
+ * Opening checks the header and reads the offsets and targets once, so that a damaged or
+ * foreign file fails there with an {@link IOException} rather than in the middle of a search.
+ * <p>
+ * Closing releases the file; the mappings themselves go away once they are garbage.
+ */
+public final class MappedKripkeStructure implements KripkeStructure, AutoCloseable {
+
+    private final FileChannel channel;
+    private final int states;
+    private final long edges;
+    private final int[] initial;
+    private final List<String> propositions;
+    private final KripkeFile.MappedSection offsets;
+    private final KripkeFile.MappedSection targets;
+    private final KripkeFile.MappedSection labels;
+
+    MappedKripkeStructure(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(0, KripkeFile.HEADER_BYTES);
+            if (header.getInt() != KripkeFile.MAGIC) throw new IOException("Not a Kripke structure file: " + file);
+            int version = header.getInt();
+            if (version != KripkeFile.VERSION) throw new IOException("Unsupported version " + version + ": " + file);
+            states = header.getInt();
+            int propositionCount = header.getInt();
+            int initialCount = header.getInt();
+            header.getInt();
+            edges = header.getLong();
+            long initialAt = header.getLong();
+            long offsetsAt = header.getLong();
+            long targetsAt = header.getLong();
+            long labelsAt = header.getLong();
+            long stringsAt = header.getLong();
+            long end = header.getLong();
+            if (end > channel.size()) throw new IOException("Truncated file: " + file);
+            if (states < 0 || initialCount < 0 || edges < 0) throw new IOException("Negative counts: " + file);
+            if (propositionCount < 0 || propositionCount > Long.SIZE) {
+                throw new IOException(propositionCount + " propositions, at most 64 fit the labels: " + file);
+            }
+            if (!within(initialAt, initialCount, 4, end) || !within(offsetsAt, states + 1L, 8, end)
+                    || !within(targetsAt, edges, 4, end) || !within(labelsAt, states, 8, end)
+                    || !within(stringsAt, 0, 1, end)) {
+                throw new IOException("Section outside of the file: " + file);
+            }
+
+            initial = new int[initialCount];
+            read(initialAt, 4 * initialCount).asIntBuffer().get(initial);
+            for (int s : initial) {
+                if (s < 0 || s >= states) throw new IOException("Unknown initial state " + s + ": " + file);
+            }
+            List<String> names = new ArrayList<>();
+            ByteBuffer strings = read(stringsAt, (int) (end - stringsAt));
+            for (int p = 0; p < propositionCount; p++) {
+                int length = strings.remaining() < 4 ? -1 : strings.getInt();
+                if (length < 0 || length > strings.remaining()) throw new IOException("Bad proposition name: " + file);
+                byte[] name = new byte[length];
+                strings.get(name);
+                names.add(new String(name, StandardCharsets.UTF_8));
+            }
+            propositions = List.copyOf(names);
+
+            FileChannel.MapMode mode = FileChannel.MapMode.READ_ONLY;
+            offsets = new KripkeFile.MappedSection(channel, mode, offsetsAt, 8L * (states + 1));
+            targets = new KripkeFile.MappedSection(channel, mode, targetsAt, 4 * edges);
+            labels = new KripkeFile.MappedSection(channel, mode, labelsAt, 8L * states);
+            long previous = 0;
+            for (int s = 0; s <= states; s++) {
+                long offset = offsets.getLong(s);
+                if (offset < previous || offset > edges) throw new IOException("Bad offset of state " + s + ": " + file);
+                previous = offset;
+            }
+            for (long e = 0; e < edges; e++) {
+                int target = targets.getInt(e);
+                if (target < 0 || target >= states) throw new IOException("Transition to unknown state " + target + ": " + file);
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    // true if count items of the width starting at start lie between the header and end
+    private static boolean within(long start, long count, int width, long end) {
+        return start >= KripkeFile.HEADER_BYTES && start <= end && count <= (end - start) / width;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        long at = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, at);
+            if (read < 0) throw new IOException("Unexpected end of file");
+            at += read;
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public int getStateCount() {
+        return states;
+    }
+
+    /** Number of transitions. */
+    public long getEdgeCount() {
+        return edges;
+    }
+
+    @Override
+    public int[] getInitialStates() {
+        return initial.clone();
+    }
+
+    @Override
+    public int getSuccessorCount(int state) {
+        return (int) (offsets.getLong(state + 1) - offsets.getLong(state));
+    }
+
+    @Override
+    public int getSuccessor(int state, int index) {
+        return targets.getInt(offsets.getLong(state) + index);
+    }
+
+    @Override
+    public long getLabels(int state) {
+        return labels.getLong(state);
+    }
+
+    @Override
+    public List<String> getPropositions() {
+        return propositions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
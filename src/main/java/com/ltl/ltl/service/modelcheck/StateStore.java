@@ -0,0 +1,28 @@
+package com.ltl.ltl.service.modelcheck;
+
+/**
+ * The visited set of a nested depth-first search: every state seen so far with the colours
+ * the search gave it.
+ */
+interface StateStore {
+
+    int VISITED = 1;
+    // on the blue search stack
+    int CYAN = 2;
+    // seen by a red search
+    int RED = 4;
+    // expanded with all transitions although it has a smaller ample set
+    int FULL = 8;
+
+    /** The colours of the state, 0 if it has not been seen. */
+    int get(long key);
+
+    /** Adds the state if needed and gives it the colours; true if the state is new. */
+    boolean set(long key, int bits);
+
+    /** Takes the colours from a state that has been seen. */
+    void clear(long key, int bits);
+
+    /** Number of states seen. */
+    long size();
+}
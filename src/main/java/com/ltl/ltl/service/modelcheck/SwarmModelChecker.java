@@ -0,0 +1,172 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.ltl.ltl.model.FormulaFactory;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.automaton.GeneralizedBuchiAutomaton;
+import com.ltl.ltl.service.modelcheck.LtlModelChecker.Result;
+
+/**
+ * Swarm verification after Holzmann, Joshi and Groce: several independent
+ * {@link LtlModelChecker} searches over the same product, each on its own thread with its
+ * own successor order, hash seed and depth bound. The searches share nothing but the
+ * automaton of {@code ¬φ}, so each one fits the memory it is given, and together they cover
+ * more of a product too large for one exhaustive search than one search of the same total
+ * memory would. The first counterexample stops the whole swarm.
+ * <p>
+ * Worker 0 keeps the plain order of the structure and the full depth bound; the others get
+ * seeded orders and depth bounds spread between half and all of the bound. In bitstate mode
+ * every worker has its own bit array with its own hash functions.
+ */
+public final class SwarmModelChecker {
+
+    /** What one worker did in the last run. */
+    public record WorkerReport(int worker, long seed, int depthBound, Result result, long states,
+            long transitions, int maxDepth, BitstateStore.Statistics bitstate, Duration elapsed) {}
+
+    private final KripkeStructure structure;
+    private final GeneralizedBuchiAutomaton automaton;
+    private final int workers;
+    private final long seed;
+    private long maxStates = Long.MAX_VALUE;
+    private Duration timeout;
+    private int depthBound = Integer.MAX_VALUE;
+    private int bitstateLog2Bits;
+    private int bitstateHashes;
+    private ActionIndependence independence;
+
+    // the last run
+    private List<WorkerReport> reports = List.of();
+    private Counterexample counterexample;
+
+    public SwarmModelChecker(KripkeStructure structure, IFormula formula, int workers) {
+        this(structure, GeneralizedBuchiAutomaton.of(FormulaFactory.not(formula)), workers, 0);
+    }
+
+    /** {@code seed} fixes the orders and hash functions of the workers, for reproducible runs. */
+    public SwarmModelChecker(KripkeStructure structure, GeneralizedBuchiAutomaton negation, int workers, long seed) {
+        if (workers < 1) throw new IllegalArgumentException("At least one worker is needed");
+        this.structure = structure;
+        this.automaton = negation;
+        this.workers = workers;
+        this.seed = seed;
+    }
+
+    /** Limits every worker of the next {@link #run()}. */
+    public void setLimits(long maxStates, Duration timeout) {
+        this.maxStates = maxStates;
+        this.timeout = timeout;
+    }
+
+    /** The deepest a worker searches; the workers other than worker 0 stop earlier. */
+    public void setDepthBound(int depth) {
+        if (depth < 1) throw new IllegalArgumentException("Depth bound below 1: " + depth);
+        this.depthBound = depth;
+    }
+
+    /** Runs every worker in bitstate mode, see {@link LtlModelChecker#setBitstate(int, int)}. */
+    public void setBitstate(int log2Bits, int hashes) {
+        if (log2Bits != 0) BitstateStore.checkParameters(log2Bits, hashes);
+        this.bitstateLog2Bits = log2Bits;
+        this.bitstateHashes = hashes;
+    }
+
+    /** Lets every worker use partial-order reduction, see {@link LtlModelChecker#setPartialOrderReduction}. */
+    public void setPartialOrderReduction(ActionIndependence independence) {
+        this.independence = independence;
+    }
+
+    /** One report per worker of the last run. */
+    public List<WorkerReport> getReports() {
+        return reports;
+    }
+
+    /** The path a worker of the last run found, or {@code null} unless it answered VIOLATED. */
+    public Counterexample getCounterexample() {
+        return counterexample;
+    }
+
+    /**
+     * VIOLATED as soon as a worker finds a counterexample, HOLDS if an exact worker searched
+     * the whole product without one, UNKNOWN otherwise.
+     */
+    public Result run() {
+        counterexample = null;
+        List<LtlModelChecker> checkers = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            checkers.add(checker(i));
+        }
+        WorkerReport[] done = new WorkerReport[workers];
+        AtomicReference<Counterexample> found = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            int worker = i;
+            Thread thread = new Thread(() -> {
+                LtlModelChecker checker = checkers.get(worker);
+                long started = System.nanoTime();
+                try {
+                    Result result = checker.run();
+                    if (result == Result.VIOLATED && found.compareAndSet(null, checker.getCounterexample())) {
+                        checkers.forEach(LtlModelChecker::cancel);
+                    }
+                    done[worker] = new WorkerReport(worker, workerSeed(worker), workerDepth(worker), result,
+                            checker.getStates(), checker.getTransitions(), checker.getMaxDepth(),
+                            checker.getBitstateStatistics(), Duration.ofNanos(System.nanoTime() - started));
+                } catch (RuntimeException | Error ex) {
+                    failure.compareAndSet(null, ex);
+                    checkers.forEach(LtlModelChecker::cancel);
+                }
+            }, "swarm-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException ex) {
+            checkers.forEach(LtlModelChecker::cancel);
+            Thread.currentThread().interrupt();
+        }
+        Throwable error = failure.get();
+        if (error != null) throw new IllegalStateException("Swarm worker failed", error);
+
+        // a worker that an interrupt cut off has no report
+        reports = Arrays.stream(done).filter(Objects::nonNull).toList();
+        counterexample = found.get();
+        if (counterexample != null) return Result.VIOLATED;
+        // bitstate workers may have missed states, so only an exact search proves the formula
+        boolean proved = bitstateLog2Bits == 0 && reports.stream().anyMatch(r -> r.result() == Result.HOLDS);
+        return proved ? Result.HOLDS : Result.UNKNOWN;
+    }
+
+    private LtlModelChecker checker(int worker) {
+        LtlModelChecker checker = new LtlModelChecker(structure, automaton);
+        checker.setLimits(maxStates, timeout);
+        checker.setSearchOrder(workerSeed(worker));
+        if (workerDepth(worker) != Integer.MAX_VALUE) checker.setDepthBound(workerDepth(worker));
+        if (bitstateLog2Bits != 0) checker.setBitstate(bitstateLog2Bits, bitstateHashes, workerSeed(worker));
+        checker.setPartialOrderReduction(independence);
+        return checker;
+    }
+
+    // 0 keeps the order of worker 0 plain; the others scramble the swarm seed
+    private long workerSeed(int worker) {
+        return worker == 0 ? 0 : (seed + worker) * 0x9e3779b97f4a7c15L | 1;
+    }
+
+    private int workerDepth(int worker) {
+        if (depthBound == Integer.MAX_VALUE || worker == 0) return depthBound;
+        int half = depthBound / 2;
+        return Math.max(1, half + (int) ((long) (depthBound - half) * worker / workers));
+    }
+}
@@ -0,0 +1,44 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.ltl.ltl.model.Symbol;
+
+// Translates the proposition bits of a Kripke structure into Symbol bits: a symbol stands
+// for the proposition with the same name, ignoring case, and is false where there is none
+final class SymbolLabels {
+
+    private static final Symbol[] SYMBOLS = Symbol.values();
+
+    private final int[] propositionOf = new int[SYMBOLS.length];
+
+    SymbolLabels(KripkeStructure structure) {
+        List<String> propositions = structure.getPropositions();
+        for (Symbol symbol : SYMBOLS) {
+            propositionOf[symbol.ordinal()] = -1;
+            for (int p = 0; p < propositions.size(); p++) {
+                if (propositions.get(p).equalsIgnoreCase(symbol.name())) propositionOf[symbol.ordinal()] = p;
+            }
+        }
+    }
+
+    /** Bit i for {@code Symbol.values()[i]}, like the labels of the automaton states. */
+    long symbols(long labels) {
+        long result = 0;
+        for (int i = 0; i < propositionOf.length; i++) {
+            if (propositionOf[i] >= 0 && (labels >>> propositionOf[i] & 1) != 0) result |= 1L << i;
+        }
+        return result;
+    }
+
+    Set<Symbol> symbolSet(long labels) {
+        Set<Symbol> result = EnumSet.noneOf(Symbol.class);
+        long symbols = symbols(labels);
+        for (Symbol symbol : SYMBOLS) {
+            if ((symbols >>> symbol.ordinal() & 1) != 0) result.add(symbol);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ltl.ltl.service.monitor;
+
+import com.ltl.ltl.model.IFormula;
+
+/**
+ * An online monitor of one event stream: it follows the stream through the
+ * {@link MonitorAutomaton} of its formula and answers the LTL3 verdict on the events so far
+ * after every event. Once the verdict is conclusive it stays so, and further events cost no
+ * more than a comparison.
+ * <p>
+ * A monitor is meant for one stream on one thread. Monitors of several streams can share the
+ * automaton, see {@link #LtlMonitor(MonitorAutomaton)}.
+ */
+public final class LtlMonitor implements StreamMonitor {
+
+    private final MonitorAutomaton automaton;
+    private int state;
+    private long events;
+
+    public LtlMonitor(IFormula formula) {
+        this(MonitorAutomaton.of(formula));
+    }
+
+    public LtlMonitor(MonitorAutomaton automaton) {
+        this.automaton = automaton;
+        this.state = automaton.initial();
+    }
+
+    /** Takes one event, bit i set if {@code Symbol.values()[i]} holds, and returns the verdict. */
+    @Override
+    public Verdict step(long event) {
+        events++;
+        state = automaton.next(state, event);
+        return automaton.verdict(state);
+    }
+
+    @Override
+    public Verdict step(long[] batch, int from, int length) {
+        int current = state;
+        int end = from + length;
+        for (int i = from; i < end; i++) {
+            if (automaton.verdict(current).isConclusive()) break;
+            current = automaton.next(current, batch[i]);
+        }
+        state = current;
+        events += length;
+        return automaton.verdict(current);
+    }
+
+    @Override
+    public Verdict getVerdict() {
+        return automaton.verdict(state);
+    }
+
+    /** What the rest of the stream has to satisfy, see {@link MonitorAutomaton#residual(int)}. */
+    public IFormula getResidual() {
+        return automaton.residual(state);
+    }
+
+    @Override
+    public long getEvents() {
+        return events;
+    }
+
+    public MonitorAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    @Override
+    public void reset() {
+        state = automaton.initial();
+        events = 0;
+    }
+}
@@ -0,0 +1,171 @@
+package com.ltl.ltl.service.monitor;
+
+import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.FormulaFactory;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Constant;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+import com.ltl.ltl.service.automaton.CouvreurEmptinessCheck;
+import com.ltl.ltl.service.automaton.EmptinessCheck;
+import com.ltl.ltl.service.automaton.GeneralizedBuchiAutomaton;
+import com.ltl.ltl.service.syntax.Nnf;
+
+/**
+ * The deterministic monitor automaton of a formula, built lazily by formula progression. A
+ * state is what is left of the formula after the events so far, and the successor of a state
+ * under an event is its progression through the event. Progressions that are equal up to
+ * their boolean structure are one state, so there are finitely many. Every state is kept
+ * with the table of its successors, so after warm-up an event costs one table lookup.
+ * <p>
+ * The verdict of a state is the LTL3 verdict: {@code FALSE} if no infinite word satisfies what
+ * is left, {@code TRUE} if every one does, {@code INCONCLUSIVE} otherwise. Progression alone
+ * only finds the verdicts that are forced syntactically, so every new state is also checked
+ * for satisfiability and validity with the Büchi automata of it and its negation. A state
+ * with a conclusive verdict is a sink.
+ * <p>
+ * Events are bit masks with bit i set if {@code Symbol.values()[i]} holds. A transition table
+ * has one entry per valuation of the symbols of the formula, and symbols that do not occur in
+ * it are ignored. The automaton may be shared by monitors on several threads; the states are
+ * added under a lock, lookups of known transitions take none.
+ */
+public final class MonitorAutomaton {
+
+    /** States at most, so that a formula whose progressions do not settle cannot fill the heap. */
+    public static final int DEFAULT_MAX_STATES = 1 << 16;
+    // product states each satisfiability check of a new state may visit; UNKNOWN is inconclusive
+    private static final long CHECK_STATES = 1_000_000;
+
+    private final Progression progression;
+    private final MonitorStates states;
+
+    private MonitorAutomaton(IFormula nnf, int maxStates) {
+        synchronized (this) {
+            this.progression = new Progression();
+            this.states = new MonitorStates(progression, maxStates);
+            states.setSymbols(symbols(nnf));
+            states.add(progression.add(nnf));
+        }
+    }
+
+    public static MonitorAutomaton of(IFormula formula) {
+        return of(formula, DEFAULT_MAX_STATES);
+    }
+
+    public static MonitorAutomaton of(IFormula formula, int maxStates) {
+        return new MonitorAutomaton(new Nnf().toNnf(formula), maxStates);
+    }
+
+    /** The state before any event. */
+    public int initial() {
+        return 0;
+    }
+
+    /** The state after the event in the state. */
+    public int next(int state, long event) {
+        return successor(state, letter(event));
+    }
+
+    public Verdict verdict(int state) {
+        return states.get(state).verdict();
+    }
+
+    /**
+     * A formula equivalent to what is left in the state: a boolean combination of subformulas
+     * of the NNF, or a {@link Constant} once progression has decided it.
+     */
+    public IFormula residual(int state) {
+        return states.get(state).residual();
+    }
+
+    /** The states built so far. */
+    public int getStateCount() {
+        return states.getCount();
+    }
+
+    /** Bit i set if {@code Symbol.values()[i]} occurs in the formula. */
+    public long getSymbols() {
+        return states.getSymbols();
+    }
+
+    /** Letters, that is valuations of the symbols of the formula, that tell the states apart. */
+    public int getLetterCount() {
+        return states.getLetterCount();
+    }
+
+    /** The index of the event in the transition tables: its symbols of the formula, packed. */
+    public int letter(long event) {
+        return states.letter(event);
+    }
+
+    /** The event of a letter, with the symbols of the formula that the letter sets. */
+    public long event(int letter) {
+        return states.event(letter);
+    }
+
+    /** The successor of the state under a letter, see {@link #letter(long)}. */
+    public int successor(int state, int letter) {
+        int successor = states.get(state).successors()[letter];
+        // a state another thread is adding may not be counted yet
+        if (successor != MonitorStates.UNKNOWN && successor < states.getCount()) return successor;
+        return addSuccessor(state, letter);
+    }
+
+    /** Builds every state reachable from the initial one, so that no later event builds any. */
+    public synchronized void complete() {
+        for (int state = 0; state < states.getCount(); state++) {
+            for (int letter = 0; letter < getLetterCount(); letter++) {
+                successor(state, letter);
+            }
+        }
+    }
+
+    private synchronized int addSuccessor(int state, int letter) {
+        MonitorStates.State from = states.get(state);
+        int[] successors = from.successors();
+        if (successors[letter] == MonitorStates.UNKNOWN) {
+            successors[letter] = states.add(progression.progress(from.progression(), event(letter)));
+        }
+        return successors[letter];
+    }
+
+    // the LTL3 verdict of a state with what is left
+    static Verdict verdict(IFormula residual) {
+        if (residual instanceof Constant c) return c.getValue() ? Verdict.TRUE : Verdict.FALSE;
+        if (isEmpty(residual)) return Verdict.FALSE;
+        if (isEmpty(FormulaFactory.not(residual))) return Verdict.TRUE;
+        return Verdict.INCONCLUSIVE;
+    }
+
+    // true only if no infinite word satisfies the formula
+    private static boolean isEmpty(IFormula formula) {
+        EmptinessCheck check = new CouvreurEmptinessCheck(GeneralizedBuchiAutomaton.of(formula));
+        check.setLimits(CHECK_STATES, null);
+        return check.run() == EmptinessCheck.Result.EMPTY;
+    }
+
+    // bit i set if Symbol.values()[i] occurs in f
+    static long symbols(IFormula f) {
+        if (f instanceof AtomicProposition ap) {
+            if (ap.getSymbol() == null) throw new IllegalArgumentException("Atom without a symbol");
+            return 1L << ap.getSymbol().ordinal();
+        }
+        if (f instanceof Not n) return symbols(n.getFormula());
+        if (f instanceof And a) return symbols(a.getLeft()) | symbols(a.getRight());
+        if (f instanceof Or o) return symbols(o.getLeft()) | symbols(o.getRight());
+        if (f instanceof Until u) return symbols(u.getLeft()) | symbols(u.getRight());
+        if (f instanceof Release r) return symbols(r.getLeft()) | symbols(r.getRight());
+        if (f instanceof Next x) return symbols(x.getFormula());
+        if (f instanceof WeakNext w) return symbols(w.getFormula());
+        if (f instanceof Finally fin) return symbols(fin.getFormula());
+        if (f instanceof Globally g) return symbols(g.getFormula());
+        return 0;
+    }
+}
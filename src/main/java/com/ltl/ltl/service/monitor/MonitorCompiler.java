@@ -0,0 +1,286 @@
+package com.ltl.ltl.service.monitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import com.ltl.ltl.model.IFormula;
+
+/**
+ * Compiles monitor automata to Java. The automaton is built completely, and the generated
+ * class has its transitions as one flat constant table indexed by state and letter, and the
+ * packing of the event into a letter spelled out as masks and shifts of the symbol bits of
+ * the formula. A step is then one load from a table the JIT knows to be constant, without the
+ * state objects, bounds checks and loop over the symbols of {@link LtlMonitor}. The source is
+ * compiled in-process with the system Java compiler and loaded by a class loader of its own.
+ * <p>
+ * Where the monitor cannot be compiled, the automaton is interpreted by {@link LtlMonitor}
+ * instead: if the runtime has no compiler, if the automaton has more than
+ * {@link #MAX_TRANSITIONS} transitions or more states than its limit, or if the compiler
+ * rejects the source.
+ */
+public final class MonitorCompiler {
+
+    /** Transitions at most that are compiled, so that the table initializer stays within 64 KB. */
+    public static final int MAX_TRANSITIONS = 1 << 12;
+    private static final String PACKAGE = "com.ltl.ltl.service.monitor.compiled";
+    private static final AtomicInteger CLASSES = new AtomicInteger();
+
+    private final JavaCompiler compiler;
+
+    /** A compiler with the system Java compiler, if the runtime has one. */
+    public MonitorCompiler() {
+        this(ToolProvider.getSystemJavaCompiler());
+    }
+
+    /** A compiler with the given Java compiler; with null every monitor is interpreted. */
+    public MonitorCompiler(JavaCompiler compiler) {
+        this.compiler = compiler;
+    }
+
+    /** True if monitors can be compiled at all. */
+    public boolean isAvailable() {
+        return compiler != null;
+    }
+
+    /** Monitors of the formula, compiled if possible, see {@link #compile(MonitorAutomaton)}. */
+    public Supplier<StreamMonitor> compile(IFormula formula) {
+        return compile(MonitorAutomaton.of(formula));
+    }
+
+    /**
+     * A supplier of new monitors of the automaton, each before the first event. They are
+     * instances of one generated class, or {@link LtlMonitor}s of the automaton if it is not
+     * compiled.
+     */
+    public Supplier<StreamMonitor> compile(MonitorAutomaton automaton) {
+        Supplier<StreamMonitor> interpreted = () -> new LtlMonitor(automaton);
+        if (compiler == null) return interpreted;
+        try {
+            automaton.complete();
+        } catch (IllegalStateException ex) {
+            return interpreted;
+        }
+        if ((long) automaton.getStateCount() * automaton.getLetterCount() > MAX_TRANSITIONS) return interpreted;
+        String name = "Monitor" + CLASSES.incrementAndGet();
+        Class<?> type = load(PACKAGE + "." + name, source(name, automaton));
+        if (type == null) return interpreted;
+        Constructor<? extends StreamMonitor> constructor;
+        try {
+            constructor = type.asSubclass(StreamMonitor.class).getConstructor();
+        } catch (NoSuchMethodException ex) {
+            return interpreted;
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException("Cannot create a compiled monitor", ex);
+            }
+        };
+    }
+
+    /**
+     * The Java source of a monitor class of the completed automaton, in the package of
+     * generated monitors.
+     */
+    public static String source(String className, MonitorAutomaton automaton) {
+        int states = automaton.getStateCount();
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(PACKAGE).append(";\n\n");
+        out.append("import ").append(StreamMonitor.class.getName()).append(";\n");
+        out.append("import ").append(Verdict.class.getName()).append(";\n\n");
+        out.append("// ").append(automaton.residual(automaton.initial())).append(", ")
+                .append(states).append(" states\n");
+        out.append("public final class ").append(className).append(" implements StreamMonitor {\n\n");
+        out.append("    private static final Verdict[] VERDICTS = {");
+        for (int state = 0; state < states; state++) {
+            out.append(state % 4 == 0 ? "\n            " : " ");
+            out.append("Verdict.").append(automaton.verdict(state).name()).append(',');
+        }
+        out.append("\n    };\n\n");
+        int bits = Integer.numberOfTrailingZeros(automaton.getLetterCount());
+        // the successor of state s under letter l at s << bits | l
+        out.append("    private static final int[] NEXT = {");
+        for (int state = 0; state < states; state++) {
+            out.append("\n           ");
+            for (int letter = 0; letter < automaton.getLetterCount(); letter++) {
+                out.append(' ').append(automaton.successor(state, letter)).append(',');
+            }
+        }
+        out.append("\n    };\n\n");
+        out.append("    private int state;\n");
+        out.append("    private long events;\n\n");
+        out.append("    private static int next(int state, long event) {\n");
+        out.append("        return NEXT[state << ").append(bits).append(" | ").append(letter(automaton)).append("];\n");
+        out.append("    }\n\n");
+        out.append("""
+                    @Override
+                    public Verdict step(long event) {
+                        events++;
+                        state = next(state, event);
+                        return VERDICTS[state];
+                    }
+
+                    @Override
+                    public Verdict step(long[] batch, int from, int length) {
+                        int current = state;
+                        int end = from + length;
+                        for (int i = from; i < end && !VERDICTS[current].isConclusive(); i++) {
+                            current = next(current, batch[i]);
+                        }
+                        state = current;
+                        events += length;
+                        return VERDICTS[current];
+                    }
+
+                    @Override
+                    public Verdict getVerdict() {
+                        return VERDICTS[state];
+                    }
+
+                    @Override
+                    public long getEvents() {
+                        return events;
+                    }
+
+                    @Override
+                    public void reset() {
+                        state = %d;
+                        events = 0;
+                    }
+                }
+                """.formatted(automaton.initial()));
+        return out.toString();
+    }
+
+    // the letter of the event as an expression: the runs of consecutive symbol bits, each
+    // masked and shifted in place
+    private static String letter(MonitorAutomaton automaton) {
+        List<String> parts = new ArrayList<>();
+        int bits = Integer.numberOfTrailingZeros(automaton.getLetterCount());
+        for (int i = 0; i < bits; ) {
+            int bit = Long.numberOfTrailingZeros(automaton.event(1 << i));
+            int run = 1;
+            while (i + run < bits && Long.numberOfTrailingZeros(automaton.event(1 << i + run)) == bit + run) run++;
+            String shifted = bit == i ? "event" : "(event >>> " + (bit - i) + ")";
+            parts.add("(int) " + shifted + " & 0x" + Integer.toHexString((1 << run) - 1 << i));
+            i += run;
+        }
+        return parts.isEmpty() ? "0" : "(" + String.join(" | ", parts) + ")";
+    }
+
+    // the class compiled from the source, or null if the compiler rejects it
+    private Class<?> load(String name, String source) {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, byte[]> classes = new HashMap<>();
+        StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, null, null);
+        JavaFileObject unit = new Source(name, source);
+        List<String> options = List.of("-classpath", classPath(), "-proc:none");
+        try (ClassFiles files = new ClassFiles(standard, classes)) {
+            Boolean ok = compiler.getTask(null, files, diagnostics, options, null, List.of(unit)).call();
+            if (!Boolean.TRUE.equals(ok)) return null;
+        } catch (Exception ex) {
+            return null;
+        }
+        ClassLoader loader = new GeneratedClassLoader(StreamMonitor.class.getClassLoader(), classes);
+        try {
+            return Class.forName(name, true, loader);
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return null;
+        }
+    }
+
+    // the class path of the runtime, and where this class came from in case that is not on it
+    private static String classPath() {
+        Set<String> entries = new LinkedHashSet<>(List.of(System.getProperty("java.class.path").split(File.pathSeparator)));
+        try {
+            entries.add(new File(StreamMonitor.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath());
+        } catch (URISyntaxException | RuntimeException ex) {
+            // the runtime class path has to do
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    // a compilation unit in memory
+    private static final class Source extends SimpleJavaFileObject {
+
+        private final String code;
+
+        Source(String name, String code) {
+            super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    // keeps the class files of a compilation in memory
+    private static final class ClassFiles extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, byte[]> classes;
+
+        ClassFiles(StandardJavaFileManager manager, Map<String, byte[]> classes) {
+            super(manager);
+            this.classes = classes;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                FileObject sibling) {
+            URI uri = URI.create("bytes:///" + className.replace('.', '/') + kind.extension);
+            return new SimpleJavaFileObject(uri, kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new ByteArrayOutputStream() {
+                        @Override
+                        public void close() {
+                            classes.put(className, toByteArray());
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    // defines the classes of one compilation
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classes;
+
+        GeneratedClassLoader(ClassLoader parent, Map<String, byte[]> classes) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) throw new ClassNotFoundException(name);
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
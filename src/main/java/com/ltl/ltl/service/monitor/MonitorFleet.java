@@ -0,0 +1,239 @@
+package com.ltl.ltl.service.monitor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.syntax.Nnf;
+
+/**
+ * Online monitors of many formulas on one event stream. The formulas share one progression:
+ * their subformulas are interned, so a subformula that occurs in several formulas is one
+ * obligation, progressed once per letter for all of them. What is left of every formula is a
+ * state of one shared monitor automaton, built lazily as in {@link MonitorAutomaton}, so
+ * formulas with the same residual share its state, its verdict and its successors, and
+ * after warm-up an event costs one table lookup per formula.
+ * <p>
+ * Formulas may be registered and unregistered at any time, also from other threads while
+ * the stream is running. A formula registered after some events is monitored on the events
+ * from then on. Every formula has its own LTL3 verdict, see {@link #verdict(int)}. States
+ * stay when the formulas that reached them are unregistered, for the formulas to come, until
+ * the fleet runs out of states: then the states that no registered formula can reach any
+ * more are dropped. The obligations of unregistered formulas stay; there are no more of them
+ * than subformulas.
+ * <p>
+ * An event is taken by all formulas or by none: if their states need more successors than
+ * the state limit leaves room for, {@link #step(long)} throws before any formula moves on.
+ */
+public final class MonitorFleet {
+
+    private final Progression progression = new Progression();
+    // over the symbols of all formulas registered so far
+    private final MonitorStates states;
+
+    // the registered formulas: handle, formula and current state per slot
+    private final Map<Integer, Integer> slots = new HashMap<>();
+    private int[] handles = new int[16];
+    private IFormula[] formulas = new IFormula[16];
+    private int[] current = new int[16];
+    private int size;
+    private int nextHandle;
+    private long events;
+    // slots whose state has no successor for the event yet
+    private int[] waiting = new int[16];
+
+    public MonitorFleet() {
+        this(MonitorAutomaton.DEFAULT_MAX_STATES);
+    }
+
+    /** A fleet whose formulas may reach at most so many distinct states together. */
+    public MonitorFleet(int maxStates) {
+        this.states = new MonitorStates(progression, maxStates);
+    }
+
+    /** Starts monitoring the formula on the events to come and returns its handle. */
+    public synchronized int register(IFormula formula) {
+        IFormula nnf = new Nnf().toNnf(formula);
+        long added = MonitorAutomaton.symbols(nnf);
+        // new symbols make for new letters: the transition tables start over
+        if ((added & ~states.getSymbols()) != 0) states.setSymbols(states.getSymbols() | added);
+        if (states.getCount() == states.getMaxStates()) collect();
+        int bdd = progression.add(nnf);
+        int state;
+        try {
+            state = states.add(bdd);
+        } catch (IllegalStateException ex) {
+            progression.release(bdd);
+            throw ex;
+        }
+        if (size == handles.length) {
+            handles = Arrays.copyOf(handles, 2 * size);
+            formulas = Arrays.copyOf(formulas, 2 * size);
+            current = Arrays.copyOf(current, 2 * size);
+        }
+        int handle = nextHandle++;
+        handles[size] = handle;
+        formulas[size] = formula;
+        current[size] = state;
+        slots.put(handle, size++);
+        return handle;
+    }
+
+    /** Stops monitoring the formula of the handle; false if there is none. */
+    public synchronized boolean unregister(int handle) {
+        Integer slot = slots.remove(handle);
+        if (slot == null) return false;
+        int last = --size;
+        if (slot != last) {
+            handles[slot] = handles[last];
+            formulas[slot] = formulas[last];
+            current[slot] = current[last];
+            slots.put(handles[slot], slot);
+        }
+        formulas[last] = null;
+        return true;
+    }
+
+    /**
+     * Takes one event, bit i set if {@code Symbol.values()[i]} holds, for every formula.
+     *
+     * @throws IllegalStateException if the formulas need more states than the limit; then
+     *         none of them has taken the event
+     */
+    public synchronized void step(long event) {
+        next(event);
+    }
+
+    /** Takes the events in order. */
+    public void step(long[] events) {
+        step(events, 0, events.length);
+    }
+
+    /**
+     * Takes {@code length} events starting at {@code from}, without letting go of the lock. If
+     * the state limit stops it, the events before the one that needs too many states are taken.
+     */
+    public synchronized void step(long[] batch, int from, int length) {
+        int end = from + length;
+        for (int i = from; i < end; i++) next(batch[i]);
+    }
+
+    /** The verdict of the formula of the handle on the events since it was registered. */
+    public synchronized Verdict verdict(int handle) {
+        return states.get(current[slot(handle)]).verdict();
+    }
+
+    /** What the rest of the stream has to satisfy for the formula of the handle. */
+    public synchronized IFormula residual(int handle) {
+        return states.get(current[slot(handle)]).residual();
+    }
+
+    public synchronized IFormula formula(int handle) {
+        return formulas[slot(handle)];
+    }
+
+    /** The verdict of every registered formula by handle, in the order of registration. */
+    public synchronized Map<Integer, Verdict> getVerdicts() {
+        Map<Integer, Verdict> verdicts = new LinkedHashMap<>();
+        int[] order = Arrays.copyOf(handles, size);
+        Arrays.sort(order);
+        for (int handle : order) verdicts.put(handle, verdict(handle));
+        return verdicts;
+    }
+
+    /** Formulas registered and not unregistered. */
+    public synchronized int getFormulaCount() {
+        return size;
+    }
+
+    /** Events taken since the fleet was created. */
+    public synchronized long getEvents() {
+        return events;
+    }
+
+    /** States of the shared automaton built so far. */
+    public synchronized int getStateCount() {
+        return states.getCount();
+    }
+
+    /** Distinct subformulas the registered formulas are progressed by, shared ones once. */
+    public synchronized int getObligationCount() {
+        return progression.getObligationCount();
+    }
+
+    private int slot(int handle) {
+        Integer slot = slots.get(handle);
+        if (slot == null) throw new IllegalArgumentException("No formula registered as " + handle);
+        return slot;
+    }
+
+    private void next(long event) {
+        int letter = states.letter(event);
+        int pending = 0;
+        for (int i = 0; i < size; i++) {
+            if (states.get(current[i]).successors()[letter] == MonitorStates.UNKNOWN) {
+                if (pending == waiting.length) waiting = Arrays.copyOf(waiting, 2 * pending);
+                waiting[pending++] = i;
+            }
+        }
+        // every successor is there before the first formula moves on
+        if (pending > 0) addSuccessors(letter, pending);
+        for (int i = 0; i < size; i++) current[i] = states.get(current[i]).successors()[letter];
+        events++;
+    }
+
+    // the successors of the states of the waiting slots, progressed together
+    private void addSuccessors(int letter, int pending) {
+        Set<Integer> from = new LinkedHashSet<>();
+        for (int i = 0; i < pending; i++) from.add(current[waiting[i]]);
+        if (states.getCount() + from.size() > states.getMaxStates()) {
+            collect();
+            from.clear();
+            for (int i = 0; i < pending; i++) from.add(current[waiting[i]]);
+        }
+        int[] bdds = new int[from.size()];
+        int k = 0;
+        for (int state : from) bdds[k++] = states.get(state).progression();
+        int[] progressed = progression.progress(bdds, states.event(letter));
+        k = 0;
+        try {
+            for (int state : from) {
+                states.get(state).successors()[letter] = states.add(progressed[k]);
+                k++;
+            }
+        } catch (IllegalStateException ex) {
+            for (; k < progressed.length; k++) progression.release(progressed[k]);
+            throw ex;
+        }
+    }
+
+    // drops the states that no registered formula can reach any more and numbers the others
+    // anew, in their order
+    private void collect() {
+        boolean[] reachable = new boolean[states.getCount()];
+        int[] stack = new int[reachable.length];
+        int top = 0;
+        for (int i = 0; i < size; i++) {
+            if (!reachable[current[i]]) {
+                reachable[current[i]] = true;
+                stack[top++] = current[i];
+            }
+        }
+        while (top > 0) {
+            for (int successor : states.get(stack[--top]).successors()) {
+                if (successor != MonitorStates.UNKNOWN && !reachable[successor]) {
+                    reachable[successor] = true;
+                    stack[top++] = successor;
+                }
+            }
+        }
+        int[] renumbered = states.retain(reachable);
+        for (int i = 0; i < size; i++) current[i] = renumbered[current[i]];
+        // the nodes of the dropped states may come back as other functions
+        progression.forgetFormulas();
+    }
+}
@@ -0,0 +1,153 @@
+package com.ltl.ltl.service.monitor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.ltl.ltl.model.IFormula;
+
+/**
+ * The states of a monitor built by progression, for {@link MonitorAutomaton} and
+ * {@link MonitorFleet}: one state per BDD of the progression, with what is left as a formula,
+ * its verdict and its successor per letter. A letter is a valuation of the symbols, packed
+ * into an index of the transition tables.
+ * <p>
+ * States are added and dropped under the lock of the owner. The array grows by doubling, and
+ * the count is written after the state it adds, so a reader that has read the count sees all
+ * states below it without the lock.
+ */
+final class MonitorStates {
+
+    /** Successor of a letter the state was not progressed by yet. */
+    static final int UNKNOWN = -1;
+
+    /** What is left as a BDD of the progression and as a formula, its verdict, and its successor per letter. */
+    record State(int progression, IFormula residual, Verdict verdict, int[] successors) {}
+
+    private final Progression progression;
+    private final int maxStates;
+    // the state of every BDD of the progression
+    private final Map<Integer, Integer> ids = new HashMap<>();
+    private volatile State[] states = new State[16];
+    private volatile int count;
+    // the symbols of the letters, and the bit of every letter index in the events, ascending
+    private long symbols;
+    private int[] symbolBits = new int[0];
+
+    MonitorStates(Progression progression, int maxStates) {
+        if (maxStates < 1) throw new IllegalArgumentException("At least one state is needed");
+        this.progression = progression;
+        this.maxStates = maxStates;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    int getMaxStates() {
+        return maxStates;
+    }
+
+    State get(int state) {
+        if (state < 0 || state >= count) throw new IndexOutOfBoundsException("No state " + state);
+        return states[state];
+    }
+
+    long getSymbols() {
+        return symbols;
+    }
+
+    int getLetterCount() {
+        return 1 << symbolBits.length;
+    }
+
+    /** Sets the symbols of the letters; they make for other letters, so the transition tables start over. */
+    void setSymbols(long symbols) {
+        this.symbols = symbols;
+        this.symbolBits = new int[Long.bitCount(symbols)];
+        for (int i = 0, bits = 0; i < 64; i++) {
+            if ((symbols >>> i & 1) != 0) symbolBits[bits++] = i;
+        }
+        for (int id = 0; id < count; id++) {
+            State state = states[id];
+            states[id] = new State(state.progression, state.residual, state.verdict, successors(id, state.verdict));
+        }
+    }
+
+    /** The index of the event in the transition tables: its symbols, packed. */
+    int letter(long event) {
+        int letter = 0;
+        for (int i = 0; i < symbolBits.length; i++) {
+            letter |= (int) (event >>> symbolBits[i] & 1) << i;
+        }
+        return letter;
+    }
+
+    /** The event of a letter, with the symbols that the letter sets. */
+    long event(int letter) {
+        long event = 0;
+        for (int i = 0; i < symbolBits.length; i++) {
+            event |= (long) (letter >>> i & 1) << symbolBits[i];
+        }
+        return event;
+    }
+
+    /**
+     * The id of the state of the progression, a new one if there is none yet. Takes over the
+     * reference the progression holds for the BDD.
+     *
+     * @throws IllegalStateException if a new state is needed and there are {@code maxStates}
+     */
+    int add(int bdd) {
+        Integer known = ids.get(bdd);
+        if (known != null) {
+            // the progression holds a reference for every state it returns
+            progression.release(bdd);
+            return known;
+        }
+        int id = count;
+        if (id == maxStates) throw new IllegalStateException("Monitor of more than " + maxStates + " states");
+        IFormula residual = progression.formula(bdd);
+        Verdict verdict = MonitorAutomaton.verdict(residual);
+        if (id == states.length) states = Arrays.copyOf(states, 2 * id);
+        states[id] = new State(bdd, residual, verdict, successors(id, verdict));
+        ids.put(bdd, id);
+        count = id + 1;
+        return id;
+    }
+
+    /**
+     * Keeps the states marked reachable, numbered anew in their order, and releases the BDDs of
+     * the others. Returns the new id of every kept state by its old one.
+     */
+    int[] retain(boolean[] reachable) {
+        int[] renumbered = new int[count];
+        int kept = 0;
+        for (int id = 0; id < count; id++) {
+            if (reachable[id]) {
+                renumbered[id] = kept;
+                states[kept++] = states[id];
+            } else {
+                progression.release(states[id].progression);
+            }
+        }
+        Arrays.fill(states, kept, count, null);
+        count = kept;
+        ids.clear();
+        for (int id = 0; id < count; id++) {
+            int[] successors = states[id].successors;
+            for (int letter = 0; letter < successors.length; letter++) {
+                if (successors[letter] != UNKNOWN) successors[letter] = renumbered[successors[letter]];
+            }
+            ids.put(states[id].progression, id);
+        }
+        return renumbered;
+    }
+
+    // a transition table of the state; a conclusive verdict is final, so it loops on every letter
+    private int[] successors(int id, Verdict verdict) {
+        int[] successors = new int[getLetterCount()];
+        Arrays.fill(successors, verdict.isConclusive() ? id : UNKNOWN);
+        return successors;
+    }
+}
@@ -0,0 +1,256 @@
+package com.ltl.ltl.service.monitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.FormulaFactory;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Constant;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+import com.ltl.ltl.service.bdd.Bdd;
+
+// Formula progression after Bacchus and Kabanza: the formula that the rest of a word has to
+// satisfy once its first letter is known. On an NNF formula
+//
+//   prog(φ U ψ) = prog(ψ) ∨ (prog(φ) ∧ φ U ψ)      prog(X φ) = φ
+//   prog(φ R ψ) = prog(ψ) ∧ (prog(φ) ∨ φ R ψ)
+//
+// and the boolean operators go through. A progressed formula is thus a boolean combination
+// of obligations: the formula itself, the operands of its next operators, and its until,
+// release, eventually and always subformulas, all interned. Progressing the same formula
+// again and again yields ever longer combinations of the same obligations, so they are kept
+// as BDDs over one variable per obligation. A BDD is canonical, so progressions that differ
+// only in their boolean structure are the same node, and there are finitely many of them.
+//
+// Progressing a combination through a letter replaces every obligation by its progression,
+// itself a combination of obligations. Several formulas may share one progression: their
+// common subformulas are interned once, so they are one obligation, progressed once per
+// letter. All BDD operations happen under the lock of the owner.
+final class Progression {
+
+    private final Bdd bdd = new Bdd(0);
+    // the obligation of every variable, and the variable of every obligation
+    private final List<IFormula> obligations = new ArrayList<>();
+    private final Map<IFormula, Integer> variables = new IdentityHashMap<>();
+    // per event: the progression of every obligation, until the event first comes up
+    private final Map<Long, int[]> progressions = new HashMap<>();
+    private final Map<Integer, IFormula> formulas = new HashMap<>();
+
+    /**
+     * Adds the obligations of an NNF formula, built from the factory, and returns the formula
+     * as a combination of them; protected from collection.
+     */
+    int add(IFormula nnf) {
+        IFormula root = FormulaFactory.intern(nnf);
+        int known = obligations.size();
+        obligation(root);
+        collect(root);
+        if (obligations.size() > known) {
+            for (int v = known; v < obligations.size(); v++) bdd.addVariable();
+            for (Map.Entry<Long, int[]> entry : progressions.entrySet()) {
+                entry.setValue(progressAll(entry.getValue(), entry.getKey()));
+            }
+        }
+        return bdd.ref(variable(root));
+    }
+
+    /** Obligations of all formulas added so far. */
+    int getObligationCount() {
+        return obligations.size();
+    }
+
+    /** The progression of the state through the event; protected from collection. */
+    int progress(int state, long event) {
+        return progress(new int[] { state }, event)[0];
+    }
+
+    /**
+     * The progressions of the states through the event, each protected from collection. The
+     * parts the states have in common are progressed once.
+     */
+    int[] progress(int[] states, long event) {
+        int[] substitution = progressions.get(event);
+        if (substitution == null) {
+            substitution = progressAll(new int[0], event);
+            progressions.put(event, substitution);
+        }
+        Map<Integer, Integer> done = new HashMap<>();
+        int[] result = new int[states.length];
+        for (int i = 0; i < states.length; i++) {
+            result[i] = bdd.ref(compose(states[i], substitution, done));
+        }
+        for (int kept : done.values()) bdd.deref(kept);
+        return result;
+    }
+
+    /** Gives up the protection of a state that is not needed. */
+    void release(int state) {
+        bdd.deref(state);
+    }
+
+    /**
+     * Forgets the formulas of the states so far, to be called once states are released: their
+     * nodes may be collected and built again for other functions.
+     */
+    void forgetFormulas() {
+        formulas.clear();
+    }
+
+    /** True if the state is decided. */
+    static boolean isConstant(int state) {
+        return state == Bdd.TRUE || state == Bdd.FALSE;
+    }
+
+    /** A formula equivalent to the state: its BDD spelled out over the obligations. */
+    IFormula formula(int state) {
+        if (state == Bdd.TRUE) return Constant.TRUE;
+        if (state == Bdd.FALSE) return Constant.FALSE;
+        IFormula known = formulas.get(state);
+        if (known != null) return known;
+        IFormula obligation = obligations.get(bdd.var(state));
+        IFormula high = formula(bdd.high(state));
+        IFormula low = formula(bdd.low(state));
+        IFormula result;
+        if (low == Constant.FALSE) {
+            result = high == Constant.TRUE ? obligation : FormulaFactory.and(obligation, high);
+        } else if (high == Constant.FALSE) {
+            IFormula negation = FormulaFactory.not(obligation);
+            result = low == Constant.TRUE ? negation : FormulaFactory.and(negation, low);
+        } else if (high == Constant.TRUE) {
+            result = FormulaFactory.or(obligation, low);
+        } else if (low == Constant.TRUE) {
+            result = FormulaFactory.or(FormulaFactory.not(obligation), high);
+        } else {
+            result = FormulaFactory.or(FormulaFactory.and(obligation, high),
+                    FormulaFactory.and(FormulaFactory.not(obligation), low));
+        }
+        formulas.put(state, result);
+        return result;
+    }
+
+    // the obligations below f
+    private void collect(IFormula f) {
+        if (f instanceof And a) {
+            collect(a.getLeft());
+            collect(a.getRight());
+        } else if (f instanceof Or o) {
+            collect(o.getLeft());
+            collect(o.getRight());
+        } else if (f instanceof Next x) {
+            obligation(x.getFormula());
+            collect(x.getFormula());
+        } else if (f instanceof WeakNext w) {
+            obligation(w.getFormula());
+            collect(w.getFormula());
+        } else if (f instanceof Until u) {
+            obligation(f);
+            collect(u.getLeft());
+            collect(u.getRight());
+        } else if (f instanceof Release r) {
+            obligation(f);
+            collect(r.getLeft());
+            collect(r.getRight());
+        } else if (f instanceof Finally fin) {
+            obligation(f);
+            collect(fin.getFormula());
+        } else if (f instanceof Globally g) {
+            obligation(f);
+            collect(g.getFormula());
+        }
+    }
+
+    private void obligation(IFormula f) {
+        if (variables.containsKey(f)) return;
+        variables.put(f, obligations.size());
+        obligations.add(f);
+    }
+
+    // the progression of every obligation through the event, each protected, keeping the
+    // ones known already
+    private int[] progressAll(int[] known, long event) {
+        Map<IFormula, Integer> done = new IdentityHashMap<>();
+        int[] result = Arrays.copyOf(known, obligations.size());
+        for (int v = known.length; v < result.length; v++) {
+            result[v] = bdd.ref(progress(obligations.get(v), event, done));
+        }
+        for (int kept : done.values()) bdd.deref(kept);
+        return result;
+    }
+
+    // prog(f) through the event; the results in done are protected
+    private int progress(IFormula f, long event, Map<IFormula, Integer> done) {
+        Integer known = done.get(f);
+        if (known != null) return known;
+        int result;
+        if (f instanceof Constant c) {
+            result = c.getValue() ? Bdd.TRUE : Bdd.FALSE;
+        } else if (f instanceof AtomicProposition ap) {
+            result = holds(ap, event) ? Bdd.TRUE : Bdd.FALSE;
+        } else if (f instanceof Not n && n.getFormula() instanceof AtomicProposition ap) {
+            result = holds(ap, event) ? Bdd.FALSE : Bdd.TRUE;
+        } else if (f instanceof And a) {
+            result = bdd.and(progress(a.getLeft(), event, done), progress(a.getRight(), event, done));
+        } else if (f instanceof Or o) {
+            result = bdd.or(progress(o.getLeft(), event, done), progress(o.getRight(), event, done));
+        } else if (f instanceof Next x) {
+            result = variable(x.getFormula());
+        } else if (f instanceof WeakNext w) {
+            // on infinite words there always is a next letter
+            result = variable(w.getFormula());
+        } else if (f instanceof Until u) {
+            int left = bdd.ref(bdd.and(progress(u.getLeft(), event, done), variable(f)));
+            result = bdd.or(progress(u.getRight(), event, done), left);
+            bdd.deref(left);
+        } else if (f instanceof Release r) {
+            int left = bdd.ref(bdd.or(progress(r.getLeft(), event, done), variable(f)));
+            result = bdd.and(progress(r.getRight(), event, done), left);
+            bdd.deref(left);
+        } else if (f instanceof Finally fin) {
+            result = bdd.or(progress(fin.getFormula(), event, done), variable(f));
+        } else if (f instanceof Globally g) {
+            result = bdd.and(progress(g.getFormula(), event, done), variable(f));
+        } else {
+            throw new IllegalArgumentException("Not an NNF formula: " + f);
+        }
+        done.put(f, bdd.ref(result));
+        return result;
+    }
+
+    private int variable(IFormula obligation) {
+        return bdd.variable(variables.get(obligation));
+    }
+
+    private static boolean holds(AtomicProposition ap, long event) {
+        if (ap.getSymbol() == null) throw new IllegalArgumentException("Atom without a symbol");
+        return (event >>> ap.getSymbol().ordinal() & 1) != 0;
+    }
+
+    // f with every variable v replaced by substitution[v]; the results in done are protected
+    private int compose(int f, int[] substitution, Map<Integer, Integer> done) {
+        if (isConstant(f)) return f;
+        Integer known = done.get(f);
+        if (known != null) return known;
+        int high = compose(bdd.high(f), substitution, done);
+        int low = compose(bdd.low(f), substitution, done);
+        int condition = substitution[bdd.var(f)];
+        // if condition then high else low
+        int then = bdd.ref(bdd.and(condition, high));
+        int result = bdd.or(then, bdd.and(bdd.not(condition), low));
+        bdd.deref(then);
+        done.put(f, bdd.ref(result));
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package com.ltl.ltl.service.monitor;
+
+/**
+ * An online monitor of one event stream that answers the LTL3 verdict on the events so far.
+ * Events are bit masks with bit i set if {@code Symbol.values()[i]} holds. Implemented by the
+ * table interpreter {@link LtlMonitor} and by the classes {@link MonitorCompiler} generates.
+ */
+public interface StreamMonitor {
+
+    /** Takes one event and returns the verdict. */
+    Verdict step(long event);
+
+    /**
+     * Takes {@code length} events starting at {@code from}. The events after the one that
+     * makes the verdict conclusive are counted but not looked at.
+     */
+    Verdict step(long[] batch, int from, int length);
+
+    /** Takes the events in order and returns the verdict after the last one. */
+    default Verdict step(long[] events) {
+        return step(events, 0, events.length);
+    }
+
+    Verdict getVerdict();
+
+    /** Events taken since the start or the last {@link #reset()}. */
+    long getEvents();
+
+    /** Starts over, as before the first event. */
+    void reset();
+}
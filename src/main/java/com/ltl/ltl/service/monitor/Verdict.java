@@ -0,0 +1,19 @@
+package com.ltl.ltl.service.monitor;
+
+/**
+ * The three-valued verdict of LTL3 (Bauer, Leucker and Schallhart) on a finite prefix of an
+ * infinite word: whether every, no, or only some infinite continuation satisfies the formula.
+ */
+public enum Verdict {
+    /** Every continuation of the prefix satisfies the formula. */
+    TRUE,
+    /** No continuation of the prefix satisfies the formula. */
+    FALSE,
+    /** Some continuations satisfy it and some do not. */
+    INCONCLUSIVE;
+
+    /** True unless the verdict is {@link #INCONCLUSIVE}; further events cannot change it. */
+    public boolean isConclusive() {
+        return this != INCONCLUSIVE;
+    }
+}
@@ -0,0 +1,312 @@
+package com.ltl.ltl.service.sat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.Symbol;
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+import com.ltl.ltl.service.syntax.Nnf;
+
+/**
+ * Bounded satisfiability: looks for a lasso-shaped model with {@code k + 1} states, for
+ * {@code k = 0, 1, …}, by encoding the formula into clauses for the {@link CdclSolver}.
+ * <p>
+ * The encoding is the linear one with loop selectors of Latvala, Biere, Heljanko and
+ * Junttila. Every subformula {@code ψ} of the NNF gets a variable per position that implies
+ * {@code ψ} there; Until, Release, Globally and Finally are unrolled through their value at
+ * the next position, and the selector {@code L_j} makes position {@code j} the successor of
+ * the last one. Because the unrolling alone would let an Until stay pending around the loop
+ * forever, an Until or Finally that is pending at the last position must see its right side
+ * somewhere inside the loop.
+ * <p>
+ * The bound is deepened on one solver. Clauses about positions are kept when {@code k} grows;
+ * only the clauses that pick the loop and check the eventualities at bound {@code k} are
+ * guarded by an activation literal, which is assumed while solving bound {@code k} and
+ * switched off afterwards. Learnt clauses therefore carry over to the next bound. If the
+ * clauses are contradictory without the activation literal, no bound can have a model and the
+ * formula is unsatisfiable; otherwise the search can only prove satisfiability.
+ */
+public final class BoundedLtlSat {
+
+    public enum Result { SAT, UNSAT, UNKNOWN }
+
+    private final IFormula formula;
+    // subformulas of the NNF, operands before the formulas using them
+    private final Map<IFormula, Integer> subformulas = new LinkedHashMap<>();
+    private final List<IFormula> order = new ArrayList<>();
+    private final Map<Symbol, Integer> propositions = new EnumMap<>(Symbol.class);
+    private int maxBound = 32;
+    private Duration timeout;
+
+    // the last run
+    private CdclSolver solver;
+    // per position: the literal of every subformula, and the variable of every proposition
+    private final List<int[]> literals = new ArrayList<>();
+    private final List<int[]> valuations = new ArrayList<>();
+    private int[] loops;
+    private int bound;
+    private Lasso witness;
+
+    public BoundedLtlSat(IFormula formula) {
+        this.formula = new Nnf().toNnf(formula);
+        collect(this.formula);
+    }
+
+    /**
+     * Limits the next {@link #run()} to lassos of at most {@code maxBound + 1} states and a
+     * wall-clock time; {@code timeout} may be {@code null} for no deadline.
+     */
+    public void setLimits(int maxBound, Duration timeout) {
+        if (maxBound < 0) throw new IllegalArgumentException("Bound must not be negative");
+        this.maxBound = maxBound;
+        this.timeout = timeout;
+    }
+
+    /** The bound of the witness, or the last bound tried. */
+    public int getBound() {
+        return bound;
+    }
+
+    /** The model found by the last run, or {@code null} if it did not answer SAT. */
+    public Lasso getWitness() {
+        return witness;
+    }
+
+    /** Conflicts of the solver over all bounds of the last run. */
+    public long getConflicts() {
+        return solver == null ? 0 : solver.getConflicts();
+    }
+
+    /** Learnt clauses the solver kept at the end of the last run. */
+    public int getLearnts() {
+        return solver == null ? 0 : solver.getLearnts();
+    }
+
+    public int getVariables() {
+        return solver == null ? 0 : solver.getVariables();
+    }
+
+    public Result run() {
+        solver = new CdclSolver();
+        literals.clear();
+        valuations.clear();
+        witness = null;
+        long deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+
+        addPosition(0);
+        solver.addClause(literal(formula, 0));
+        for (bound = 0; bound <= maxBound; bound++) {
+            if (bound > 0) addPosition(bound);
+            int active = addLoops(bound);
+            if (deadline != Long.MAX_VALUE) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return Result.UNKNOWN;
+                solver.setLimits(Long.MAX_VALUE, Duration.ofNanos(remaining));
+            }
+            switch (solver.solve(active)) {
+                case SAT -> {
+                    witness = extractWitness();
+                    return Result.SAT;
+                }
+                case UNKNOWN -> {
+                    return Result.UNKNOWN;
+                }
+                case UNSAT -> {
+                    if (solver.getFailedAssumptions().length == 0) return Result.UNSAT;
+                    // retire the loop of this bound for good
+                    solver.addClause(-active);
+                }
+            }
+        }
+        bound = maxBound;
+        return Result.UNKNOWN;
+    }
+
+    private void collect(IFormula f) {
+        if (subformulas.containsKey(f)) return;
+        if (f instanceof AtomicProposition ap) {
+            propositions.putIfAbsent(ap.getSymbol(), propositions.size());
+        } else if (f instanceof Not n && n.getFormula() instanceof AtomicProposition) {
+            collect(n.getFormula());
+        } else if (f instanceof And a) {
+            collect(a.getLeft());
+            collect(a.getRight());
+        } else if (f instanceof Or o) {
+            collect(o.getLeft());
+            collect(o.getRight());
+        } else if (f instanceof Until u) {
+            collect(u.getLeft());
+            collect(u.getRight());
+        } else if (f instanceof Release r) {
+            collect(r.getLeft());
+            collect(r.getRight());
+        } else if (f instanceof Next x) {
+            collect(x.getFormula());
+        } else if (f instanceof WeakNext w) {
+            collect(w.getFormula());
+        } else if (f instanceof Globally g) {
+            collect(g.getFormula());
+        } else if (f instanceof Finally fin) {
+            collect(fin.getFormula());
+        } else {
+            throw new IllegalArgumentException("Not an NNF formula: " + f);
+        }
+        subformulas.put(f, order.size());
+        order.add(f);
+    }
+
+    private int literal(IFormula f, int position) {
+        return literals.get(position)[subformulas.get(f)];
+    }
+
+    // Variables of a new position, the clauses local to it and the links from its predecessor
+    private void addPosition(int position) {
+        int[] valuation = new int[propositions.size()];
+        for (int p = 0; p < valuation.length; p++) {
+            valuation[p] = solver.newVariable();
+        }
+        valuations.add(valuation);
+        int[] lits = new int[order.size()];
+        literals.add(lits);
+        for (int s = 0; s < lits.length; s++) {
+            IFormula f = order.get(s);
+            if (f instanceof AtomicProposition ap) {
+                lits[s] = valuation[propositions.get(ap.getSymbol())];
+                continue;
+            }
+            if (f instanceof Not n) {
+                lits[s] = -valuation[propositions.get(((AtomicProposition) n.getFormula()).getSymbol())];
+                continue;
+            }
+            int x = solver.newVariable();
+            lits[s] = x;
+            if (f instanceof And a) {
+                solver.addClause(-x, literal(a.getLeft(), position));
+                solver.addClause(-x, literal(a.getRight(), position));
+            } else if (f instanceof Or o) {
+                solver.addClause(-x, literal(o.getLeft(), position), literal(o.getRight(), position));
+            } else if (f instanceof Until u) {
+                solver.addClause(-x, literal(u.getRight(), position), literal(u.getLeft(), position));
+            } else if (f instanceof Release r) {
+                solver.addClause(-x, literal(r.getRight(), position));
+            } else if (f instanceof Globally g) {
+                solver.addClause(-x, literal(g.getFormula(), position));
+            }
+        }
+        if (position > 0) {
+            for (IFormula f : order) {
+                int[] step = step(f, position - 1, position);
+                if (step != null) solver.addClause(step);
+            }
+        }
+    }
+
+    // What a temporal formula at 'from' demands of the position 'to' that follows it:
+    // ¬x_from ∨ (holds now) ∨ (demand at 'to'); null for the other formulas
+    private int[] step(IFormula f, int from, int to) {
+        int x = -literal(f, from);
+        if (f instanceof Next n) return new int[] { x, literal(n.getFormula(), to) };
+        if (f instanceof WeakNext w) return new int[] { x, literal(w.getFormula(), to) };
+        if (f instanceof Until u) return new int[] { x, literal(u.getRight(), from), literal(f, to) };
+        if (f instanceof Release r) return new int[] { x, literal(r.getLeft(), from), literal(f, to) };
+        if (f instanceof Globally) return new int[] { x, literal(f, to) };
+        if (f instanceof Finally fin) return new int[] { x, literal(fin.getFormula(), from), literal(f, to) };
+        return null;
+    }
+
+    // Loop selectors and eventuality checks of bound k, guarded by the returned literal
+    private int addLoops(int k) {
+        int active = solver.newVariable();
+        loops = new int[k + 1];
+        int[] someLoop = new int[k + 2];
+        someLoop[0] = -active;
+        for (int j = 0; j <= k; j++) {
+            loops[j] = solver.newVariable();
+            someLoop[j + 1] = loops[j];
+        }
+        solver.addClause(someLoop);
+        for (int a = 0; a <= k; a++) {
+            for (int b = a + 1; b <= k; b++) {
+                solver.addClause(-loops[a], -loops[b]);
+            }
+        }
+
+        // the loop position j is the successor of the last one
+        for (IFormula f : order) {
+            for (int j = 0; j <= k; j++) {
+                int[] step = step(f, k, j);
+                if (step == null) break;
+                int[] guarded = new int[step.length + 1];
+                System.arraycopy(step, 0, guarded, 1, step.length);
+                guarded[0] = -loops[j];
+                solver.addClause(guarded);
+            }
+        }
+
+        // inLoop[i]: the loop starts at or before i
+        int[] inLoop = new int[k + 1];
+        for (int i = 0; i <= k; i++) {
+            inLoop[i] = solver.newVariable();
+            if (i == 0) {
+                solver.addClause(-inLoop[i], loops[i]);
+            } else {
+                solver.addClause(-inLoop[i], inLoop[i - 1], loops[i]);
+            }
+        }
+        // an eventuality pending at k is fulfilled somewhere in the loop
+        for (IFormula f : order) {
+            IFormula target;
+            if (f instanceof Until u) {
+                target = u.getRight();
+            } else if (f instanceof Finally fin) {
+                target = fin.getFormula();
+            } else {
+                continue;
+            }
+            int seen = 0;
+            for (int i = 0; i <= k; i++) {
+                int e = solver.newVariable();
+                if (seen == 0) {
+                    solver.addClause(-e, literal(target, i));
+                    solver.addClause(-e, inLoop[i]);
+                } else {
+                    solver.addClause(-e, seen, literal(target, i));
+                    solver.addClause(-e, seen, inLoop[i]);
+                }
+                seen = e;
+            }
+            solver.addClause(-active, -literal(f, k), seen);
+        }
+        return active;
+    }
+
+    private Lasso extractWitness() {
+        List<Set<Symbol>> states = new ArrayList<>();
+        for (int[] valuation : valuations) {
+            Set<Symbol> state = EnumSet.noneOf(Symbol.class);
+            for (Map.Entry<Symbol, Integer> p : propositions.entrySet()) {
+                if (solver.modelValue(valuation[p.getValue()])) state.add(p.getKey());
+            }
+            states.add(state);
+        }
+        int loopStart = 0;
+        while (!solver.modelValue(loops[loopStart])) loopStart++;
+        return new Lasso(states, loopStart);
+    }
+}
@@ -0,0 +1,603 @@
+package com.ltl.ltl.service.sat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A small incremental CDCL SAT solver in the style of MiniSat.
+ * <p>
+ * Clauses are propagated with two watched literals. Conflicts are analysed to the first
+ * unique implication point, the learnt clause is minimised against the reasons of its
+ * literals, and the search backjumps to the second highest level in it. Decisions follow
+ * VSIDS activities with phase saving, restarts follow the Luby sequence, and learnt clauses
+ * with a low activity are deleted once there are too many of them; clauses of at most two
+ * decision levels (LBD ≤ 2) are always kept.
+ * <p>
+ * Literals use the DIMACS convention: variable {@code v} is the literal {@code v}, its
+ * negation is {@code -v}. The solver is incremental: clauses may be added between calls of
+ * {@link #solve}, learnt clauses survive across calls, and {@link #solve(int...)} takes
+ * assumptions that only hold for that call.
+ */
+public final class CdclSolver {
+
+    public enum Result { SAT, UNSAT, UNKNOWN }
+
+    private static final byte TRUE = 1;
+    private static final byte FALSE = -1;
+    private static final byte UNDEF = 0;
+
+    private static final int RESTART_UNIT = 100;
+    private static final double VAR_DECAY = 0.95;
+    private static final double CLAUSE_DECAY = 0.999;
+    private static final double RESCALE_LIMIT = 1e100;
+    // the clock is read once per this many conflicts
+    private static final int CLOCK_INTERVAL = 64;
+
+    private static final class Clause {
+        final int[] lits;
+        final boolean learnt;
+        double activity;
+        int lbd;
+        boolean deleted;
+
+        Clause(int[] lits, boolean learnt) {
+            this.lits = lits;
+            this.learnt = learnt;
+        }
+    }
+
+    private int variables;
+    private boolean ok = true;
+
+    // indexed by internal literal 2v (positive) or 2v + 1 (negative)
+    private byte[] value = new byte[2];
+    private final List<List<Clause>> watches = new ArrayList<>(List.of(new ArrayList<>(), new ArrayList<>()));
+
+    // indexed by variable
+    private int[] level = new int[1];
+    private Clause[] reason = new Clause[1];
+    private double[] activity = new double[1];
+    private boolean[] phase = new boolean[1];
+    private boolean[] seen = new boolean[1];
+    private final VarHeap heap = new VarHeap();
+
+    private int[] trail = new int[1];
+    private int trailSize;
+    private int qhead;
+    private int[] trailLim = new int[16];
+    private int levels;
+
+    private final List<Clause> clauses = new ArrayList<>();
+    private final List<Clause> learnts = new ArrayList<>();
+    private double varInc = 1;
+    private double clauseInc = 1;
+    private double maxLearnts;
+
+    private int[] assumptions = new int[0];
+    private int[] failed = new int[0];
+    private boolean[] model = new boolean[1];
+
+    private long maxConflicts = Long.MAX_VALUE;
+    private Duration timeout;
+    private long deadline;
+
+    private long conflicts;
+    private long decisions;
+    private long propagations;
+    private long restarts;
+
+    /** Creates a fresh variable and returns its number, starting at 1. */
+    public int newVariable() {
+        int v = ++variables;
+        if (v >= level.length) {
+            int capacity = Math.max(2 * level.length, v + 1);
+            level = Arrays.copyOf(level, capacity);
+            reason = Arrays.copyOf(reason, capacity);
+            activity = Arrays.copyOf(activity, capacity);
+            phase = Arrays.copyOf(phase, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            model = Arrays.copyOf(model, capacity);
+            trail = Arrays.copyOf(trail, capacity);
+            value = Arrays.copyOf(value, 2 * capacity);
+        }
+        watches.add(new ArrayList<>());
+        watches.add(new ArrayList<>());
+        heap.insert(v);
+        return v;
+    }
+
+    public int getVariables() {
+        return variables;
+    }
+
+    /**
+     * Limits every following {@link #solve} call to a number of conflicts and a wall-clock
+     * time; running out answers {@link Result#UNKNOWN}. {@code timeout} may be {@code null}.
+     */
+    public void setLimits(long maxConflicts, Duration timeout) {
+        this.maxConflicts = maxConflicts;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Adds a clause over existing variables. Returns false if the clauses are now known to be
+     * unsatisfiable without any assumptions.
+     */
+    public boolean addClause(int... literals) {
+        if (!ok) return false;
+        int[] lits = new int[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            lits[i] = internal(literals[i]);
+        }
+        Arrays.sort(lits);
+        int size = 0;
+        int previous = -1;
+        for (int lit : lits) {
+            // a literal and its negation are neighbours after sorting
+            if (value[lit] == TRUE || lit == (previous ^ 1)) return true;
+            if (value[lit] != FALSE && lit != previous) {
+                lits[size++] = lit;
+            }
+            previous = lit;
+        }
+        if (size == 0) {
+            ok = false;
+        } else if (size == 1) {
+            assign(lits[0], null);
+            ok = propagate() == null;
+        } else {
+            Clause clause = new Clause(Arrays.copyOf(lits, size), false);
+            clauses.add(clause);
+            attach(clause);
+        }
+        return ok;
+    }
+
+    /** Solves the clauses under the given assumptions. */
+    public Result solve(int... assumed) {
+        failed = new int[0];
+        if (!ok) return Result.UNSAT;
+        assumptions = new int[assumed.length];
+        for (int i = 0; i < assumed.length; i++) {
+            assumptions[i] = internal(assumed[i]);
+        }
+        deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+        maxLearnts = Math.max(clauses.size() / 3.0, 2000);
+        long conflictLimit = maxConflicts == Long.MAX_VALUE ? Long.MAX_VALUE : conflicts + maxConflicts;
+
+        Result result = null;
+        for (int restart = 0; result == null; restart++) {
+            result = search(luby(restart) * RESTART_UNIT, conflictLimit);
+            if (result == null) restarts++;
+        }
+        if (result == Result.SAT) {
+            for (int v = 1; v <= variables; v++) {
+                model[v] = value[2 * v] == TRUE;
+            }
+        }
+        cancelUntil(0);
+        return result;
+    }
+
+    /** Value of a literal in the model of the last satisfiable {@link #solve} call. */
+    public boolean modelValue(int literal) {
+        int v = Math.abs(literal);
+        checkVariable(v);
+        return literal > 0 ? model[v] : !model[v];
+    }
+
+    /**
+     * The assumptions of the last unsatisfiable {@link #solve} call that together already
+     * contradict the clauses; empty if the clauses are unsatisfiable on their own.
+     */
+    public int[] getFailedAssumptions() {
+        return failed.clone();
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public long getDecisions() {
+        return decisions;
+    }
+
+    public long getPropagations() {
+        return propagations;
+    }
+
+    public long getRestarts() {
+        return restarts;
+    }
+
+    /** Learnt clauses currently kept. */
+    public int getLearnts() {
+        return learnts.size();
+    }
+
+    // null means restart
+    private Result search(long conflictsBeforeRestart, long conflictLimit) {
+        long conflictsHere = 0;
+        while (true) {
+            Clause conflict = propagate();
+            if (conflict != null) {
+                conflicts++;
+                conflictsHere++;
+                if (levels == 0) {
+                    ok = false;
+                    return Result.UNSAT;
+                }
+                int[] learnt = analyze(conflict);
+                if (learnt.length == 1) {
+                    cancelUntil(0);
+                    assign(learnt[0], null);
+                } else {
+                    cancelUntil(level[learnt[1] >> 1]);
+                    Clause clause = new Clause(learnt, true);
+                    clause.lbd = lbd(learnt);
+                    learnts.add(clause);
+                    attach(clause);
+                    bumpClause(clause);
+                    assign(learnt[0], clause);
+                }
+                varInc /= VAR_DECAY;
+                clauseInc /= CLAUSE_DECAY;
+                if (conflicts >= conflictLimit) return Result.UNKNOWN;
+                if (deadline != Long.MAX_VALUE && conflicts % CLOCK_INTERVAL == 0
+                        && System.nanoTime() - deadline > 0) {
+                    return Result.UNKNOWN;
+                }
+                continue;
+            }
+            if (conflictsHere >= conflictsBeforeRestart) {
+                cancelUntil(0);
+                return null;
+            }
+            if (learnts.size() - trailSize >= maxLearnts) reduceLearnts();
+
+            int next = -1;
+            while (levels < assumptions.length) {
+                int assumption = assumptions[levels];
+                if (value[assumption] == TRUE) {
+                    // already implied: keep one level per assumption anyway
+                    newLevel();
+                } else if (value[assumption] == FALSE) {
+                    analyzeFinal(assumption ^ 1);
+                    return Result.UNSAT;
+                } else {
+                    next = assumption;
+                    break;
+                }
+            }
+            if (next == -1) {
+                next = pickBranch();
+                if (next == -1) return Result.SAT;
+                decisions++;
+            }
+            newLevel();
+            assign(next, null);
+        }
+    }
+
+    private Clause propagate() {
+        while (qhead < trailSize) {
+            int falseLit = trail[qhead++] ^ 1;
+            propagations++;
+            List<Clause> watching = watches.get(falseLit);
+            int n = watching.size();
+            int kept = 0;
+            int i = 0;
+            while (i < n) {
+                Clause clause = watching.get(i++);
+                if (clause.deleted) continue;
+                int[] lits = clause.lits;
+                // keep the false literal in position 1
+                if (lits[0] == falseLit) {
+                    lits[0] = lits[1];
+                    lits[1] = falseLit;
+                }
+                if (value[lits[0]] == TRUE) {
+                    watching.set(kept++, clause);
+                    continue;
+                }
+                boolean moved = false;
+                for (int k = 2; k < lits.length; k++) {
+                    if (value[lits[k]] != FALSE) {
+                        lits[1] = lits[k];
+                        lits[k] = falseLit;
+                        watches.get(lits[1]).add(clause);
+                        moved = true;
+                        break;
+                    }
+                }
+                if (moved) continue;
+                watching.set(kept++, clause);
+                if (value[lits[0]] == FALSE) {
+                    while (i < n) watching.set(kept++, watching.get(i++));
+                    watching.subList(kept, n).clear();
+                    qhead = trailSize;
+                    return clause;
+                }
+                assign(lits[0], clause);
+            }
+            watching.subList(kept, n).clear();
+        }
+        return null;
+    }
+
+    // First-UIP learnt clause, asserting literal first and a literal of the backjump level second
+    private int[] analyze(Clause conflict) {
+        List<Integer> learnt = new ArrayList<>();
+        learnt.add(-1);
+        int pending = 0;
+        int p = -1;
+        int index = trailSize - 1;
+        Clause clause = conflict;
+        do {
+            if (clause.learnt) bumpClause(clause);
+            for (int k = p == -1 ? 0 : 1; k < clause.lits.length; k++) {
+                int q = clause.lits[k];
+                int v = q >> 1;
+                if (!seen[v] && level[v] > 0) {
+                    bumpVariable(v);
+                    seen[v] = true;
+                    if (level[v] >= levels) {
+                        pending++;
+                    } else {
+                        learnt.add(q);
+                    }
+                }
+            }
+            while (!seen[trail[index] >> 1]) index--;
+            p = trail[index--];
+            clause = reason[p >> 1];
+            seen[p >> 1] = false;
+            pending--;
+        } while (pending > 0);
+        learnt.set(0, p ^ 1);
+
+        // drop literals implied by the others
+        int[] lits = new int[learnt.size()];
+        int size = 0;
+        lits[size++] = learnt.get(0);
+        for (int i = 1; i < learnt.size(); i++) {
+            int q = learnt.get(i);
+            if (!redundant(q)) lits[size++] = q;
+        }
+        for (int i = 1; i < learnt.size(); i++) {
+            seen[learnt.get(i) >> 1] = false;
+        }
+
+        // a literal of the highest remaining level goes to position 1
+        if (size > 1) {
+            int best = 1;
+            for (int i = 2; i < size; i++) {
+                if (level[lits[i] >> 1] > level[lits[best] >> 1]) best = i;
+            }
+            int swap = lits[1];
+            lits[1] = lits[best];
+            lits[best] = swap;
+        }
+        return Arrays.copyOf(lits, size);
+    }
+
+    private boolean redundant(int lit) {
+        Clause why = reason[lit >> 1];
+        if (why == null) return false;
+        for (int k = 1; k < why.lits.length; k++) {
+            int v = why.lits[k] >> 1;
+            if (!seen[v] && level[v] > 0) return false;
+        }
+        return true;
+    }
+
+    // The assumptions that imply the negation of the assumption ¬p
+    private void analyzeFinal(int p) {
+        List<Integer> involved = new ArrayList<>();
+        involved.add(p ^ 1);
+        if (levels > 0) {
+            seen[p >> 1] = true;
+            for (int i = trailSize - 1; i >= trailLim[0]; i--) {
+                int v = trail[i] >> 1;
+                if (!seen[v]) continue;
+                if (reason[v] == null) {
+                    involved.add(trail[i]);
+                } else {
+                    for (int k = 1; k < reason[v].lits.length; k++) {
+                        int u = reason[v].lits[k] >> 1;
+                        if (level[u] > 0) seen[u] = true;
+                    }
+                }
+                seen[v] = false;
+            }
+            seen[p >> 1] = false;
+        }
+        failed = involved.stream().distinct().mapToInt(CdclSolver::external).toArray();
+    }
+
+    private int lbd(int[] lits) {
+        return (int) Arrays.stream(lits).map(lit -> level[lit >> 1]).distinct().count();
+    }
+
+    private void reduceLearnts() {
+        List<Clause> candidates = new ArrayList<>();
+        for (Clause clause : learnts) {
+            if (clause.lbd > 2 && !locked(clause)) candidates.add(clause);
+        }
+        candidates.sort(Comparator.comparingDouble(clause -> clause.activity));
+        for (int i = 0; i < candidates.size() / 2; i++) {
+            candidates.get(i).deleted = true;
+        }
+        learnts.removeIf(clause -> clause.deleted);
+        maxLearnts *= 1.1;
+    }
+
+    private boolean locked(Clause clause) {
+        int first = clause.lits[0];
+        return value[first] == TRUE && reason[first >> 1] == clause;
+    }
+
+    private int pickBranch() {
+        while (!heap.isEmpty()) {
+            int v = heap.removeMax();
+            if (value[2 * v] == UNDEF) return phase[v] ? 2 * v : 2 * v + 1;
+        }
+        return -1;
+    }
+
+    private void assign(int lit, Clause why) {
+        value[lit] = TRUE;
+        value[lit ^ 1] = FALSE;
+        int v = lit >> 1;
+        level[v] = levels;
+        reason[v] = why;
+        trail[trailSize++] = lit;
+    }
+
+    private void newLevel() {
+        if (levels == trailLim.length) trailLim = Arrays.copyOf(trailLim, 2 * levels);
+        trailLim[levels++] = trailSize;
+    }
+
+    private void cancelUntil(int target) {
+        if (levels <= target) return;
+        for (int i = trailSize - 1; i >= trailLim[target]; i--) {
+            int lit = trail[i];
+            int v = lit >> 1;
+            value[lit] = UNDEF;
+            value[lit ^ 1] = UNDEF;
+            reason[v] = null;
+            phase[v] = (lit & 1) == 0;
+            heap.insert(v);
+        }
+        trailSize = trailLim[target];
+        qhead = trailSize;
+        levels = target;
+    }
+
+    private void attach(Clause clause) {
+        watches.get(clause.lits[0]).add(clause);
+        watches.get(clause.lits[1]).add(clause);
+    }
+
+    private void bumpVariable(int v) {
+        activity[v] += varInc;
+        if (activity[v] > RESCALE_LIMIT) {
+            for (int u = 1; u <= variables; u++) activity[u] /= RESCALE_LIMIT;
+            varInc /= RESCALE_LIMIT;
+        }
+        heap.increased(v);
+    }
+
+    private void bumpClause(Clause clause) {
+        clause.activity += clauseInc;
+        if (clause.activity > RESCALE_LIMIT) {
+            for (Clause learnt : learnts) learnt.activity /= RESCALE_LIMIT;
+            clauseInc /= RESCALE_LIMIT;
+        }
+    }
+
+    private int internal(int literal) {
+        int v = Math.abs(literal);
+        checkVariable(v);
+        return literal > 0 ? 2 * v : 2 * v + 1;
+    }
+
+    private static int external(int lit) {
+        return (lit & 1) == 0 ? lit >> 1 : -(lit >> 1);
+    }
+
+    private void checkVariable(int v) {
+        if (v < 1 || v > variables) throw new IllegalArgumentException("Unknown variable: " + v);
+    }
+
+    // 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, ...
+    static long luby(int i) {
+        int size = 1;
+        int sequence = 0;
+        while (size < i + 1) {
+            sequence++;
+            size = 2 * size + 1;
+        }
+        int x = i;
+        while (size - 1 != x) {
+            size = (size - 1) >> 1;
+            sequence--;
+            x = x % size;
+        }
+        return 1L << sequence;
+    }
+
+    // Binary max-heap of the unassigned variables by activity
+    private final class VarHeap {
+        private int[] heap = new int[16];
+        // position of every variable in the heap, -1 if it is not in it
+        private int[] position = new int[0];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void insert(int v) {
+            if (v >= position.length) {
+                int old = position.length;
+                position = Arrays.copyOf(position, Math.max(2 * old, v + 1));
+                Arrays.fill(position, old, position.length, -1);
+            } else if (position[v] >= 0) {
+                return;
+            }
+            if (size == heap.length) heap = Arrays.copyOf(heap, 2 * size);
+            heap[size] = v;
+            position[v] = size;
+            up(size++);
+        }
+
+        void increased(int v) {
+            if (v < position.length && position[v] >= 0) up(position[v]);
+        }
+
+        int removeMax() {
+            int top = heap[0];
+            position[top] = -1;
+            int last = heap[--size];
+            if (size > 0) {
+                heap[0] = last;
+                position[last] = 0;
+                down(0);
+            }
+            return top;
+        }
+
+        private void up(int i) {
+            int v = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (activity[heap[parent]] >= activity[v]) break;
+                heap[i] = heap[parent];
+                position[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = v;
+            position[v] = i;
+        }
+
+        private void down(int i) {
+            int v = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && activity[heap[child + 1]] > activity[heap[child]]) child++;
+                if (activity[heap[child]] <= activity[v]) break;
+                heap[i] = heap[child];
+                position[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = v;
+            position[v] = i;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ltl.ltl.service.sat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.Symbol;
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+import com.ltl.ltl.service.syntax.Nnf;
+
+/**
+ * An ultimately periodic word {@code s0 … s(j-1) (sj … sk)^ω}: the states in order, each the
+ * set of propositions that hold in it, and the index {@code j} the last state loops back to.
+ */
+public record Lasso(List<Set<Symbol>> states, int loopStart) {
+
+    public Lasso {
+        if (loopStart < 0 || loopStart >= states.size()) {
+            throw new IllegalArgumentException("Loop start " + loopStart + " outside of " + states.size() + " states");
+        }
+        states = List.copyOf(states);
+    }
+
+    public List<Set<Symbol>> prefix() {
+        return states.subList(0, loopStart);
+    }
+
+    public List<Set<Symbol>> loop() {
+        return states.subList(loopStart, states.size());
+    }
+
+    /** Index of the state that follows state {@code i}. */
+    public int successor(int i) {
+        return i + 1 < states.size() ? i + 1 : loopStart;
+    }
+
+    /** True if the word satisfies the formula, i.e. the formula holds in its first state. */
+    public boolean satisfies(IFormula formula) {
+        return holds(new Nnf().toNnf(formula))[0];
+    }
+
+    // Truth of an NNF formula in every state. Until and Release are fixpoints over the
+    // states; iterating them once per state from the right start value is enough.
+    private boolean[] holds(IFormula f) {
+        int n = states.size();
+        boolean[] result = new boolean[n];
+        if (f instanceof AtomicProposition ap) {
+            for (int i = 0; i < n; i++) result[i] = states.get(i).contains(ap.getSymbol());
+        } else if (f instanceof Not not) {
+            boolean[] operand = holds(not.getFormula());
+            for (int i = 0; i < n; i++) result[i] = !operand[i];
+        } else if (f instanceof And and) {
+            boolean[] left = holds(and.getLeft());
+            boolean[] right = holds(and.getRight());
+            for (int i = 0; i < n; i++) result[i] = left[i] && right[i];
+        } else if (f instanceof Or or) {
+            boolean[] left = holds(or.getLeft());
+            boolean[] right = holds(or.getRight());
+            for (int i = 0; i < n; i++) result[i] = left[i] || right[i];
+        } else if (f instanceof Next || f instanceof WeakNext) {
+            boolean[] operand = holds(f instanceof Next x ? x.getFormula() : ((WeakNext) f).getFormula());
+            for (int i = 0; i < n; i++) result[i] = operand[successor(i)];
+        } else {
+            // α U β is the least, α R β the greatest solution of the unrolling
+            boolean until = f instanceof Until || f instanceof Finally;
+            boolean[] left;
+            boolean[] right;
+            if (f instanceof Until u) {
+                left = holds(u.getLeft());
+                right = holds(u.getRight());
+            } else if (f instanceof Release r) {
+                left = holds(r.getLeft());
+                right = holds(r.getRight());
+            } else if (f instanceof Finally fin) {
+                right = holds(fin.getFormula());
+                left = new boolean[n];
+                Arrays.fill(left, true);
+            } else if (f instanceof Globally g) {
+                right = holds(g.getFormula());
+                left = new boolean[n];
+            } else {
+                throw new IllegalArgumentException("Not an NNF formula: " + f);
+            }
+            Arrays.fill(result, !until);
+            for (int round = 0; round <= n; round++) {
+                for (int i = n - 1; i >= 0; i--) {
+                    boolean later = result[successor(i)];
+                    result[i] = until ? right[i] || (left[i] && later) : right[i] && (left[i] || later);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return prefix().stream().map(Lasso::format).collect(Collectors.joining(" "))
+                + (loopStart > 0 ? " " : "")
+                + loop().stream().map(Lasso::format).collect(Collectors.joining(" ", "(", ")^ω"));
+    }
+
+    private static String format(Set<Symbol> state) {
+        return state.stream().map(Symbol::name).collect(Collectors.joining(",", "{", "}"));
+    }
+}
@@ -1,8 +1,10 @@
 package com.ltl.ltl.service.syntax;
 
 import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.FormulaFactory;
 import com.ltl.ltl.model.IFormula;
 import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Constant;
 import com.ltl.ltl.model.formulas.Equiv;
 import com.ltl.ltl.model.formulas.Finally;
 import com.ltl.ltl.model.formulas.Globally;
@@ -23,128 +25,116 @@ public class Nnf {
 
     /**
      * Transformiert eine Formel in NNF.
+     * Das Ergebnis wird über die {@link FormulaFactory} aufgebaut und ist damit kanonisch.
      */
     public IFormula toNnf(IFormula formula) {
-        java.util.IdentityHashMap<IFormula, Boolean> seen = new java.util.IdentityHashMap<>();
-        return toNnfRec(formula, seen);
-    }
-
-    private IFormula toNnfRec(IFormula formula, java.util.IdentityHashMap<IFormula, Boolean> seen) {
         if (formula == null) return null;
-        if (seen.containsKey(formula)) {
-            // Cycle detected in formula graph; return as-is to avoid infinite recursion
-            return formula;
-        }
-        seen.put(formula, Boolean.TRUE);
 
         if (formula instanceof Not n) {
             // push negation inside
-            return toNegNnfRec(n.getFormula(), seen);
+            return toNegNnf(n.getFormula());
         }
-        if (formula instanceof AtomicProposition) {
-            return formula; // already an atom
+        if (formula instanceof AtomicProposition ap) {
+            return FormulaFactory.atom(ap.getSymbol()); // already an atom
+        }
+        if (formula instanceof Constant) {
+            return formula;
         }
         if (formula instanceof Globally g) {
-            return new Globally(toNnfRec(g.getFormula(), seen));
+            return FormulaFactory.globally(toNnf(g.getFormula()));
         }
         if (formula instanceof Finally f) {
-            return new Finally(toNnfRec(f.getFormula(), seen));
+            return FormulaFactory.eventually(toNnf(f.getFormula()));
         }
         if (formula instanceof Next x) {
-            return new Next(toNnfRec(x.getFormula(), seen));
+            return FormulaFactory.next(toNnf(x.getFormula()));
         }
         if (formula instanceof WeakNext w) {
-            return new WeakNext(toNnfRec(w.getFormula(), seen));
+            return FormulaFactory.weakNext(toNnf(w.getFormula()));
         }
         if (formula instanceof Until u) {
-            return new Until(toNnfRec(u.getLeft(), seen), toNnfRec(u.getRight(), seen));
+            return FormulaFactory.until(toNnf(u.getLeft()), toNnf(u.getRight()));
         }
         if (formula instanceof Release r) {
-            return new Release(toNnfRec(r.getLeft(), seen), toNnfRec(r.getRight(), seen));
+            return FormulaFactory.release(toNnf(r.getLeft()), toNnf(r.getRight()));
         }
         if (formula instanceof And a) {
-            return new And(toNnfRec(a.getLeft(), seen), toNnfRec(a.getRight(), seen));
+            return FormulaFactory.and(toNnf(a.getLeft()), toNnf(a.getRight()));
         }
         if (formula instanceof Or o) {
-            return new Or(toNnfRec(o.getLeft(), seen), toNnfRec(o.getRight(), seen));
+            return FormulaFactory.or(toNnf(o.getLeft()), toNnf(o.getRight()));
         }
         if (formula instanceof Impl imp) { // a -> b  === ¬a ∨ b
-            return new Or(toNegNnfRec(imp.getLeft(), seen), toNnfRec(imp.getRight(), seen));
+            return FormulaFactory.or(toNegNnf(imp.getLeft()), toNnf(imp.getRight()));
         }
         if (formula instanceof RImpl ri) { // a <- b  === b -> a === ¬b ∨ a
-            return new Or(toNegNnfRec(ri.getRight(), seen), toNnfRec(ri.getLeft(), seen));
+            return FormulaFactory.or(toNegNnf(ri.getRight()), toNnf(ri.getLeft()));
         }
         if (formula instanceof Equiv eq) { // a <-> b === (a & b) | (¬a & ¬b)
-            IFormula aPos = toNnfRec(eq.getLeft(), seen);
-            IFormula bPos = toNnfRec(eq.getRight(), seen);
-            IFormula leftAnd = new And(aPos, bPos);
-            IFormula rightAnd = new And(toNegNnfRec(eq.getLeft(), seen), toNegNnfRec(eq.getRight(), seen));
-            return new Or(leftAnd, rightAnd);
+            IFormula aPos = toNnf(eq.getLeft());
+            IFormula bPos = toNnf(eq.getRight());
+            IFormula leftAnd = FormulaFactory.and(aPos, bPos);
+            IFormula rightAnd = FormulaFactory.and(toNegNnf(eq.getLeft()), toNegNnf(eq.getRight()));
+            return FormulaFactory.or(leftAnd, rightAnd);
         }
         // fallback (should not happen if all classes covered)
-        return formula;
+        return FormulaFactory.intern(formula);
     }
 
     /**
      * Helper: returns NNF of the negation of the given formula.
      */
     private IFormula toNegNnf(IFormula formula) {
-        java.util.IdentityHashMap<IFormula, Boolean> seen = new java.util.IdentityHashMap<>();
-        return toNegNnfRec(formula, seen);
-    }
-
-    private IFormula toNegNnfRec(IFormula formula, java.util.IdentityHashMap<IFormula, Boolean> seen) {
         if (formula == null) return null;
-        if (seen.containsKey(formula)) {
-            return new Not(formula);
-        }
-        seen.put(formula, Boolean.TRUE);
 
         if (formula instanceof AtomicProposition ap) {
-            return new Not(ap); // negated atom stays as Not(atom)
+            return FormulaFactory.not(FormulaFactory.atom(ap.getSymbol())); // negated atom stays as Not(atom)
+        }
+        if (formula instanceof Constant c) { // ¬true => false, ¬false => true
+            return Constant.of(!c.getValue());
         }
         if (formula instanceof Not n) { // ¬¬φ => NNF(φ)
-            return toNnfRec(n.getFormula(), seen);
+            return toNnf(n.getFormula());
         }
         if (formula instanceof Globally g) { // ¬Gφ => F¬φ
-            return new Finally(toNegNnfRec(g.getFormula(), seen));
+            return FormulaFactory.eventually(toNegNnf(g.getFormula()));
         }
         if (formula instanceof Finally f) { // ¬Fφ => G¬φ
-            return new Globally(toNegNnfRec(f.getFormula(), seen));
+            return FormulaFactory.globally(toNegNnf(f.getFormula()));
         }
         if (formula instanceof Next x) { // ¬Xφ => X¬φ
-            return new Next(toNegNnfRec(x.getFormula(), seen));
+            return FormulaFactory.next(toNegNnf(x.getFormula()));
         }
         if (formula instanceof WeakNext w) { // treat like next: ¬Wφ => W¬φ
-            return new WeakNext(toNegNnfRec(w.getFormula(), seen));
+            return FormulaFactory.weakNext(toNegNnf(w.getFormula()));
         }
         if (formula instanceof Until u) { // ¬(a U b) => ¬a R ¬b
-            return new Release(toNegNnfRec(u.getLeft(), seen), toNegNnfRec(u.getRight(), seen));
+            return FormulaFactory.release(toNegNnf(u.getLeft()), toNegNnf(u.getRight()));
         }
         if (formula instanceof Release r) { // ¬(a R b) => ¬a U ¬b
-            return new Until(toNegNnfRec(r.getLeft(), seen), toNegNnfRec(r.getRight(), seen));
+            return FormulaFactory.until(toNegNnf(r.getLeft()), toNegNnf(r.getRight()));
         }
         if (formula instanceof And a) { // ¬(a & b) => ¬a | ¬b
-            return new Or(toNegNnfRec(a.getLeft(), seen), toNegNnfRec(a.getRight(), seen));
+            return FormulaFactory.or(toNegNnf(a.getLeft()), toNegNnf(a.getRight()));
         }
         if (formula instanceof Or o) { // ¬(a | b) => ¬a & ¬b
-            return new And(toNegNnfRec(o.getLeft(), seen), toNegNnfRec(o.getRight(), seen));
+            return FormulaFactory.and(toNegNnf(o.getLeft()), toNegNnf(o.getRight()));
         }
         if (formula instanceof Impl imp) { // ¬(a -> b) => a & ¬b
-            return new And(toNnfRec(imp.getLeft(), seen), toNegNnfRec(imp.getRight(), seen));
+            return FormulaFactory.and(toNnf(imp.getLeft()), toNegNnf(imp.getRight()));
         }
         if (formula instanceof RImpl ri) { // ¬(a <- b) meaning ¬(b -> a) => b & ¬a
-            return new And(toNnfRec(ri.getRight(), seen), toNegNnfRec(ri.getLeft(), seen));
+            return FormulaFactory.and(toNnf(ri.getRight()), toNegNnf(ri.getLeft()));
         }
         if (formula instanceof Equiv eq) { // ¬(a <-> b) => (a & ¬b) | (¬a & b)
-            IFormula aPos = toNnfRec(eq.getLeft(), seen);
-            IFormula bPos = toNnfRec(eq.getRight(), seen);
-            IFormula leftAnd = new And(aPos, toNegNnfRec(eq.getRight(), seen));
-            IFormula rightAnd = new And(toNegNnfRec(eq.getLeft(), seen), bPos);
-            return new Or(leftAnd, rightAnd);
+            IFormula aPos = toNnf(eq.getLeft());
+            IFormula bPos = toNnf(eq.getRight());
+            IFormula leftAnd = FormulaFactory.and(aPos, toNegNnf(eq.getRight()));
+            IFormula rightAnd = FormulaFactory.and(toNegNnf(eq.getLeft()), bPos);
+            return FormulaFactory.or(leftAnd, rightAnd);
         }
         // fallback: wrap in Not (should not occur if exhaustive)
-        return new Not(formula);
+        return FormulaFactory.not(formula);
     }
 
     /**
@@ -0,0 +1,148 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ltl.ltl.model.tableau.TableauNode;
+
+/**
+ * Labels of the nodes on the current search path, so loop checks find a repeated label
+ * with one hash lookup instead of walking the parent chain.
+ * <p>
+ * The search calls {@link #enter} when it descends into a node's children and {@link #exit}
+ * when it backtracks, so the index always holds exactly the ancestors of the node being
+ * expanded. Labels are never modified after a node is created, which makes them usable
+ * as hash keys.
+ * <p>
+ * The path is also split into state segments. The rules only add formulas, so inside one
+ * state every label contains the labels before it, and the last label of a segment is the
+ * union of everything the segment has seen. Whether a loop visits the targets of its
+ * eventualities is then an OR over the segments it spans instead of a scan of its nodes.
+ */
+final class AncestorIndex {
+
+    /** A node on the path, its depth in the search (ancestors of the start node are negative) and its segment. */
+    record Ancestor(TableauNode node, int depth, int segment) {
+    }
+
+    private final Map<BitSet, List<Ancestor>> byLabel;
+    // last label of each state segment on the path
+    private final List<BitSet> segmentEnds;
+    // per entered node: the segment end it replaced, or null if it opened a new segment
+    private final List<BitSet> undo;
+
+    AncestorIndex() {
+        this(new HashMap<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    private AncestorIndex(Map<BitSet, List<Ancestor>> byLabel, List<BitSet> segmentEnds, List<BitSet> undo) {
+        this.byLabel = byLabel;
+        this.segmentEnds = segmentEnds;
+        this.undo = undo;
+    }
+
+    /** An index holding the strict ancestors of {@code start}, which is at depth 0. */
+    static AncestorIndex above(TableauNode start) {
+        List<TableauNode> chain = new ArrayList<>();
+        for (TableauNode anc = start.getParent(); anc != null; anc = anc.getParent()) {
+            chain.add(anc);
+        }
+        AncestorIndex index = new AncestorIndex();
+        // root first, so each label's list stays ordered from shallow to deep
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            index.enter(chain.get(i), -(i + 1));
+        }
+        return index;
+    }
+
+    void enter(TableauNode node, int depth) {
+        BitSet label = node.getLabel();
+        int last = segmentEnds.size() - 1;
+        if (last >= 0 && containsAll(label, segmentEnds.get(last))) {
+            // a rule application: same state, the label only grew
+            undo.add(segmentEnds.set(last, label));
+        } else {
+            // a next-step (or the first node): new state segment
+            segmentEnds.add(label);
+            undo.add(null);
+            last++;
+        }
+        byLabel.computeIfAbsent(label, k -> new ArrayList<>(2)).add(new Ancestor(node, depth, last));
+    }
+
+    void exit(TableauNode node) {
+        List<Ancestor> list = byLabel.get(node.getLabel());
+        list.remove(list.size() - 1);
+        if (list.isEmpty()) byLabel.remove(node.getLabel());
+
+        BitSet replaced = undo.remove(undo.size() - 1);
+        if (replaced == null) {
+            segmentEnds.remove(segmentEnds.size() - 1);
+        } else {
+            segmentEnds.set(segmentEnds.size() - 1, replaced);
+        }
+    }
+
+    boolean contains(BitSet label) {
+        return byLabel.containsKey(label);
+    }
+
+    /** Ancestors with the given label, shallowest first. */
+    List<Ancestor> withLabel(BitSet label) {
+        List<Ancestor> list = byLabel.get(label);
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    /**
+     * Ancestors the node closes a loop with: those with its label in an earlier state,
+     * shallowest first. Inside the node's own state a label repeats whenever a rule adds
+     * nothing new, as the X rule does, and no step lies between the two.
+     */
+    List<Ancestor> loopsOf(TableauNode node) {
+        List<Ancestor> list = withLabel(node.getLabel());
+        int last = segmentEnds.size() - 1;
+        // the node continues the last segment unless a next-step led to it
+        int segment = last >= 0 && containsAll(node.getLabel(), segmentEnds.get(last)) ? last : last + 1;
+        int earlier = 0;
+        while (earlier < list.size() && list.get(earlier).segment() < segment) earlier++;
+        return list.subList(0, earlier);
+    }
+
+    /**
+     * Loop check for a node whose label repeats the given ancestors: true if for some of them
+     * every eventuality target of the ancestor occurs between the ancestor and the node.
+     */
+    boolean anyLoopFulfilled(TableauNode node, List<Ancestor> matches) {
+        for (Ancestor match : matches) {
+            BitSet targets = node.getClosure().eventualityTargets(match.node().getLabel());
+            if (targets.isEmpty()) return true;
+            // formulas seen from the ancestor's segment up to the node
+            targets.andNot(node.getLabel());
+            for (int s = match.segment(); s < segmentEnds.size() && !targets.isEmpty(); s++) {
+                targets.andNot(segmentEnds.get(s));
+            }
+            if (targets.isEmpty()) return true;
+        }
+        return false;
+    }
+
+    /** Independent copy for a forked search task. */
+    AncestorIndex copy() {
+        Map<BitSet, List<Ancestor>> copy = new HashMap<>(byLabel.size() * 2);
+        for (Map.Entry<BitSet, List<Ancestor>> e : byLabel.entrySet()) {
+            copy.put(e.getKey(), new ArrayList<>(e.getValue()));
+        }
+        return new AncestorIndex(copy, new ArrayList<>(segmentEnds), new ArrayList<>(undo));
+    }
+
+    private static boolean containsAll(BitSet set, BitSet subset) {
+        for (int id = subset.nextSetBit(0); id >= 0; id = subset.nextSetBit(id + 1)) {
+            if (!set.get(id)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,151 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Set;
+
+import com.ltl.ltl.model.tableau.Closure;
+import com.ltl.ltl.model.tableau.TableauNode;
+
+/** Built-in expansion strategies; ties are always broken by closure order. */
+public enum ExpansionPolicy implements ExpansionStrategy {
+
+    /** First candidate in closure order, the order in which the closure discovered the subformulas. */
+    FIRST {
+        @Override
+        public int select(TableauNode node, Set<Closure.Kind> expandable) {
+            BitSet label = node.getLabel();
+            for (int id = label.nextSetBit(0); id >= 0; id = label.nextSetBit(id + 1)) {
+                if (isCandidate(node, id, expandable)) return id;
+            }
+            return -1;
+        }
+    },
+
+    /** Non-branching rules (G, &, X) before branching ones, so contradictions surface before a split. */
+    ALPHA_FIRST {
+        @Override
+        public int select(TableauNode node, Set<Closure.Kind> expandable) {
+            BitSet label = node.getLabel();
+            int firstBeta = -1;
+            for (int id = label.nextSetBit(0); id >= 0; id = label.nextSetBit(id + 1)) {
+                if (!isCandidate(node, id, expandable)) continue;
+                if (isAlpha(node.getClosure().kind(id))) return id;
+                if (firstBeta < 0) firstBeta = id;
+            }
+            return firstBeta;
+        }
+    },
+
+    /**
+     * The rule that adds the fewest new literals to the label, then the fewest new formulas;
+     * non-branching rules win ties.
+     */
+    FEWEST_NEW_ATOMS {
+        @Override
+        public int select(TableauNode node, Set<Closure.Kind> expandable) {
+            Closure closure = node.getClosure();
+            BitSet label = node.getLabel();
+            int best = -1;
+            long bestCost = Long.MAX_VALUE;
+            for (int id = label.nextSetBit(0); id >= 0; id = label.nextSetBit(id + 1)) {
+                if (!isCandidate(node, id, expandable)) continue;
+                long cost;
+                if (isAlpha(closure.kind(id))) {
+                    cost = growth(closure, label, closure.alpha(id)) * 2;
+                } else {
+                    cost = (growth(closure, label, closure.left(id)) + growth(closure, label, closure.right(id))) * 2 + 1;
+                }
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = id;
+                }
+            }
+            return best;
+        }
+
+        // new literals weigh more than any number of other new formulas
+        private long growth(Closure closure, BitSet label, int[] added) {
+            long literals = 0;
+            long others = 0;
+            for (int a : added) {
+                if (label.get(a)) continue;
+                Closure.Kind kind = closure.kind(a);
+                if (kind == Closure.Kind.ATOM || kind == Closure.Kind.NOT) literals++;
+                else others++;
+            }
+            return (literals << 16) + others;
+        }
+    },
+
+    /**
+     * Picks the proposition that occurs in most unexpanded formulas of the label and expands a
+     * formula mentioning it, preferring rules with a branch that contradicts the label at once.
+     */
+    MOST_CONSTRAINED {
+        @Override
+        public int select(TableauNode node, Set<Closure.Kind> expandable) {
+            Closure closure = node.getClosure();
+            BitSet label = node.getLabel();
+            int[] occurrences = new int[Long.SIZE];
+            for (int id = label.nextSetBit(0); id >= 0; id = label.nextSetBit(id + 1)) {
+                if (node.isChecked(id)) continue;
+                long mask = closure.symbols(id);
+                while (mask != 0) {
+                    occurrences[Long.numberOfTrailingZeros(mask)]++;
+                    mask &= mask - 1;
+                }
+            }
+            int busiest = 0;
+            for (int i = 1; i < occurrences.length; i++) {
+                if (occurrences[i] > occurrences[busiest]) busiest = i;
+            }
+            long constrained = 1L << busiest;
+
+            int best = -1;
+            int bestScore = -1;
+            for (int id = label.nextSetBit(0); id >= 0; id = label.nextSetBit(id + 1)) {
+                if (!isCandidate(node, id, expandable)) continue;
+                Closure.Kind kind = closure.kind(id);
+                int score = 0;
+                if (isAlpha(kind)) {
+                    if (closes(closure, label, closure.alpha(id))) score += 8;
+                    score += 1;
+                } else if (closes(closure, label, closure.left(id)) || closes(closure, label, closure.right(id))) {
+                    score += 4;
+                }
+                if ((closure.symbols(id) & constrained) != 0) score += 2;
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = id;
+                }
+            }
+            return best;
+        }
+
+        private boolean closes(Closure closure, BitSet label, int[] added) {
+            for (int a : added) {
+                int c = closure.complement(a);
+                if (c >= 0 && label.get(c)) return true;
+            }
+            return false;
+        }
+    };
+
+    /** Parses a policy name as used in requests, e.g. {@code alpha-first} or {@code MOST_CONSTRAINED}. */
+    public static ExpansionPolicy parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown expansion strategy: " + name);
+        }
+    }
+
+    static boolean isAlpha(Closure.Kind kind) {
+        return kind == Closure.Kind.GLOBALLY || kind == Closure.Kind.AND || kind == Closure.Kind.NEXT;
+    }
+
+    static boolean isCandidate(TableauNode node, int id, Set<Closure.Kind> expandable) {
+        return !node.isChecked(id) && expandable.contains(node.getClosure().kind(id));
+    }
+}
@@ -0,0 +1,20 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.Set;
+
+import com.ltl.ltl.model.tableau.Closure;
+import com.ltl.ltl.model.tableau.TableauNode;
+
+/**
+ * Decides which formula of a node the tableau expands next.
+ * <p>
+ * Candidates are the unchecked formulas of the node's label whose kind is in
+ * {@code expandable}; the searches pass the kinds they have rules for. Implementations must
+ * be deterministic and must not modify the node. See {@link ExpansionPolicy} for the
+ * built-in strategies.
+ */
+public interface ExpansionStrategy {
+
+    /** Closure id of the formula to expand, or -1 if the node has no candidate. */
+    int select(TableauNode node, Set<Closure.Kind> expandable);
+}
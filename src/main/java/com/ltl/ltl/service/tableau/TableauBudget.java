@@ -0,0 +1,107 @@
+package com.ltl.ltl.service.tableau;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits on the work of one tableau search: visited nodes, node depth and wall-clock time.
+ * <p>
+ * The searches check the budget cooperatively before expanding a node. Running out of nodes
+ * or time stops the whole search; a node deeper than the depth limit is only left
+ * unexpanded, so other branches can still prove the formula satisfiable.
+ */
+public final class TableauBudget {
+
+    public static final TableauBudget UNLIMITED = new TableauBudget(Long.MAX_VALUE, Integer.MAX_VALUE, null);
+
+    /** Which limit stopped a search. */
+    public enum Reason {
+        NODES, DEPTH, TIME
+    }
+
+    // the clock is read on the first node and then once per this many nodes
+    private static final int CLOCK_INTERVAL = 64;
+
+    private final long maxNodes;
+    private final int maxDepth;
+    private final Duration timeout;
+
+    /** {@code timeout} may be {@code null} for no deadline. */
+    public TableauBudget(long maxNodes, int maxDepth, Duration timeout) {
+        if (maxNodes < 1 || maxDepth < 0) {
+            throw new IllegalArgumentException("Budget limits must be positive");
+        }
+        this.maxNodes = maxNodes;
+        this.maxDepth = maxDepth;
+        this.timeout = timeout;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /** Starts the clock for one search. */
+    Meter start() {
+        long deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+        return new Meter(deadline);
+    }
+
+    /** Budget consumption of one running search; shared by the tasks of a parallel search. */
+    final class Meter {
+        private final long started = System.nanoTime();
+        private final long deadline;
+        private final AtomicLong nodes = new AtomicLong();
+        // first global limit that ran out, null while the search may continue
+        private volatile Reason exhausted;
+        private volatile boolean depthCut;
+
+        private Meter(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Counts a node about to be expanded at the given depth and returns true if it must
+         * not be expanded. Once nodes or time ran out this is true for every node.
+         */
+        boolean exceeded(int depth) {
+            if (exhausted != null) return true;
+            long nodeNo = nodes.incrementAndGet();
+            if (nodeNo > maxNodes) {
+                exhausted = Reason.NODES;
+                return true;
+            }
+            if (deadline != Long.MAX_VALUE && nodeNo % CLOCK_INTERVAL == 1 && System.nanoTime() - deadline > 0) {
+                exhausted = Reason.TIME;
+                return true;
+            }
+            if (depth > maxDepth) {
+                depthCut = true;
+                return true;
+            }
+            return false;
+        }
+
+        /** True once nodes or time ran out. */
+        boolean isStopped() {
+            return exhausted != null;
+        }
+
+        /** The limit that made the search incomplete, or {@code null} if it finished. */
+        Reason getExhaustion() {
+            if (exhausted != null) return exhausted;
+            return depthCut ? Reason.DEPTH : null;
+        }
+
+        Duration elapsed() {
+            return Duration.ofNanos(System.nanoTime() - started);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.ltl.ltl.model.tableau.TableauNode;
+
+/**
+ * Result of {@link TableauGraphConstruction}: a tableau whose nodes are unique per label,
+ * so repeated labels become shared nodes and loops become back-edges.
+ * <p>
+ * Every edge is an alternative (the graph has no AND nodes), so a node is satisfiable if some
+ * path from it ends in an accepting leaf or in a fulfilling strongly connected component.
+ */
+public class TableauGraph {
+
+    public enum Kind {
+        /** non-branching rule (G, &, X) */
+        RULE,
+        /** branching rule (|, U, R, F) */
+        BRANCH,
+        /** poised node with Next formulas: transition to the next state */
+        STEP,
+        /** poised node without Next formulas: satisfiable leaf */
+        ACCEPTING,
+        /** an atom and its negation */
+        CONTRADICTION,
+        /** no rule applies and the node is not poised */
+        DEAD,
+        /** left unexpanded because the budget ran out */
+        UNEXPANDED
+    }
+
+    /**
+     * One shared node; {@code backEdges} are the successors that were on the DFS path when reached.
+     * {@code scc} is -1 for nodes whose component the construction did not finish.
+     */
+    public record Node(int id, TableauNode node, Kind kind, int[] successors, int[] backEdges, int scc,
+            boolean satisfiable) {
+    }
+
+    private final List<Node> nodes;
+    private final int components;
+    private final long edges;
+    private final TableauBudget.Reason exhaustion;
+
+    TableauGraph(List<Node> nodes, int components, long edges, TableauBudget.Reason exhaustion) {
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.components = components;
+        this.edges = edges;
+        this.exhaustion = exhaustion;
+    }
+
+    /** The root has id 0. */
+    public Node getRoot() {
+        return nodes.get(0);
+    }
+
+    public Node getNode(int id) {
+        return nodes.get(id);
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public boolean isSatisfiable() {
+        return getRoot().satisfiable();
+    }
+
+    /** SAT or UNSAT if the graph decides the root, UNKNOWN if the budget cut it short first. */
+    public TableauVerdict getVerdict() {
+        if (isSatisfiable()) return TableauVerdict.SAT;
+        return exhaustion == null ? TableauVerdict.UNSAT : TableauVerdict.UNKNOWN;
+    }
+
+    /** The limit that cut the construction short, or {@code null} if the graph is complete. */
+    public TableauBudget.Reason getExhaustion() {
+        return exhaustion;
+    }
+
+    /** Number of strongly connected components. */
+    public int getComponents() {
+        return components;
+    }
+
+    public long getEdges() {
+        return edges;
+    }
+}
@@ -0,0 +1,269 @@
+package com.ltl.ltl.service.tableau;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ltl.ltl.model.tableau.Closure;
+import com.ltl.ltl.model.tableau.TableauNode;
+
+/**
+ * Builds the tableau as a graph instead of a tree: a node is identified by its label and
+ * checked flags, so a label reached along several paths is expanded once. The rules are the
+ * ones of {@link TableauTreeConstruction}.
+ * <p>
+ * Construction and eventuality checking run in one depth-first pass (Tarjan). When a
+ * strongly connected component is complete, all its successors outside of it are decided,
+ * so the component is decided right away: it is satisfiable if it contains an accepting
+ * leaf, has an edge to a satisfiable component, or is a cycle that fulfils every
+ * eventuality. An eventuality {@code X(F φ)} / {@code X(α U β)} is fulfilled if some STEP
+ * node of the component either does not contain it or contains its target {@code φ} / {@code β}
+ * (generalized Büchi condition, one set per eventuality).
+ * <p>
+ * A {@link TableauBudget} limits the construction like the tree's. Nodes the budget does not
+ * allow to expand stay {@link TableauGraph.Kind#UNEXPANDED}, and components the search did
+ * not finish stay undecided; the graph is then satisfiable only if a finished component
+ * proves it.
+ */
+public class TableauGraphConstruction {
+
+    private final Closure closure;
+    private final TableauNode root;
+
+    // per node, indexed by id
+    private final List<TableauNode> nodes = new ArrayList<>();
+    private final List<TableauGraph.Kind> kinds = new ArrayList<>();
+    private final List<int[]> successors = new ArrayList<>();
+    private final Map<TableauMemo.Key, Integer> ids = new HashMap<>();
+    private int[] index = new int[16];
+    private int[] lowlink = new int[16];
+    private int[] scc = new int[16];
+    private final BitSet onTarjanStack = new BitSet();
+    private final BitSet onPath = new BitSet();
+    private final BitSet satisfiable = new BitSet();
+    private final List<List<Integer>> backEdges = new ArrayList<>();
+    private long edges;
+    private TableauBudget budget = TableauBudget.UNLIMITED;
+    private TableauBudget.Meter meter;
+
+    public TableauGraphConstruction(TableauNode root) {
+        this.root = root;
+        this.closure = root.getClosure();
+    }
+
+    public TableauBudget getBudget() {
+        return budget;
+    }
+
+    /** Limits the construction; unlimited by default. The depth is that of the DFS path. */
+    public void setBudget(TableauBudget budget) {
+        this.budget = budget == null ? TableauBudget.UNLIMITED : budget;
+    }
+
+    /** The limit that cut the last {@link #build()} short, or {@code null} if the graph is complete. */
+    public TableauBudget.Reason getExhaustion() {
+        return meter == null ? null : meter.getExhaustion();
+    }
+
+    /** Wall-clock time of the last {@link #build()}. */
+    public Duration getElapsed() {
+        return meter == null ? Duration.ZERO : meter.elapsed();
+    }
+
+    public TableauGraph build() {
+        meter = budget.start();
+        int rootId = intern((BitSet) root.getLabel().clone(), (BitSet) root.getChecked().clone());
+        int counter = 0;
+        int components = 0;
+        List<Integer> tarjanStack = new ArrayList<>();
+        // DFS frames: node id and index of the next successor to visit
+        List<int[]> path = new ArrayList<>();
+
+        if (!meter.exceeded(0)) {
+            index[rootId] = counter;
+            lowlink[rootId] = counter++;
+            tarjanStack.add(rootId);
+            onTarjanStack.set(rootId);
+            onPath.set(rootId);
+            path.add(new int[] { rootId, 0 });
+        }
+
+        while (!path.isEmpty()) {
+            int[] frame = path.get(path.size() - 1);
+            int v = frame[0];
+            int[] succ = expand(v);
+            if (frame[1] < succ.length) {
+                int w = succ[frame[1]++];
+                edges++;
+                if (index[w] < 0) {
+                    if (meter.exceeded(path.size())) {
+                        // too deep: w stays unexpanded unless a shorter path reaches it
+                        if (meter.isStopped()) break;
+                        continue;
+                    }
+                    index[w] = counter;
+                    lowlink[w] = counter++;
+                    tarjanStack.add(w);
+                    onTarjanStack.set(w);
+                    onPath.set(w);
+                    path.add(new int[] { w, 0 });
+                } else {
+                    if (onPath.get(w)) backEdges.get(v).add(w);
+                    if (onTarjanStack.get(w)) lowlink[v] = Math.min(lowlink[v], index[w]);
+                }
+                continue;
+            }
+
+            path.remove(path.size() - 1);
+            onPath.clear(v);
+            if (lowlink[v] == index[v]) {
+                List<Integer> members = new ArrayList<>();
+                int w;
+                do {
+                    w = tarjanStack.remove(tarjanStack.size() - 1);
+                    onTarjanStack.clear(w);
+                    scc[w] = components;
+                    members.add(w);
+                } while (w != v);
+                decide(members, components);
+                components++;
+            }
+            if (!path.isEmpty()) {
+                int parent = path.get(path.size() - 1)[0];
+                lowlink[parent] = Math.min(lowlink[parent], lowlink[v]);
+            }
+        }
+
+        List<TableauGraph.Node> result = new ArrayList<>(nodes.size());
+        for (int id = 0; id < nodes.size(); id++) {
+            TableauNode node = nodes.get(id);
+            boolean sat = satisfiable.get(id);
+            // nodes outside of a finished component have no verdict
+            node.setIsClosed(scc[id] < 0 ? null : sat);
+            TableauGraph.Kind kind = kinds.get(id) == null ? TableauGraph.Kind.UNEXPANDED : kinds.get(id);
+            int[] succ = successors.get(id) == null ? new int[0] : successors.get(id);
+            int[] back = backEdges.get(id).stream().mapToInt(Integer::intValue).toArray();
+            result.add(new TableauGraph.Node(id, node, kind, succ, back, scc[id], sat));
+        }
+        return new TableauGraph(result, components, edges, getExhaustion());
+    }
+
+    // All successors of a finished component are decided; decide the component itself
+    private void decide(List<Integer> members, int component) {
+        boolean sat = false;
+        boolean cycle = members.size() > 1;
+        for (int m : members) {
+            if (kinds.get(m) == TableauGraph.Kind.ACCEPTING) sat = true;
+            for (int w : successors.get(m)) {
+                if (w == m) cycle = true;
+                if (scc[w] != component && satisfiable.get(w)) sat = true;
+            }
+        }
+        if (!sat && cycle) {
+            sat = fulfilsEventualities(members);
+        }
+        if (sat) {
+            for (int m : members) satisfiable.set(m);
+        }
+    }
+
+    private boolean fulfilsEventualities(List<Integer> members) {
+        for (int e = 0; e < closure.size(); e++) {
+            int target = closure.eventualityTarget(e);
+            if (target < 0) continue;
+            boolean fulfilled = false;
+            for (int m : members) {
+                if (kinds.get(m) != TableauGraph.Kind.STEP) continue;
+                BitSet label = nodes.get(m).getLabel();
+                if (!label.get(e) || label.get(target)) {
+                    fulfilled = true;
+                    break;
+                }
+            }
+            if (!fulfilled) return false;
+        }
+        return true;
+    }
+
+    private int intern(BitSet label, BitSet checked) {
+        TableauMemo.Key key = new TableauMemo.Key(label, checked);
+        Integer existing = ids.get(key);
+        if (existing != null) return existing;
+        int id = nodes.size();
+        ids.put(key, id);
+        nodes.add(new TableauNode(closure, label, checked, null));
+        kinds.add(null);
+        successors.add(null);
+        backEdges.add(new ArrayList<>());
+        if (id >= index.length) {
+            int size = index.length * 2;
+            index = Arrays.copyOf(index, size);
+            lowlink = Arrays.copyOf(lowlink, size);
+            scc = Arrays.copyOf(scc, size);
+        }
+        index[id] = -1;
+        scc[id] = -1;
+        return id;
+    }
+
+    // Successors of a node, computed once with the same rule order as buildRec
+    private int[] expand(int id) {
+        int[] known = successors.get(id);
+        if (known != null) return known;
+
+        TableauNode node = nodes.get(id);
+        BitSet label = node.getLabel();
+        BitSet checked = node.getChecked();
+        TableauGraph.Kind kind;
+        int[] succ;
+        if (node.contradiction()) {
+            kind = TableauGraph.Kind.CONTRADICTION;
+            succ = new int[0];
+        } else if (node.isPoised() && !node.containsNextOperator()) {
+            kind = TableauGraph.Kind.ACCEPTING;
+            succ = new int[0];
+        } else if (node.isPoised()) {
+            kind = TableauGraph.Kind.STEP;
+            BitSet next = new BitSet(closure.size());
+            for (int i = label.nextSetBit(0); i >= 0; i = label.nextSetBit(i + 1)) {
+                int inner = closure.nextOf(i);
+                if (inner >= 0) next.set(inner);
+            }
+            succ = new int[] { intern(next, new BitSet(closure.size())) };
+        } else {
+            kind = TableauGraph.Kind.DEAD;
+            succ = new int[0];
+            for (int i = label.nextSetBit(0); i >= 0; i = label.nextSetBit(i + 1)) {
+                if (checked.get(i)) continue;
+                Closure.Kind k = closure.kind(i);
+                if (k == Closure.Kind.GLOBALLY || k == Closure.Kind.AND || k == Closure.Kind.NEXT) {
+                    kind = TableauGraph.Kind.RULE;
+                    succ = new int[] { child(label, checked, i, closure.alpha(i)) };
+                    break;
+                }
+                if (k == Closure.Kind.OR || k == Closure.Kind.UNTIL || k == Closure.Kind.RELEASE || k == Closure.Kind.FINALLY) {
+                    kind = TableauGraph.Kind.BRANCH;
+                    int left = child(label, checked, i, closure.left(i));
+                    int right = child(label, checked, i, closure.right(i));
+                    succ = left == right ? new int[] { left } : new int[] { left, right };
+                    break;
+                }
+            }
+        }
+        kinds.set(id, kind);
+        successors.set(id, succ);
+        return succ;
+    }
+
+    private int child(BitSet label, BitSet checked, int applied, int[] added) {
+        BitSet childLabel = (BitSet) label.clone();
+        BitSet childChecked = (BitSet) checked.clone();
+        childChecked.set(applied);
+        for (int a : added) childLabel.set(a);
+        return intern(childLabel, childChecked);
+    }
+}
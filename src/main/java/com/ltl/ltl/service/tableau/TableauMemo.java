@@ -0,0 +1,87 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.ltl.ltl.model.tableau.TableauNode;
+
+/**
+ * Transposition table for {@link TableauProof}: maps the canonical label of a node (its
+ * formula set plus the checked flags) to the verdict of the search below it.
+ * <p>
+ * Only results that do not depend on the path above the node are stored. Every entry keeps
+ * the labels of the loop-checking nodes of its subtree ("probes"); the entry may be reused
+ * for a node none of whose ancestors carries one of these labels, because then every loop
+ * check below it finds the same ancestors as before. Entries without probes (definite
+ * contradictions, SAT leaves without Next) are valid everywhere.
+ * <p>
+ * The table is bounded and evicts the least recently used entry. Labels are ids over one
+ * {@link com.ltl.ltl.model.tableau.Closure}, so a memo must not be shared between tableaux.
+ */
+public class TableauMemo {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** Snapshot of a node label; the node's own bitsets are mutated by later rule applications. */
+    public record Key(BitSet label, BitSet checked) {
+        static Key of(TableauNode node) {
+            return new Key((BitSet) node.getLabel().clone(), (BitSet) node.getChecked().clone());
+        }
+    }
+
+    /** A cached verdict and the loop-check labels it depends on. */
+    public record Entry(boolean verdict, Set<BitSet> probes) {
+    }
+
+    private final int capacity;
+    private final Map<Key, Entry> table;
+
+    public TableauMemo(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        // access order = LRU
+        this.table = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > TableauMemo.this.capacity;
+            }
+        };
+    }
+
+    public TableauMemo() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public synchronized Entry get(Key key) {
+        return table.get(key);
+    }
+
+    public synchronized void put(Key key, boolean verdict, Set<BitSet> probes) {
+        table.put(key, new Entry(verdict, probes == null ? Collections.emptySet() : Set.copyOf(probes)));
+    }
+
+    /** True if none of the ancestors on the path has one of the entry's probe labels. */
+    static boolean validAt(Entry entry, AncestorIndex path) {
+        for (BitSet probe : entry.probes()) {
+            if (path.contains(probe)) return false;
+        }
+        return true;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return table.size();
+    }
+
+    public synchronized void clear() {
+        table.clear();
+    }
+}
@@ -1,22 +1,41 @@
 package com.ltl.ltl.service.tableau;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import com.ltl.ltl.model.AtomicProposition;
-import com.ltl.ltl.model.IFormula;
-import com.ltl.ltl.model.formulas.And;
-import com.ltl.ltl.model.formulas.Finally;
-import com.ltl.ltl.model.formulas.Globally;
-import com.ltl.ltl.model.formulas.Next;
-import com.ltl.ltl.model.formulas.Or;
-import com.ltl.ltl.model.formulas.Release;
-import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.tableau.Closure;
 import com.ltl.ltl.model.tableau.TableauEntry;
 import com.ltl.ltl.model.tableau.TableauNode;
 
 public class TableauProof {
+    // loop-check labels a memo entry may depend on before it is no longer worth storing
+    private static final int MAX_PROBES = 64;
+
+    // formulas sat has a rule for
+    private static final Set<Closure.Kind> RULE_KINDS = EnumSet.of(Closure.Kind.GLOBALLY, Closure.Kind.AND,
+            Closure.Kind.NEXT, Closure.Kind.OR, Closure.Kind.UNTIL, Closure.Kind.RELEASE, Closure.Kind.FINALLY);
+
+    public static final int DEFAULT_MAX_FORK_DEPTH = 48;
+    public static final int DEFAULT_MIN_FORK_LABEL_SIZE = 2;
+
     private TableauNode root;
+    private final TableauStatistics statistics = new TableauStatistics();
+    private TableauTrace trace = TableauTrace.disabled();
+    private TableauMemo memo = new TableauMemo();
+    private ExpansionStrategy strategy = ExpansionPolicy.FIRST;
+    private TableauBudget budget = TableauBudget.UNLIMITED;
+    // budget consumption of the running (or last) search
+    private TableauBudget.Meter meter = TableauBudget.UNLIMITED.start();
+    // sequential cutoffs of the parallel search
+    private int maxForkDepth = DEFAULT_MAX_FORK_DEPTH;
+    private int minForkLabelSize = DEFAULT_MIN_FORK_LABEL_SIZE;
 
     public TableauProof(TableauNode root) {
         this.root = root;
@@ -26,190 +45,465 @@ public class TableauProof {
         return root;
     }
 
+    public TableauStatistics getStatistics() {
+        return statistics;
+    }
+
+    public TableauTrace getTrace() {
+        return trace;
+    }
+
+    /** Records rule applications, loop checks and contradictions; disabled by default. */
+    public void setTrace(TableauTrace trace) {
+        this.trace = trace == null ? TableauTrace.disabled() : trace;
+    }
+
+    public TableauMemo getMemo() {
+        return memo;
+    }
+
+    /** Transposition table for repeated labels; {@code null} switches memoization off. */
+    public void setMemo(TableauMemo memo) {
+        this.memo = memo;
+    }
+
+    public ExpansionStrategy getStrategy() {
+        return strategy;
+    }
+
+    /** Which formula each node expands next; {@link ExpansionPolicy#FIRST} by default. */
+    public void setStrategy(ExpansionStrategy strategy) {
+        this.strategy = strategy == null ? ExpansionPolicy.FIRST : strategy;
+    }
+
+    public TableauBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Limits every following search; unlimited by default. A search that runs out of budget
+     * answers false, {@link #decide} tells such an answer apart from UNSAT.
+     */
+    public void setBudget(TableauBudget budget) {
+        this.budget = budget == null ? TableauBudget.UNLIMITED : budget;
+    }
+
+    /** The limit that cut the last search short, or {@code null} if it was complete. */
+    public TableauBudget.Reason getExhaustion() {
+        return meter.getExhaustion();
+    }
+
+    /** Wall-clock time of the last search. */
+    public java.time.Duration getElapsed() {
+        return meter.elapsed();
+    }
+
+    /**
+     * Budgeted {@link #sat(TableauNode)}: SAT or UNSAT if the search finished, UNKNOWN if it
+     * ran out of nodes or time, or had to leave nodes deeper than the depth limit unexpanded
+     * without finding a satisfiable branch.
+     */
+    public TableauVerdict decide(TableauNode node) {
+        if (sat(node)) return TableauVerdict.SAT;
+        return getExhaustion() == null ? TableauVerdict.UNSAT : TableauVerdict.UNKNOWN;
+    }
+
     //sat solver via tableau 
     public boolean sat(TableauNode node) {
-        if(node.contradiction()) {
-            return false;}
-        //check if node contains an expandable formula 
-//         try {
-//     Thread.sleep(2000); // Pause for 100 milliseconds
-// } catch (InterruptedException e) {
-//     Thread.currentThread().interrupt(); // Restore the interrupted status
-//     System.err.println("Sleep was interrupted: " + e.getMessage());
-// }
-    System.out.println("Checking node: " + node.getEntries());
-    for(TableauEntry entry : node.getEntries()) {
-        System.out.println("Checking node: " + entry.getFormula());
-    }
-        
-        for(TableauEntry entry : node.getEntries()) {
-            if(entry.getFormula() instanceof Globally && !entry.isChecked()) {
-                TableauNode expandedNode = expandNodeNoBranching(node, entry);
-                 return sat(expandedNode);
-            }
-            if(entry.getFormula() instanceof And && !entry.isChecked()) {
-                TableauNode expandedNode = expandNodeNoBranching(node, entry);
-                return sat(expandedNode);
-            }
-            if(entry.getFormula() instanceof Or && !entry.isChecked()) {
-                TableauNode leftBranch = expandNodeLeftBranching(node, entry);
-                TableauNode rightBranch = expandNodeRightBranching(node, entry);
-                return sat(leftBranch) || sat(rightBranch);
-            }
-            if(entry.getFormula() instanceof Until && !entry.isChecked()) {
-                TableauNode leftBranch = expandNodeLeftBranching(node, entry);
-                TableauNode rightBranch = expandNodeRightBranching(node, entry);
-                return sat(leftBranch) || sat(rightBranch);
-            }
-            if(entry.getFormula() instanceof Release && !entry.isChecked()) {
-                TableauNode leftBranch = expandNodeLeftBranching(node, entry);
-                TableauNode rightBranch = expandNodeRightBranching(node, entry);
-                return sat(leftBranch) || sat(rightBranch);
-            }
-            if(entry.getFormula() instanceof Next && !entry.isChecked()) {
-                TableauNode expandedNode = expandNodeNoBranching(node, entry);
-                return sat(expandedNode);
+        meter = budget.start();
+        return sat(node, 0, null, null, AncestorIndex.above(node));
+    }
+
+    /**
+     * Same verdicts as {@link #sat(TableauNode)} on the common pool, see
+     * {@link #satParallel(TableauNode, ForkJoinPool)}.
+     */
+    public boolean satParallel(TableauNode node) {
+        return satParallel(node, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parallel search: the alternatives of a branching rule (|, U, R, F) are explored as
+     * fork/join tasks as long as the node is shallower than the depth cutoff and its label
+     * has at least the given number of formulas; below that the search is sequential.
+     * Every node is the disjunction of its alternatives, so the first SAT leaf anywhere
+     * decides the whole tableau and all other tasks are cancelled.
+     */
+    public boolean satParallel(TableauNode node, ForkJoinPool pool) {
+        meter = budget.start();
+        return pool.invoke(new SatTask(node, 0, new AtomicBoolean(), AncestorIndex.above(node)));
+    }
+
+    /** Sequential cutoffs of {@link #satParallel}: maximal fork depth and minimal label size. */
+    public void setParallelCutoff(int maxForkDepth, int minForkLabelSize) {
+        this.maxForkDepth = maxForkDepth;
+        this.minForkLabelSize = minForkLabelSize;
+    }
+
+    // 'parentDeps' collects what the caller's memo entry depends on (null for the root call);
+    // 'stop' is only set in parallel mode and becomes true once some leaf proved SAT;
+    // 'path' holds the ancestors of the node
+    private boolean sat(TableauNode node, int nodeDepth, Dependencies parentDeps, AtomicBoolean stop,
+            AncestorIndex path) {
+        TableauMemo.Key key = null;
+        Dependencies deps = null;
+        if (memo != null) {
+            key = TableauMemo.Key.of(node);
+            Boolean cached = lookupMemo(key, path, parentDeps);
+            if (cached != null) return cached;
+            deps = new Dependencies();
+        }
+        boolean verdict = satUncached(node, nodeDepth, deps, stop, path);
+        if (deps != null) {
+            // a cancelled subtree did not finish, so its UNSAT is not a result
+            if (verdict || stop == null || !stop.get()) {
+                storeMemo(key, verdict, deps, nodeDepth);
             }
+            if (parentDeps != null) parentDeps.merge(deps);
         }
+        return verdict;
+    }
 
-        // Poised step/loop handling
-        if (node.isPoised() && node.containsNextOperator()) {
-            // If there is a reoccurring state and next-eventualities are fulfilled → success
-            if (hasAncestorWithSameEntriesAndFulfilledNextEventualities(node)) {
-                return true;
-            }
-            // If there is a reoccurring state but next-eventualities are NOT fulfilled → fail
-            if (checkOccurrenceInPath(node)) {
-                return false;
+    private boolean satUncached(TableauNode node, int nodeDepth, Dependencies deps, AtomicBoolean stop,
+            AncestorIndex path) {
+        if (stop != null && stop.get()) return false;
+        Expansion expansion = expand(node, nodeDepth, deps, path);
+        if (expansion.isLeaf()) {
+            return expansion.verdict();
+        }
+        statistics.recordStackDepth(nodeDepth + 1);
+        TableauNode[] children = expansion.children();
+        path.enter(node, nodeDepth);
+        try {
+            if (stop != null && children.length > 1 && nodeDepth < maxForkDepth
+                    && node.getLabel().cardinality() >= minForkLabelSize) {
+                return satForked(children, nodeDepth + 1, deps, stop, path);
             }
-            // Otherwise, take the transition to the next state
-            TableauNode nextNode = nextStepNode(node);
-            if (nextNode != null) {
-                return sat(nextNode);
+            // the branches of a rule are alternatives: the node is satisfiable if one of them is
+            for (TableauNode child : children) {
+                if (sat(child, nodeDepth + 1, deps, stop, path)) return true;
             }
+            return false;
+        } finally {
+            path.exit(node);
         }
+    }
 
-        return true;
+    // Forks all alternatives but the first, searches the first one in this thread
+    private boolean satForked(TableauNode[] children, int childDepth, Dependencies deps, AtomicBoolean stop,
+            AncestorIndex path) {
+        List<SatTask> forked = new ArrayList<>();
+        for (int i = 1; i < children.length; i++) {
+            SatTask task = new SatTask(children[i], childDepth, stop, path.copy());
+            task.fork();
+            forked.add(task);
+        }
+        boolean result = sat(children[0], childDepth, deps, stop, path);
+        for (SatTask task : forked) {
+            if (result) {
+                // siblings that have not started yet are dropped, running ones see 'stop'
+                task.cancel(false);
+                continue;
+            }
+            result = task.join();
+            if (deps != null) deps.merge(task.deps);
+        }
+        if (result) stop.set(true);
+        return result;
     }
 
+    // One subtree of the parallel search with its own memo dependencies and path index
+    private final class SatTask extends RecursiveTask<Boolean> {
+        private final TableauNode node;
+        private final int nodeDepth;
+        private final AtomicBoolean stop;
+        private final AncestorIndex path;
+        private final Dependencies deps;
+
+        SatTask(TableauNode node, int nodeDepth, AtomicBoolean stop, AncestorIndex path) {
+            this.node = node;
+            this.nodeDepth = nodeDepth;
+            this.stop = stop;
+            this.path = path;
+            this.deps = memo == null ? null : new Dependencies();
+        }
 
-    public static TableauNode expandNodeNoBranching(TableauNode node, TableauEntry entry) {
-        List<TableauEntry> newEntries = new ArrayList<>(node.getEntries());
+        @Override
+        protected Boolean compute() {
+            boolean result = sat(node, nodeDepth, deps, stop, path);
+            if (result) stop.set(true);
+            return result;
+        }
+    }
 
-        // Mark the current entry as checked
-        for (TableauEntry e : node.getEntries()) {
-            if (e.getFormula().equals(entry.getFormula())) {
-                e.markChecked();
+    /**
+     * Same verdicts as {@link #sat(TableauNode)}, but the depth-first search runs on an
+     * explicit stack of backtracking frames instead of the Java call stack, so the depth of
+     * the tableau is only limited by the heap. The largest number of frames on the stack is
+     * reported as {@link TableauStatistics#getPeakStackDepth()}.
+     */
+    public boolean satIterative(TableauNode node) {
+        java.util.ArrayDeque<Frame> stack = new java.util.ArrayDeque<>();
+        AncestorIndex path = AncestorIndex.above(node);
+        meter = budget.start();
+        if (memo != null) {
+            Boolean cached = lookupMemo(TableauMemo.Key.of(node), path, null);
+            if (cached != null) return cached;
+        }
+        stack.push(newFrame(node, 0));
+        statistics.recordStackDepth(1);
+
+        while (!stack.isEmpty()) {
+            Frame top = stack.peek();
+            if (top.children == null) {
+                Expansion expansion = expand(top.node, top.depth, top.deps, path);
+                if (expansion.isLeaf()) {
+                    if (expansion.verdict()) {
+                        // a satisfiable leaf makes every node on the stack satisfiable
+                        unwindSat(stack);
+                        return true;
+                    }
+                    popUnsat(stack, path);
+                    continue;
+                }
+                top.children = expansion.children();
+                path.enter(top.node, top.depth);
+            }
+            if (top.next < top.children.length) {
+                TableauNode child = top.children[top.next++];
+                if (memo != null) {
+                    Boolean cached = lookupMemo(TableauMemo.Key.of(child), path, top.deps);
+                    if (cached != null) {
+                        if (cached) {
+                            unwindSat(stack);
+                            return true;
+                        }
+                        continue;
+                    }
+                }
+                stack.push(newFrame(child, top.depth + 1));
+                statistics.recordStackDepth(stack.size());
+            } else {
+                // all alternatives of this node failed: backtrack
+                popUnsat(stack, path);
             }
         }
+        return false;
+    }
 
-    // Handle non-branching operators
-        if (entry.getFormula() instanceof Globally globallyFormula) {
-            // Globally φ -> Add φ and X(G φ)
-            newEntries.add(new TableauEntry(globallyFormula.getFormula()));
-            newEntries.add(new TableauEntry(new Next(entry.getFormula())));
+    private Frame newFrame(TableauNode node, int nodeDepth) {
+        Frame frame = new Frame(node, nodeDepth);
+        if (memo != null) {
+            frame.key = TableauMemo.Key.of(node);
+            frame.deps = new Dependencies();
         }
+        return frame;
+    }
+
+    private void popUnsat(java.util.ArrayDeque<Frame> stack, AncestorIndex path) {
+        Frame done = stack.pop();
+        if (done.children != null) path.exit(done.node);
+        if (done.deps == null) return;
+        storeMemo(done.key, false, done.deps, done.depth);
+        if (!stack.isEmpty()) stack.peek().deps.merge(done.deps);
+    }
 
-    // Handle non-branching operators
-        if (entry.getFormula() instanceof And andFormula) {
-            // Globally φ -> Add φ and X(G φ)
-            newEntries.add(new TableauEntry(andFormula.getLeft()));
-            newEntries.add(new TableauEntry(andFormula.getRight()));
+    private void unwindSat(java.util.ArrayDeque<Frame> stack) {
+        while (!stack.isEmpty()) {
+            Frame done = stack.pop();
+            if (done.deps == null) continue;
+            storeMemo(done.key, true, done.deps, done.depth);
+            if (!stack.isEmpty()) stack.peek().deps.merge(done.deps);
         }
-    // Deduplicate entries by formula signature and prefer checked=true when merging
-    newEntries = mergeDedup(newEntries);
-    // Create and return the new node
-    TableauNode newNode = new TableauNode(newEntries);
-        node.getChildren().add(newNode);
-        newNode.setParent(node);
-        return newNode;
     }
-    
- public static TableauNode expandNodeLeftBranching(TableauNode node, TableauEntry entry) {
-        // Work on a fresh list to avoid mutating the original node list
-        List<TableauEntry> newEntries = new ArrayList<>(node.getEntries() );
 
-        // Mark the expanded entry as checked in the current node
-        for (TableauEntry e : node.getEntries()) {
-            if (e.getFormula().equals(entry.getFormula())) {
-                e.markChecked();
-                break;
-            }
+    // One DFS frame: the node and the index of the next alternative to try
+    private static final class Frame {
+        final TableauNode node;
+        final int depth;
+        TableauNode[] children;
+        int next;
+        // memo bookkeeping, null when memoization is off
+        TableauMemo.Key key;
+        Dependencies deps;
+
+        Frame(TableauNode node, int depth) {
+            this.node = node;
+            this.depth = depth;
         }
+    }
 
-        IFormula f = entry.getFormula();
+    // What the verdict of a subtree depends on outside of the subtree: the shallowest
+    // ancestor a loop check matched, and the labels of all loop-checking nodes. 'incomplete'
+    // marks subtrees the budget cut short.
+    private static final class Dependencies {
+        int minMatchDepth = Integer.MAX_VALUE;
+        Set<BitSet> probes;
+        boolean overflow;
+        boolean incomplete;
+
+        void addProbe(BitSet label) {
+            if (overflow) return;
+            if (probes == null) probes = new HashSet<>();
+            probes.add(label);
+            if (probes.size() > MAX_PROBES) overflow = true;
+        }
 
-        // Or: left branch takes the left disjunct
-        if (f instanceof Or orFormula) {
-            newEntries.add(new TableauEntry(orFormula.getLeft()));
+        void addProbes(Set<BitSet> labels) {
+            for (BitSet label : labels) addProbe(label);
         }
-        // Finally: left branch takes the inner now
-        else if (f instanceof Finally fin) {
-            newEntries.add(new TableauEntry(fin.getFormula()));
+
+        void merge(Dependencies child) {
+            minMatchDepth = Math.min(minMatchDepth, child.minMatchDepth);
+            overflow |= child.overflow;
+            incomplete |= child.incomplete;
+            if (child.probes != null) addProbes(child.probes);
         }
-        // Until: "right holds now" branch
-        else if (f instanceof Until untilFormula) {
-            newEntries.add(new TableauEntry(untilFormula.getRight()));
+    }
+
+    private Boolean lookupMemo(TableauMemo.Key key, AncestorIndex path, Dependencies parentDeps) {
+        TableauMemo.Entry entry = memo.get(key);
+        if (entry == null || !TableauMemo.validAt(entry, path)) {
+            statistics.recordMemoMiss();
+            return null;
         }
-        // Release: "both hold now" branch
-        else if (f instanceof Release releaseFormula) {
-            newEntries.add(new TableauEntry(new And(
-                releaseFormula.getLeft(),
-                releaseFormula.getRight()
-            )));
-        } 
-    // Deduplicate entries by formula signature and prefer checked=true when merging
-    newEntries = mergeDedup(newEntries);
-    TableauNode newNode = new TableauNode(newEntries);
-        node.getChildren().add(newNode);
-        newNode.setParent(node);
-        return newNode;
+        statistics.recordMemoHit();
+        trace.record(TableauTrace.Event.MEMO_HIT, statistics.getNodes(), null);
+        // loop checks inside the reused subtree still constrain the entries of the ancestors
+        if (parentDeps != null) parentDeps.addProbes(entry.probes());
+        return entry.verdict();
     }
 
-    public static TableauNode expandNodeRightBranching(TableauNode node, TableauEntry entry) {
-        // Work on a fresh list to avoid mutating the original node list
-        java.util.List<TableauEntry> newEntries = new java.util.ArrayList<>(node.getEntries());
-
-        // Mark the expanded entry as checked in the current node
-        for (TableauEntry e : node.getEntries()) {
-            if (e.getFormula().equals(entry.getFormula())) {
-                e.markChecked();
-                break;
-            }
+    // Only verdicts that no loop check above the node influenced are reusable elsewhere;
+    // an UNSAT of a subtree the budget cut short is no verdict at all
+    private void storeMemo(TableauMemo.Key key, boolean verdict, Dependencies deps, int nodeDepth) {
+        if (deps.overflow || deps.minMatchDepth < nodeDepth) return;
+        if (!verdict && deps.incomplete) return;
+        memo.put(key, verdict, deps.probes);
+    }
+
+    // Result of applying one step to a node: either a leaf verdict or the new children
+    private record Expansion(TableauNode[] children, boolean verdict) {
+        static final Expansion SAT = new Expansion(null, true);
+        static final Expansion UNSAT = new Expansion(null, false);
+
+        boolean isLeaf() {
+            return children == null;
         }
+    }
 
-        IFormula f = entry.getFormula();
+    // Applies the rule chosen by the strategy (or the next-step) to the node. Shared by the
+    // recursive and the iterative search so both explore exactly the same tableau.
+    private Expansion expand(TableauNode node, int nodeDepth, Dependencies deps, AncestorIndex path) {
+        if (meter.exceeded(nodeDepth)) {
+            // left unexpanded: not satisfiable as far as this search knows
+            if (deps != null) deps.incomplete = true;
+            return Expansion.UNSAT;
+        }
+        // nodes are numbered in visiting order, which is what the trace refers to
+        long nodeNo = statistics.recordNode();
+        if (node.contradiction()) {
+            trace.record(TableauTrace.Event.CONTRADICTION, nodeNo, null);
+            return Expansion.UNSAT;
+        }
 
-        // Or: right branch takes the right disjunct
-        if (f instanceof com.ltl.ltl.model.formulas.Or orFormula) {
-            newEntries.add(new TableauEntry(orFormula.getRight()));
+        BitSet label = node.getLabel();
+        Closure closure = node.getClosure();
+        int id = strategy.select(node, RULE_KINDS);
+        if (id >= 0) {
+            if (ExpansionPolicy.isAlpha(closure.kind(id))) {
+                statistics.recordAlphaRule();
+                trace.record(TableauTrace.Event.RULE, nodeNo, closure.formula(id));
+                TableauNode expandedNode = expandNodeNoBranching(node, id);
+                return new Expansion(new TableauNode[] { expandedNode }, false);
+            }
+            statistics.recordBranchingRule();
+            trace.record(TableauTrace.Event.BRANCH, nodeNo, closure.formula(id));
+            TableauNode leftBranch = expandNodeLeftBranching(node, id);
+            TableauNode rightBranch = expandNodeRightBranching(node, id);
+            return new Expansion(new TableauNode[] { leftBranch, rightBranch }, false);
         }
-        // Finally: right branch postpones, X(F φ)
-    else if (f instanceof com.ltl.ltl.model.formulas.Finally) {
-            newEntries.add(new TableauEntry(new com.ltl.ltl.model.formulas.Next(f)));
+
+        // Poised step/loop handling
+        if (node.isPoised() && node.containsNextOperator()) {
+            List<AncestorIndex.Ancestor> matches = path.loopsOf(node);
+            if (deps != null) {
+                deps.addProbe(label);
+                if (!matches.isEmpty()) {
+                    deps.minMatchDepth = Math.min(deps.minMatchDepth, matches.get(0).depth());
+                }
+            }
+            // If there is a reoccurring state and next-eventualities are fulfilled → success
+            if (path.anyLoopFulfilled(node, matches)) {
+                trace.record(TableauTrace.Event.LOOP_FULFILLED, nodeNo, null);
+                return Expansion.SAT;
+            }
+            // If there is a reoccurring state but next-eventualities are NOT fulfilled → fail
+            if (!matches.isEmpty()) {
+                trace.record(TableauTrace.Event.LOOP_UNFULFILLED, nodeNo, null);
+                return Expansion.UNSAT;
+            }
+            // Otherwise, take the transition to the next state
+            statistics.recordNextStep();
+            trace.record(TableauTrace.Event.NEXT_STEP, nodeNo, null);
+            TableauNode nextNode = nextStepNode(node);
+            return new Expansion(new TableauNode[] { nextNode }, false);
         }
-        // Until: "left holds and postpone" branch
-        else if (f instanceof com.ltl.ltl.model.formulas.Until untilFormula) {
-            newEntries.add(new TableauEntry(new com.ltl.ltl.model.formulas.And(
-                untilFormula.getLeft(),
-                new com.ltl.ltl.model.formulas.Next(f) // X(φ U ψ)
-            )));
+
+        return Expansion.SAT;
+    }
+
+    public static TableauNode expandNodeNoBranching(TableauNode node, TableauEntry entry) {
+        TableauNode child = expandNodeNoBranching(node, node.getClosure().idOf(entry.getFormula()));
+        entry.markChecked();
+        return child;
+    }
+
+    public static TableauNode expandNodeLeftBranching(TableauNode node, TableauEntry entry) {
+        TableauNode child = expandNodeLeftBranching(node, node.getClosure().idOf(entry.getFormula()));
+        entry.markChecked();
+        return child;
+    }
+
+    public static TableauNode expandNodeRightBranching(TableauNode node, TableauEntry entry) {
+        TableauNode child = expandNodeRightBranching(node, node.getClosure().idOf(entry.getFormula()));
+        entry.markChecked();
+        return child;
+    }
+
+    // Non-branching rules: G φ adds φ and X(G φ), φ & ψ adds φ and ψ, X φ is only marked checked
+    public static TableauNode expandNodeNoBranching(TableauNode node, int id) {
+        node.markChecked(id);
+        return addChild(node, node.getClosure().alpha(id));
+    }
+
+    // Left branches: φ | ψ -> φ, F φ -> φ, φ U ψ -> ψ, φ R ψ -> φ & ψ
+    public static TableauNode expandNodeLeftBranching(TableauNode node, int id) {
+        node.markChecked(id);
+        return addChild(node, node.getClosure().left(id));
+    }
+
+    // Right branches: φ | ψ -> ψ, F φ -> X(F φ), φ U ψ -> φ & X(φ U ψ), φ R ψ -> ψ & X(φ R ψ)
+    public static TableauNode expandNodeRightBranching(TableauNode node, int id) {
+        node.markChecked(id);
+        return addChild(node, node.getClosure().right(id));
+    }
+
+    // Copies the parent's label (including the checked flags) and adds the rule's formulas.
+    // Formulas already present keep their checked flag, which is what the old list-based
+    // dedup did when merging duplicates.
+    private static TableauNode addChild(TableauNode node, int[] added) {
+        BitSet label = (BitSet) node.getLabel().clone();
+        BitSet checked = (BitSet) node.getChecked().clone();
+        for (int id : added) {
+            label.set(id);
         }
-        // Release: "right holds and postpone" branch
-        else if (f instanceof com.ltl.ltl.model.formulas.Release releaseFormula) {
-            newEntries.add(new TableauEntry(new com.ltl.ltl.model.formulas.And(
-                releaseFormula.getRight(),
-                new com.ltl.ltl.model.formulas.Next(f) // X(φ R ψ)
-            )));
-        } 
-    // Deduplicate entries by formula signature and prefer checked=true when merging
-    newEntries = mergeDedup(newEntries);
-    TableauNode newNode = new TableauNode(newEntries);
+        TableauNode newNode = new TableauNode(node.getClosure(), label, checked, node);
         node.getChildren().add(newNode);
-        newNode.setParent(node);
         return newNode;
     }
-public static boolean checkOccurrenceInPath(TableauNode node) {
+
+    public static boolean checkOccurrenceInPath(TableauNode node) {
         // Iterative walk up the parent chain to avoid deep recursion/StackOverflow
         if (node == null) return false;
         TableauNode cur = node.getParent();
@@ -222,89 +516,46 @@ public static boolean checkOccurrenceInPath(TableauNode node) {
         return false;
     }
 
-// Multiset equality of entry formulas by string signature (order-insensitive)
-private static boolean haveSameEntries(TableauNode a, TableauNode b) {
-    java.util.Map<String, Integer> freq = new java.util.HashMap<>();
-    for (TableauEntry e : a.getEntries()) {
-        String s = sig(e.getFormula());
-        // use Integer::sum (BiFunction) to increment
-        freq.merge(s, 1, Integer::sum);
-    }
-    for (TableauEntry e : b.getEntries()) {
-        String s = sig(e.getFormula());
-        Integer c = freq.get(s);
-        if (c == null) return false;
-        if (c == 1) {
-            freq.remove(s);
-        } else {
-            freq.put(s, c - 1);
-        }
+    // Label equality: nodes of one tableau share the closure, so this is a word-wise compare
+    private static boolean haveSameEntries(TableauNode a, TableauNode b) {
+        return a.getLabel().equals(b.getLabel());
     }
-    return freq.isEmpty();
-}
-
-private static String sig(IFormula f) {
-    return (f == null) ? "<null>" : f.toString();
-}
 
-// Scan from 'node' up to and including 'ancestor' and ensure each target appears at least once
-private static boolean targetsFulfilledOnPath(TableauNode ancestor, TableauNode node, java.util.Set<IFormula> targets) {
-    java.util.Set<String> remaining = new java.util.HashSet<>();
-    for (IFormula t : targets) remaining.add(sig(t));
+    // Scan from 'node' up to and including 'ancestor' and ensure each target appears at least once
+    private static boolean targetsFulfilledOnPath(TableauNode ancestor, TableauNode node, BitSet targets) {
+        BitSet remaining = (BitSet) targets.clone();
 
-    TableauNode cur = node;
-    while (cur != null) {
-        for (TableauEntry e : cur.getEntries()) {
-            remaining.remove(sig(e.getFormula()));
+        TableauNode cur = node;
+        while (cur != null) {
+            remaining.andNot(cur.getLabel());
             if (remaining.isEmpty()) return true;
+            if (cur == ancestor) break; // processed ancestor too
+            cur = cur.getParent();      // advance exactly once
         }
-        if (cur == ancestor) break; // processed ancestor too
-        cur = cur.getParent();      // advance exactly once
+        return remaining.isEmpty();
     }
-    return remaining.isEmpty();
-}
 
-// Collect required witnesses for next-eventualities in a node:
-// - X(F φ)  → require φ on the path
-// - X(α U β) → require β on the path
-private static java.util.Set<IFormula> collectNextEventualityTargets(TableauNode n) {
-    java.util.Set<IFormula> targets = new java.util.HashSet<>();
-    for (TableauEntry e : n.getEntries()) {
-        IFormula f = e.getFormula();
-        if (f instanceof Next nxt) {
-            IFormula inner = nxt.getFormula();
-            if (inner instanceof Finally fin) {
-                targets.add(fin.getFormula());
-            } else if (inner instanceof Until un) {
-                targets.add(un.getRight());
-            }
-        }
+    // Collect required witnesses for next-eventualities in a node:
+    // - X(F φ)  → require φ on the path
+    // - X(α U β) → require β on the path
+    private static BitSet collectNextEventualityTargets(TableauNode n) {
+        return n.getClosure().eventualityTargets(n.getLabel());
     }
-    return targets;
-}
 
     public static TableauNode nextStepNode(TableauNode currentNode) {
-        // Build next-state entries:
+        // Build next-state label:
         // - drop AtomicProposition and Not(AtomicProposition)
         // - for Next(φ), add φ
-        List<TableauEntry> newEntries = new ArrayList<>();
-
-        for (TableauEntry entry : currentNode.getEntries()) {
-            IFormula f = entry.getFormula();
-
-            if (f instanceof Next n) {
-                newEntries.add(new TableauEntry(n.getFormula()));
-            } else if (f instanceof AtomicProposition) {
-            } else if (f instanceof com.ltl.ltl.model.formulas.Not notF
-                    && notF.getFormula() instanceof AtomicProposition) {
-            }
+        Closure closure = currentNode.getClosure();
+        BitSet label = currentNode.getLabel();
+        BitSet next = new BitSet(closure.size());
+        for (int id = label.nextSetBit(0); id >= 0; id = label.nextSetBit(id + 1)) {
+            int inner = closure.nextOf(id);
+            if (inner >= 0) next.set(inner);
         }
 
-    // Deduplicate entries by formula signature and prefer checked=true when merging
-    newEntries = mergeDedup(newEntries);
-    TableauNode newNode = new TableauNode(newEntries);
+        TableauNode newNode = new TableauNode(closure, next, new BitSet(closure.size()), currentNode);
         currentNode.getChildren().add(newNode);
-        newNode.setParent(currentNode);
         return newNode;
     }
 
@@ -323,7 +574,7 @@ private static java.util.Set<IFormula> collectNextEventualityTargets(TableauNode
         for (TableauNode anc = node.getParent(); anc != null; anc = anc.getParent()) {
             if (!haveSameEntries(node, anc)) continue;
 
-            java.util.Set<IFormula> targets = collectNextEventualityTargets(anc);
+            BitSet targets = collectNextEventualityTargets(anc);
             if (targets.isEmpty()) {
                 // Vacuously satisfied: same label and no pending next-eventualities
                 return true;
@@ -335,24 +586,4 @@ private static java.util.Set<IFormula> collectNextEventualityTargets(TableauNode
         }
         return false;
     }
-
-    // Note: Demo main removed to avoid unused variable warnings in strict builds.
-
-    // Merge duplicate entries (same formula string signature). If duplicates exist,
-    // prefer setting checked=true if any occurrence is checked.
-    private static List<TableauEntry> mergeDedup(List<TableauEntry> entries) {
-        java.util.Map<String, TableauEntry> map = new java.util.LinkedHashMap<>();
-        for (TableauEntry e : entries) {
-            String key = sig(e.getFormula());
-            TableauEntry existing = map.get(key);
-            if (existing == null) {
-                map.put(key, e);
-            } else {
-                if (e.isChecked()) {
-                    existing.setChecked(true);
-                }
-            }
-        }
-        return new java.util.ArrayList<>(map.values());
-    }
 }
@@ -0,0 +1,86 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Counters collected while a tableau is searched; safe to update from parallel searches. */
+public class TableauStatistics {
+    private final AtomicLong nodes = new AtomicLong();
+    private final AtomicInteger peakStackDepth = new AtomicInteger();
+    private final AtomicLong memoHits = new AtomicLong();
+    private final AtomicLong memoMisses = new AtomicLong();
+    private final AtomicLong alphaRules = new AtomicLong();
+    private final AtomicLong branchingRules = new AtomicLong();
+    private final AtomicLong nextSteps = new AtomicLong();
+
+    // returns the number of the visited node, starting at 1
+    long recordNode() {
+        return nodes.incrementAndGet();
+    }
+
+    void recordStackDepth(int depth) {
+        peakStackDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    void recordMemoHit() {
+        memoHits.incrementAndGet();
+    }
+
+    void recordMemoMiss() {
+        memoMisses.incrementAndGet();
+    }
+
+    void recordAlphaRule() {
+        alphaRules.incrementAndGet();
+    }
+
+    void recordBranchingRule() {
+        branchingRules.incrementAndGet();
+    }
+
+    void recordNextStep() {
+        nextSteps.incrementAndGet();
+    }
+
+    /** Number of tableau nodes visited. */
+    public long getNodes() {
+        return nodes.get();
+    }
+
+    /** Largest search depth reached (recursion depth or explicit stack size). */
+    public int getPeakStackDepth() {
+        return peakStackDepth.get();
+    }
+
+    /** Subtrees whose verdict was taken from the memo table. */
+    public long getMemoHits() {
+        return memoHits.get();
+    }
+
+    /** Memo lookups without a usable entry. */
+    public long getMemoMisses() {
+        return memoMisses.get();
+    }
+
+    /** Applications of non-branching rules (G, &, X). */
+    public long getAlphaRules() {
+        return alphaRules.get();
+    }
+
+    /** Applications of branching rules (|, U, R, F). */
+    public long getBranchingRules() {
+        return branchingRules.get();
+    }
+
+    /** Transitions to a next state. */
+    public long getNextSteps() {
+        return nextSteps.get();
+    }
+
+    @Override
+    public String toString() {
+        return "nodes=" + nodes + ", peakStackDepth=" + peakStackDepth
+                + ", memoHits=" + memoHits + ", memoMisses=" + memoMisses
+                + ", alphaRules=" + alphaRules + ", branchingRules=" + branchingRules + ", nextSteps=" + nextSteps;
+    }
+}
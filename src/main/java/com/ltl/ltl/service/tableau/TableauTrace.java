@@ -0,0 +1,126 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ltl.ltl.model.IFormula;
+
+/**
+ * Structured event recorder for tableau searches.
+ * <p>
+ * Disabled by default: {@link #disabled()} returns a shared recorder whose {@code record}
+ * call is a single field check, with no allocation. An enabled recorder keeps the last
+ * {@code capacity} events in a preallocated ring buffer; older events are overwritten and
+ * counted as dropped.
+ */
+public class TableauTrace {
+
+    public enum Event {
+        /** non-branching rule (G, &, X) applied to the formula */
+        RULE,
+        /** branching rule (|, U, R, F) applied to the formula */
+        BRANCH,
+        /** transition to the next state */
+        NEXT_STEP,
+        /** reoccurring state with fulfilled eventualities (accepting loop) */
+        LOOP_FULFILLED,
+        /** reoccurring state with an unfulfilled eventuality (rejecting loop) */
+        LOOP_UNFULFILLED,
+        /** an atom and its negation in the same node */
+        CONTRADICTION,
+        /** verdict taken from the memo table; refers to the last expanded node */
+        MEMO_HIT
+    }
+
+    /** One recorded event; {@code formula} is null for events without a formula. */
+    public record TraceEvent(long sequence, Event event, long node, IFormula formula) {
+        @Override
+        public String toString() {
+            return sequence + " node=" + node + " " + event + (formula == null ? "" : " " + formula);
+        }
+    }
+
+    private static final TableauTrace DISABLED = new TableauTrace();
+
+    private final boolean enabled;
+    private final Event[] events;
+    private final long[] nodes;
+    private final IFormula[] formulas;
+    // total number of events recorded so far; the next slot is written at count % capacity
+    private long count;
+
+    private TableauTrace() {
+        this.enabled = false;
+        this.events = null;
+        this.nodes = null;
+        this.formulas = null;
+    }
+
+    private TableauTrace(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.enabled = true;
+        this.events = new Event[capacity];
+        this.nodes = new long[capacity];
+        this.formulas = new IFormula[capacity];
+    }
+
+    /** The shared no-op recorder. */
+    public static TableauTrace disabled() {
+        return DISABLED;
+    }
+
+    /** A recorder that keeps the last {@code capacity} events. */
+    public static TableauTrace ringBuffer(int capacity) {
+        return new TableauTrace(capacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(Event event, long node, IFormula formula) {
+        if (!enabled) return;
+        synchronized (this) {
+            int slot = (int) (count % events.length);
+            events[slot] = event;
+            nodes[slot] = node;
+            formulas[slot] = formula;
+            count++;
+        }
+    }
+
+    /** Total number of events recorded, including overwritten ones. */
+    public synchronized long getRecorded() {
+        return count;
+    }
+
+    /** Number of events that were overwritten because the buffer was full. */
+    public synchronized long getDropped() {
+        return enabled ? Math.max(0, count - events.length) : 0;
+    }
+
+    /** The retained events, oldest first. */
+    public synchronized List<TraceEvent> getEvents() {
+        List<TraceEvent> result = new ArrayList<>();
+        if (!enabled) return result;
+        long first = Math.max(0, count - events.length);
+        for (long seq = first; seq < count; seq++) {
+            int slot = (int) (seq % events.length);
+            result.add(new TraceEvent(seq, events[slot], nodes[slot], formulas[slot]));
+        }
+        return result;
+    }
+
+    /** Plain-text dump, one event per line. */
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# tableau trace: ").append(getRecorded()).append(" events, ")
+                .append(getDropped()).append(" dropped\n");
+        for (TraceEvent e : getEvents()) {
+            sb.append(e).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -1,34 +1,94 @@
 package com.ltl.ltl.service.tableau;
-import com.ltl.ltl.model.IFormula;
-import com.ltl.ltl.model.formulas.And;
-import com.ltl.ltl.model.formulas.Finally;
-import com.ltl.ltl.model.formulas.Globally;
-import com.ltl.ltl.model.formulas.Next;
-import com.ltl.ltl.model.formulas.Or;
-import com.ltl.ltl.model.formulas.Release;
-import com.ltl.ltl.model.formulas.Until;
-import com.ltl.ltl.model.tableau.TableauEntry;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.ltl.ltl.model.tableau.Closure;
 import com.ltl.ltl.model.tableau.TableauNode;
 public class TableauTreeConstruction {
 
     private TableauNode root;
+    // formulas buildRec has a rule for
+    private static final Set<Closure.Kind> RULE_KINDS = EnumSet.of(Closure.Kind.GLOBALLY, Closure.Kind.AND,
+            Closure.Kind.NEXT, Closure.Kind.OR, Closure.Kind.UNTIL, Closure.Kind.RELEASE, Closure.Kind.FINALLY);
 
-    
+    private TableauTrace trace = TableauTrace.disabled();
+    private ExpansionStrategy strategy = ExpansionPolicy.FIRST;
+    private final TableauStatistics statistics = new TableauStatistics();
+    private TableauBudget budget = TableauBudget.UNLIMITED;
+    private TableauBudget.Meter meter;
+    // labels of the ancestors of the node being built
+    private AncestorIndex path;
 
     public TableauTreeConstruction(TableauNode root) {
         this.root = root;
     }
 
+    /** Records rule applications, loop checks and contradictions; disabled by default. */
+    public void setTrace(TableauTrace trace) {
+        this.trace = trace == null ? TableauTrace.disabled() : trace;
+    }
+
+    public TableauTrace getTrace() {
+        return trace;
+    }
+
+    /** Which formula each node expands next; {@link ExpansionPolicy#FIRST} by default. */
+    public void setStrategy(ExpansionStrategy strategy) {
+        this.strategy = strategy == null ? ExpansionPolicy.FIRST : strategy;
+    }
+
+    public ExpansionStrategy getStrategy() {
+        return strategy;
+    }
+
+    public TableauStatistics getStatistics() {
+        return statistics;
+    }
+
+    public TableauBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Limits the construction; unlimited by default. Nodes the budget does not allow to expand
+     * stay leaves without a verdict ({@code isClosed == null}).
+     */
+    public void setBudget(TableauBudget budget) {
+        this.budget = budget == null ? TableauBudget.UNLIMITED : budget;
+    }
+
+    /** The limit that cut the last {@link #build()} short, or {@code null} if the tree is complete. */
+    public TableauBudget.Reason getExhaustion() {
+        return meter == null ? null : meter.getExhaustion();
+    }
+
+    /** Wall-clock time of the last {@link #build()}. */
+    public java.time.Duration getElapsed() {
+        return meter == null ? java.time.Duration.ZERO : meter.elapsed();
+    }
+
     public TableauNode build() {
-        buildRec(root);
+        meter = budget.start();
+        path = AncestorIndex.above(root);
+        buildRec(root, 0);
         return root;
     }
 
-    private void buildRec(TableauNode node) {
+    private void buildRec(TableauNode node, int depth) {
         if (node == null) return;
+        if (meter.exceeded(depth)) {
+            // partial tree: the node stays an undecided leaf
+            node.setIsClosed(null);
+            return;
+        }
+        // trace events refer to nodes by their visiting number
+        long nodeNo = statistics.recordNode();
+        statistics.recordStackDepth(depth + 1);
 
         // Stop if contradiction at node
         if (node.contradiction()) {
+            trace.record(TableauTrace.Event.CONTRADICTION, nodeNo, null);
             node.setIsClosed(false);
             return;
         }
@@ -41,15 +101,20 @@ public class TableauTreeConstruction {
 
         // If poised and has nexts, handle loop and next-step
         if (node.isPoised() && node.containsNextOperator()) {
-            if (TableauProof.hasAncestorWithSameEntriesAndFulfilledNextEventualities(node)) {
+            List<AncestorIndex.Ancestor> matches = path.loopsOf(node);
+            if (path.anyLoopFulfilled(node, matches)) {
+                trace.record(TableauTrace.Event.LOOP_FULFILLED, nodeNo, null);
                 node.setIsClosed(true);
                 return;
             }
-            if (TableauProof.checkOccurrenceInPath(node)) {
+            if (!matches.isEmpty()) {
                 // Loop without fulfilled eventualities: non-closing (rejecting)
+                trace.record(TableauTrace.Event.LOOP_UNFULFILLED, nodeNo, null);
                 node.setIsClosed(false);
                 return;
             }
+            statistics.recordNextStep();
+            trace.record(TableauTrace.Event.NEXT_STEP, nodeNo, null);
             TableauNode next = TableauProof.nextStepNode(node);
             if (next == null) {
                 // Non-closing: cannot advance to next state
@@ -57,39 +122,39 @@ public class TableauTreeConstruction {
                 return;
             }
             // nextStepNode already links child; recurse and mark parent as undecided
-            buildRec(next);
+            descend(node, depth, next);
             node.setIsClosed(null);
             return;
         }
 
-        // Expand first unchecked formula similar to TableauProof.sat
-        for (TableauEntry entry : node.getEntries()) {
-            IFormula f = entry.getFormula();
-            if (f == null || entry.isChecked()) continue;
-
-            if ((f instanceof Globally || f instanceof And || f instanceof Next) && !entry.isChecked()) {
-                TableauNode expanded = TableauProof.expandNodeNoBranching(node, entry);
+        // Expand the formula chosen by the strategy, similar to TableauProof.sat
+        Closure closure = node.getClosure();
+        int id = strategy.select(node, RULE_KINDS);
+        if (id >= 0) {
+            if (ExpansionPolicy.isAlpha(closure.kind(id))) {
+                statistics.recordAlphaRule();
+                trace.record(TableauTrace.Event.RULE, nodeNo, closure.formula(id));
+                TableauNode expanded = TableauProof.expandNodeNoBranching(node, id);
                 // expandNodeNoBranching already links the child; recurse and mark parent as undecided
-                buildRec(expanded);
-                node.setIsClosed(null);
-                return;
-            }
-            if ((f instanceof Or || f instanceof Until || f instanceof Release || f instanceof Finally) && !entry.isChecked()) {
-                TableauNode left = TableauProof.expandNodeLeftBranching(node, entry);
-                TableauNode right = TableauProof.expandNodeRightBranching(node, entry);
-                // Recurse into both children to fully materialize the tableau rule
-                buildRec(left);
-                buildRec(right);
-                // Parent node has children: keep parent as undecided for visualization
+                descend(node, depth, expanded);
                 node.setIsClosed(null);
                 return;
             }
+            statistics.recordBranchingRule();
+            trace.record(TableauTrace.Event.BRANCH, nodeNo, closure.formula(id));
+            TableauNode left = TableauProof.expandNodeLeftBranching(node, id);
+            TableauNode right = TableauProof.expandNodeRightBranching(node, id);
+            // Recurse into both children to fully materialize the tableau rule
+            descend(node, depth, left, right);
+            // Parent node has children: keep parent as undecided for visualization
+            node.setIsClosed(null);
+            return;
         }
 
         // No more successors from this node; true if accepting, false if dead-end (non-closing), else null only for ambiguous branch aggregation
         Boolean accepted = node.getIsClosed();
         if (accepted == null) {
-            if (TableauProof.hasAncestorWithSameEntriesAndFulfilledNextEventualities(node)) {
+            if (path.anyLoopFulfilled(node, path.loopsOf(node))) {
                 node.setIsClosed(true);
             } else {
                 node.setIsClosed(false);
@@ -97,4 +162,15 @@ public class TableauTreeConstruction {
         }
     }
 
+    // Builds the children with 'node' on the ancestor path
+    private void descend(TableauNode node, int depth, TableauNode... children) {
+        path.enter(node, depth);
+        try {
+            for (TableauNode child : children) {
+                buildRec(child, depth + 1);
+            }
+        } finally {
+            path.exit(node);
+        }
+    }
 }
@@ -0,0 +1,8 @@
+package com.ltl.ltl.service.tableau;
+
+/** Outcome of a budgeted satisfiability check, see {@link TableauProof#decide}. */
+public enum TableauVerdict {
+    SAT, UNSAT,
+    /** The budget ran out before the search could decide. */
+    UNKNOWN
+}
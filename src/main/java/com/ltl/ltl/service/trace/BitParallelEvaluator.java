@@ -0,0 +1,149 @@
+package com.ltl.ltl.service.trace;
+
+import com.ltl.ltl.model.IFormula;
+
+/**
+ * Evaluates a formula on a finite trace 64 steps at a time. Every subformula gets a bit
+ * column like the symbols of {@link TraceColumns}, computed from the columns of its operands
+ * with whole-word operations: {@code &} and {@code |} for the boolean operators, a shift by
+ * one step for the next operators, and for until and release a loop over the words from the
+ * last to the first that carries the value at the first step of a word into the word before.
+ * <p>
+ * Inside a word {@code φ U ψ} holds at the steps from which a run of {@code φ} steps reaches
+ * a {@code ψ} step. Those are found in six shift-and-mask rounds, each one doubling the
+ * length of the runs it has looked at, as in a parallel prefix adder. Release, eventually
+ * and always reduce to until over complemented columns.
+ * <p>
+ * The semantics is that of {@link TraceChecker}. A trace may also be evaluated as one
+ * segment of a longer trace, given the values of all subformulas at the step right after the
+ * segment; that way a trace is evaluated in segments from its end to its start.
+ */
+public final class BitParallelEvaluator {
+
+    private final Subformulas subformulas;
+    private final Subformulas.Op[] ops;
+    private final int[] left;
+    private final int[] right;
+
+    public BitParallelEvaluator(IFormula formula) {
+        this(Subformulas.of(formula));
+    }
+
+    BitParallelEvaluator(Subformulas subformulas) {
+        this.subformulas = subformulas;
+        int size = subformulas.size();
+        this.ops = new Subformulas.Op[size];
+        this.left = new int[size];
+        this.right = new int[size];
+        for (int id = 0; id < size; id++) {
+            ops[id] = subformulas.op(id);
+            left[id] = subformulas.left(id);
+            right[id] = subformulas.right(id);
+        }
+    }
+
+    public Subformulas getSubformulas() {
+        return subformulas;
+    }
+
+    /** Whether the trace satisfies the formula. */
+    public boolean holds(TraceColumns trace) {
+        long[][] columns = evaluate(trace);
+        return (columns[subformulas.root()][0] & 1) != 0;
+    }
+
+    /** The column of every subformula, by id, on the trace that ends with its last step. */
+    public long[][] evaluate(TraceColumns trace) {
+        return evaluate(trace, null);
+    }
+
+    /**
+     * The columns of the subformulas on a segment that the steps at which the subformulas have
+     * the values {@code after} follow, or that ends the trace if {@code after} is {@code null}.
+     */
+    long[][] evaluate(TraceColumns segment, boolean[] after) {
+        int length = segment.length();
+        int words = TraceColumns.words(length);
+        // the last step of the segment is the top bit of the last word
+        int top = (length - 1) & 63;
+        long lastMask = top == 63 ? -1L : (1L << top + 1) - 1;
+        long[][] columns = new long[ops.length][];
+        for (int id = 0; id < ops.length; id++) {
+            long[] out = new long[words];
+            boolean atom = ops[id] == Subformulas.Op.ATOM || ops[id] == Subformulas.Op.NOT_ATOM;
+            long[] l = atom ? null : columns[left[id]];
+            long[] r = right[id] >= 0 ? columns[right[id]] : null;
+            switch (ops[id]) {
+                case ATOM -> System.arraycopy(segment.column(left[id]), 0, out, 0, words);
+                case NOT_ATOM -> {
+                    long[] column = segment.column(left[id]);
+                    for (int w = 0; w < words; w++) out[w] = ~column[w];
+                }
+                case AND -> {
+                    for (int w = 0; w < words; w++) out[w] = l[w] & r[w];
+                }
+                case OR -> {
+                    for (int w = 0; w < words; w++) out[w] = l[w] | r[w];
+                }
+                case NEXT -> next(l, out, top, after == null ? false : after[left[id]]);
+                case WEAK_NEXT -> next(l, out, top, after == null ? true : after[left[id]]);
+                case UNTIL -> until(l, r, false, out, top, lastMask, after == null ? false : after[id]);
+                case FINALLY -> until(null, l, false, out, top, lastMask, after == null ? false : after[id]);
+                // φ R ψ is ¬(¬φ U ¬ψ); at the end of the trace it holds
+                case RELEASE -> until(l, r, true, out, top, lastMask, after == null ? true : after[id]);
+                case GLOBALLY -> until(null, l, true, out, top, lastMask, after == null ? true : after[id]);
+            }
+            out[words - 1] &= lastMask;
+            columns[id] = out;
+        }
+        return columns;
+    }
+
+    /** The values of the subformulas at the first step, for evaluating the segment before. */
+    static boolean[] first(long[][] columns) {
+        boolean[] values = new boolean[columns.length];
+        for (int id = 0; id < columns.length; id++) {
+            values[id] = (columns[id][0] & 1) != 0;
+        }
+        return values;
+    }
+
+    // out[i] = operand[i + 1], and the boundary value at the last step
+    private static void next(long[] operand, long[] out, int top, boolean boundary) {
+        int last = out.length - 1;
+        for (int w = 0; w < last; w++) {
+            out[w] = operand[w] >>> 1 | operand[w + 1] << 63;
+        }
+        out[last] = operand[last] >>> 1;
+        if (boundary) out[last] |= 1L << top;
+    }
+
+    // out = φ U ψ, or φ R ψ = ¬(¬φ U ¬ψ) if release; a null φ is true in F ψ = true U ψ and
+    // false in G ψ = false R ψ, so it is all ones in the until either way
+    private static void until(long[] phi, long[] psi, boolean release, long[] out, int top, long lastMask,
+            boolean boundary) {
+        boolean carry = release != boundary;
+        for (int w = out.length - 1; w >= 0; w--) {
+            long mask = w == out.length - 1 ? lastMask : -1L;
+            int high = w == out.length - 1 ? top : 63;
+            long p = (phi == null ? -1L : release ? ~phi[w] : phi[w]) & mask;
+            long g = (release ? ~psi[w] : psi[w]) & mask;
+            // the step after the top of the word is the carry
+            if (carry) g |= p & 1L << high;
+            // g: the steps from which a run of φ reaches a ψ; p: runs of φ of the length looked at
+            g |= p & g >>> 1;
+            p &= p >>> 1;
+            g |= p & g >>> 2;
+            p &= p >>> 2;
+            g |= p & g >>> 4;
+            p &= p >>> 4;
+            g |= p & g >>> 8;
+            p &= p >>> 8;
+            g |= p & g >>> 16;
+            p &= p >>> 16;
+            g |= p & g >>> 32;
+            carry = (g & 1) != 0;
+            out[w] = release ? ~g : g;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.ltl.ltl.service.trace;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.FormulaFactory;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Equiv;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Impl;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.RImpl;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+
+/**
+ * The distinct subformulas of a formula in NNF, numbered so that every subformula comes
+ * after its operands. Evaluating them in id order therefore never needs a value that is not
+ * computed yet, and the formula itself is the last one.
+ * <p>
+ * The NNF is the one for finite traces. It differs from {@code Nnf} only at the next
+ * operators: on a finite trace {@code ¬X φ} is {@code WX ¬φ}, since at the last step there
+ * is no next step and {@code X φ} is false whatever {@code φ} is.
+ */
+public final class Subformulas {
+
+    public enum Op { ATOM, NOT_ATOM, AND, OR, NEXT, WEAK_NEXT, UNTIL, RELEASE, FINALLY, GLOBALLY }
+
+    private final List<IFormula> formulas = new ArrayList<>();
+    private final List<Op> ops = new ArrayList<>();
+    private final List<int[]> operands = new ArrayList<>();
+    private final Map<IFormula, Integer> ids = new HashMap<>();
+    private final long symbols;
+
+    private Subformulas(IFormula nnf) {
+        add(nnf);
+        long mask = 0;
+        for (int id = 0; id < size(); id++) {
+            if (op(id) == Op.ATOM || op(id) == Op.NOT_ATOM) mask |= 1L << symbol(id);
+        }
+        this.symbols = mask;
+    }
+
+    /** The subformulas of the formula, after converting it to NNF for finite traces. */
+    public static Subformulas of(IFormula formula) {
+        return new Subformulas(nnf(formula, false));
+    }
+
+    // the NNF of the formula, or of its negation
+    private static IFormula nnf(IFormula f, boolean negated) {
+        if (f instanceof AtomicProposition ap) {
+            return negated ? FormulaFactory.not(FormulaFactory.atom(ap.getSymbol())) : FormulaFactory.atom(ap.getSymbol());
+        }
+        if (f instanceof Not n) return nnf(n.getFormula(), !negated);
+        if (f instanceof Next x) {
+            IFormula operand = nnf(x.getFormula(), negated);
+            return negated ? FormulaFactory.weakNext(operand) : FormulaFactory.next(operand);
+        }
+        if (f instanceof WeakNext w) {
+            IFormula operand = nnf(w.getFormula(), negated);
+            return negated ? FormulaFactory.next(operand) : FormulaFactory.weakNext(operand);
+        }
+        if (f instanceof Finally fin) {
+            IFormula operand = nnf(fin.getFormula(), negated);
+            return negated ? FormulaFactory.globally(operand) : FormulaFactory.eventually(operand);
+        }
+        if (f instanceof Globally g) {
+            IFormula operand = nnf(g.getFormula(), negated);
+            return negated ? FormulaFactory.eventually(operand) : FormulaFactory.globally(operand);
+        }
+        if (f instanceof Until u) {
+            IFormula left = nnf(u.getLeft(), negated);
+            IFormula right = nnf(u.getRight(), negated);
+            return negated ? FormulaFactory.release(left, right) : FormulaFactory.until(left, right);
+        }
+        if (f instanceof Release r) {
+            IFormula left = nnf(r.getLeft(), negated);
+            IFormula right = nnf(r.getRight(), negated);
+            return negated ? FormulaFactory.until(left, right) : FormulaFactory.release(left, right);
+        }
+        if (f instanceof And a) return junction(nnf(a.getLeft(), negated), nnf(a.getRight(), negated), !negated);
+        if (f instanceof Or o) return junction(nnf(o.getLeft(), negated), nnf(o.getRight(), negated), negated);
+        if (f instanceof Impl i) { // a -> b === ¬a | b
+            return junction(nnf(i.getLeft(), !negated), nnf(i.getRight(), negated), negated);
+        }
+        if (f instanceof RImpl r) { // a <- b === a | ¬b
+            return junction(nnf(r.getLeft(), negated), nnf(r.getRight(), !negated), negated);
+        }
+        if (f instanceof Equiv e) { // a <-> b === (a & b) | (¬a & ¬b), its negation (a & ¬b) | (¬a & b)
+            IFormula both = FormulaFactory.and(nnf(e.getLeft(), false), nnf(e.getRight(), negated));
+            IFormula neither = FormulaFactory.and(nnf(e.getLeft(), true), nnf(e.getRight(), !negated));
+            return FormulaFactory.or(both, neither);
+        }
+        throw new IllegalArgumentException("Unknown formula: " + f);
+    }
+
+    private static IFormula junction(IFormula left, IFormula right, boolean conjunction) {
+        return conjunction ? FormulaFactory.and(left, right) : FormulaFactory.or(left, right);
+    }
+
+    public int size() {
+        return ops.size();
+    }
+
+    /** Id of the formula itself. */
+    public int root() {
+        return size() - 1;
+    }
+
+    public IFormula formula(int id) {
+        return formulas.get(id);
+    }
+
+    public Op op(int id) {
+        return ops.get(id);
+    }
+
+    /** The only or the left operand. */
+    public int left(int id) {
+        return operands.get(id)[0];
+    }
+
+    /** The right operand, -1 for an operator with one operand. */
+    public int right(int id) {
+        return operands.get(id)[1];
+    }
+
+    /** For ATOM and NOT_ATOM: the ordinal of the symbol. */
+    public int symbol(int id) {
+        return operands.get(id)[0];
+    }
+
+    /** Bit i set if {@code Symbol.values()[i]} occurs in the formula. */
+    public long symbols() {
+        return symbols;
+    }
+
+    private int add(IFormula f) {
+        Integer known = ids.get(f);
+        if (known != null) return known;
+        if (f instanceof AtomicProposition ap) return register(f, Op.ATOM, ordinal(ap));
+        if (f instanceof Not not && not.getFormula() instanceof AtomicProposition ap) {
+            return register(f, Op.NOT_ATOM, ordinal(ap));
+        }
+        if (f instanceof And and) return register(f, Op.AND, add(and.getLeft()), add(and.getRight()));
+        if (f instanceof Or or) return register(f, Op.OR, add(or.getLeft()), add(or.getRight()));
+        if (f instanceof Next x) return register(f, Op.NEXT, add(x.getFormula()));
+        if (f instanceof WeakNext w) return register(f, Op.WEAK_NEXT, add(w.getFormula()));
+        if (f instanceof Until u) return register(f, Op.UNTIL, add(u.getLeft()), add(u.getRight()));
+        if (f instanceof Release r) return register(f, Op.RELEASE, add(r.getLeft()), add(r.getRight()));
+        if (f instanceof Finally fin) return register(f, Op.FINALLY, add(fin.getFormula()));
+        if (f instanceof Globally g) return register(f, Op.GLOBALLY, add(g.getFormula()));
+        throw new IllegalArgumentException("Not an NNF formula: " + f);
+    }
+
+    private int register(IFormula f, Op op, int... args) {
+        int id = ops.size();
+        formulas.add(f);
+        ops.add(op);
+        operands.add(args.length == 2 ? args : new int[] { args[0], -1 });
+        ids.put(f, id);
+        return id;
+    }
+
+    private static int ordinal(AtomicProposition ap) {
+        if (ap.getSymbol() == null) throw new IllegalArgumentException("Atom without a symbol");
+        return ap.getSymbol().ordinal();
+    }
+}
@@ -0,0 +1,134 @@
+package com.ltl.ltl.service.trace;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.ltl.ltl.model.IFormula;
+
+/**
+ * Checks formulas against finite traces in log files, under the finite-trace semantics
+ * LTLf: a trace {@code s0 … s(n-1)} satisfies {@code φ} if {@code s0} does, and at the last
+ * step {@code X ψ} is false, {@code WX ψ} is true, and an until or eventually that is not
+ * fulfilled yet fails.
+ * <p>
+ * The value of a subformula at step {@code i} depends only on step {@code i} and the values
+ * of the subformulas at step {@code i + 1}. The checker therefore reads the trace backwards,
+ * see {@link TraceFormat} for the layouts, collects the steps in batches and evaluates all
+ * subformulas on a batch at once with the {@link BitParallelEvaluator}, carrying their values
+ * at the first step of a batch into the batch before it. The memory it needs depends on the
+ * formula and the batch size, not on the length of the trace.
+ */
+public final class TraceChecker {
+
+    /** The verdict on one trace file. */
+    public record TraceResult(Path file, boolean holds, long steps, Duration elapsed) {
+
+        public double stepsPerSecond() {
+            long nanos = Math.max(1, elapsed.toNanos());
+            return steps * 1e9 / nanos;
+        }
+    }
+
+    // the size of the mapped windows, large enough for a typical log in one
+    private static final int WINDOW_SIZE = 1 << 30;
+    // steps evaluated at once, 1024 words per subformula
+    private static final int BATCH_SIZE = 1 << 16;
+
+    private final BitParallelEvaluator evaluator;
+    private final int windowSize;
+    private final int batchSize;
+
+    public TraceChecker(IFormula formula) {
+        this(formula, WINDOW_SIZE, BATCH_SIZE);
+    }
+
+    TraceChecker(IFormula formula, int windowSize, int batchSize) {
+        this.evaluator = new BitParallelEvaluator(formula);
+        this.windowSize = windowSize;
+        this.batchSize = batchSize;
+    }
+
+    /** Checks one file, in the format its extension names. */
+    public TraceResult check(Path file) throws IOException {
+        return check(file, TraceFormat.of(file));
+    }
+
+    public TraceResult check(Path file, TraceFormat format) throws IOException {
+        long started = System.nanoTime();
+        Batch batch = new Batch();
+        long steps = new TraceReader(file, format, windowSize).read(batch::add);
+        if (steps == 0) throw new IOException("Empty trace: " + file);
+        batch.evaluate();
+        boolean holds = batch.after[evaluator.getSubformulas().root()];
+        return new TraceResult(file, holds, steps, Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    /**
+     * Checks every file on up to {@code threads} threads, 0 for one per processor. The results
+     * are in the order of the files; the first file that cannot be read fails the whole call.
+     */
+    public List<TraceResult> checkAll(List<Path> files, int threads) throws IOException {
+        int workers = Math.min(files.size(), threads == 0 ? Runtime.getRuntime().availableProcessors() : threads);
+        if (workers < 1) return List.of();
+        TraceResult[] results = new TraceResult[files.size()];
+        AtomicInteger nextFile = new AtomicInteger();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        List<Thread> pool = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(() -> {
+                int index;
+                while (failure.get() == null && (index = nextFile.getAndIncrement()) < files.size()) {
+                    try {
+                        results[index] = check(files.get(index));
+                    } catch (IOException | RuntimeException ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }
+            }, "trace-" + i);
+            thread.setDaemon(true);
+            pool.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : pool) {
+                thread.join();
+            }
+        } catch (InterruptedException ex) {
+            failure.compareAndSet(null, ex);
+            Thread.currentThread().interrupt();
+        }
+        Exception error = failure.get();
+        if (error instanceof IOException io) throw io;
+        if (error instanceof RuntimeException runtime) throw runtime;
+        if (error != null) throw new IOException("Interrupted", error);
+        return Arrays.asList(results);
+    }
+
+    // the steps read since the last evaluation, filled from the end since they come last first
+    private final class Batch {
+
+        private final long[] steps = new long[batchSize];
+        private int size;
+        // the values of the subformulas at the step after the batch, null at the end of the trace
+        private boolean[] after;
+
+        void add(long valuation) {
+            steps[batchSize - 1 - size++] = valuation;
+            if (size == batchSize) evaluate();
+        }
+
+        void evaluate() {
+            if (size == 0) return;
+            TraceColumns columns = TraceColumns.of(steps, batchSize - size, size);
+            after = BitParallelEvaluator.first(evaluator.evaluate(columns, after));
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ltl.ltl.service.trace;
+
+import com.ltl.ltl.model.Symbol;
+
+/**
+ * A stretch of a trace stored by column: one bit column per symbol, with bit {@code i % 64}
+ * of word {@code i / 64} set if the symbol holds at step {@code i}. The bits past the last
+ * step are clear.
+ */
+public final class TraceColumns {
+
+    private final long[][] columns;
+    private final int length;
+
+    /** A trace of {@code length} steps in which no symbol holds yet. */
+    public TraceColumns(int length) {
+        if (length < 1) throw new IllegalArgumentException("A trace has at least one step");
+        this.length = length;
+        this.columns = new long[Symbol.values().length][words(length)];
+    }
+
+    /** The trace of the valuations, with bit i set if {@code Symbol.values()[i]} holds. */
+    public static TraceColumns of(long... valuations) {
+        return of(valuations, 0, valuations.length);
+    }
+
+    /** The trace of {@code length} valuations starting at {@code from}. */
+    public static TraceColumns of(long[] valuations, int from, int length) {
+        TraceColumns trace = new TraceColumns(length);
+        // the columns start out clear, so the bits are only ever set, without branches
+        for (int step = 0; step < length; step++) {
+            long valuation = valuations[from + step];
+            for (int s = 0; s < trace.columns.length; s++) {
+                trace.columns[s][step >>> 6] |= (valuation >>> s & 1) << step;
+            }
+        }
+        return trace;
+    }
+
+    /** Sets the symbols that hold at the step, bit i standing for {@code Symbol.values()[i]}. */
+    public void set(int step, long valuation) {
+        if (step < 0 || step >= length) throw new IndexOutOfBoundsException("Step " + step + " of " + length);
+        int word = step >>> 6;
+        long bit = 1L << step;
+        for (int s = 0; s < columns.length; s++) {
+            if ((valuation >>> s & 1) != 0) {
+                columns[s][word] |= bit;
+            } else {
+                columns[s][word] &= ~bit;
+            }
+        }
+    }
+
+    /** The symbols that hold at the step. */
+    public long get(int step) {
+        if (step < 0 || step >= length) throw new IndexOutOfBoundsException("Step " + step + " of " + length);
+        long valuation = 0;
+        for (int s = 0; s < columns.length; s++) {
+            valuation |= (columns[s][step >>> 6] >>> step & 1) << s;
+        }
+        return valuation;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /** The column of the symbol with the ordinal; the array is shared, not copied. */
+    long[] column(int symbol) {
+        return columns[symbol];
+    }
+
+    static int words(int length) {
+        return (length + 63) >>> 6;
+    }
+}
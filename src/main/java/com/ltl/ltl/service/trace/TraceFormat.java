@@ -0,0 +1,31 @@
+package com.ltl.ltl.service.trace;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * The layouts of a trace file. Either way one line is one step of the trace, and a step is
+ * the set of the symbols that hold in it.
+ * <ul>
+ * <li>{@code CSV}: a header line names the columns; the columns named like a symbol, in any
+ * case, give its value, the others are ignored.</li>
+ * <li>{@code JSONL}: one flat JSON object per line, keyed like the symbols; a symbol that is
+ * missing from a line does not hold in that step.</li>
+ * </ul>
+ * A value holds if it is {@code 1}, {@code t}, {@code true}, {@code y} or {@code yes} and does
+ * not if it is {@code 0}, {@code f}, {@code false}, {@code n}, {@code no} or empty, in any case.
+ * In JSON the literals {@code true}, {@code false} and {@code null} and numbers, which hold
+ * unless zero, are accepted too.
+ */
+public enum TraceFormat {
+    CSV,
+    JSONL;
+
+    /** The format of a file by its extension: {@code .csv}, or {@code .jsonl} and {@code .ndjson}. */
+    public static TraceFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) return CSV;
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) return JSONL;
+        throw new IllegalArgumentException("Unknown trace format: " + file.getFileName());
+    }
+}
@@ -0,0 +1,265 @@
+package com.ltl.ltl.service.trace;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.ltl.ltl.model.Symbol;
+
+// Reads the steps of a trace file from the last to the first, the order the evaluation needs
+// them in. The file is mapped in windows of at most windowSize bytes from its end backwards,
+// so a file of any size is read in one pass with no more than a window of it in memory. A
+// step comes out as a bit mask with bit i set if Symbol.values()[i] holds in it.
+final class TraceReader {
+
+    /** Receives the steps of the trace, the last one first. */
+    interface StepConsumer {
+        void accept(long valuation);
+    }
+
+    private static final int NO_SYMBOL = -1;
+
+    private final Path file;
+    private final TraceFormat format;
+    private final int windowSize;
+    // CSV: the symbol of every column, NO_SYMBOL for the others
+    private int[] columns;
+
+    TraceReader(Path file, TraceFormat format, int windowSize) {
+        if (windowSize < 2) throw new IllegalArgumentException("Window of " + windowSize + " bytes");
+        this.file = file;
+        this.format = format;
+        this.windowSize = windowSize;
+    }
+
+    /** Feeds every step to the consumer, the last one first, and returns their number. */
+    long read(StepConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long start = format == TraceFormat.CSV ? readHeader(channel) : 0;
+            long steps = 0;
+            long end = channel.size();
+            while (end > start) {
+                long windowStart = Math.max(start, end - windowSize);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, end - windowStart);
+                // lines in the window, the last first; the first may be cut off by the window
+                int lineEnd = (int) (end - windowStart);
+                for (int i = lineEnd - 1; i >= 0; i--) {
+                    if (window.get(i) != '\n') continue;
+                    steps += line(window, i + 1, lineEnd, windowStart, consumer);
+                    lineEnd = i;
+                }
+                if (windowStart == start) {
+                    steps += line(window, 0, lineEnd, windowStart, consumer);
+                    break;
+                }
+                if (lineEnd == end - windowStart) {
+                    throw new IOException("Line longer than " + windowSize + " bytes before byte " + end + " of " + file);
+                }
+                // the next window ends where the cut-off line does
+                end = windowStart + lineEnd;
+            }
+            return steps;
+        }
+    }
+
+    // the CSV header, returns where the rows start
+    private long readHeader(FileChannel channel) throws IOException {
+        long size = Math.min(channel.size(), windowSize);
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        int end = 0;
+        while (end < size && window.get(end) != '\n') end++;
+        if (end == size && size == windowSize) throw new IOException("Header longer than " + windowSize + " bytes in " + file);
+        String header = new String(bytes(window, 0, trimReturn(window, 0, end)), StandardCharsets.UTF_8);
+        if (header.isBlank()) throw new IOException("No header in " + file);
+        String[] names = header.split(",", -1);
+        columns = new int[names.length];
+        Arrays.fill(columns, NO_SYMBOL);
+        for (int c = 0; c < names.length; c++) {
+            String name = unquote(names[c].strip());
+            for (Symbol symbol : Symbol.values()) {
+                if (symbol.name().equalsIgnoreCase(name)) columns[c] = symbol.ordinal();
+            }
+        }
+        return Math.min(end + 1L, channel.size());
+    }
+
+    // one line, 1 if it is a step and 0 if it is blank
+    private int line(MappedByteBuffer window, int from, int to, long offset, StepConsumer consumer) throws IOException {
+        to = trimReturn(window, from, to);
+        from = skipBlank(window, from, to);
+        if (from == to) return 0;
+        long valuation = format == TraceFormat.CSV ? csv(window, from, to, offset) : json(window, from, to, offset);
+        consumer.accept(valuation);
+        return 1;
+    }
+
+    private long csv(MappedByteBuffer window, int from, int to, long offset) throws IOException {
+        long valuation = 0;
+        int column = 0;
+        int cell = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && window.get(i) != ',') continue;
+            if (column >= columns.length) throw error("More columns than the header has", offset + from);
+            if (columns[column] != NO_SYMBOL && truth(window, cell, i, offset)) valuation |= 1L << columns[column];
+            column++;
+            cell = i + 1;
+        }
+        if (column < columns.length) throw error("Fewer columns than the header has", offset + from);
+        return valuation;
+    }
+
+    // a flat JSON object; values of keys other than the symbols may be anything
+    private long json(MappedByteBuffer window, int from, int to, long offset) throws IOException {
+        long valuation = 0;
+        int i = skipBlank(window, from, to);
+        if (i == to || window.get(i) != '{') throw error("Expected a JSON object", offset + i);
+        i = skipBlank(window, i + 1, to);
+        if (i < to && window.get(i) == '}') return checkEnd(window, i + 1, to, offset, valuation);
+        while (true) {
+            if (i == to || window.get(i) != '"') throw error("Expected a key", offset + i);
+            int keyEnd = stringEnd(window, i, to, offset);
+            int symbol = keyEnd - i == 3 ? symbol(window.get(i + 1)) : NO_SYMBOL;
+            i = skipBlank(window, keyEnd, to);
+            if (i == to || window.get(i) != ':') throw error("Expected ':'", offset + i);
+            i = skipBlank(window, i + 1, to);
+            int valueEnd = valueEnd(window, i, to, offset);
+            if (valueEnd == i) throw error("Expected a value", offset + i);
+            if (symbol != NO_SYMBOL && jsonTruth(window, i, valueEnd, offset)) valuation |= 1L << symbol;
+            i = skipBlank(window, valueEnd, to);
+            if (i < to && window.get(i) == ',') {
+                i = skipBlank(window, i + 1, to);
+                continue;
+            }
+            if (i < to && window.get(i) == '}') return checkEnd(window, i + 1, to, offset, valuation);
+            throw error("Expected ',' or '}'", offset + i);
+        }
+    }
+
+    private long checkEnd(MappedByteBuffer window, int i, int to, long offset, long valuation) throws IOException {
+        if (skipBlank(window, i, to) != to) throw error("Text after the JSON object", offset + i);
+        return valuation;
+    }
+
+    private boolean jsonTruth(MappedByteBuffer window, int from, int to, long offset) throws IOException {
+        byte first = window.get(from);
+        if (first == '"') return truth(window, from + 1, to - 1, offset);
+        if (matches(window, from, to, "true")) return true;
+        if (matches(window, from, to, "false") || matches(window, from, to, "null")) return false;
+        if (first == '-' || first >= '0' && first <= '9') {
+            // a number holds unless all digits of its mantissa are 0
+            for (int i = from; i < to; i++) {
+                byte b = window.get(i);
+                if (b == 'e' || b == 'E') break;
+                if (b >= '1' && b <= '9') return true;
+            }
+            return false;
+        }
+        throw error("Expected a truth value", offset + from);
+    }
+
+    // end of the JSON value at from, skipping nested objects and arrays
+    private int valueEnd(MappedByteBuffer window, int from, int to, long offset) throws IOException {
+        if (from == to) throw error("Expected a value", offset + from);
+        int depth = 0;
+        int i = from;
+        while (i < to) {
+            byte b = window.get(i);
+            if (b == '"') {
+                i = stringEnd(window, i, to, offset);
+                if (depth == 0) return i;
+                continue;
+            }
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (depth == 0) return i;
+                depth--;
+                if (depth == 0) return i + 1;
+            } else if (depth == 0 && (b == ',' || b == ' ' || b == '\t')) {
+                return i;
+            }
+            i++;
+        }
+        if (depth != 0) throw error("Unterminated JSON value", offset + from);
+        return i;
+    }
+
+    // the index after the closing quote of the string at from
+    private int stringEnd(MappedByteBuffer window, int from, int to, long offset) throws IOException {
+        for (int i = from + 1; i < to; i++) {
+            byte b = window.get(i);
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                return i + 1;
+            }
+        }
+        throw error("Unterminated string", offset + from);
+    }
+
+    private boolean truth(MappedByteBuffer window, int from, int to, long offset) throws IOException {
+        from = skipBlank(window, from, to);
+        while (to > from && isBlank(window.get(to - 1))) to--;
+        if (to - from >= 2 && window.get(from) == '"' && window.get(to - 1) == '"') {
+            from++;
+            to--;
+        }
+        if (from == to) return false;
+        for (String yes : new String[] { "1", "t", "true", "y", "yes" }) {
+            if (matches(window, from, to, yes)) return true;
+        }
+        for (String no : new String[] { "0", "f", "false", "n", "no" }) {
+            if (matches(window, from, to, no)) return false;
+        }
+        throw error("Not a truth value: '" + new String(bytes(window, from, to),
+                StandardCharsets.UTF_8) + "'", offset + from);
+    }
+
+    // case-insensitive comparison with an ASCII word
+    private static boolean matches(MappedByteBuffer window, int from, int to, String word) {
+        if (to - from != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if ((window.get(from + i) | 0x20) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // the symbols are single letters
+    private static int symbol(byte key) {
+        for (Symbol symbol : Symbol.values()) {
+            if ((key | 0x20) == Character.toLowerCase(symbol.name().charAt(0))) return symbol.ordinal();
+        }
+        return NO_SYMBOL;
+    }
+
+    private static int skipBlank(MappedByteBuffer window, int from, int to) {
+        while (from < to && isBlank(window.get(from))) from++;
+        return from;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static int trimReturn(MappedByteBuffer window, int from, int to) {
+        return to > from && window.get(to - 1) == '\r' ? to - 1 : to;
+    }
+
+    private static byte[] bytes(MappedByteBuffer window, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        window.get(from, bytes);
+        return bytes;
+    }
+
+    private static String unquote(String name) {
+        return name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"") ? name.substring(1, name.length() - 1) : name;
+    }
+
+    private IOException error(String message, long position) {
+        return new IOException(message + " at byte " + position + " of " + file);
+    }
+}
@@ -0,0 +1,124 @@
+package com.ltl.ltl.service.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Lock-free set of non-negative longs: open addressing with linear probing over an
+ * {@link AtomicLongArray}, where a slot is claimed with a single compare-and-set.
+ * <p>
+ * The table starts small and doubles when it becomes half full, until it has room for the
+ * capacity it was created with. Lookups and adds run concurrently; only doubling shuts the
+ * others out, through a {@link StampedLock} that adds hold for reading and lookups read
+ * optimistically, so a lookup writes nothing shared. Entries are never removed; {@link #add}
+ * fails with {@link IllegalStateException} once the set is full, which searches report as
+ * running out of their state limit.
+ */
+public final class ConcurrentLongSet {
+
+    private static final int INITIAL_SLOTS = 1 << 10;
+
+    private final StampedLock resize = new StampedLock();
+    private final int maxSlots;
+    // slots hold key + 1, so 0 marks an empty slot
+    private volatile AtomicLongArray slots;
+    private final LongAdder size = new LongAdder();
+
+    /** A set for at least {@code capacity} keys; the table stays at most half full up to that size. */
+    public ConcurrentLongSet(int capacity) {
+        if (capacity < 1 || capacity > 1 << 28) {
+            throw new IllegalArgumentException("Capacity out of range: " + capacity);
+        }
+        this.maxSlots = Integer.highestOneBit((capacity - 1) | 1) << 2;
+        this.slots = new AtomicLongArray(Math.min(maxSlots, INITIAL_SLOTS));
+    }
+
+    /** Adds the key; true if it was not in the set before. */
+    public boolean add(long key) {
+        long stored = stored(key);
+        long stamp = resize.readLock();
+        boolean added;
+        AtomicLongArray table;
+        try {
+            table = slots;
+            added = insert(table, stored);
+        } finally {
+            resize.unlockRead(stamp);
+        }
+        if (added) {
+            size.increment();
+            if (table.length() < maxSlots && 2 * size.sum() > table.length()) grow(table);
+        }
+        return added;
+    }
+
+    public boolean contains(long key) {
+        long stored = stored(key);
+        long stamp = resize.tryOptimisticRead();
+        boolean found = find(slots, stored);
+        // a key once found stays, but a miss may be in a table that is being replaced
+        if (found || resize.validate(stamp)) return found;
+        stamp = resize.readLock();
+        try {
+            return find(slots, stored);
+        } finally {
+            resize.unlockRead(stamp);
+        }
+    }
+
+    public long size() {
+        return size.sum();
+    }
+
+    private static boolean insert(AtomicLongArray table, long stored) {
+        int mask = table.length() - 1;
+        int start = (int) LongHash.mix(stored - 1) & mask;
+        int i = start;
+        do {
+            long current = table.get(i);
+            if (current == stored) return false;
+            if (current == 0) {
+                if (table.compareAndSet(i, 0, stored)) return true;
+                // lost the race for this slot: someone may just have added the same key
+                if (table.get(i) == stored) return false;
+            }
+            i = (i + 1) & mask;
+        } while (i != start);
+        throw new IllegalStateException("Set is full");
+    }
+
+    private static boolean find(AtomicLongArray table, long stored) {
+        int mask = table.length() - 1;
+        int start = (int) LongHash.mix(stored - 1) & mask;
+        int i = start;
+        do {
+            long current = table.get(i);
+            if (current == stored) return true;
+            if (current == 0) return false;
+            i = (i + 1) & mask;
+        } while (i != start);
+        return false;
+    }
+
+    // doubles the table unless another thread has already replaced it
+    private void grow(AtomicLongArray full) {
+        long stamp = resize.writeLock();
+        try {
+            if (slots != full) return;
+            AtomicLongArray bigger = new AtomicLongArray(2 * full.length());
+            for (int i = 0; i < full.length(); i++) {
+                long stored = full.get(i);
+                if (stored != 0) insert(bigger, stored);
+            }
+            slots = bigger;
+        } finally {
+            resize.unlockWrite(stamp);
+        }
+    }
+
+    private static long stored(long key) {
+        if (key < 0) throw new IllegalArgumentException("Negative key: " + key);
+        return key + 1;
+    }
+}
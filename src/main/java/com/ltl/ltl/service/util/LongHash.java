@@ -0,0 +1,22 @@
+package com.ltl.ltl.service.util;
+
+/** Hashing of packed {@code long} states. */
+public final class LongHash {
+
+    private LongHash() {
+    }
+
+    /**
+     * The 64-bit murmur3 finalizer. Every bit of the key affects every bit of the result, so
+     * packed states that differ in a few bits still spread over a table.
+     */
+    public static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ltl.ltl.service.util;
+
+/**
+ * The states a search has seen, each with a few flag bits: an open-addressing hash table with
+ * linear probing over packed non-negative {@code long} states. Keys and flags live in two
+ * parallel primitive arrays, so a state costs nine bytes plus the free slots, and nothing is
+ * boxed. The table doubles when it becomes half full.
+ */
+public class LongStateTable {
+
+    // slots can hold at most this many keys before the table refuses to grow
+    private static final int MAX_SLOTS = 1 << 30;
+
+    // slots hold key + 1, so 0 marks an empty slot
+    private long[] keys;
+    private byte[] flags;
+    private int mask;
+    private int size;
+
+    /** A table that holds {@code expected} states before it first grows. */
+    public LongStateTable(int expected) {
+        int slots = Integer.highestOneBit(Math.max(expected, 8) - 1) << 2;
+        keys = new long[slots];
+        flags = new byte[slots];
+        mask = slots - 1;
+    }
+
+    /** Number of states in the table. */
+    public long size() {
+        return size;
+    }
+
+    /** True if the state is in the table, whatever its flags. */
+    public boolean contains(long key) {
+        return keys[slot(key)] != 0;
+    }
+
+    /** The flags of the state, 0 if it is not in the table. */
+    public int get(long key) {
+        int i = slot(key);
+        return keys[i] == 0 ? 0 : flags[i];
+    }
+
+    /** Adds the state if needed and sets the given flags; true if the state is new. */
+    public boolean set(long key, int bits) {
+        int i = slot(key);
+        if (keys[i] != 0) {
+            flags[i] |= (byte) bits;
+            return false;
+        }
+        if (2 * (size + 1) > keys.length) {
+            grow();
+            i = slot(key);
+        }
+        keys[i] = key + 1;
+        flags[i] = (byte) bits;
+        size++;
+        return true;
+    }
+
+    /** Clears the given flags of a state in the table; the state itself stays. */
+    public void clear(long key, int bits) {
+        int i = slot(key);
+        if (keys[i] != 0) flags[i] &= (byte) ~bits;
+    }
+
+    /** Takes the state out of the table; true if it was in it. */
+    public boolean remove(long key) {
+        int i = slot(key);
+        if (keys[i] == 0) return false;
+        keys[i] = 0;
+        size--;
+        // shift the following keys of the probe run back, so no key is cut off from its slot
+        for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = (int) LongHash.mix(keys[j] - 1) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                flags[i] = flags[j];
+                keys[j] = 0;
+                i = j;
+            }
+        }
+        return true;
+    }
+
+    // the slot holding the key, or the empty slot where it belongs
+    private int slot(long key) {
+        if (key < 0) throw new IllegalArgumentException("Negative key: " + key);
+        long stored = key + 1;
+        int i = (int) LongHash.mix(key) & mask;
+        while (keys[i] != 0 && keys[i] != stored) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void grow() {
+        if (keys.length >= MAX_SLOTS) throw new IllegalStateException("State table is full");
+        long[] oldKeys = keys;
+        byte[] oldFlags = flags;
+        keys = new long[2 * oldKeys.length];
+        flags = new byte[keys.length];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) continue;
+            int i = (int) LongHash.mix(oldKeys[j] - 1) & mask;
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            flags[i] = oldFlags[j];
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ltl.ltl.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.service.syntax.Nnf;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+
+class FormulaFactoryTest {
+
+    @Test
+    void sameStructureYieldsSameInstance() {
+        IFormula a = FormulaFactory.atom(Symbol.A);
+        IFormula b = FormulaFactory.atom(Symbol.B);
+        assertSame(FormulaFactory.until(a, b), FormulaFactory.until(FormulaFactory.atom(Symbol.A), b));
+        assertSame(FormulaFactory.globally(FormulaFactory.and(a, b)), FormulaFactory.globally(FormulaFactory.and(a, b)));
+    }
+
+    @Test
+    void differentStructuresAreDifferentInstances() {
+        IFormula a = FormulaFactory.atom(Symbol.A);
+        IFormula b = FormulaFactory.atom(Symbol.B);
+        assertNotSame(FormulaFactory.until(a, b), FormulaFactory.until(b, a));
+        assertNotSame(FormulaFactory.until(a, b), FormulaFactory.release(a, b));
+        assertNotEquals(FormulaFactory.and(a, b), FormulaFactory.or(a, b));
+    }
+
+    @Test
+    void internCanonicalizesTreesBuiltWithNew() {
+        IFormula built = new Globally(new And(new AtomicProposition(Symbol.A), new AtomicProposition(Symbol.C)));
+        IFormula canonical = FormulaFactory.intern(built);
+
+        assertEquals(built, canonical, "structural equality holds for non-interned nodes");
+        assertEquals(built.hashCode(), canonical.hashCode());
+        assertTrue(FormulaFactory.isCanonical(canonical));
+        assertSame(canonical, FormulaFactory.intern(canonical));
+    }
+
+    @Test
+    void parserAndNnfBuildCanonicalFormulas() throws ParseException {
+        IFormula first = parse("G(a U (b|Xc))");
+        IFormula second = parse("G((a) U (b | X c))");
+        assertSame(first, second);
+
+        IFormula nnf = new Nnf().toNnf(parse("!(a R !b)"));
+        assertSame(FormulaFactory.until(FormulaFactory.not(FormulaFactory.atom(Symbol.A)), FormulaFactory.atom(Symbol.B)), nnf);
+        assertTrue(nnf instanceof Until);
+    }
+
+    @Test
+    void sharedSubformulasAreNotMistakenForCycles() throws ParseException {
+        // the same interned atom appears on both sides of the equivalence
+        IFormula nnf = new Nnf().toNnf(parse("(a>b)=(a=b)"));
+        assertTrue(FormulaFactory.isCanonical(nnf));
+        assertTrue(!nnf.toString().contains("->") && !nnf.toString().contains("<->"));
+    }
+}
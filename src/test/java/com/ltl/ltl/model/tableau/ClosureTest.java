@@ -0,0 +1,70 @@
+package com.ltl.ltl.model.tableau;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.FormulaFactory;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.Symbol;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+
+class ClosureTest {
+
+    @Test
+    void rootFormulaGetsFirstId() throws ParseException {
+        IFormula f = parse("G(a|b)");
+        Closure closure = Closure.of(List.of(f));
+        assertEquals(0, closure.idOf(f));
+        assertEquals(Closure.Kind.GLOBALLY, closure.kind(0));
+    }
+
+    @Test
+    void closureContainsRuleResults() throws ParseException {
+        IFormula a = FormulaFactory.atom(Symbol.A);
+        IFormula b = FormulaFactory.atom(Symbol.B);
+        IFormula until = FormulaFactory.until(a, b);
+        Closure closure = Closure.of(List.of(until));
+
+        int id = closure.idOf(until);
+        assertEquals(closure.idOf(b), closure.left(id)[0]);
+        assertEquals(closure.idOf(FormulaFactory.and(a, FormulaFactory.next(until))), closure.right(id)[0]);
+
+        int next = closure.idOf(FormulaFactory.next(until));
+        assertEquals(id, closure.nextOf(next));
+        assertEquals(closure.idOf(b), closure.eventualityTarget(next));
+    }
+
+    @Test
+    void releaseAndGloballyRulesAreClosed() throws ParseException {
+        IFormula f = parse("G(a R !b)");
+        Closure closure = Closure.of(List.of(f));
+        for (int id = 0; id < closure.size(); id++) {
+            for (int[] succ : new int[][] { closure.alpha(id), closure.left(id), closure.right(id) }) {
+                for (int s : succ) {
+                    assertTrue(s >= 0 && s < closure.size());
+                }
+            }
+        }
+        assertTrue(closure.contains(FormulaFactory.next(f)));
+        assertThrows(IllegalArgumentException.class, () -> closure.idOf(FormulaFactory.atom(Symbol.C)));
+    }
+
+    @Test
+    void contradictionUsesLiteralPairs() throws ParseException {
+        Closure closure = Closure.of(List.of(parse("a & !a & b")));
+        BitSet label = new BitSet();
+        label.set(closure.idOf(FormulaFactory.atom(Symbol.A)));
+        label.set(closure.idOf(FormulaFactory.atom(Symbol.B)));
+        assertFalse(closure.contradicts(label));
+        label.set(closure.idOf(FormulaFactory.not(FormulaFactory.atom(Symbol.A))));
+        assertTrue(closure.contradicts(label));
+    }
+}
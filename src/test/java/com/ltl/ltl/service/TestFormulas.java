@@ -0,0 +1,46 @@
+package com.ltl.ltl.service;
+
+import java.util.Random;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.syntax.Lexer;
+import com.ltl.ltl.service.syntax.ParseException;
+
+/**
+ * Formulas for the tests: parsing, and random formulas over a, b and c to compare engines on.
+ * The operators to draw from are given as a string of their symbols; the unary ones apply to
+ * a random subformula, the binary ones join two.
+ */
+public final class TestFormulas {
+
+    /** G F X ! U R & |, the operators every engine takes. */
+    public static final String BASIC = "GFX!UR&|";
+    /** The basic operators and implication. */
+    public static final String WITH_IMPLICATION = "GFX!UR&>|";
+    /** Every operator of the parser: weak next, implication both ways and equivalence too. */
+    public static final String ALL = "GFXW!UR&><=|";
+
+    private static final String[] ATOMS = { "a", "b", "c", "!a", "!b" };
+    private static final String UNARY = "GFXW!";
+
+    private TestFormulas() {
+    }
+
+    public static IFormula parse(String formula) throws ParseException {
+        return new AstParser(new Lexer(formula)).parseFormula();
+    }
+
+    /** A random formula of at most the depth with the {@link #BASIC} operators. */
+    public static String randomFormula(Random rnd, int depth) {
+        return randomFormula(rnd, depth, BASIC);
+    }
+
+    /** A random formula of at most the depth with the given operators. */
+    public static String randomFormula(Random rnd, int depth, String operators) {
+        if (depth == 0 || rnd.nextInt(4) == 0) return ATOMS[rnd.nextInt(ATOMS.length)];
+        String left = randomFormula(rnd, depth - 1, operators);
+        char operator = operators.charAt(rnd.nextInt(operators.length()));
+        if (UNARY.indexOf(operator) >= 0) return operator + "(" + left + ")";
+        return "(" + left + ")" + operator + "(" + randomFormula(rnd, depth - 1, operators) + ")";
+    }
+}
@@ -0,0 +1,52 @@
+package com.ltl.ltl.service.automaton;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class CndfsEmptinessCheckTest {
+
+    private static EmptinessCheck.Result cndfs(String s, int workers) throws ParseException {
+        return new CndfsEmptinessCheck(GeneralizedBuchiAutomaton.of(parse(s)), workers).run();
+    }
+
+    @Test
+    void knownVerdicts() throws ParseException {
+        for (int workers : new int[] { 1, 4 }) {
+            for (String s : new String[] { "Ga", "GFa&GFb&G(!a|!b)", "G((a&X!a)|(!a&Xa))&GFa",
+                    "GFa&GFb&GFc&G(!a|!b)&G(!b|!c)&G(!a|!c)" }) {
+                assertEquals(EmptinessCheck.Result.NON_EMPTY, cndfs(s, workers), s);
+            }
+            for (String s : new String[] { "a&!a", "GFa&FG!a", "(aUb)&G!b", "G(a>Xb)&G(b>X!a)&GFa&G(b>a)" }) {
+                assertEquals(EmptinessCheck.Result.EMPTY, cndfs(s, workers), s);
+            }
+        }
+    }
+
+    @Test
+    void agreesWithCouvreur() throws ParseException {
+        Random rnd = new Random(13);
+        for (int i = 0; i < 300; i++) {
+            String s = randomFormula(rnd, 5);
+            EmptinessCheck.Result expected = new CouvreurEmptinessCheck(GeneralizedBuchiAutomaton.of(parse(s))).run();
+            GeneralizedBuchiAutomaton shared = GeneralizedBuchiAutomaton.of(parse(s));
+            assertEquals(expected, new CndfsEmptinessCheck(shared, 4, i).run(), s);
+        }
+    }
+
+    @Test
+    void stateLimitGivesUnknown() throws ParseException {
+        CndfsEmptinessCheck check = new CndfsEmptinessCheck(
+                GeneralizedBuchiAutomaton.of(parse("G(a>Xb)&G(b>X!a)&GFa&G(b>a)")), 2);
+        check.setLimits(1, null);
+        assertEquals(EmptinessCheck.Result.UNKNOWN, check.run());
+        assertTrue(check.getStates() >= 1);
+    }
+}
@@ -0,0 +1,131 @@
+package com.ltl.ltl.service.automaton;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.tableau.TableauEntry;
+import com.ltl.ltl.model.tableau.TableauNode;
+import com.ltl.ltl.service.syntax.ParseException;
+import com.ltl.ltl.service.tableau.TableauBudget;
+import com.ltl.ltl.service.tableau.TableauGraphConstruction;
+import com.ltl.ltl.service.tableau.TableauProof;
+import com.ltl.ltl.service.tableau.TableauVerdict;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class CouvreurEmptinessCheckTest {
+
+    private static CouvreurEmptinessCheck.Result check(String s) throws ParseException {
+        return new CouvreurEmptinessCheck(GeneralizedBuchiAutomaton.of(parse(s))).run();
+    }
+
+    @Test
+    void satisfiableFormulas() throws ParseException {
+        for (String s : new String[] { "a", "XFb", "G(a|b)&(aUc)", "G(a>X!a)&GFa", "GFa&GFb&G(!a|!b)",
+                "G((a&X!a)|(!a&Xa))&GFa", "(aRb)&!a&b", "GFa&GFb&GFc&G(!a|!b)&G(!b|!c)&G(!a|!c)" }) {
+            assertEquals(CouvreurEmptinessCheck.Result.NON_EMPTY, check(s), s);
+        }
+    }
+
+    @Test
+    void unsatisfiableFormulas() throws ParseException {
+        for (String s : new String[] { "a&!a", "G!b&XFb", "GFa&FG!a", "(aUb)&G!b", "Fa&G!a", "(aRb)&!b",
+                "G(a>Xb)&G(b>X!a)&GFa&G(b>a)" }) {
+            assertEquals(CouvreurEmptinessCheck.Result.EMPTY, check(s), s);
+        }
+    }
+
+    @Test
+    void agreesWithTheGraphTableau() throws ParseException {
+        Random rnd = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            String s = randomFormula(rnd, 5);
+            IFormula f = parse(s);
+            List<TableauEntry> entries = new ArrayList<>();
+            entries.add(new TableauEntry(f));
+            boolean expected = new TableauGraphConstruction(new TableauNode(entries)).build().isSatisfiable();
+            CouvreurEmptinessCheck.Result result = new CouvreurEmptinessCheck(GeneralizedBuchiAutomaton.of(f)).run();
+            assertEquals(expected ? CouvreurEmptinessCheck.Result.NON_EMPTY : CouvreurEmptinessCheck.Result.EMPTY,
+                    result, s);
+        }
+    }
+
+    @Test
+    void agreesWithTheTableauProof() throws ParseException {
+        for (String s : new String[] { "Fa&G!a", "F(a&!a)", "GFa&G!a", "G(b&FX!b)", "G(b&X!b)" }) {
+            TableauProof proof = proof(parse(s));
+            assertEquals(TableauVerdict.UNSAT, proof.decide(proof.getRoot()), s);
+        }
+        Random rnd = new Random(9);
+        int undecided = 0;
+        for (int i = 0; i < 300; i++) {
+            String s = randomFormula(rnd, 5);
+            IFormula f = parse(s);
+            boolean expected = new CouvreurEmptinessCheck(GeneralizedBuchiAutomaton.of(f)).run()
+                    == CouvreurEmptinessCheck.Result.NON_EMPTY;
+            TableauProof recursive = proof(f);
+            TableauVerdict verdict = recursive.decide(recursive.getRoot());
+            if (verdict == TableauVerdict.UNKNOWN) {
+                undecided++;
+                continue;
+            }
+            assertEquals(expected ? TableauVerdict.SAT : TableauVerdict.UNSAT, verdict, s);
+            TableauProof iterative = proof(f);
+            assertEquals(expected, iterative.satIterative(iterative.getRoot()), s);
+            TableauProof parallel = proof(f);
+            assertEquals(expected, parallel.satParallel(parallel.getRoot()), s);
+        }
+        // the tableau search is exponential on some formulas, the emptiness check is not
+        assertTrue(undecided < 10, undecided + " formulas undecided");
+    }
+
+    // a proof within 200 000 nodes
+    private static TableauProof proof(IFormula f) {
+        List<TableauEntry> entries = new ArrayList<>();
+        entries.add(new TableauEntry(f));
+        TableauProof proof = new TableauProof(new TableauNode(entries));
+        proof.setBudget(new TableauBudget(200_000, Integer.MAX_VALUE, null));
+        return proof;
+    }
+
+    @Test
+    void oneAcceptanceSetPerEventuality() throws ParseException {
+        GeneralizedBuchiAutomaton automaton = GeneralizedBuchiAutomaton.of(parse("GFa&(bUc)&G!b"));
+        assertEquals(2, automaton.getAcceptanceSets());
+        for (GeneralizedBuchiAutomaton.State state : automaton.initialStates()) {
+            assertEquals(0, state.positive() & state.negative(), "states are consistent");
+        }
+    }
+
+    @Test
+    void exploredStatesAreReused() throws ParseException {
+        GeneralizedBuchiAutomaton automaton = GeneralizedBuchiAutomaton.of(parse("G(a|b)&G(b|c)&GFa&GF!b"));
+        assertEquals(CouvreurEmptinessCheck.Result.NON_EMPTY, new CouvreurEmptinessCheck(automaton).run());
+        int explored = automaton.getStateCount();
+        assertTrue(explored > 0);
+
+        GeneralizedBuchiAutomaton.State first = automaton.initialStates().get(0);
+        assertSame(automaton.successors(first), automaton.successors(first));
+        new CouvreurEmptinessCheck(automaton).run();
+        assertEquals(explored, automaton.getStateCount(), "a second check explores nothing new");
+    }
+
+    @Test
+    void limitsGiveUnknown() throws ParseException {
+        CouvreurEmptinessCheck check = new CouvreurEmptinessCheck(
+                GeneralizedBuchiAutomaton.of(parse("G(a>Xb)&G(b>X!a)&GFa&G(b>a)")));
+        check.setLimits(1, null);
+        assertEquals(CouvreurEmptinessCheck.Result.UNKNOWN, check.run());
+        check.setLimits(Long.MAX_VALUE, Duration.ofMinutes(1));
+        assertEquals(CouvreurEmptinessCheck.Result.EMPTY, check.run());
+    }
+}
@@ -0,0 +1,99 @@
+package com.ltl.ltl.service.bdd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class BddTest {
+
+    @Test
+    void equalFunctionsAreTheSameNode() {
+        Bdd bdd = new Bdd(3);
+        int a = bdd.variable(0);
+        int b = bdd.variable(1);
+        // De Morgan
+        assertEquals(bdd.not(bdd.and(a, b)), bdd.or(bdd.not(a), bdd.not(b)));
+        assertEquals(Bdd.TRUE, bdd.or(a, bdd.not(a)));
+        assertEquals(Bdd.FALSE, bdd.and(a, bdd.nvariable(0)));
+        assertEquals(bdd.xor(a, b), bdd.not(bdd.biimp(a, b)));
+        assertEquals(Bdd.TRUE, bdd.imp(bdd.and(a, b), a));
+    }
+
+    @Test
+    void quantification() {
+        Bdd bdd = new Bdd(3);
+        int a = bdd.variable(0);
+        int b = bdd.variable(1);
+        int c = bdd.variable(2);
+        int f = bdd.ref(bdd.or(bdd.and(a, b), bdd.and(bdd.not(a), c)));
+        assertEquals(bdd.or(b, c), bdd.exists(f, bdd.cube(0)));
+        assertEquals(Bdd.TRUE, bdd.exists(f, bdd.cube(0, 1, 2)));
+
+        int g = bdd.ref(bdd.biimp(b, c));
+        int cube = bdd.ref(bdd.cube(1));
+        assertEquals(bdd.exists(bdd.and(f, g), cube), bdd.andExists(f, g, cube));
+    }
+
+    @Test
+    void replaceRenamesVariables() {
+        // 0, 1 current and 2, 3 next copies, interleaved as 0 2 1 3
+        Bdd bdd = new Bdd(4, new int[] { 0, 2, 1, 3 }, Integer.MAX_VALUE);
+        int f = bdd.ref(bdd.and(bdd.variable(0), bdd.not(bdd.variable(1))));
+        int primed = bdd.replace(f, bdd.renaming(new int[] { 0, 1 }, new int[] { 2, 3 }));
+        assertEquals(bdd.and(bdd.variable(2), bdd.not(bdd.variable(3))), primed);
+        assertThrows(IllegalArgumentException.class,
+                () -> bdd.renaming(new int[] { 0, 1 }, new int[] { 3, 2 }));
+    }
+
+    @Test
+    void garbageCollectionKeepsReferencedNodes() {
+        Bdd bdd = new Bdd(16);
+        int kept = bdd.ref(bdd.and(bdd.variable(0), bdd.variable(15)));
+        int size = bdd.size(kept);
+        for (int round = 0; round < 200; round++) {
+            int f = Bdd.FALSE;
+            for (int v = 0; v < 16; v++) {
+                f = bdd.xor(f, bdd.and(bdd.variable(v), bdd.variable((v + round) % 16)));
+            }
+        }
+        assertTrue(bdd.getCollections() > 0, "the loop creates enough garbage to collect");
+        assertEquals(size, bdd.size(kept));
+        assertEquals(kept, bdd.and(bdd.variable(0), bdd.variable(15)));
+    }
+
+    @Test
+    void addedVariablesGoBelowTheOthers() {
+        Bdd bdd = new Bdd(0);
+        int a = bdd.variable(bdd.addVariable());
+        int b = bdd.variable(bdd.addVariable());
+        int f = bdd.ref(bdd.and(a, bdd.not(b)));
+        int c = bdd.addVariable();
+        assertEquals(3, bdd.getVariables());
+        assertEquals(c, bdd.var(bdd.variable(c)));
+        int g = bdd.ref(bdd.or(f, bdd.variable(c)));
+        assertEquals(0, bdd.var(g));
+        assertEquals(f, bdd.and(f, a));
+        assertEquals(Bdd.TRUE, bdd.exists(g, bdd.cube(c)));
+        assertEquals(f, bdd.exists(bdd.and(g, bdd.nvariable(c)), bdd.cube(c)));
+    }
+
+    @Test
+    void nodeLimit() {
+        Bdd bdd = new Bdd(24, identity(24), 64);
+        assertThrows(Bdd.NodeLimitException.class, () -> {
+            int f = Bdd.FALSE;
+            for (int v = 0; v < 12; v++) {
+                f = bdd.ref(bdd.or(f, bdd.and(bdd.variable(v), bdd.variable(v + 12))));
+            }
+        });
+        assertNotEquals(0, bdd.getNodeCount());
+    }
+
+    private static int[] identity(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        return order;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ltl.ltl.service.bdd;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.automaton.CouvreurEmptinessCheck;
+import com.ltl.ltl.service.automaton.EmptinessCheck;
+import com.ltl.ltl.service.automaton.GeneralizedBuchiAutomaton;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class SymbolicLtlSatTest {
+
+    private static SymbolicLtlSat.Result check(String s) throws ParseException {
+        return new SymbolicLtlSat(parse(s)).run();
+    }
+
+    @Test
+    void knownVerdicts() throws ParseException {
+        for (String s : new String[] { "a", "XFb", "G(a|b)&(aUc)", "GFa&GFb&G(!a|!b)", "G((a&X!a)|(!a&Xa))&GFa",
+                "(aRb)&!a&b" }) {
+            assertEquals(SymbolicLtlSat.Result.SAT, check(s), s);
+        }
+        for (String s : new String[] { "a&!a", "G!b&XFb", "GFa&FG!a", "(aUb)&G!b", "(aRb)&!b",
+                "G(a>Xb)&G(b>X!a)&GFa&G(b>a)" }) {
+            assertEquals(SymbolicLtlSat.Result.UNSAT, check(s), s);
+        }
+    }
+
+    @Test
+    void agreesWithTheAutomatonEngine() throws ParseException {
+        Random rnd = new Random(17);
+        for (int i = 0; i < 300; i++) {
+            String s = randomFormula(rnd, 5);
+            IFormula f = parse(s);
+            boolean expected = new CouvreurEmptinessCheck(GeneralizedBuchiAutomaton.of(f)).run()
+                    == EmptinessCheck.Result.NON_EMPTY;
+            assertEquals(expected ? SymbolicLtlSat.Result.SAT : SymbolicLtlSat.Result.UNSAT,
+                    new SymbolicLtlSat(f).run(), s);
+        }
+    }
+
+    @Test
+    void nodeLimitGivesUnknown() throws ParseException {
+        SymbolicLtlSat check = new SymbolicLtlSat(parse("GFa&GFb&GFc&G(a>X(bUc))&G(b>X(cUa))"));
+        check.setLimits(16, null);
+        assertEquals(SymbolicLtlSat.Result.UNKNOWN, check.run());
+        check.setLimits(Integer.MAX_VALUE, null);
+        assertEquals(SymbolicLtlSat.Result.SAT, check.run());
+        assertTrue(check.getIterations() > 0 && check.getPeakNodes() > 2);
+    }
+}
@@ -0,0 +1,96 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class BitstateStoreTest {
+
+    @Test
+    void coloursStates() {
+        BitstateStore store = new BitstateStore(20, 3, 1);
+        assertEquals(0, store.get(42));
+        assertTrue(store.set(42, StateStore.VISITED | StateStore.CYAN));
+        assertFalse(store.set(42, StateStore.VISITED));
+        assertEquals(StateStore.VISITED | StateStore.CYAN, store.get(42));
+        store.set(42, StateStore.RED);
+        store.clear(42, StateStore.CYAN);
+        assertEquals(StateStore.VISITED | StateStore.RED, store.get(42));
+        assertEquals(1, store.size());
+
+        BitstateStore.Statistics statistics = store.getStatistics();
+        assertEquals(1 << 20, statistics.bits());
+        assertEquals(6, statistics.bitsSet());
+        assertEquals(1, statistics.coverage(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> new BitstateStore(8, 3, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BitstateStore(20, 0, 0));
+    }
+
+    @Test
+    void largeArrayAgreesWithTheExactSearch() throws ParseException {
+        Random rnd = new Random(23);
+        for (int round = 0; round < 200; round++) {
+            KripkeStructure structure = LtlModelCheckerTest.randomStructure(rnd, 6);
+            String formula = randomFormula(rnd, 4);
+            LtlModelChecker exact = new LtlModelChecker(structure, parse(formula));
+            LtlModelChecker bitstate = new LtlModelChecker(structure, parse(formula));
+            bitstate.setBitstate(20, 3);
+            assertEquals(exact.run(), bitstate.run(), formula);
+            assertEquals(exact.getStates(), bitstate.getStates(), formula);
+            assertNull(exact.getBitstateStatistics());
+            assertTrue(bitstate.getBitstateStatistics().coverage() > 0.999);
+            if (bitstate.getCounterexample() != null) {
+                LtlModelCheckerTest.assertViolatingPath(structure, formula, bitstate.getCounterexample());
+            }
+        }
+    }
+
+    // a star of self-looping leaves: a missed leaf hides no other structure state
+    private static KripkeStructure star(int leaves) {
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        int centre = builder.addState("a");
+        for (int i = 0; i < leaves; i++) {
+            int leaf = builder.addState(i % 2 == 0 ? "a" : "b");
+            builder.addTransition(centre, leaf).addTransition(leaf, leaf);
+        }
+        return builder.addInitial(centre).build();
+    }
+
+    @Test
+    void smallArrayEstimatesItsCoverage() throws ParseException {
+        KripkeStructure star = star(5_000);
+        LtlModelChecker exact = new LtlModelChecker(star, parse("XG(a|b)"));
+        assertEquals(LtlModelChecker.Result.HOLDS, exact.run());
+        LtlModelChecker checker = new LtlModelChecker(star, parse("XG(a|b)"));
+        checker.setBitstate(14, 2);
+        assertEquals(LtlModelChecker.Result.HOLDS, checker.run());
+        BitstateStore.Statistics statistics = checker.getBitstateStatistics();
+        assertNotNull(statistics);
+        double covered = (double) checker.getStates() / exact.getStates();
+        assertTrue(covered < 0.99, () -> "covered " + covered);
+        // the estimate misses the states behind a dropped one, so it errs on the high side
+        assertTrue(statistics.coverage() < 0.99);
+        assertTrue(statistics.coverage() >= covered, () -> statistics.coverage() + " < " + covered);
+        assertTrue(statistics.collisionProbability() > 0.05);
+    }
+
+    @Test
+    void counterexamplesOfASmallArrayAreReal() throws ParseException {
+        KripkeStructure star = star(5_000);
+        LtlModelChecker checker = new LtlModelChecker(star, parse("XGa"));
+        checker.setBitstate(12, 2);
+        assertEquals(LtlModelChecker.Result.VIOLATED, checker.run());
+        LtlModelCheckerTest.assertViolatingPath(star, "XGa", checker.getCounterexample());
+    }
+}
@@ -0,0 +1,182 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.AstParser;
+import com.ltl.ltl.service.syntax.Lexer;
+import com.ltl.ltl.service.syntax.ParseException;
+
+class KripkeFileTest {
+
+    @TempDir
+    Path dir;
+
+    private static KripkeStructure random(Random random, int states) {
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        String[] names = {"a", "b", "c"};
+        for (int s = 0; s < states; s++) {
+            List<String> labels = new ArrayList<>();
+            for (String name : names) {
+                if (random.nextBoolean()) labels.add(name);
+            }
+            builder.addState(labels.toArray(String[]::new));
+        }
+        builder.addInitial(0);
+        for (int s = 0; s < states; s++) {
+            int successors = random.nextInt(3);
+            for (int i = 0; i < successors; i++) builder.addTransition(s, random.nextInt(states));
+        }
+        return builder.build();
+    }
+
+    private static void assertSameStructure(KripkeStructure expected, KripkeStructure actual) {
+        assertEquals(expected.getStateCount(), actual.getStateCount());
+        assertArrayEquals(expected.getInitialStates(), actual.getInitialStates());
+        assertEquals(expected.getPropositions(), actual.getPropositions());
+        for (int s = 0; s < expected.getStateCount(); s++) {
+            assertEquals(expected.getLabels(s), actual.getLabels(s));
+            assertEquals(expected.getSuccessorCount(s), actual.getSuccessorCount(s));
+            for (int i = 0; i < expected.getSuccessorCount(s); i++) {
+                assertEquals(expected.getSuccessor(s, i), actual.getSuccessor(s, i));
+            }
+        }
+    }
+
+    @Test
+    void writtenStructureReadsBackThroughTheMapping() throws IOException {
+        Random random = new Random(17);
+        for (int round = 0; round < 20; round++) {
+            KripkeStructure structure = random(random, 1 + random.nextInt(50));
+            Path file = dir.resolve("model" + round + ".kripke");
+            KripkeFile.write(structure, file);
+            try (MappedKripkeStructure mapped = KripkeFile.open(file)) {
+                assertSameStructure(structure, mapped);
+            }
+        }
+    }
+
+    @Test
+    void convertsAnEdgeList() throws IOException {
+        Path text = dir.resolve("model.txt");
+        Files.writeString(text, String.join("\n",
+                "# a small model",
+                "states 4",
+                "init 0 2",
+                "label 0 a",
+                "label 1 a b",
+                "label 3 c",
+                "0 1",
+                "",
+                "1 2   # back",
+                "0 3",
+                "2 0"));
+        Path file = dir.resolve("model.kripke");
+        KripkeFile.convertEdgeList(text, file);
+        try (MappedKripkeStructure mapped = KripkeFile.open(file)) {
+            assertEquals(4, mapped.getStateCount());
+            assertEquals(4, mapped.getEdgeCount());
+            assertArrayEquals(new int[] {0, 2}, mapped.getInitialStates());
+            assertEquals(List.of("a", "b", "c"), mapped.getPropositions());
+            assertEquals(0b001, mapped.getLabels(0));
+            assertEquals(0b011, mapped.getLabels(1));
+            assertEquals(0, mapped.getLabels(2));
+            assertEquals(0b100, mapped.getLabels(3));
+            assertEquals(2, mapped.getSuccessorCount(0));
+            assertEquals(1, mapped.getSuccessor(0, 0));
+            assertEquals(3, mapped.getSuccessor(0, 1));
+            assertEquals(2, mapped.getSuccessor(1, 0));
+            assertEquals(0, mapped.getSuccessor(2, 0));
+            assertEquals(0, mapped.getSuccessorCount(3));
+        }
+    }
+
+    @Test
+    void rejectsBadInput() throws IOException {
+        Path text = dir.resolve("model.txt");
+        Files.writeString(text, "states 2\ninit 0\n0 5\n");
+        assertThrows(IOException.class, () -> KripkeFile.convertEdgeList(text, dir.resolve("a.kripke")));
+        Files.writeString(text, "0 1\n");
+        assertThrows(IOException.class, () -> KripkeFile.convertEdgeList(text, dir.resolve("b.kripke")));
+        Files.writeString(text, "init 0\n0 x\n");
+        assertThrows(IOException.class, () -> KripkeFile.convertEdgeList(text, dir.resolve("c.kripke")));
+
+        Path garbage = dir.resolve("garbage.kripke");
+        Files.write(garbage, ByteBuffer.allocate(KripkeFile.HEADER_BYTES).putInt(42).array());
+        assertThrows(IOException.class, () -> KripkeFile.open(garbage));
+
+        Path file = dir.resolve("truncated.kripke");
+        KripkeFile.write(random(new Random(3), 100), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> KripkeFile.open(file));
+    }
+
+    // a file of the cycle 0 -> 1 -> 2 -> 0, changed by the patch of its little-endian bytes
+    private Path patched(String name, Consumer<ByteBuffer> patch) throws IOException {
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        for (int s = 0; s < 3; s++) builder.addState("a");
+        builder.addInitial(0);
+        for (int s = 0; s < 3; s++) builder.addTransition(s, (s + 1) % 3);
+        Path file = dir.resolve(name);
+        KripkeFile.write(builder.build(), file);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        patch.accept(bytes);
+        Files.write(file, bytes.array());
+        return file;
+    }
+
+    @Test
+    void rejectsInconsistentHeadersAndSections() throws IOException {
+        // header: states at 8, propositions at 12, then initial, offsets and targets at 32, 40, 48
+        Path untouched = patched("untouched.kripke", bytes -> { });
+        try (MappedKripkeStructure mapped = KripkeFile.open(untouched)) {
+            assertEquals(3, mapped.getStateCount());
+        }
+        Path initial = patched("initial.kripke", bytes -> bytes.putInt((int) bytes.getLong(32), 3));
+        assertThrows(IOException.class, () -> KripkeFile.open(initial));
+        Path descending = patched("descending.kripke", bytes -> bytes.putLong((int) bytes.getLong(40) + 16, 0));
+        assertThrows(IOException.class, () -> KripkeFile.open(descending));
+        Path beyond = patched("beyond.kripke", bytes -> bytes.putLong((int) bytes.getLong(40) + 24, 4));
+        assertThrows(IOException.class, () -> KripkeFile.open(beyond));
+        Path target = patched("target.kripke", bytes -> bytes.putInt((int) bytes.getLong(48) + 4, -1));
+        assertThrows(IOException.class, () -> KripkeFile.open(target));
+        Path propositions = patched("propositions.kripke", bytes -> bytes.putInt(12, 65));
+        assertThrows(IOException.class, () -> KripkeFile.open(propositions));
+        Path states = patched("states.kripke", bytes -> bytes.putInt(8, 1 << 30));
+        assertThrows(IOException.class, () -> KripkeFile.open(states));
+    }
+
+    @Test
+    void modelCheckerAgreesOnTheMappedStructure() throws IOException, ParseException {
+        Random random = new Random(5);
+        String[] formulas = { "GFa", "FGb", "G(a>Fc)", "aUb", "G(b>X!b)" };
+        for (int round = 0; round < 20; round++) {
+            KripkeStructure structure = random(random, 1 + random.nextInt(30));
+            Path file = dir.resolve("model" + round + ".kripke");
+            KripkeFile.write(structure, file);
+            try (MappedKripkeStructure mapped = KripkeFile.open(file)) {
+                for (String formula : formulas) {
+                    IFormula parsed = new AstParser(new Lexer(formula)).parseFormula();
+                    assertEquals(new LtlModelChecker(structure, parsed).run(),
+                            new LtlModelChecker(mapped, parsed).run(), formula);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class LtlModelCheckerTest {
+
+    // a -> b -> c -> a
+    private static KripkeStructure cycle() {
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        int a = builder.addState("a");
+        int b = builder.addState("b");
+        int c = builder.addState("c");
+        return builder.addInitial(a).addTransition(a, b).addTransition(b, c).addTransition(c, a).build();
+    }
+
+    private static LtlModelChecker.Result check(KripkeStructure structure, String formula) throws ParseException {
+        return new LtlModelChecker(structure, parse(formula)).run();
+    }
+
+    static void assertViolatingPath(KripkeStructure structure, String formula, Counterexample counterexample)
+            throws ParseException {
+        List<Integer> states = counterexample.states();
+        assertTrue(contains(structure.getInitialStates(), states.get(0)));
+        for (int i = 0; i < states.size(); i++) {
+            int next = i + 1 < states.size() ? states.get(i + 1) : states.get(counterexample.loopStart());
+            assertTrue(isSuccessor(structure, states.get(i), next), () -> "no edge in " + counterexample);
+        }
+        assertFalse(counterexample.toLasso(structure).satisfies(parse(formula)), formula);
+    }
+
+    private static boolean isSuccessor(KripkeStructure structure, int from, int to) {
+        if (structure.getSuccessorCount(from) == 0) return from == to;
+        for (int i = 0; i < structure.getSuccessorCount(from); i++) {
+            if (structure.getSuccessor(from, i) == to) return true;
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) return true;
+        }
+        return false;
+    }
+
+    @Test
+    void checksACycle() throws ParseException {
+        KripkeStructure structure = cycle();
+        for (String holds : new String[] { "GFa", "G(a>Xb)", "a", "G(a|b|c)", "G(b>(bUc))", "aU(bU(cUa))" }) {
+            assertEquals(LtlModelChecker.Result.HOLDS, check(structure, holds), holds);
+        }
+        for (String violated : new String[] { "Ga", "FGa", "G(a>XXb)", "Fb&G!c", "b" }) {
+            LtlModelChecker checker = new LtlModelChecker(structure, parse(violated));
+            assertEquals(LtlModelChecker.Result.VIOLATED, checker.run(), violated);
+            assertViolatingPath(structure, violated, checker.getCounterexample());
+        }
+    }
+
+    @Test
+    void deadlocksStutter() throws ParseException {
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        int start = builder.addState("a");
+        int stop = builder.addState();
+        KripkeStructure structure = builder.addInitial(start).addTransition(start, stop).build();
+        assertEquals(LtlModelChecker.Result.HOLDS, check(structure, "XG!a"));
+
+        LtlModelChecker checker = new LtlModelChecker(structure, parse("GFa"));
+        assertEquals(LtlModelChecker.Result.VIOLATED, checker.run());
+        // the automaton may need a few steps before it loops, the structure stays in the deadlock
+        assertEquals(List.of(start), checker.getCounterexample().prefix().subList(0, 1));
+        assertTrue(checker.getCounterexample().cycle().stream().allMatch(s -> s == stop));
+    }
+
+    @Test
+    void agreesWithPathEnumeration() throws ParseException {
+        Random rnd = new Random(11);
+        for (int round = 0; round < 300; round++) {
+            KripkeStructure structure = randomStructure(rnd, 5);
+            String formula = randomFormula(rnd, 4);
+            LtlModelChecker checker = new LtlModelChecker(structure, parse(formula));
+            if (checker.run() == LtlModelChecker.Result.VIOLATED) {
+                assertViolatingPath(structure, formula, checker.getCounterexample());
+            } else {
+                assertNull(checker.getCounterexample());
+                List<Integer> path = new ArrayList<>(List.of(structure.getInitialStates()[0]));
+                assertFalse(someLassoViolates(structure, parse(formula), path, 7), formula);
+            }
+        }
+    }
+
+    @Test
+    void limitsGiveUnknown() throws ParseException {
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        int n = 10_000;
+        for (int i = 0; i < n; i++) builder.addState(i % 2 == 0 ? "a" : "b");
+        for (int i = 0; i < n; i++) builder.addTransition(i, (i + 1) % n);
+        KripkeStructure ring = builder.addInitial(0).build();
+
+        LtlModelChecker checker = new LtlModelChecker(ring, parse("G(a>Xb)"));
+        checker.setLimits(100, null);
+        assertEquals(LtlModelChecker.Result.UNKNOWN, checker.run());
+        assertEquals(100, checker.getStates());
+        checker.setLimits(Long.MAX_VALUE, Duration.ofMinutes(1));
+        assertEquals(LtlModelChecker.Result.HOLDS, checker.run());
+        assertTrue(checker.getStates() >= n);
+    }
+
+    @Test
+    void seededOrdersAgreeAndDepthBoundsCut() throws ParseException {
+        Random rnd = new Random(29);
+        for (int round = 0; round < 200; round++) {
+            KripkeStructure structure = randomStructure(rnd, 6);
+            String formula = randomFormula(rnd, 4);
+            LtlModelChecker plain = new LtlModelChecker(structure, parse(formula));
+            LtlModelChecker seeded = new LtlModelChecker(structure, parse(formula));
+            seeded.setSearchOrder(rnd.nextLong() | 1);
+            assertEquals(plain.run(), seeded.run(), formula);
+            if (seeded.getCounterexample() != null) assertViolatingPath(structure, formula, seeded.getCounterexample());
+        }
+
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        for (int i = 0; i < 100; i++) builder.addState("a");
+        for (int i = 0; i < 100; i++) builder.addTransition(i, (i + 1) % 100);
+        LtlModelChecker checker = new LtlModelChecker(builder.addInitial(0).build(), parse("Ga"));
+        checker.setDepthBound(10);
+        assertEquals(LtlModelChecker.Result.UNKNOWN, checker.run());
+        assertEquals(10, checker.getMaxDepth());
+        checker.setDepthBound(1_000);
+        assertEquals(LtlModelChecker.Result.HOLDS, checker.run());
+        checker.cancel();
+        assertEquals(LtlModelChecker.Result.UNKNOWN, checker.run());
+    }
+
+    // Every lasso of at most 'length' states that extends the path
+    private static boolean someLassoViolates(KripkeStructure structure, IFormula formula, List<Integer> path,
+            int length) {
+        int last = path.get(path.size() - 1);
+        int successors = structure.getSuccessorCount(last);
+        for (int e = 0; e < Math.max(1, successors); e++) {
+            int next = successors == 0 ? last : structure.getSuccessor(last, e);
+            int loopStart = path.indexOf(next);
+            if (loopStart >= 0 && !new Counterexample(path, loopStart).toLasso(structure).satisfies(formula)) {
+                return true;
+            }
+            if (path.size() < length) {
+                path.add(next);
+                if (someLassoViolates(structure, formula, path, length)) return true;
+                path.remove(path.size() - 1);
+            }
+        }
+        return false;
+    }
+
+    static KripkeStructure randomStructure(Random rnd, int states) {
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        for (int s = 0; s < states; s++) {
+            List<String> label = new ArrayList<>();
+            for (String p : new String[] { "a", "b", "c" }) {
+                if (rnd.nextBoolean()) label.add(p);
+            }
+            builder.addState(label.toArray(new String[0]));
+        }
+        for (int s = 0; s < states; s++) {
+            // some states are deadlocks
+            int edges = rnd.nextInt(3);
+            for (int e = 0; e < edges; e++) builder.addTransition(s, rnd.nextInt(states));
+        }
+        return builder.addInitial(0).build();
+    }
+
+}
@@ -0,0 +1,196 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class PartialOrderReductionTest {
+
+    // The interleaving of components with local states 0 … size-1 and random local moves, one
+    // action per move. a, b and c watch the first three components; the others are invisible.
+    private static ExplicitKripkeStructure interleaving(Random rnd, int components, int size) {
+        List<List<int[]>> moves = new ArrayList<>();
+        for (int c = 0; c < components; c++) {
+            List<int[]> local = new ArrayList<>();
+            for (int s = 0; s < size; s++) {
+                int count = 1 + rnd.nextInt(2);
+                for (int i = 0; i < count; i++) local.add(new int[] { s, rnd.nextInt(size) });
+            }
+            moves.add(local);
+        }
+        int states = (int) Math.pow(size, components);
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        for (int g = 0; g < states; g++) {
+            List<String> label = new ArrayList<>();
+            if (local(g, 0, size) == 0) label.add("a");
+            if (components > 1 && local(g, 1, size) == 0) label.add("b");
+            if (components > 2 && local(g, 2, size) == 1) label.add("c");
+            builder.addState(label.toArray(new String[0]));
+        }
+        for (int g = 0; g < states; g++) {
+            for (int c = 0; c < components; c++) {
+                List<int[]> local = moves.get(c);
+                for (int m = 0; m < local.size(); m++) {
+                    if (local.get(m)[0] != local(g, c, size)) continue;
+                    int target = g + (local.get(m)[1] - local.get(m)[0]) * (int) Math.pow(size, c);
+                    builder.addTransition(g, target, c + "." + m);
+                }
+            }
+        }
+        return builder.addInitial(0).build();
+    }
+
+    private static int local(int global, int component, int size) {
+        return global / (int) Math.pow(size, component) % size;
+    }
+
+    // actions of different components are independent
+    private static ActionIndependence componentsIndependent(KripkeStructure structure) {
+        ActionIndependence independence = new ActionIndependence(structure.getActions());
+        for (String first : structure.getActions()) {
+            for (String second : structure.getActions()) {
+                if (!first.split("\\.")[0].equals(second.split("\\.")[0])) independence.declareIndependent(first, second);
+            }
+        }
+        return independence;
+    }
+
+    @Test
+    void agreesWithTheFullSearch() throws ParseException {
+        Random rnd = new Random(31);
+        long fullStates = 0;
+        long reducedStates = 0;
+        int checked = 0;
+        while (checked < 300) {
+            ExplicitKripkeStructure structure = interleaving(rnd, 3 + rnd.nextInt(3), 3);
+            String formula = randomFormula(rnd, 4);
+            if (formula.contains("X")) continue;
+            checked++;
+            LtlModelChecker full = new LtlModelChecker(structure, parse(formula));
+            LtlModelChecker reduced = new LtlModelChecker(structure, parse(formula));
+            reduced.setPartialOrderReduction(componentsIndependent(structure));
+            assertTrue(reduced.isReducing());
+            LtlModelChecker.Result result = full.run();
+            assertEquals(result, reduced.run(), formula);
+            if (result == LtlModelChecker.Result.VIOLATED) {
+                LtlModelCheckerTest.assertViolatingPath(structure, formula, reduced.getCounterexample());
+            } else {
+                // a search that holds sees its whole, reduced or not, product
+                fullStates += full.getStates();
+                reducedStates += reduced.getStates();
+            }
+        }
+        assertTrue(reducedStates < fullStates, reducedStates + " of " + fullStates);
+    }
+
+    @Test
+    void reducesIndependentInterleavings() throws ParseException {
+        // n counters that each count to 3 and stop; only the first one is visible
+        int n = 6;
+        int states = 1 << (2 * n);
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        for (int g = 0; g < states; g++) builder.addState((g & 3) == 3 ? new String[] { "a" } : new String[0]);
+        for (int g = 0; g < states; g++) {
+            for (int c = 0; c < n; c++) {
+                if ((g >>> 2 * c & 3) != 3) builder.addTransition(g, g + (1 << 2 * c), "count" + c);
+            }
+        }
+        ExplicitKripkeStructure structure = builder.addInitial(0).build();
+        ActionIndependence independence = new ActionIndependence(structure.getActions());
+        for (int c = 0; c < n; c++) {
+            for (int d = c + 1; d < n; d++) independence.declareIndependent("count" + c, "count" + d);
+        }
+
+        LtlModelChecker full = new LtlModelChecker(structure, parse("FGa"));
+        LtlModelChecker reduced = new LtlModelChecker(structure, parse("FGa"));
+        reduced.setPartialOrderReduction(independence);
+        assertEquals(LtlModelChecker.Result.HOLDS, full.run());
+        assertEquals(LtlModelChecker.Result.HOLDS, reduced.run());
+        assertTrue(reduced.getReducedStates() > 0);
+        assertTrue(10 * reduced.getStates() < full.getStates(), reduced.getStates() + " of " + full.getStates());
+    }
+
+    @Test
+    void actionsVisibleElsewhereAreNotAmple() throws ParseException {
+        // s -alpha-> s' -beta-> s2 and s -beta-> s1 -alpha-> s2; alpha is invisible at s but
+        // makes a false at s1, so an ample set {alpha} at s would hide s1
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        int s = builder.addState();
+        int sPrime = builder.addState();
+        int s1 = builder.addState("a");
+        int s2 = builder.addState();
+        builder.addInitial(s)
+                .addTransition(s, sPrime, "alpha")
+                .addTransition(s, s1, "beta")
+                .addTransition(s1, s2, "alpha")
+                .addTransition(sPrime, s2, "beta")
+                .addTransition(s2, s2, "gamma");
+        ExplicitKripkeStructure structure = builder.build();
+        ActionIndependence independence = new ActionIndependence(structure.getActions())
+                .declareIndependent("alpha", "beta")
+                .declareIndependent("alpha", "gamma")
+                .declareIndependent("beta", "gamma");
+
+        LtlModelChecker full = new LtlModelChecker(structure, parse("G!a"));
+        LtlModelChecker reduced = new LtlModelChecker(structure, parse("G!a"));
+        reduced.setPartialOrderReduction(independence);
+        assertEquals(LtlModelChecker.Result.VIOLATED, full.run());
+        assertEquals(LtlModelChecker.Result.VIOLATED, reduced.run());
+        LtlModelCheckerTest.assertViolatingPath(structure, "G!a", reduced.getCounterexample());
+    }
+
+    @Test
+    void nextTurnsTheReductionOff() throws ParseException {
+        ExplicitKripkeStructure structure = interleaving(new Random(3), 3, 2);
+        LtlModelChecker checker = new LtlModelChecker(structure, parse("G(a>Xb)"));
+        checker.setPartialOrderReduction(componentsIndependent(structure));
+        assertFalse(checker.isReducing());
+        checker.run();
+        assertEquals(0, checker.getReducedStates());
+
+        // without actions there is nothing to reduce
+        checker = new LtlModelChecker(LtlModelCheckerTest.randomStructure(new Random(3), 4), parse("Ga"));
+        checker.setPartialOrderReduction(new ActionIndependence(List.of()));
+        assertFalse(checker.isReducing());
+    }
+
+    @Test
+    void rejectsInconsistentDeclarations() throws ParseException {
+        ExplicitKripkeStructure structure = interleaving(new Random(5), 2, 2);
+        LtlModelChecker checker = new LtlModelChecker(structure, parse("Ga"));
+        assertThrows(IllegalArgumentException.class,
+                () -> checker.setPartialOrderReduction(new ActionIndependence(List.of("x", "y"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ActionIndependence(List.of("x")).declareIndependent("x", "x"));
+
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        int s = builder.addState();
+        builder.addInitial(s).addTransition(s, s, "x").addTransition(s, s);
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    @Test
+    void dependencyClassesAreConnectedComponents() {
+        ActionIndependence independence = new ActionIndependence(List.of("p", "q", "r", "s"))
+                .declareIndependent("p", "r").declareIndependent("p", "s")
+                .declareIndependent("q", "r").declareIndependent("q", "s");
+        int[] classes = independence.dependencyClasses();
+        assertEquals(classes[0], classes[1]);
+        assertEquals(classes[2], classes[3]);
+        assertNotEquals(classes[0], classes[2]);
+        assertTrue(independence.isIndependent(0, 2));
+        assertFalse(independence.isIndependent(0, 1));
+    }
+}
@@ -0,0 +1,95 @@
+package com.ltl.ltl.service.modelcheck;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.service.modelcheck.LtlModelChecker.Result;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class SwarmModelCheckerTest {
+
+    // n states 0 -> 1 -> ... -> n-1 -> n-1, all labelled a
+    private static ExplicitKripkeStructure.Builder chain(int n) {
+        ExplicitKripkeStructure.Builder builder = ExplicitKripkeStructure.builder();
+        for (int i = 0; i < n; i++) builder.addState("a");
+        for (int i = 0; i + 1 < n; i++) builder.addTransition(i, i + 1);
+        return builder.addTransition(n - 1, n - 1).addInitial(0);
+    }
+
+    @Test
+    void agreesWithASingleSearch() throws ParseException {
+        Random rnd = new Random(19);
+        for (int round = 0; round < 100; round++) {
+            KripkeStructure structure = LtlModelCheckerTest.randomStructure(rnd, 6);
+            String formula = randomFormula(rnd, 4);
+            Result expected = new LtlModelChecker(structure, parse(formula)).run();
+            SwarmModelChecker swarm = new SwarmModelChecker(structure, parse(formula), 3);
+            assertEquals(expected, swarm.run(), formula);
+            assertEquals(3, swarm.getReports().size());
+            if (expected == Result.VIOLATED) {
+                LtlModelCheckerTest.assertViolatingPath(structure, formula, swarm.getCounterexample());
+            } else {
+                assertNull(swarm.getCounterexample());
+            }
+        }
+    }
+
+    @Test
+    void firstCounterexampleStopsTheSwarm() throws ParseException {
+        // a long harmless chain next to a short bad branch
+        int n = 200_000;
+        ExplicitKripkeStructure.Builder builder = chain(n);
+        int bad = builder.addState("b");
+        KripkeStructure structure = builder.addTransition(0, bad).addTransition(bad, bad).build();
+
+        SwarmModelChecker swarm = new SwarmModelChecker(structure, parse("Ga"), 4);
+        assertEquals(Result.VIOLATED, swarm.run());
+        LtlModelCheckerTest.assertViolatingPath(structure, "Ga", swarm.getCounterexample());
+        List<SwarmModelChecker.WorkerReport> reports = swarm.getReports();
+        assertEquals(4, reports.size());
+        for (SwarmModelChecker.WorkerReport report : reports) {
+            assertTrue(report.result() == Result.VIOLATED || report.result() == Result.UNKNOWN, report::toString);
+            assertTrue(report.states() < 2L * n, report::toString);
+        }
+        assertEquals(4, reports.stream().map(SwarmModelChecker.WorkerReport::seed).distinct().count());
+    }
+
+    @Test
+    void depthBoundsLeaveTheVerdictOpen() throws ParseException {
+        KripkeStructure structure = chain(1_000).build();
+        SwarmModelChecker swarm = new SwarmModelChecker(structure, parse("Ga"), 4);
+        swarm.setDepthBound(100);
+        assertEquals(Result.UNKNOWN, swarm.run());
+        for (SwarmModelChecker.WorkerReport report : swarm.getReports()) {
+            assertTrue(report.depthBound() >= 50 && report.depthBound() <= 100, report::toString);
+            assertEquals(report.depthBound(), report.maxDepth());
+        }
+        assertEquals(100, swarm.getReports().get(0).depthBound());
+
+        swarm.setDepthBound(5_000);
+        assertEquals(Result.HOLDS, swarm.run());
+    }
+
+    @Test
+    void bitstateWorkersReportTheirCoverage() throws ParseException {
+        KripkeStructure structure = chain(10_000).build();
+        SwarmModelChecker swarm = new SwarmModelChecker(structure, parse("Ga"), 2);
+        swarm.setBitstate(20, 3);
+        // no counterexample, but bitstate searches prove nothing
+        assertEquals(Result.UNKNOWN, swarm.run());
+        for (SwarmModelChecker.WorkerReport report : swarm.getReports()) {
+            assertEquals(Result.HOLDS, report.result());
+            assertNotNull(report.bitstate());
+            assertTrue(report.bitstate().coverage() > 0.99);
+        }
+    }
+}
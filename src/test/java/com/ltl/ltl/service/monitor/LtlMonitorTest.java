@@ -0,0 +1,210 @@
+package com.ltl.ltl.service.monitor;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.FormulaFactory;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.Symbol;
+import com.ltl.ltl.service.automaton.CouvreurEmptinessCheck;
+import com.ltl.ltl.service.automaton.EmptinessCheck;
+import com.ltl.ltl.service.automaton.GeneralizedBuchiAutomaton;
+import com.ltl.ltl.service.sat.Lasso;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.WITH_IMPLICATION;
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class LtlMonitorTest {
+
+    private static final long A = 1;
+    private static final long B = 2;
+
+    // the prefix as a formula: the letters of its events, one X deeper each
+    private static IFormula prefix(long[] events) {
+        IFormula result = null;
+        for (int i = events.length - 1; i >= 0; i--) {
+            IFormula letter = null;
+            for (Symbol symbol : Symbol.values()) {
+                IFormula literal = FormulaFactory.atom(symbol);
+                if ((events[i] >>> symbol.ordinal() & 1) == 0) literal = FormulaFactory.not(literal);
+                letter = letter == null ? literal : FormulaFactory.and(letter, literal);
+            }
+            result = result == null ? letter : FormulaFactory.and(letter, FormulaFactory.next(result));
+        }
+        return result;
+    }
+
+    private static boolean satisfiable(IFormula formula) {
+        EmptinessCheck check = new CouvreurEmptinessCheck(GeneralizedBuchiAutomaton.of(formula));
+        return check.run() == EmptinessCheck.Result.NON_EMPTY;
+    }
+
+    // LTL3 from the definition: whether φ and ¬φ have models that start with the prefix
+    private static Verdict expected(IFormula formula, long[] events) {
+        IFormula start = prefix(events);
+        boolean some = satisfiable(start == null ? formula : FormulaFactory.and(start, formula));
+        IFormula negation = FormulaFactory.not(formula);
+        boolean notAll = satisfiable(start == null ? negation : FormulaFactory.and(start, negation));
+        if (!some) return Verdict.FALSE;
+        return notAll ? Verdict.INCONCLUSIVE : Verdict.TRUE;
+    }
+
+    private static Set<Symbol> letter(long event) {
+        Set<Symbol> set = EnumSet.noneOf(Symbol.class);
+        for (Symbol symbol : Symbol.values()) {
+            if ((event >>> symbol.ordinal() & 1) != 0) set.add(symbol);
+        }
+        return set;
+    }
+
+    @Test
+    void verdictsOfSimpleProperties() throws ParseException {
+        LtlMonitor eventually = new LtlMonitor(parse("Fa"));
+        assertEquals(Verdict.INCONCLUSIVE, eventually.getVerdict());
+        assertEquals(Verdict.INCONCLUSIVE, eventually.step(B));
+        assertEquals(Verdict.TRUE, eventually.step(A));
+        assertEquals(Verdict.TRUE, eventually.step(0));
+
+        LtlMonitor always = new LtlMonitor(parse("Ga"));
+        assertEquals(Verdict.INCONCLUSIVE, always.step(A));
+        assertEquals(Verdict.FALSE, always.step(B));
+
+        LtlMonitor next = new LtlMonitor(parse("XXb"));
+        assertEquals(Verdict.INCONCLUSIVE, next.step(new long[] { 0, 0 }));
+        assertEquals(Verdict.TRUE, next.step(B));
+        assertEquals(3, next.getEvents());
+
+        LtlMonitor response = new LtlMonitor(parse("G(a>Fb)"));
+        assertEquals(Verdict.INCONCLUSIVE, response.step(new long[] { A, 0, B, A, A }));
+        assertEquals(Verdict.INCONCLUSIVE, response.getVerdict());
+    }
+
+    @Test
+    void decidesWhatProgressionAloneCannot() throws ParseException {
+        // unsatisfiable and valid formulas are decided before the first event
+        assertEquals(Verdict.FALSE, new LtlMonitor(parse("GFa&FG!a")).getVerdict());
+        assertEquals(Verdict.TRUE, new LtlMonitor(parse("GFa|FG!a")).getVerdict());
+        // after a, X G !a & G F a cannot be satisfied any more
+        LtlMonitor monitor = new LtlMonitor(parse("(a>XG!a)&GFa"));
+        assertEquals(Verdict.INCONCLUSIVE, monitor.getVerdict());
+        assertEquals(Verdict.FALSE, monitor.step(A));
+    }
+
+    @Test
+    void agreesWithTheDefinition() throws ParseException {
+        Random rnd = new Random(23);
+        for (int round = 0; round < 150; round++) {
+            IFormula formula = parse(randomFormula(rnd, 3, WITH_IMPLICATION));
+            LtlMonitor monitor = new LtlMonitor(formula);
+            long[] events = new long[rnd.nextInt(4)];
+            for (int i = 0; i < events.length; i++) events[i] = rnd.nextInt(8);
+            Verdict verdict = monitor.step(events);
+            assertEquals(expected(formula, events), verdict, formula + " after " + List.of(events));
+        }
+    }
+
+    @Test
+    void conclusiveVerdictsHoldOnEveryContinuation() throws ParseException {
+        Random rnd = new Random(24);
+        for (int round = 0; round < 300; round++) {
+            IFormula formula = parse(randomFormula(rnd, 4, WITH_IMPLICATION));
+            LtlMonitor monitor = new LtlMonitor(formula);
+            List<Set<Symbol>> prefix = new ArrayList<>();
+            Verdict verdict = monitor.getVerdict();
+            for (int i = 0; i < 8 && !verdict.isConclusive(); i++) {
+                long event = rnd.nextInt(8);
+                prefix.add(letter(event));
+                verdict = monitor.step(event);
+            }
+            if (!verdict.isConclusive()) continue;
+            for (int k = 0; k < 10; k++) {
+                List<Set<Symbol>> word = new ArrayList<>(prefix);
+                int loop = 1 + rnd.nextInt(3);
+                for (int i = 0; i < loop; i++) word.add(letter(rnd.nextInt(8)));
+                Lasso lasso = new Lasso(word, prefix.size() + rnd.nextInt(loop));
+                assertEquals(verdict == Verdict.TRUE, lasso.satisfies(formula), formula + " on " + lasso);
+                // a conclusive verdict is final
+                assertEquals(verdict, monitor.step(rnd.nextInt(8)));
+            }
+        }
+    }
+
+    @Test
+    void batchesAgreeWithSingleEventsAndTheAutomatonStaysSmall() throws ParseException {
+        Random rnd = new Random(25);
+        for (int round = 0; round < 100; round++) {
+            IFormula formula = parse(randomFormula(rnd, 4, WITH_IMPLICATION));
+            MonitorAutomaton automaton = MonitorAutomaton.of(formula);
+            LtlMonitor single = new LtlMonitor(automaton);
+            LtlMonitor batched = new LtlMonitor(automaton);
+            long[] events = new long[200];
+            for (int i = 0; i < events.length; i++) events[i] = rnd.nextInt(8);
+            for (int from = 0; from < events.length; from += 50) {
+                for (int i = from; i < from + 50; i++) single.step(events[i]);
+                assertEquals(single.getVerdict(), batched.step(events, from, 50), formula.toString());
+                assertEquals(single.getResidual(), batched.getResidual());
+            }
+            assertEquals(200, batched.getEvents());
+            automaton.complete();
+            assertTrue(automaton.getStateCount() < 200, formula + ": " + automaton.getStateCount() + " states");
+            int built = automaton.getStateCount();
+            single.reset();
+            single.step(events);
+            assertEquals(built, automaton.getStateCount());
+        }
+    }
+
+    @Test
+    void monitorsOnSeveralThreadsShareTheAutomaton() throws InterruptedException, ParseException {
+        IFormula formula = parse("G(a>X(bU(c&Fa)))|F(G(b>c))");
+        MonitorAutomaton shared = MonitorAutomaton.of(formula);
+        long[][] streams = new long[8][5000];
+        Random rnd = new Random(26);
+        for (long[] stream : streams) {
+            for (int i = 0; i < stream.length; i++) stream[i] = rnd.nextInt(8);
+        }
+        Verdict[] verdicts = new Verdict[streams.length];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < streams.length; t++) {
+            int index = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    LtlMonitor monitor = new LtlMonitor(shared);
+                    for (long event : streams[index]) monitor.step(event);
+                    verdicts[index] = monitor.getVerdict();
+                } catch (Throwable ex) {
+                    failure.compareAndSet(null, ex);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertNull(failure.get());
+        for (int t = 0; t < streams.length; t++) {
+            assertEquals(new LtlMonitor(formula).step(streams[t]), verdicts[t]);
+        }
+    }
+
+    @Test
+    void stateLimit() throws ParseException {
+        assertThrows(IllegalArgumentException.class, () -> MonitorAutomaton.of(parse("a"), 0));
+        MonitorAutomaton automaton = MonitorAutomaton.of(parse("XXXa"), 2);
+        LtlMonitor monitor = new LtlMonitor(automaton);
+        monitor.step(0);
+        assertThrows(IllegalStateException.class, () -> monitor.step(0));
+    }
+}
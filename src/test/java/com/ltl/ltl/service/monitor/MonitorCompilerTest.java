@@ -0,0 +1,87 @@
+package com.ltl.ltl.service.monitor;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.WITH_IMPLICATION;
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class MonitorCompilerTest {
+
+    private static final long A = 1;
+    private static final long B = 2;
+
+    @Test
+    void compiledMonitorsAgreeWithTheInterpreter() throws ParseException {
+        MonitorCompiler compiler = new MonitorCompiler();
+        assertTrue(compiler.isAvailable(), "tests run on a JDK");
+        Random rnd = new Random(41);
+        for (int round = 0; round < 25; round++) {
+            IFormula formula = parse(randomFormula(rnd, 4, WITH_IMPLICATION));
+            MonitorAutomaton automaton = MonitorAutomaton.of(formula);
+            Supplier<StreamMonitor> monitors = compiler.compile(automaton);
+            StreamMonitor compiled = monitors.get();
+            assertFalse(compiled instanceof LtlMonitor, formula.toString());
+            StreamMonitor batched = monitors.get();
+            LtlMonitor interpreted = new LtlMonitor(automaton);
+            assertEquals(interpreted.getVerdict(), compiled.getVerdict());
+            long[] events = new long[400];
+            for (int i = 0; i < events.length; i++) events[i] = rnd.nextInt(8);
+            for (int from = 0; from < events.length; from += 40) {
+                for (int i = from; i < from + 40; i++) {
+                    assertEquals(interpreted.step(events[i]), compiled.step(events[i]), formula.toString());
+                }
+                assertEquals(interpreted.getVerdict(), batched.step(events, from, 40), formula.toString());
+            }
+            assertEquals(400, compiled.getEvents());
+            assertEquals(400, batched.getEvents());
+            compiled.reset();
+            assertEquals(0, compiled.getEvents());
+            assertEquals(automaton.verdict(automaton.initial()), compiled.getVerdict());
+        }
+    }
+
+    @Test
+    void sourceIndexesOneTableWithTheEventBits() throws ParseException {
+        MonitorAutomaton automaton = MonitorAutomaton.of(parse("G(a>XFb)"));
+        automaton.complete();
+        String source = MonitorCompiler.source("Response", automaton);
+        assertTrue(source.contains("public final class Response implements StreamMonitor"), source);
+        // a and b are bits 0 and 1 of the event and of the letter
+        assertTrue(source.contains("return NEXT[state << 2 | ((int) event & 0x3)];"), source);
+
+        StreamMonitor monitor = new MonitorCompiler().compile(automaton).get();
+        assertEquals(Verdict.INCONCLUSIVE, monitor.step(new long[] { A, B, A | B, 0 }));
+
+        // b and c are bits 1 and 2 of the event, but 0 and 1 of the letter
+        MonitorAutomaton shifted = MonitorAutomaton.of(parse("G(b>Fc)"));
+        shifted.complete();
+        assertTrue(MonitorCompiler.source("Shifted", shifted).contains("((int) (event >>> 1) & 0x3)"));
+        StreamMonitor other = new MonitorCompiler().compile(shifted).get();
+        assertFalse(other instanceof LtlMonitor);
+        assertEquals(Verdict.INCONCLUSIVE, other.step(new long[] { B, A, 4 }));
+    }
+
+    @Test
+    void fallsBackToTheInterpreter() throws ParseException {
+        MonitorCompiler none = new MonitorCompiler(null);
+        assertFalse(none.isAvailable());
+        StreamMonitor monitor = none.compile(parse("Fa")).get();
+        assertInstanceOf(LtlMonitor.class, monitor);
+        assertEquals(Verdict.TRUE, monitor.step(new long[] { B, A }));
+
+        // more states than the automaton may have
+        MonitorAutomaton bounded = MonitorAutomaton.of(parse("XXXa"), 2);
+        assertInstanceOf(LtlMonitor.class, new MonitorCompiler().compile(bounded).get());
+    }
+}
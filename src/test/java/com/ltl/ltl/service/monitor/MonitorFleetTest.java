@@ -0,0 +1,206 @@
+package com.ltl.ltl.service.monitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.WITH_IMPLICATION;
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class MonitorFleetTest {
+
+    private static final long A = 1;
+    private static final long B = 2;
+
+    @Test
+    void agreesWithSeparateMonitors() throws ParseException {
+        Random rnd = new Random(31);
+        for (int round = 0; round < 10; round++) {
+            MonitorFleet fleet = new MonitorFleet();
+            List<Integer> handles = new ArrayList<>();
+            List<LtlMonitor> monitors = new ArrayList<>();
+            List<String> formulas = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String formula = randomFormula(rnd, 3, WITH_IMPLICATION);
+                formulas.add(formula);
+                handles.add(fleet.register(parse(formula)));
+                monitors.add(new LtlMonitor(parse(formula)));
+            }
+            long[] events = new long[300];
+            for (int i = 0; i < events.length; i++) events[i] = rnd.nextInt(8);
+            for (int from = 0; from < events.length; from += 30) {
+                fleet.step(events, from, 30);
+                for (int i = 0; i < handles.size(); i++) {
+                    LtlMonitor monitor = monitors.get(i);
+                    monitor.step(events, from, 30);
+                    assertEquals(monitor.getVerdict(), fleet.verdict(handles.get(i)), formulas.get(i));
+                }
+            }
+            assertEquals(300, fleet.getEvents());
+        }
+    }
+
+    @Test
+    void sharedSubformulasAreProgressedOnce() throws ParseException {
+        MonitorFleet fleet = new MonitorFleet();
+        int response = fleet.register(parse("G(a>Fb)"));
+        // G(!a | F b) and its operand F b
+        assertEquals(2, fleet.getObligationCount());
+        fleet.register(parse("F(a>Fb)"));
+        assertEquals(3, fleet.getObligationCount());
+        int states = fleet.getStateCount();
+        int again = fleet.register(parse("G(a>Fb)"));
+        assertEquals(3, fleet.getObligationCount());
+        assertEquals(states, fleet.getStateCount());
+        fleet.step(new long[] { A, 0, B });
+        assertEquals(fleet.residual(response), fleet.residual(again));
+        assertEquals(Verdict.TRUE, fleet.getVerdicts().get(1));
+        assertEquals(Verdict.INCONCLUSIVE, fleet.getVerdicts().get(response));
+    }
+
+    @Test
+    void formulasComeAndGoWhileTheStreamRuns() throws ParseException {
+        Random rnd = new Random(32);
+        MonitorFleet fleet = new MonitorFleet();
+        Map<Integer, LtlMonitor> expected = new HashMap<>();
+        for (int event = 0; event < 2000; event++) {
+            if (rnd.nextInt(20) == 0) {
+                String formula = randomFormula(rnd, 3, WITH_IMPLICATION);
+                expected.put(fleet.register(parse(formula)), new LtlMonitor(parse(formula)));
+            }
+            if (!expected.isEmpty() && rnd.nextInt(40) == 0) {
+                int handle = new ArrayList<>(expected.keySet()).get(rnd.nextInt(expected.size()));
+                expected.remove(handle);
+                assertTrue(fleet.unregister(handle));
+                assertFalse(fleet.unregister(handle));
+                assertThrows(IllegalArgumentException.class, () -> fleet.verdict(handle));
+            }
+            long e = rnd.nextInt(8);
+            fleet.step(e);
+            for (LtlMonitor monitor : expected.values()) monitor.step(e);
+        }
+        assertEquals(expected.size(), fleet.getFormulaCount());
+        assertEquals(expected.keySet(), fleet.getVerdicts().keySet());
+        for (Map.Entry<Integer, LtlMonitor> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().getVerdict(), fleet.verdict(entry.getKey()));
+        }
+    }
+
+    @Test
+    void newSymbolsWidenTheLetters() throws ParseException {
+        MonitorFleet fleet = new MonitorFleet();
+        int always = fleet.register(parse("Ga"));
+        fleet.step(new long[] { A, A });
+        int eventually = fleet.register(parse("F(b&c)"));
+        fleet.step(A | B);
+        assertEquals(Verdict.INCONCLUSIVE, fleet.verdict(eventually));
+        fleet.step(7);
+        assertEquals(Verdict.TRUE, fleet.verdict(eventually));
+        assertEquals(Verdict.INCONCLUSIVE, fleet.verdict(always));
+        fleet.step(B);
+        assertEquals(Verdict.FALSE, fleet.verdict(always));
+    }
+
+    @Test
+    void registersWhileAnotherThreadSteps() throws InterruptedException, ParseException {
+        MonitorFleet fleet = new MonitorFleet();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread stream = new Thread(() -> {
+            try {
+                long[] batch = new long[100];
+                // a holds throughout, b and c at random
+                Random rnd = new Random(33);
+                for (int round = 0; round < 500; round++) {
+                    for (int i = 0; i < batch.length; i++) batch[i] = A | rnd.nextInt(4) << 1;
+                    fleet.step(batch);
+                }
+            } catch (Throwable ex) {
+                failure.compareAndSet(null, ex);
+            }
+        });
+        stream.start();
+        List<Integer> always = new ArrayList<>();
+        List<Integer> never = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            always.add(fleet.register(parse("Ga")));
+            never.add(fleet.register(parse("F!a")));
+            int other = fleet.register(parse(i % 2 == 0 ? "G(b>Fc)" : "F(bUc)"));
+            if (i % 3 == 0) fleet.unregister(other);
+        }
+        stream.join();
+        assertNull(failure.get());
+        assertEquals(50_000, fleet.getEvents());
+        for (int handle : always) assertEquals(Verdict.INCONCLUSIVE, fleet.verdict(handle));
+        for (int handle : never) assertEquals(Verdict.INCONCLUSIVE, fleet.verdict(handle));
+        assertEquals(133, fleet.getFormulaCount());
+    }
+
+    @Test
+    void stateLimitLeavesEveryFormulaBeforeTheEvent() throws ParseException {
+        assertThrows(IllegalArgumentException.class, () -> new MonitorFleet(0));
+        MonitorFleet fleet = new MonitorFleet(2);
+        int eventually = fleet.register(parse("Fa"));
+        fleet.step(0);
+        // F a has its successor under the next event, X X a needs a third state
+        int next = fleet.register(parse("XXa"));
+        IFormula residual = fleet.residual(next);
+        assertThrows(IllegalStateException.class, () -> fleet.step(0));
+        assertEquals(1, fleet.getEvents());
+        assertEquals(residual, fleet.residual(next));
+        assertThrows(IllegalStateException.class, () -> fleet.step(new long[] { A, 0 }));
+        assertEquals(1, fleet.getEvents());
+        assertEquals(Verdict.INCONCLUSIVE, fleet.verdict(eventually));
+
+        // without X X a its states can go
+        fleet.unregister(next);
+        fleet.step(A);
+        assertEquals(Verdict.TRUE, fleet.verdict(eventually));
+        assertEquals(2, fleet.getEvents());
+    }
+
+    @Test
+    void statesNoFormulaCanReachAreDropped() throws ParseException {
+        Random rnd = new Random(34);
+        MonitorFleet fleet = new MonitorFleet(200);
+        Map<Integer, LtlMonitor> expected = new HashMap<>();
+        List<Integer> order = new ArrayList<>();
+        int registered = 0;
+        for (int event = 0; event < 5000; event++) {
+            if (event % 10 == 0) {
+                String formula = randomFormula(rnd, 3, WITH_IMPLICATION);
+                int handle = fleet.register(parse(formula));
+                expected.put(handle, new LtlMonitor(parse(formula)));
+                order.add(handle);
+                registered++;
+                // at most three formulas at a time
+                if (order.size() > 3) {
+                    int oldest = order.remove(0);
+                    expected.remove(oldest);
+                    fleet.unregister(oldest);
+                }
+            }
+            long e = rnd.nextInt(8);
+            fleet.step(e);
+            for (LtlMonitor monitor : expected.values()) monitor.step(e);
+            for (Map.Entry<Integer, LtlMonitor> entry : expected.entrySet()) {
+                assertEquals(entry.getValue().getVerdict(), fleet.verdict(entry.getKey()));
+            }
+            assertTrue(fleet.getStateCount() <= 200);
+        }
+        assertEquals(500, registered);
+    }
+}
@@ -0,0 +1,141 @@
+package com.ltl.ltl.service.sat;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+import com.ltl.ltl.service.automaton.CouvreurEmptinessCheck;
+import com.ltl.ltl.service.automaton.EmptinessCheck;
+import com.ltl.ltl.service.automaton.GeneralizedBuchiAutomaton;
+import com.ltl.ltl.service.syntax.Nnf;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class BoundedLtlSatTest {
+
+    // Truth of an NNF formula in every state of the lasso, by fixpoint iteration
+    private static boolean[] holds(IFormula f, Lasso lasso) {
+        int n = lasso.states().size();
+        boolean[] v = new boolean[n];
+        if (f instanceof AtomicProposition ap) {
+            for (int i = 0; i < n; i++) v[i] = lasso.states().get(i).contains(ap.getSymbol());
+        } else if (f instanceof Not not) {
+            boolean[] operand = holds(not.getFormula(), lasso);
+            for (int i = 0; i < n; i++) v[i] = !operand[i];
+        } else if (f instanceof And and) {
+            boolean[] l = holds(and.getLeft(), lasso);
+            boolean[] r = holds(and.getRight(), lasso);
+            for (int i = 0; i < n; i++) v[i] = l[i] && r[i];
+        } else if (f instanceof Or or) {
+            boolean[] l = holds(or.getLeft(), lasso);
+            boolean[] r = holds(or.getRight(), lasso);
+            for (int i = 0; i < n; i++) v[i] = l[i] || r[i];
+        } else if (f instanceof Next || f instanceof WeakNext) {
+            boolean[] operand = holds(f instanceof Next x ? x.getFormula() : ((WeakNext) f).getFormula(), lasso);
+            for (int i = 0; i < n; i++) v[i] = operand[lasso.successor(i)];
+        } else {
+            boolean until = f instanceof Until || f instanceof Finally;
+            boolean[] l;
+            boolean[] r;
+            if (f instanceof Until u) {
+                l = holds(u.getLeft(), lasso);
+                r = holds(u.getRight(), lasso);
+            } else if (f instanceof Release rel) {
+                l = holds(rel.getLeft(), lasso);
+                r = holds(rel.getRight(), lasso);
+            } else {
+                r = holds(f instanceof Finally fin ? fin.getFormula() : ((Globally) f).getFormula(), lasso);
+                l = new boolean[n];
+                Arrays.fill(l, until);
+            }
+            Arrays.fill(v, !until);
+            for (int round = 0; round <= n; round++) {
+                for (int i = n - 1; i >= 0; i--) {
+                    boolean later = v[lasso.successor(i)];
+                    v[i] = until ? r[i] || (l[i] && later) : r[i] && (l[i] || later);
+                }
+            }
+        }
+        return v;
+    }
+
+    private static void assertModel(String s, BoundedLtlSat check) throws ParseException {
+        IFormula nnf = new Nnf().toNnf(parse(s));
+        assertTrue(holds(nnf, check.getWitness())[0], () -> s + " fails on " + check.getWitness());
+    }
+
+    @Test
+    void findsLassoModels() throws ParseException {
+        for (String s : new String[] { "a", "XFb", "G(a|b)&(aUc)", "GFa&GFb&G(!a|!b)", "G((a&X!a)|(!a&Xa))&GFa",
+                "(aRb)&!a&b", "XXXXa&G(a>Xa)&!a" }) {
+            BoundedLtlSat check = new BoundedLtlSat(parse(s));
+            assertEquals(BoundedLtlSat.Result.SAT, check.run(), s);
+            assertModel(s, check);
+        }
+    }
+
+    @Test
+    void findsTheShortestLasso() throws ParseException {
+        // four different valuations in a row need four states
+        BoundedLtlSat check = new BoundedLtlSat(parse("a&!b&X(!a&b&X(a&b&X(!a&!b)))"));
+        assertEquals(BoundedLtlSat.Result.SAT, check.run());
+        assertEquals(3, check.getBound());
+        assertEquals(4, check.getWitness().states().size());
+    }
+
+    @Test
+    void contradictionsAreUnsat() throws ParseException {
+        BoundedLtlSat check = new BoundedLtlSat(parse("a&(b&!a)"));
+        assertEquals(BoundedLtlSat.Result.UNSAT, check.run());
+        assertEquals(0, check.getBound());
+        assertNull(check.getWitness());
+    }
+
+    @Test
+    void temporalUnsatRunsOutOfBounds() throws ParseException {
+        BoundedLtlSat check = new BoundedLtlSat(parse("GFa&FG!a"));
+        check.setLimits(6, null);
+        assertEquals(BoundedLtlSat.Result.UNKNOWN, check.run());
+        assertEquals(6, check.getBound());
+        // the learnt clauses of the earlier bounds are kept
+        assertNotEquals(0, check.getVariables());
+    }
+
+    @Test
+    void agreesWithTheAutomatonEngine() throws ParseException {
+        Random rnd = new Random(23);
+        for (int i = 0; i < 300; i++) {
+            String s = randomFormula(rnd, 5);
+            IFormula f = parse(s);
+            boolean sat = new CouvreurEmptinessCheck(GeneralizedBuchiAutomaton.of(f)).run()
+                    == EmptinessCheck.Result.NON_EMPTY;
+            BoundedLtlSat check = new BoundedLtlSat(f);
+            check.setLimits(8, null);
+            BoundedLtlSat.Result result = check.run();
+            if (sat) {
+                assertEquals(BoundedLtlSat.Result.SAT, result, s);
+                assertModel(s, check);
+            } else {
+                assertNotEquals(BoundedLtlSat.Result.SAT, result, s);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.ltl.ltl.service.sat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class CdclSolverTest {
+
+    private static CdclSolver solverWith(int variables) {
+        CdclSolver solver = new CdclSolver();
+        for (int v = 0; v < variables; v++) solver.newVariable();
+        return solver;
+    }
+
+    private static boolean satisfies(CdclSolver solver, List<int[]> clauses) {
+        for (int[] clause : clauses) {
+            boolean satisfied = false;
+            for (int lit : clause) satisfied |= solver.modelValue(lit);
+            if (!satisfied) return false;
+        }
+        return true;
+    }
+
+    private static boolean bruteForce(int variables, List<int[]> clauses) {
+        for (long assignment = 0; assignment < 1L << variables; assignment++) {
+            boolean all = true;
+            for (int[] clause : clauses) {
+                boolean satisfied = false;
+                for (int lit : clause) {
+                    boolean value = (assignment >> (Math.abs(lit) - 1) & 1) == 1;
+                    satisfied |= lit > 0 == value;
+                }
+                if (!satisfied) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) return true;
+        }
+        return false;
+    }
+
+    @Test
+    void agreesWithBruteForceOnRandom3Sat() {
+        Random rnd = new Random(5);
+        int variables = 12;
+        for (int round = 0; round < 200; round++) {
+            List<int[]> clauses = new ArrayList<>();
+            CdclSolver solver = solverWith(variables);
+            // around the phase transition, so both answers are common
+            for (int i = 0; i < 51; i++) {
+                int[] clause = new int[3];
+                for (int k = 0; k < 3; k++) {
+                    clause[k] = (rnd.nextInt(variables) + 1) * (rnd.nextBoolean() ? 1 : -1);
+                }
+                clauses.add(clause);
+                solver.addClause(clause);
+            }
+            CdclSolver.Result result = solver.solve();
+            assertEquals(bruteForce(variables, clauses), result == CdclSolver.Result.SAT);
+            if (result == CdclSolver.Result.SAT) assertTrue(satisfies(solver, clauses));
+        }
+    }
+
+    @Test
+    void pigeonholeIsUnsat() {
+        // 8 pigeons into 7 holes; variable (p, h) says pigeon p sits in hole h
+        int pigeons = 8;
+        int holes = 7;
+        CdclSolver solver = solverWith(pigeons * holes);
+        for (int p = 0; p < pigeons; p++) {
+            int[] somewhere = new int[holes];
+            for (int h = 0; h < holes; h++) somewhere[h] = p * holes + h + 1;
+            solver.addClause(somewhere);
+        }
+        for (int h = 0; h < holes; h++) {
+            for (int p = 0; p < pigeons; p++) {
+                for (int q = p + 1; q < pigeons; q++) {
+                    solver.addClause(-(p * holes + h + 1), -(q * holes + h + 1));
+                }
+            }
+        }
+        assertEquals(CdclSolver.Result.UNSAT, solver.solve());
+        assertTrue(solver.getConflicts() > 0 && solver.getRestarts() > 0);
+    }
+
+    @Test
+    void conflictLimitGivesUnknown() {
+        CdclSolver solver = solverWith(9 * 8);
+        for (int p = 0; p < 9; p++) {
+            int[] somewhere = new int[8];
+            for (int h = 0; h < 8; h++) somewhere[h] = p * 8 + h + 1;
+            solver.addClause(somewhere);
+        }
+        for (int h = 0; h < 8; h++) {
+            for (int p = 0; p < 9; p++) {
+                for (int q = p + 1; q < 9; q++) solver.addClause(-(p * 8 + h + 1), -(q * 8 + h + 1));
+            }
+        }
+        solver.setLimits(50, Duration.ofSeconds(10));
+        assertEquals(CdclSolver.Result.UNKNOWN, solver.solve());
+    }
+
+    @Test
+    void assumptionsOnlyHoldForOneCall() {
+        CdclSolver solver = solverWith(4);
+        solver.addClause(-1, 2);
+        solver.addClause(-2, 3);
+        solver.addClause(-3, -4);
+
+        assertEquals(CdclSolver.Result.UNSAT, solver.solve(1, 4));
+        int[] failed = solver.getFailedAssumptions();
+        Arrays.sort(failed);
+        assertArrayEquals(new int[] { 1, 4 }, failed);
+
+        assertEquals(CdclSolver.Result.SAT, solver.solve(1));
+        assertTrue(solver.modelValue(3));
+        assertFalse(solver.modelValue(4));
+        assertEquals(CdclSolver.Result.SAT, solver.solve(4));
+        assertFalse(solver.modelValue(1));
+    }
+
+    @Test
+    void clausesCanBeAddedBetweenCalls() {
+        CdclSolver solver = solverWith(2);
+        solver.addClause(1, 2);
+        assertEquals(CdclSolver.Result.SAT, solver.solve());
+        solver.addClause(-1);
+        assertEquals(CdclSolver.Result.SAT, solver.solve());
+        assertTrue(solver.modelValue(2));
+        assertFalse(solver.addClause(-2));
+        assertEquals(CdclSolver.Result.UNSAT, solver.solve());
+        assertEquals(0, solver.getFailedAssumptions().length);
+    }
+
+    @Test
+    void lubySequence() {
+        long[] expected = { 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8 };
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], CdclSolver.luby(i));
+        }
+    }
+}
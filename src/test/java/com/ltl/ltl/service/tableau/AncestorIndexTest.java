@@ -0,0 +1,93 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.tableau.TableauEntry;
+import com.ltl.ltl.model.tableau.TableauNode;
+import com.ltl.ltl.service.AstParser;
+import com.ltl.ltl.service.syntax.Lexer;
+import com.ltl.ltl.service.syntax.ParseException;
+
+class AncestorIndexTest {
+
+    private static TableauNode nodeFrom(String s) throws ParseException {
+        IFormula f = new AstParser(new Lexer(s)).parseFormula();
+        List<TableauEntry> entries = new ArrayList<>();
+        entries.add(new TableauEntry(f));
+        return new TableauNode(entries);
+    }
+
+    @Test
+    void enterAndExitFollowTheSearchPath() throws ParseException {
+        TableauNode root = nodeFrom("Ga");
+        TableauNode child = TableauProof.expandNodeNoBranching(root, 0);
+        AncestorIndex index = new AncestorIndex();
+
+        index.enter(root, 0);
+        index.enter(child, 1);
+        assertTrue(index.contains(root.getLabel()));
+        assertSame(child, index.withLabel(child.getLabel()).get(0).node());
+
+        index.exit(child);
+        assertFalse(index.contains(child.getLabel()));
+        assertTrue(index.contains(root.getLabel()));
+        index.exit(root);
+        assertTrue(index.withLabel(root.getLabel()).isEmpty());
+    }
+
+    @Test
+    void repeatedLabelsAreListedShallowestFirst() throws ParseException {
+        TableauNode root = nodeFrom("Ga");
+        AncestorIndex index = new AncestorIndex();
+        index.enter(root, 0);
+        index.enter(root, 3);
+        assertEquals(List.of(0, 3), index.withLabel(root.getLabel()).stream().map(AncestorIndex.Ancestor::depth).toList());
+
+        AncestorIndex copy = index.copy();
+        index.exit(root);
+        assertEquals(2, copy.withLabel(root.getLabel()).size(), "copies are independent");
+    }
+
+    @Test
+    void aboveIndexesTheParentChain() throws ParseException {
+        TableauNode root = nodeFrom("Ga");
+        TableauNode child = TableauProof.expandNodeNoBranching(root, 0);
+        TableauNode grandChild = TableauProof.nextStepNode(child);
+
+        AncestorIndex index = AncestorIndex.above(grandChild);
+        assertEquals(-2, index.withLabel(root.getLabel()).get(0).depth());
+        assertEquals(-1, index.withLabel(child.getLabel()).get(0).depth());
+        // the next state of G a has the label of the root again
+        assertTrue(index.contains(grandChild.getLabel()));
+    }
+
+    @Test
+    void loopFulfilmentMatchesThePathScan() throws ParseException {
+        for (String s : new String[] { "G(a|b)&(aUc)", "GFa&GFb&G(!a|!b)", "G((a&X!a)|(!a&Xa))&GFa", "G!b&XFb",
+                "(aUb)&G(b>X(aUb))" }) {
+            TableauNode root = nodeFrom(s);
+            new TableauTreeConstruction(root).build();
+            compareAlongTree(root, new AncestorIndex(), 0, s);
+        }
+    }
+
+    // walks the finished tree like the search does and compares with the static parent-chain check
+    private static void compareAlongTree(TableauNode node, AncestorIndex index, int depth, String formula) {
+        boolean expected = TableauProof.hasAncestorWithSameEntriesAndFulfilledNextEventualities(node);
+        assertEquals(expected, index.anyLoopFulfilled(node, index.withLabel(node.getLabel())),
+                () -> "loop check differs in the tableau of " + formula);
+        index.enter(node, depth);
+        for (TableauNode child : node.getChildren()) {
+            compareAlongTree(child, index, depth + 1, formula);
+        }
+        index.exit(node);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.tableau.Closure;
+import com.ltl.ltl.model.tableau.TableauEntry;
+import com.ltl.ltl.model.tableau.TableauNode;
+import com.ltl.ltl.service.AstParser;
+import com.ltl.ltl.service.syntax.Lexer;
+import com.ltl.ltl.service.syntax.ParseException;
+
+class ExpansionPolicyTest {
+
+    private static TableauNode nodeFrom(String s) throws ParseException {
+        IFormula f = new AstParser(new Lexer(s)).parseFormula();
+        List<TableauEntry> entries = new ArrayList<>();
+        entries.add(new TableauEntry(f));
+        return new TableauNode(entries);
+    }
+
+    private static TableauProof proof(String s, ExpansionStrategy strategy) throws ParseException {
+        TableauProof proof = new TableauProof(nodeFrom(s));
+        proof.setStrategy(strategy);
+        return proof;
+    }
+
+    @Test
+    void parseAcceptsRequestNames() {
+        assertEquals(ExpansionPolicy.ALPHA_FIRST, ExpansionPolicy.parse("alpha-first"));
+        assertEquals(ExpansionPolicy.FEWEST_NEW_ATOMS, ExpansionPolicy.parse(" fewest_new_atoms "));
+        assertEquals(ExpansionPolicy.MOST_CONSTRAINED, ExpansionPolicy.parse("MOST-CONSTRAINED"));
+        assertThrows(IllegalArgumentException.class, () -> ExpansionPolicy.parse("random"));
+    }
+
+    @Test
+    void alphaFirstPicksAConjunctionBeforeADisjunction() throws ParseException {
+        TableauNode node = TableauProof.expandNodeNoBranching(nodeFrom("(a|b)&(c&!a)"), 0);
+        Closure closure = node.getClosure();
+        EnumSet<Closure.Kind> kinds = EnumSet.of(Closure.Kind.AND, Closure.Kind.OR);
+
+        assertEquals(Closure.Kind.OR, closure.kind(ExpansionPolicy.FIRST.select(node, kinds)));
+        assertEquals(Closure.Kind.AND, closure.kind(ExpansionPolicy.ALPHA_FIRST.select(node, kinds)));
+        assertEquals(-1, ExpansionPolicy.ALPHA_FIRST.select(node, EnumSet.of(Closure.Kind.UNTIL)));
+    }
+
+    @Test
+    void allPoliciesAgreeOnVerdicts() throws ParseException {
+        String[] sat = { "a", "Xb", "G(a|b)&(aUc)", "G(a|b)&G(a|c)&(!aU!b)", "(aRb)&!a&b" };
+        String[] unsat = { "a&!a", "(aUb)&G!b", "(aRb)&!b", "((a|b)|(a|b))&((b|c)|(b|c))&((a|c)|(a|c))&!a&!b&!c" };
+        for (ExpansionPolicy policy : ExpansionPolicy.values()) {
+            for (String s : sat) {
+                TableauProof proof = proof(s, policy);
+                assertTrue(proof.sat(proof.getRoot()), () -> policy + " on " + s);
+            }
+            for (String s : unsat) {
+                TableauProof proof = proof(s, policy);
+                assertFalse(proof.sat(proof.getRoot()), () -> policy + " on " + s);
+            }
+        }
+    }
+
+    @Test
+    void treeConstructionRecordsNodeCountsPerPolicy() throws ParseException {
+        String s = "((a|b)|(a|b))&((b|c)|(b|c))&((a|c)|(a|c))&!a&!b&!c";
+        TableauTreeConstruction first = new TableauTreeConstruction(nodeFrom(s));
+        first.build();
+        TableauTreeConstruction constrained = new TableauTreeConstruction(nodeFrom(s));
+        constrained.setStrategy(ExpansionPolicy.MOST_CONSTRAINED);
+        constrained.build();
+
+        TableauStatistics a = first.getStatistics();
+        TableauStatistics b = constrained.getStatistics();
+        assertTrue(a.getNodes() > 0 && a.getBranchingRules() > 0, a::toString);
+        assertTrue(b.getNodes() < a.getNodes(), () -> b + " vs " + a);
+    }
+}
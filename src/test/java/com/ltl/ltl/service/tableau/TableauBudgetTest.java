@@ -0,0 +1,155 @@
+package com.ltl.ltl.service.tableau;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.tableau.TableauEntry;
+import com.ltl.ltl.model.tableau.TableauNode;
+import com.ltl.ltl.service.AstParser;
+import com.ltl.ltl.service.syntax.Lexer;
+import com.ltl.ltl.service.syntax.ParseException;
+
+class TableauBudgetTest {
+
+    private static final String WIDE_UNSAT = "((a|b)|(a|b))&((b|c)|(b|c))&((a|c)|(a|c))&!a&!b&!c";
+
+    private static TableauNode nodeFrom(String s) throws ParseException {
+        IFormula f = new AstParser(new Lexer(s)).parseFormula();
+        List<TableauEntry> entries = new ArrayList<>();
+        entries.add(new TableauEntry(f));
+        return new TableauNode(entries);
+    }
+
+    private static TableauProof proof(String s, TableauBudget budget) throws ParseException {
+        TableauProof proof = new TableauProof(nodeFrom(s));
+        proof.setBudget(budget);
+        return proof;
+    }
+
+    @Test
+    void unlimitedBudgetDecides() throws ParseException {
+        TableauProof sat = proof("G(a|b)&(aUc)", TableauBudget.UNLIMITED);
+        assertEquals(TableauVerdict.SAT, sat.decide(sat.getRoot()));
+        TableauProof unsat = proof(WIDE_UNSAT, TableauBudget.UNLIMITED);
+        assertEquals(TableauVerdict.UNSAT, unsat.decide(unsat.getRoot()));
+        assertNull(unsat.getExhaustion());
+    }
+
+    @Test
+    void nodeBudgetGivesUnknown() throws ParseException {
+        TableauProof proof = proof(WIDE_UNSAT, new TableauBudget(10, Integer.MAX_VALUE, null));
+        proof.setMemo(null);
+        assertEquals(TableauVerdict.UNKNOWN, proof.decide(proof.getRoot()));
+        assertEquals(TableauBudget.Reason.NODES, proof.getExhaustion());
+        assertEquals(10, proof.getStatistics().getNodes());
+
+        TableauProof iterative = proof(WIDE_UNSAT, new TableauBudget(10, Integer.MAX_VALUE, null));
+        assertEquals(false, iterative.satIterative(iterative.getRoot()));
+        assertEquals(TableauBudget.Reason.NODES, iterative.getExhaustion());
+    }
+
+    @Test
+    void depthBudgetOnlyCutsDeepBranches() throws ParseException {
+        // the left alternative is satisfiable at once, the right one needs a long chain of rules
+        TableauProof shallow = proof("a|(b&(c&(b&(c&(b&c)))))", new TableauBudget(1000, 2, null));
+        assertEquals(TableauVerdict.SAT, shallow.decide(shallow.getRoot()));
+
+        TableauProof deep = proof(WIDE_UNSAT, new TableauBudget(1000, 3, null));
+        assertEquals(TableauVerdict.UNKNOWN, deep.decide(deep.getRoot()));
+        assertEquals(TableauBudget.Reason.DEPTH, deep.getExhaustion());
+    }
+
+    @Test
+    void deadlineStopsTheSearch() throws ParseException {
+        TableauProof proof = proof(WIDE_UNSAT, new TableauBudget(Long.MAX_VALUE, Integer.MAX_VALUE, Duration.ZERO));
+        proof.setMemo(null);
+        assertEquals(TableauVerdict.UNKNOWN, proof.decide(proof.getRoot()));
+        assertEquals(TableauBudget.Reason.TIME, proof.getExhaustion());
+    }
+
+    @Test
+    void cutSubtreesAreNotMemoized() throws ParseException {
+        TableauMemo memo = new TableauMemo();
+        TableauProof limited = proof(WIDE_UNSAT.replace("&!b&!c", ""), new TableauBudget(5, Integer.MAX_VALUE, null));
+        limited.setMemo(memo);
+        limited.decide(limited.getRoot());
+
+        TableauProof full = proof(WIDE_UNSAT.replace("&!b&!c", ""), TableauBudget.UNLIMITED);
+        full.setMemo(memo);
+        assertEquals(TableauVerdict.SAT, full.decide(full.getRoot()));
+    }
+
+    @Test
+    void treeConstructionReturnsAPartialTree() throws ParseException {
+        TableauTreeConstruction builder = new TableauTreeConstruction(nodeFrom("G(a|b)&(aUc)"));
+        builder.setBudget(new TableauBudget(50, Integer.MAX_VALUE, null));
+        TableauNode root = builder.build();
+
+        assertEquals(TableauBudget.Reason.NODES, builder.getExhaustion());
+        assertEquals(50, builder.getStatistics().getNodes());
+        int size = 0;
+        boolean undecidedLeaf = false;
+        Deque<TableauNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            TableauNode node = stack.pop();
+            size++;
+            if (node.getChildren().isEmpty() && node.getIsClosed() == null) undecidedLeaf = true;
+            node.getChildren().forEach(stack::push);
+        }
+        assertTrue(size <= 60, "partial tree has " + size + " nodes");
+        assertTrue(undecidedLeaf, "cut nodes stay undecided leaves");
+    }
+
+    @Test
+    void graphConstructionReturnsAPartialGraph() throws ParseException {
+        TableauGraphConstruction builder = new TableauGraphConstruction(nodeFrom(WIDE_UNSAT));
+        builder.setBudget(new TableauBudget(10, Integer.MAX_VALUE, null));
+        TableauGraph graph = builder.build();
+
+        assertEquals(TableauVerdict.UNKNOWN, graph.getVerdict());
+        assertEquals(TableauBudget.Reason.NODES, graph.getExhaustion());
+        assertNull(graph.getRoot().node().getIsClosed(), "the root's component was not finished");
+        assertTrue(graph.getNodes().size() <= 20, "partial graph has " + graph.getNodes().size() + " nodes");
+        assertTrue(graph.getNodes().stream().anyMatch(n -> n.kind() == TableauGraph.Kind.UNEXPANDED));
+
+        TableauGraphConstruction full = new TableauGraphConstruction(nodeFrom(WIDE_UNSAT));
+        assertEquals(TableauVerdict.UNSAT, full.build().getVerdict());
+        assertNull(full.getExhaustion());
+    }
+
+    @Test
+    void graphDepthBudgetOnlyCutsDeepPaths() throws ParseException {
+        TableauGraphConstruction shallow = new TableauGraphConstruction(nodeFrom("a|(b&(c&(b&(c&(b&c)))))"));
+        shallow.setBudget(new TableauBudget(1000, 2, null));
+        assertEquals(TableauVerdict.SAT, shallow.build().getVerdict());
+
+        TableauGraphConstruction deep = new TableauGraphConstruction(nodeFrom(WIDE_UNSAT));
+        deep.setBudget(new TableauBudget(1000, 3, null));
+        assertEquals(TableauVerdict.UNKNOWN, deep.build().getVerdict());
+        assertEquals(TableauBudget.Reason.DEPTH, deep.getExhaustion());
+    }
+
+    @Test
+    void graphDeadlineStopsTheConstruction() throws ParseException {
+        TableauGraphConstruction late = new TableauGraphConstruction(nodeFrom(WIDE_UNSAT));
+        late.setBudget(new TableauBudget(Long.MAX_VALUE, Integer.MAX_VALUE, Duration.ZERO));
+        assertEquals(TableauVerdict.UNKNOWN, late.build().getVerdict());
+        assertEquals(TableauBudget.Reason.TIME, late.getExhaustion());
+    }
+
+    @Test
+    void limitsMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new TableauBudget(0, 10, null));
+    }
+}
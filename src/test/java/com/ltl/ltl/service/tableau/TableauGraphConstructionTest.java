@@ -0,0 +1,92 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.tableau.TableauEntry;
+import com.ltl.ltl.model.tableau.TableauNode;
+import com.ltl.ltl.service.AstParser;
+import com.ltl.ltl.service.syntax.Lexer;
+import com.ltl.ltl.service.syntax.ParseException;
+
+class TableauGraphConstructionTest {
+
+    private static TableauNode nodeFrom(String s) throws ParseException {
+        IFormula f = new AstParser(new Lexer(s)).parseFormula();
+        List<TableauEntry> entries = new ArrayList<>();
+        entries.add(new TableauEntry(f));
+        return new TableauNode(entries);
+    }
+
+    private static TableauGraph graph(String s) throws ParseException {
+        return new TableauGraphConstruction(nodeFrom(s)).build();
+    }
+
+    @Test
+    void satisfiableFormulas() throws ParseException {
+        for (String s : new String[] { "a", "XFb", "G(a|b)&(aUc)", "G(a>X!a)&GFa", "GFa&GFb&G(!a|!b)",
+                "G((a&X!a)|(!a&Xa))&GFa", "(aRb)&!a&b" }) {
+            assertTrue(graph(s).isSatisfiable(), s);
+        }
+    }
+
+    @Test
+    void unsatisfiableFormulas() throws ParseException {
+        for (String s : new String[] { "a&!a", "G!b&XFb", "GFa&FG!a", "(aUb)&G!b", "Fa&G!a", "(aRb)&!b" }) {
+            assertFalse(graph(s).isSatisfiable(), s);
+        }
+    }
+
+    @Test
+    void repeatedLabelsAreSharedNodes() throws ParseException {
+        String s = "G(a|b)&F!a&F!b";
+        TableauGraph graph = graph(s);
+        assertTrue(graph.isSatisfiable());
+
+        Set<String> labels = new HashSet<>();
+        for (TableauGraph.Node node : graph.getNodes()) {
+            String key = node.node().getLabel() + "/" + node.node().getChecked();
+            assertTrue(labels.add(key), () -> "label stored twice: " + key);
+        }
+
+        TableauNode tree = nodeFrom(s);
+        new TableauTreeConstruction(tree).build();
+        assertTrue(graph.getNodes().size() < count(tree),
+                () -> graph.getNodes().size() + " graph nodes vs " + count(tree) + " tree nodes");
+    }
+
+    @Test
+    void loopsBecomeBackEdgesWithinOneComponent() throws ParseException {
+        TableauGraph graph = graph("Ga");
+        assertTrue(graph.isSatisfiable());
+        boolean found = false;
+        for (TableauGraph.Node node : graph.getNodes()) {
+            for (int target : node.backEdges()) {
+                found = true;
+                assertEquals(node.scc(), graph.getNode(target).scc());
+            }
+        }
+        assertTrue(found, "G a loops back to its first state");
+    }
+
+    private static int count(TableauNode root) {
+        int n = 0;
+        Deque<TableauNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            n++;
+            stack.pop().getChildren().forEach(stack::push);
+        }
+        return n;
+    }
+}
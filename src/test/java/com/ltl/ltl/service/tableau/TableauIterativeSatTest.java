@@ -0,0 +1,88 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.FormulaFactory;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.Symbol;
+import com.ltl.ltl.model.tableau.TableauEntry;
+import com.ltl.ltl.model.tableau.TableauNode;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class TableauIterativeSatTest {
+
+    private static TableauNode nodeFrom(IFormula f) {
+        List<TableauEntry> entries = new ArrayList<>();
+        entries.add(new TableauEntry(f));
+        return new TableauNode(entries);
+    }
+
+    private static boolean recursive(IFormula f) {
+        TableauNode root = nodeFrom(f);
+        return new TableauProof(root).sat(root);
+    }
+
+    private static boolean iterative(IFormula f) {
+        TableauNode root = nodeFrom(f);
+        return new TableauProof(root).satIterative(root);
+    }
+
+    @Test
+    void sameVerdictsAsRecursiveSat() throws ParseException {
+        String[] fixed = { "a", "a&!a", "a|!a", "(a|b)&!a&!b", "Ga&G!a", "G(a|b)&!a", "G(a|b)&(aUc)",
+                "Ga&(bU!a)", "(aRb)&!a&b", "(aRb)&!b", "Xa&!a", "XXa&!a&X!a", "G!b&XFb", "(aUb)&(aRb)",
+                "(bRc)&(a&!a)" };
+        for (String s : fixed) {
+            IFormula f = parse(s);
+            assertEquals(recursive(f), iterative(f), () -> "verdict mismatch for " + s);
+        }
+        Random rnd = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            String s = randomFormula(rnd, 4);
+            IFormula f = parse(s);
+            assertEquals(recursive(f), iterative(f), () -> "verdict mismatch for " + s);
+        }
+    }
+
+    @Test
+    void deepTableauRunsOnSmallThreadStack() throws Exception {
+        // a & X a & X X a & ... needs one rule application per conjunct and per Next
+        int n = 1000;
+        IFormula next = FormulaFactory.atom(Symbol.A);
+        IFormula conj = next;
+        for (int i = 0; i < n; i++) {
+            next = FormulaFactory.next(next);
+            conj = FormulaFactory.and(next, conj);
+        }
+        TableauNode root = nodeFrom(conj);
+        TableauProof proof = new TableauProof(root);
+
+        AtomicReference<Boolean> result = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread worker = new Thread(null, () -> {
+            try {
+                result.set(proof.satIterative(root));
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        }, "small-stack", 128 * 1024);
+        worker.start();
+        worker.join();
+
+        assertNull(failure.get(), () -> "iterative search failed: " + failure.get());
+        assertTrue(result.get());
+        assertTrue(proof.getStatistics().getPeakStackDepth() > n,
+                "every rule application is one frame: " + proof.getStatistics());
+    }
+}
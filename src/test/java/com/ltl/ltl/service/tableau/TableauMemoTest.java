@@ -0,0 +1,99 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.tableau.TableauEntry;
+import com.ltl.ltl.model.tableau.TableauNode;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class TableauMemoTest {
+
+    // the search without memo is exponential on a few of the random formulas
+    private static final TableauBudget BUDGET = new TableauBudget(200_000, Integer.MAX_VALUE, null);
+
+    private static TableauNode nodeFrom(IFormula f) {
+        List<TableauEntry> entries = new ArrayList<>();
+        entries.add(new TableauEntry(f));
+        return new TableauNode(entries);
+    }
+
+    private static TableauProof proof(IFormula f, boolean memo) {
+        TableauProof proof = new TableauProof(nodeFrom(f));
+        if (!memo) proof.setMemo(null);
+        return proof;
+    }
+
+    @Test
+    void repeatedBranchesAreAnsweredFromTheMemo() throws ParseException {
+        IFormula f = parse("((a|b)|(a|b))&((b|c)|(b|c))&((a|c)|(a|c))&!a&!b&!c");
+        TableauProof plain = proof(f, false);
+        TableauProof memo = proof(f, true);
+
+        assertFalse(plain.sat(plain.getRoot()));
+        assertFalse(memo.sat(memo.getRoot()));
+        assertTrue(memo.getStatistics().getMemoHits() > 0, memo.getStatistics()::toString);
+        assertTrue(memo.getStatistics().getNodes() < plain.getStatistics().getNodes(),
+                () -> memo.getStatistics() + " vs " + plain.getStatistics());
+        assertEquals(0, plain.getStatistics().getMemoHits() + plain.getStatistics().getMemoMisses());
+    }
+
+    @Test
+    void sameVerdictsWithAndWithoutMemo() throws ParseException {
+        Random rnd = new Random(7);
+        int undecided = 0;
+        for (int i = 0; i < 500; i++) {
+            String s = randomFormula(rnd, 5);
+            IFormula f = parse(s);
+            TableauProof plain = proof(f, false);
+            plain.setBudget(BUDGET);
+            TableauVerdict expected = plain.decide(plain.getRoot());
+            if (expected == TableauVerdict.UNKNOWN) {
+                undecided++;
+                continue;
+            }
+            TableauProof recursive = proof(f, true);
+            TableauProof iterative = proof(f, true);
+            assertEquals(expected, recursive.decide(recursive.getRoot()), () -> "sat with memo: " + s);
+            assertEquals(expected == TableauVerdict.SAT, iterative.satIterative(iterative.getRoot()),
+                    () -> "satIterative with memo: " + s);
+        }
+        assertTrue(undecided < 10, undecided + " formulas undecided");
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        TableauMemo memo = new TableauMemo(2);
+        TableauMemo.Key k1 = new TableauMemo.Key(bits(1), bits());
+        TableauMemo.Key k2 = new TableauMemo.Key(bits(2), bits());
+        TableauMemo.Key k3 = new TableauMemo.Key(bits(3), bits());
+        memo.put(k1, true, null);
+        memo.put(k2, false, null);
+        assertNotNull(memo.get(k1)); // k2 is now the least recently used
+        memo.put(k3, true, null);
+
+        assertEquals(2, memo.size());
+        assertNotNull(memo.get(k1));
+        assertNull(memo.get(k2));
+        assertNotNull(memo.get(k3));
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet b = new BitSet();
+        for (int id : ids) b.set(id);
+        return b;
+    }
+}
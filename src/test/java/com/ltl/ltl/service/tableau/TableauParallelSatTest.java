@@ -0,0 +1,84 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.tableau.TableauEntry;
+import com.ltl.ltl.model.tableau.TableauNode;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class TableauParallelSatTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdownNow();
+    }
+
+    private static TableauProof proof(IFormula f) {
+        List<TableauEntry> entries = new ArrayList<>();
+        entries.add(new TableauEntry(f));
+        return new TableauProof(new TableauNode(entries));
+    }
+
+    @Test
+    void sameVerdictsAsSequentialSat() throws ParseException {
+        Random rnd = new Random(11);
+        for (int i = 0; i < 400; i++) {
+            String s = randomFormula(rnd, 5);
+            IFormula f = parse(s);
+            TableauProof sequential = proof(f);
+            boolean expected = sequential.sat(sequential.getRoot());
+
+            TableauProof parallel = proof(f);
+            // fork at every branching node to exercise cancellation as much as possible
+            parallel.setParallelCutoff(Integer.MAX_VALUE, 0);
+            assertEquals(expected, parallel.satParallel(parallel.getRoot(), pool), () -> "parallel verdict for " + s);
+
+            TableauProof parallelNoMemo = proof(f);
+            parallelNoMemo.setMemo(null);
+            parallelNoMemo.setParallelCutoff(Integer.MAX_VALUE, 0);
+            assertEquals(expected, parallelNoMemo.satParallel(parallelNoMemo.getRoot(), pool),
+                    () -> "parallel verdict without memo for " + s);
+        }
+    }
+
+    @Test
+    void wideDisjunctions() throws ParseException {
+        TableauProof unsat = proof(parse("((a|b)|(a|b))&((b|c)|(b|c))&((a|c)|(a|c))&!a&!b&!c"));
+        unsat.setParallelCutoff(Integer.MAX_VALUE, 0);
+        assertFalse(unsat.satParallel(unsat.getRoot(), pool));
+
+        TableauProof sat = proof(parse("(a|b|c|!a|!b)&(a|b|c)&G(b|c)&!c"));
+        assertTrue(sat.satParallel(sat.getRoot(), pool));
+        assertTrue(sat.getStatistics().getNodes() > 0);
+    }
+
+    @Test
+    void cutoffZeroIsSequential() throws ParseException {
+        TableauProof sequential = proof(parse("G(a|b)&(aUc)&G(!c|X!a)"));
+        sequential.setParallelCutoff(0, 0);
+        TableauProof reference = proof(parse("G(a|b)&(aUc)&G(!c|X!a)"));
+        assertEquals(reference.sat(reference.getRoot()), sequential.satParallel(sequential.getRoot(), pool));
+        assertEquals(reference.getStatistics().getNodes(), sequential.getStatistics().getNodes());
+    }
+}
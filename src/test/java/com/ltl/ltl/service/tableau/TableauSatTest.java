@@ -226,4 +226,16 @@ class TableauSatTest {
         boolean sat = new TableauProof(root).sat(root);
         assertFalse(sat, "G(A) ∧ G(¬A) should be unsatisfiable");
     }
+
+    @Test
+    void sat_false_contradiction_not_hidden_by_sibling_branch() {
+        // (B R C) ∧ (A ∧ ¬A): exploring one branch of the Release must not mark the
+        // conjunction as already expanded in the sibling branch
+        TableauNode root = nodeFrom(
+            new Release(new AtomicProposition(Symbol.B), new AtomicProposition(Symbol.C)),
+            new And(new AtomicProposition(Symbol.A), new Not(new AtomicProposition(Symbol.A)))
+        );
+        boolean sat = new TableauProof(root).sat(root);
+        assertFalse(sat, "(B R C) ∧ (A ∧ ¬A) should be unsatisfiable in every branch");
+    }
 }
@@ -0,0 +1,80 @@
+package com.ltl.ltl.service.tableau;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.tableau.TableauEntry;
+import com.ltl.ltl.model.tableau.TableauNode;
+import com.ltl.ltl.service.AstParser;
+import com.ltl.ltl.service.syntax.Lexer;
+import com.ltl.ltl.service.syntax.ParseException;
+import com.ltl.ltl.service.tableau.TableauTrace.Event;
+import com.ltl.ltl.service.tableau.TableauTrace.TraceEvent;
+
+class TableauTraceTest {
+
+    private static TableauNode nodeFrom(String s) throws ParseException {
+        IFormula f = new AstParser(new Lexer(s)).parseFormula();
+        List<TableauEntry> entries = new ArrayList<>();
+        entries.add(new TableauEntry(f));
+        return new TableauNode(entries);
+    }
+
+    @Test
+    void disabledByDefaultAndRecordsNothing() throws ParseException {
+        TableauNode root = nodeFrom("G(a|b)&!a");
+        TableauProof proof = new TableauProof(root);
+        assertSame(TableauTrace.disabled(), proof.getTrace());
+        assertTrue(proof.sat(root));
+        assertFalse(proof.getTrace().isEnabled());
+        assertEquals(0, proof.getTrace().getRecorded());
+        assertTrue(proof.getTrace().getEvents().isEmpty());
+    }
+
+    @Test
+    void recordsRulesLoopsAndContradictions() throws ParseException {
+        TableauNode root = nodeFrom("G(a|b)&!a");
+        TableauProof proof = new TableauProof(root);
+        TableauTrace trace = TableauTrace.ringBuffer(1024);
+        proof.setTrace(trace);
+        assertTrue(proof.sat(root));
+
+        List<Event> events = trace.getEvents().stream().map(TraceEvent::event).toList();
+        assertTrue(events.contains(Event.RULE), events::toString);
+        assertTrue(events.contains(Event.BRANCH), events::toString);
+        assertTrue(events.contains(Event.CONTRADICTION), events::toString);
+        assertEquals(Event.LOOP_FULFILLED, events.get(events.size() - 1));
+        assertEquals(0, trace.getDropped());
+    }
+
+    @Test
+    void ringBufferKeepsTheNewestEvents() {
+        TableauTrace trace = TableauTrace.ringBuffer(3);
+        for (int i = 1; i <= 5; i++) {
+            trace.record(Event.RULE, i, null);
+        }
+        assertEquals(5, trace.getRecorded());
+        assertEquals(2, trace.getDropped());
+        List<Long> nodes = trace.getEvents().stream().map(TraceEvent::node).toList();
+        assertEquals(List.of(3L, 4L, 5L), nodes);
+        assertTrue(trace.dump().startsWith("# tableau trace: 5 events, 2 dropped"));
+    }
+
+    @Test
+    void treeConstructionRecordsUnfulfilledLoop() throws ParseException {
+        TableauNode root = nodeFrom("G!b&XFb");
+        TableauTreeConstruction builder = new TableauTreeConstruction(root);
+        TableauTrace trace = TableauTrace.ringBuffer(1024);
+        builder.setTrace(trace);
+        builder.build();
+        assertTrue(trace.getEvents().stream().anyMatch(e -> e.event() == Event.LOOP_UNFULFILLED
+                || e.event() == Event.CONTRADICTION));
+    }
+}
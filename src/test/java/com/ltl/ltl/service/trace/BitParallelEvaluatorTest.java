@@ -0,0 +1,87 @@
+package com.ltl.ltl.service.trace;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.ALL;
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+import static com.ltl.ltl.service.trace.TraceCheckerTest.holds;
+
+class BitParallelEvaluatorTest {
+
+    private static long[] randomTrace(Random rnd, int length) {
+        long[] trace = new long[length];
+        for (int i = 0; i < length; i++) trace[i] = rnd.nextInt(8);
+        return trace;
+    }
+
+    @Test
+    void columnsHoldTheValuations() {
+        long[] trace = randomTrace(new Random(1), 200);
+        TraceColumns columns = TraceColumns.of(trace);
+        for (int i = 0; i < trace.length; i++) assertEquals(trace[i], columns.get(i));
+        columns.set(130, 0);
+        assertEquals(0, columns.get(130));
+    }
+
+    @Test
+    void untilCarriesAcrossWords() throws ParseException {
+        // a at every step, b only at the last one: the carry has to cross three words
+        long[] trace = new long[190];
+        Arrays.fill(trace, 1);
+        trace[189] = 3;
+        assertTrue(new BitParallelEvaluator(parse("aUb")).holds(TraceColumns.of(trace)));
+        trace[70] = 0;
+        assertFalse(new BitParallelEvaluator(parse("aUb")).holds(TraceColumns.of(trace)));
+        assertTrue(new BitParallelEvaluator(parse("F(aUb)")).holds(TraceColumns.of(trace)));
+        assertFalse(new BitParallelEvaluator(parse("Ga")).holds(TraceColumns.of(trace)));
+        assertTrue(new BitParallelEvaluator(parse("G(a|Fb)")).holds(TraceColumns.of(trace)));
+    }
+
+    @Test
+    void everyStepOfEveryColumnAgreesWithTheDefinition() throws ParseException {
+        Random rnd = new Random(22);
+        for (int round = 0; round < 200; round++) {
+            long[] trace = randomTrace(rnd, 1 + rnd.nextInt(200));
+            IFormula formula = parse(randomFormula(rnd, 4, ALL));
+            BitParallelEvaluator evaluator = new BitParallelEvaluator(formula);
+            Subformulas subformulas = evaluator.getSubformulas();
+            long[][] columns = evaluator.evaluate(TraceColumns.of(trace));
+            for (int id = 0; id < subformulas.size(); id++) {
+                for (int i = 0; i < trace.length; i++) {
+                    boolean expected = holds(subformulas.formula(id), trace, i);
+                    assertEquals(expected, (columns[id][i >>> 6] >>> i & 1) != 0,
+                            subformulas.formula(id) + " at step " + i + " of " + formula);
+                }
+                // nothing past the last step
+                if ((trace.length & 63) != 0) assertEquals(0, columns[id][trace.length >>> 6] >>> trace.length);
+            }
+        }
+    }
+
+    @Test
+    void segmentsFromTheEndGiveTheWholeTrace() throws ParseException {
+        Random rnd = new Random(23);
+        for (int round = 0; round < 200; round++) {
+            long[] trace = randomTrace(rnd, 1 + rnd.nextInt(400));
+            String formula = randomFormula(rnd, 4, ALL);
+            BitParallelEvaluator evaluator = new BitParallelEvaluator(parse(formula));
+            int segment = 1 + rnd.nextInt(130);
+            boolean[] after = null;
+            for (int end = trace.length; end > 0; end -= segment) {
+                int from = Math.max(0, end - segment);
+                after = BitParallelEvaluator.first(evaluator.evaluate(TraceColumns.of(trace, from, end - from), after));
+            }
+            assertEquals(holds(parse(formula), trace, 0), after[evaluator.getSubformulas().root()], formula);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.ltl.ltl.service.trace;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ltl.ltl.model.AtomicProposition;
+import com.ltl.ltl.model.IFormula;
+import com.ltl.ltl.model.formulas.And;
+import com.ltl.ltl.model.formulas.Equiv;
+import com.ltl.ltl.model.formulas.Finally;
+import com.ltl.ltl.model.formulas.Globally;
+import com.ltl.ltl.model.formulas.Impl;
+import com.ltl.ltl.model.formulas.Next;
+import com.ltl.ltl.model.formulas.Not;
+import com.ltl.ltl.model.formulas.Or;
+import com.ltl.ltl.model.formulas.RImpl;
+import com.ltl.ltl.model.formulas.Release;
+import com.ltl.ltl.model.formulas.Until;
+import com.ltl.ltl.model.formulas.WeakNext;
+import com.ltl.ltl.service.syntax.ParseException;
+
+import static com.ltl.ltl.service.TestFormulas.ALL;
+import static com.ltl.ltl.service.TestFormulas.parse;
+import static com.ltl.ltl.service.TestFormulas.randomFormula;
+
+class TraceCheckerTest {
+
+    @TempDir
+    Path dir;
+
+    // LTLf straight from the definition
+    static boolean holds(IFormula f, long[] trace, int i) {
+        if (f instanceof AtomicProposition ap) return (trace[i] >>> ap.getSymbol().ordinal() & 1) != 0;
+        if (f instanceof Not n) return !holds(n.getFormula(), trace, i);
+        if (f instanceof And a) return holds(a.getLeft(), trace, i) && holds(a.getRight(), trace, i);
+        if (f instanceof Or o) return holds(o.getLeft(), trace, i) || holds(o.getRight(), trace, i);
+        if (f instanceof Impl imp) return !holds(imp.getLeft(), trace, i) || holds(imp.getRight(), trace, i);
+        if (f instanceof RImpl ri) return holds(ri.getLeft(), trace, i) || !holds(ri.getRight(), trace, i);
+        if (f instanceof Equiv eq) return holds(eq.getLeft(), trace, i) == holds(eq.getRight(), trace, i);
+        if (f instanceof Next x) return i + 1 < trace.length && holds(x.getFormula(), trace, i + 1);
+        if (f instanceof WeakNext w) return i + 1 == trace.length || holds(w.getFormula(), trace, i + 1);
+        if (f instanceof Until u) {
+            for (int j = i; j < trace.length; j++) {
+                if (holds(u.getRight(), trace, j)) return true;
+                if (!holds(u.getLeft(), trace, j)) return false;
+            }
+            return false;
+        }
+        if (f instanceof Release r) {
+            for (int j = i; j < trace.length; j++) {
+                if (!holds(r.getRight(), trace, j)) return false;
+                if (holds(r.getLeft(), trace, j)) return true;
+            }
+            return true;
+        }
+        if (f instanceof Finally fin) {
+            for (int j = i; j < trace.length; j++) {
+                if (holds(fin.getFormula(), trace, j)) return true;
+            }
+            return false;
+        }
+        if (f instanceof Globally g) {
+            for (int j = i; j < trace.length; j++) {
+                if (!holds(g.getFormula(), trace, j)) return false;
+            }
+            return true;
+        }
+        throw new IllegalArgumentException(f.toString());
+    }
+
+    private Path csv(String name, long[] trace) throws IOException {
+        StringBuilder text = new StringBuilder("time,A,b,C\n");
+        for (int i = 0; i < trace.length; i++) {
+            text.append(i).append(',').append(trace[i] & 1).append(",").append((trace[i] & 2) != 0 ? "true" : "f")
+                    .append(',').append((trace[i] & 4) != 0 ? "Y" : "").append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        return write(name, text.toString());
+    }
+
+    private Path jsonl(String name, long[] trace) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < trace.length; i++) {
+            text.append("{\"t\": ").append(i).append(", \"meta\": {\"x\": [1, \"}\"]}");
+            if ((trace[i] & 1) != 0) text.append(", \"a\": true");
+            text.append(", \"b\": ").append((trace[i] & 2) != 0 ? "1" : "null");
+            text.append(", \"c\": \"").append((trace[i] & 4) != 0 ? "yes" : "no").append("\"}\n");
+            if (i % 5 == 0) text.append('\n');
+        }
+        return write(name, text.toString());
+    }
+
+    private Path write(String name, String text) throws IOException {
+        return Files.write(dir.resolve(name), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void finiteTraceSemantics() throws IOException, ParseException {
+        // a, a, a&b
+        Path trace = csv("t.csv", new long[] { 1, 1, 3 });
+        assertTrue(new TraceChecker(parse("aUb")).check(trace).holds());
+        assertTrue(new TraceChecker(parse("Ga")).check(trace).holds());
+        assertTrue(new TraceChecker(parse("Fb")).check(trace).holds());
+        assertFalse(new TraceChecker(parse("XXXa")).check(trace).holds());
+        assertTrue(new TraceChecker(parse("XXWa")).check(trace).holds());
+        // at the last step X is false, so its negation holds
+        assertTrue(new TraceChecker(parse("XX!Xa")).check(trace).holds());
+        assertFalse(new TraceChecker(parse("Fc")).check(trace).holds());
+        assertTrue(new TraceChecker(parse("G(a>Fb)")).check(trace).holds());
+        assertEquals(3, new TraceChecker(parse("a")).check(trace).steps());
+    }
+
+    @Test
+    void agreesWithTheDefinitionOnRandomTraces() throws IOException, ParseException {
+        Random rnd = new Random(21);
+        for (int round = 0; round < 300; round++) {
+            long[] trace = new long[1 + rnd.nextInt(12)];
+            for (int i = 0; i < trace.length; i++) trace[i] = rnd.nextInt(8);
+            Path csv = csv("r" + round + ".csv", trace);
+            Path jsonl = jsonl("r" + round + ".jsonl", trace);
+            for (int k = 0; k < 10; k++) {
+                String formula = randomFormula(rnd, 4, ALL);
+                boolean expected = holds(parse(formula), trace, 0);
+                // tiny windows exercise lines that straddle two of them
+                assertEquals(expected, new TraceChecker(parse(formula), 16, 5).check(csv).holds(), formula);
+                assertEquals(expected, new TraceChecker(parse(formula), 128, 64).check(jsonl).holds(), formula);
+                assertEquals(expected, new TraceChecker(parse(formula)).check(jsonl).holds(), formula);
+            }
+        }
+    }
+
+    @Test
+    void checksFilesInParallel() throws IOException, ParseException {
+        Random rnd = new Random(5);
+        List<Path> files = new ArrayList<>();
+        List<Boolean> expected = new ArrayList<>();
+        IFormula formula = parse("G(a>X(bRc))");
+        for (int i = 0; i < 20; i++) {
+            long[] trace = new long[1 + rnd.nextInt(2000)];
+            for (int s = 0; s < trace.length; s++) trace[s] = rnd.nextInt(8) | (rnd.nextInt(4) == 0 ? 0 : 4);
+            files.add(i % 2 == 0 ? csv(i + ".csv", trace) : jsonl(i + ".jsonl", trace));
+            expected.add(holds(formula, trace, 0));
+        }
+        List<TraceChecker.TraceResult> results = new TraceChecker(formula, 256, 100).checkAll(files, 4);
+        for (int i = 0; i < files.size(); i++) {
+            assertEquals(files.get(i), results.get(i).file());
+            assertEquals(expected.get(i), results.get(i).holds());
+            assertTrue(results.get(i).stepsPerSecond() > 0);
+        }
+    }
+
+    @Test
+    void rejectsBadTraces() throws IOException, ParseException {
+        TraceChecker checker = new TraceChecker(parse("Fa"));
+        assertThrows(IOException.class, () -> checker.check(write("empty.csv", "a,b\n")));
+        assertThrows(IOException.class, () -> checker.check(write("value.csv", "a,b\n1,maybe\n")));
+        assertThrows(IOException.class, () -> checker.check(write("columns.csv", "a,b\n1\n")));
+        assertThrows(IOException.class, () -> checker.check(write("object.jsonl", "[1]\n")));
+        assertThrows(IOException.class, () -> checker.check(write("open.jsonl", "{\"a\": 1\n")));
+        assertThrows(IllegalArgumentException.class, () -> checker.check(write("trace.txt", "a\n1\n")));
+        Path longLine = write("long.jsonl", "{\"a\": 1, \"padding\": \"" + "x".repeat(100) + "\"}\n{\"a\": 0}\n");
+        assertThrows(IOException.class, () -> new TraceChecker(parse("Fa"), 32, 64).check(longLine));
+        assertThrows(IOException.class, () -> checker.checkAll(List.of(longLine, dir.resolve("missing.csv")), 2));
+    }
+}
@@ -0,0 +1,69 @@
+package com.ltl.ltl.service.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentLongSetTest {
+
+    @Test
+    void addsEachKeyOnce() throws InterruptedException {
+        ConcurrentLongSet set = new ConcurrentLongSet(4096);
+        int[] added = new int[4];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                for (long key = 0; key < 3000; key++) {
+                    if (set.add(key << 16)) added[index]++;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(3000, added[0] + added[1] + added[2] + added[3]);
+        assertEquals(3000, set.size());
+        assertTrue(set.contains(2999L << 16));
+        assertFalse(set.contains(3000L << 16));
+    }
+
+    @Test
+    void growsWhileOthersLookUp() throws InterruptedException {
+        ConcurrentLongSet set = new ConcurrentLongSet(1 << 20);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long offset = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (long key = offset; key < 200_000; key += 4) {
+                        assertTrue(set.add(key));
+                        // a key is there from the moment it was added, through every doubling
+                        assertTrue(set.contains(key));
+                        assertTrue(set.contains(key / 2 / 4 * 4 + offset));
+                    }
+                } catch (Throwable ex) {
+                    failure.compareAndSet(null, ex);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        assertEquals(200_000, set.size());
+
+        // the table for four keys has eight slots, and then no more
+        ConcurrentLongSet small = new ConcurrentLongSet(4);
+        for (long key = 0; key < 8; key++) assertTrue(small.add(key));
+        assertThrows(IllegalStateException.class, () -> small.add(8));
+    }
+}
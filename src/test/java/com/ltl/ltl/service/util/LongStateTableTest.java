@@ -0,0 +1,64 @@
+package com.ltl.ltl.service.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class LongStateTableTest {
+
+    @Test
+    void keepsFlagsWhileGrowing() {
+        LongStateTable table = new LongStateTable(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random rnd = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            // packed states share most of their bits
+            long key = ((long) rnd.nextInt(50_000) << 32) | rnd.nextInt(4);
+            int bits = 1 << rnd.nextInt(3);
+            assertEquals(!expected.containsKey(key), table.set(key, bits));
+            expected.merge(key, bits, (a, b) -> a | b);
+        }
+        assertEquals(expected.size(), table.size());
+        expected.forEach((key, bits) -> assertEquals(bits, table.get(key)));
+        assertEquals(0, table.get(1L << 40));
+    }
+
+    @Test
+    void clearingFlagsKeepsTheState() {
+        LongStateTable table = new LongStateTable(16);
+        assertTrue(table.set(0, 3));
+        table.clear(0, 2);
+        assertEquals(1, table.get(0));
+        table.clear(0, 1);
+        assertTrue(table.contains(0));
+        assertFalse(table.set(0, 4));
+        assertEquals(1, table.size());
+        assertThrows(IllegalArgumentException.class, () -> table.set(-1, 1));
+    }
+
+    @Test
+    void removesStatesWithoutLosingTheirNeighbours() {
+        LongStateTable table = new LongStateTable(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random rnd = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            long key = rnd.nextInt(2_000);
+            if (rnd.nextBoolean()) {
+                table.set(key, 1);
+                expected.put(key, 1);
+            } else {
+                assertEquals(expected.remove(key) != null, table.remove(key));
+            }
+        }
+        assertEquals(expected.size(), table.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertEquals(expected.containsKey(key), table.contains(key));
+        }
+    }
+}